@@ -44,12 +44,14 @@ public class CustomizationService {
     private CommonUploadLogger logger;
     private Map<String, Map<String, String>> subtypeCache;
     private Map<String, Map<String, String>> fieldCache;
+    private Map<String, Boolean> versioningCache;
 
     public CustomizationService(RestClient client, CommonUploadLogger logger) {
         this.client = client;
         this.logger = logger;
         subtypeCache = new HashMap<>();
         fieldCache = new HashMap<>();
+        versioningCache = new HashMap<>();
     }
 
     public String getRunSubtypeIdByTestInstance(String testInstanceSubtypeId) {
@@ -128,6 +130,10 @@ public class CustomizationService {
     }
 
     public boolean isVersioningEnabled(String entityName) {
+        Boolean versioningEnabled = versioningCache.get(entityName);
+        if (versioningEnabled != null) {
+            return versioningEnabled;
+        }
         String suffix = String.format("customization/entities/%s", entityName);
         String url = client.buildRestRequest(suffix);
         Response response = client.httpGet(
@@ -139,7 +145,9 @@ public class CustomizationService {
             logger.log(String.format("INFO: -- Get Entity Resource Descriptor success. [%s]", entityName));
             Document document = XPathUtils.getDocument(response.toString());
             Element element = (Element) document.getElementsByTagName("SupportsVC").item(0);
-            return "true".equals(element.getTextContent());
+            versioningEnabled = "true".equals(element.getTextContent());
+            versioningCache.put(entityName, versioningEnabled);
+            return versioningEnabled;
         } else {
             logger.log("ERR: Get entities failed from: " + url);
             logger.log("ERR: " + response.getFailure());
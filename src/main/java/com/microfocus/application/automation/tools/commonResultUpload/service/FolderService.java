@@ -35,12 +35,30 @@ public class FolderService {
 
     private static final String FOLDER_SEPERATOR = "\\";
     private RestService restService;
+    // Folders resolved during this upload, by prefix, parent id and path
+    private Map<String, Map<String, String>> pathCache;
+    // Sub folders read during this upload, by prefix and parent id
+    private Map<String, List<Map<String, String>>> subFolderCache;
 
     public FolderService(RestService restService) {
         this.restService = restService;
+        pathCache = new HashMap<>();
+        subFolderCache = new HashMap<>();
     }
 
     public Map<String, String> createOrFindPath(String prefix, String parentId, String path) {
+        String key = String.format("%s|%s|%s", prefix, parentId, path);
+        Map<String, String> folder = pathCache.get(key);
+        if (folder == null) {
+            folder = resolvePath(prefix, parentId, path);
+            if (folder != null) {
+                pathCache.put(key, folder);
+            }
+        }
+        return folder;
+    }
+
+    private Map<String, String> resolvePath(String prefix, String parentId, String path) {
         List<Map<String, String>> folders = new ArrayList<Map<String, String>>();
         StringTokenizer tokenizer = new StringTokenizer(path, FOLDER_SEPERATOR);
         while (tokenizer.hasMoreTokens()) {
@@ -64,6 +82,7 @@ public class FolderService {
             existsFolder = new HashMap<>();
             existsFolder.put(AlmCommonProperties.PARENT_ID, parentId);
             existsFolder.put(AlmCommonProperties.NAME, folderName);
+            subFolderCache.remove(String.format("%s|%s", prefix, parentId));
             return restService.create(prefix, existsFolder);
         } else {
             return existsFolder;
@@ -83,8 +102,16 @@ public class FolderService {
     }
 
     public List<Map<String, String>> getSubFolders(String prefix, String parentFolderId) {
-        String query = String.format("fields=id,name&query={parent-id[%s]}", parentFolderId);
-        return restService.get(null, prefix, query);
+        String key = String.format("%s|%s", prefix, parentFolderId);
+        List<Map<String, String>> subFolders = subFolderCache.get(key);
+        if (subFolders == null) {
+            String query = String.format("fields=id,name&query={parent-id[%s]}", parentFolderId);
+            subFolders = restService.get(null, prefix, query);
+            if (subFolders != null) {
+                subFolderCache.put(key, subFolders);
+            }
+        }
+        return subFolders;
     }
 
     public Map<String, String> findEntityInFolder(
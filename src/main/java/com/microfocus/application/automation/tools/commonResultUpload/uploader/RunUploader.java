@@ -34,7 +34,6 @@ import com.microfocus.application.automation.tools.sse.sdk.Base64Encoder;
 
 import java.util.Calendar;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
 import java.util.Map;
 
 import static com.microfocus.application.automation.tools.commonResultUpload.ParamConstant.ACTUAL_USER;
@@ -85,21 +84,11 @@ public class RunUploader {
             return;
         }
 
-        // Update test instance status
+        // Create the run with its final status
         if (StringUtils.isNotEmpty(run.get(AlmRun.RUN_STATUS))) {
-            String runstatus = getRunStatus(run.get(AlmRun.RUN_STATUS));
-            // Create a run without status
-            run.remove(AlmRun.RUN_STATUS);
-            Map<String, String> createdRun = restService.create(RUN_PREFIX, run);
-
-            // Update status of the run
-            Map<String, String> updateRun = new HashMap<>();
-            updateRun.put(AlmCommonProperties.ID, createdRun.get(AlmCommonProperties.ID));
-            updateRun.put(AlmRun.RUN_STATUS, runstatus);
-            restService.update(RUN_PREFIX, updateRun);
-        } else {
-            restService.create(RUN_PREFIX, run);
+            run.put(AlmRun.RUN_STATUS, getRunStatus(run.get(AlmRun.RUN_STATUS)));
         }
+        restService.create(RUN_PREFIX, run);
     }
 
     private String convertDetail(String detail) {
@@ -46,6 +46,8 @@ public class TestInstanceUploader {
     private RestService restService;
     private RunUploader runUploader;
     private CustomizationService customizationService;
+    // Main test configurations found during this upload, by test id
+    private Map<String, Map<String, String>> testConfigCache;
 
     public TestInstanceUploader(CommonUploadLogger logger, Map<String, String> params,
                                 RestService restService, RunUploader runUploader,
@@ -55,6 +57,7 @@ public class TestInstanceUploader {
         this.restService = restService;
         this.runUploader = runUploader;
         this.customizationService = customizationService;
+        testConfigCache = new HashMap<>();
     }
 
     public void upload(Map<String, String> testset, XmlResultEntity xmlResultEntity) {
@@ -101,10 +104,15 @@ public class TestInstanceUploader {
     }
 
     private Map<String, String> getMainTestConfig(Map<String, String> test) {
-        String queryString = String.format("query={parent-id[%s]}&fields=id,name",
-                String.valueOf(test.get(AlmCommonProperties.ID)));
+        String testId = String.valueOf(test.get(AlmCommonProperties.ID));
+        Map<String, String> testconfig = testConfigCache.get(testId);
+        if (testconfig != null) {
+            return testconfig;
+        }
+        String queryString = String.format("query={parent-id[%s]}&fields=id,name", testId);
         List<Map<String, String>> testconfigs = restService.get(null, TEST_CONFIG_PREFIX, queryString);
         if (testconfigs != null && testconfigs.size() > 0) {
+            testConfigCache.put(testId, testconfigs.get(0));
             return testconfigs.get(0);
         } else {
             return null;
@@ -0,0 +1,169 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2019 Micro Focus or one of its affiliates..
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.xmlreader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluator for the plain relative paths most field mappings use: ".", "name", "a/b", "@attr"
+ * and "a/b/@attr". Such paths are resolved by walking the element's children directly, which
+ * avoids the JDK XPath engine rebuilding its view of the whole document on every evaluation.
+ * Anything else (predicates, functions, axes, absolute paths) is left to {@link XpathReader}.
+ */
+public final class ElementPath {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_.\\-]*");
+
+    private final String[] steps;
+    private final String attribute;
+
+    private ElementPath(String[] steps, String attribute) {
+        this.steps = steps;
+        this.attribute = attribute;
+    }
+
+    /**
+     * @return the evaluator for the given expression, or null if it is not a plain path
+     */
+    public static ElementPath compile(String xpath) {
+        String path = xpath.trim();
+        if (path.startsWith("./")) {
+            path = path.substring(2);
+        }
+        if (path.isEmpty() || path.endsWith("/")) {
+            return null;
+        }
+        if (".".equals(path)) {
+            return new ElementPath(new String[0], null);
+        }
+
+        List<String> steps = new ArrayList<>(Arrays.asList(path.split("/", -1)));
+        String attribute = null;
+        String last = steps.get(steps.size() - 1);
+        if (last.startsWith("@")) {
+            attribute = last.substring(1);
+            steps.remove(steps.size() - 1);
+            if (!NAME.matcher(attribute).matches()) {
+                return null;
+            }
+        }
+        for (String step : steps) {
+            if (!NAME.matcher(step).matches()) {
+                return null;
+            }
+        }
+        return new ElementPath(steps.toArray(new String[0]), attribute);
+    }
+
+    /**
+     * Same result as evaluating the path with {@code XPathConstants.STRING}.
+     */
+    public String stringValue(Node node) {
+        Node first = first(node, 0);
+        if (first == null) {
+            return "";
+        }
+        if (attribute != null) {
+            return ((Element) first).getAttribute(attribute);
+        }
+        if (first instanceof Document) {
+            first = ((Document) first).getDocumentElement();
+        }
+        return first.getTextContent();
+    }
+
+    /**
+     * Same result as evaluating the path with {@code XPathConstants.NODESET}.
+     */
+    public NodeList select(Node node) {
+        List<Node> nodes = new ArrayList<>();
+        collect(node, 0, nodes);
+        return new NodeListImpl(nodes);
+    }
+
+    private Node first(Node node, int depth) {
+        if (depth == steps.length) {
+            if (attribute == null) {
+                return node;
+            }
+            return node instanceof Element && ((Element) node).hasAttribute(attribute) ? node : null;
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (matches(child, depth)) {
+                Node found = first(child, depth + 1);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void collect(Node node, int depth, List<Node> nodes) {
+        if (depth == steps.length) {
+            if (attribute == null) {
+                nodes.add(node);
+            } else if (node instanceof Element && ((Element) node).hasAttribute(attribute)) {
+                nodes.add(((Element) node).getAttributeNode(attribute));
+            }
+            return;
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (matches(child, depth)) {
+                collect(child, depth + 1, nodes);
+            }
+        }
+    }
+
+    private boolean matches(Node child, int depth) {
+        return child.getNodeType() == Node.ELEMENT_NODE && steps[depth].equals(child.getNodeName());
+    }
+
+    private static final class NodeListImpl implements NodeList {
+
+        private final List<Node> nodes;
+
+        private NodeListImpl(List<Node> nodes) {
+            this.nodes = Collections.unmodifiableList(nodes);
+        }
+
+        @Override
+        public Node item(int index) {
+            return index >= 0 && index < nodes.size() ? nodes.get(index) : null;
+        }
+
+        @Override
+        public int getLength() {
+            return nodes.size();
+        }
+    }
+}
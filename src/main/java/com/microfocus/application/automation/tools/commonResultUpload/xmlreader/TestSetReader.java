@@ -68,6 +68,7 @@ public class TestSetReader {
         String rootXpath = configMap.get(ROOT);
         rootXpath = rootXpath.substring(2, rootXpath.length());
         NodeList nodes = xr.getNodeListFromNode(rootXpath, node);
+        Map<String, String> nextConfigMap = entitiesFieldMap.getNextConfigMap(configMap);
 
         List<XmlResultEntity> entities = new ArrayList<>();
         for (int i = 0; i < nodes.getLength(); i++) {
@@ -77,16 +78,13 @@ public class TestSetReader {
             Map<String, String> fieldsMap = new HashMap<>();
             for (Map.Entry<String, String> entry : configMap.entrySet()) {
                 String fieldName = entry.getKey();
-                String fieldValue = configMap.get(fieldName);
                 if (ROOT.equals(fieldName)) {
                     continue;
                 }
-                fieldValue = translator.translate(fieldValue, currentNode);
-                fieldsMap.put(fieldName, fieldValue);
+                fieldsMap.put(fieldName, translator.translate(entry.getValue(), currentNode));
             }
             entity.setValueMap(fieldsMap);
 
-            Map<String, String> nextConfigMap = entitiesFieldMap.getNextConfigMap(configMap);
             if (nextConfigMap != null) {
                 List<XmlResultEntity> subEntities = readEntities(nextConfigMap, currentNode);
                 entity.setSubEntities(subEntities);
@@ -25,17 +25,20 @@ package com.microfocus.application.automation.tools.commonResultUpload.xmlreader
 import org.w3c.dom.Node;
 
 import javax.xml.xpath.XPathExpressionException;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ValueTranslator {
 
     private XpathReader xpathReader;
+    private Map<String, String[]> units = new HashMap<>();
 
     public ValueTranslator(XpathReader xpathReader) {
         this.xpathReader = xpathReader;
     }
 
     public String translate(String fieldValue, Node node) throws XPathExpressionException {
-        String[] arr = fieldValue.split("\\|");
+        String[] arr = units.computeIfAbsent(fieldValue, value -> value.split("\\|"));
         StringBuilder sb = new StringBuilder();
         for (String i : arr) {
             sb.append(translateUnit(i, node));
@@ -28,44 +28,45 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class XpathReader {
 
-    private XPath xPath;
+    private static final ThreadLocal<DocumentBuilderFactory> documentBuilderFactory =
+            ThreadLocal.withInitial(DocumentBuilderFactory::newInstance);
+    private static final ThreadLocal<XPath> xPath = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+    // XPathExpression is not thread safe, so compiled expressions are kept per thread.
+    private static final ThreadLocal<Map<String, XPathExpression>> expressions = ThreadLocal.withInitial(HashMap::new);
+    private static final Map<String, Optional<ElementPath>> elementPaths = new ConcurrentHashMap<>();
+
     private Document doc;
 
     public XpathReader(FilePath filePath) throws IOException, InterruptedException, ParserConfigurationException,
             SAXException {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = null;
-        builder = factory.newDocumentBuilder();
-        doc = builder.parse(filePath.read());
-        xPath =  XPathFactory.newInstance().newXPath();
+        try (InputStream in = filePath.read()) {
+            doc = documentBuilderFactory.get().newDocumentBuilder().parse(in);
+        }
     }
 
     public XpathReader(String filePath) throws ParserConfigurationException, IOException, SAXException {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = null;
-        builder = factory.newDocumentBuilder();
-        doc = builder.parse(new File(filePath));
-        xPath =  XPathFactory.newInstance().newXPath();
+        this(new File(filePath));
     }
 
     public XpathReader(File file) throws ParserConfigurationException, IOException, SAXException {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = null;
-        builder = factory.newDocumentBuilder();
-        doc = builder.parse(file);
-        xPath =  XPathFactory.newInstance().newXPath();
+        doc = documentBuilderFactory.get().newDocumentBuilder().parse(file);
     }
 
     public Node getDoc() {
@@ -73,10 +74,32 @@ public class XpathReader {
     }
 
     public NodeList getNodeListFromNode(String xpath, Node node) throws XPathExpressionException {
-        return (NodeList) xPath.compile(xpath).evaluate(node, XPathConstants.NODESET);
+        Optional<ElementPath> path = elementPath(xpath);
+        if (path.isPresent()) {
+            return path.get().select(node);
+        }
+        return (NodeList) compile(xpath).evaluate(node, XPathConstants.NODESET);
     }
 
     public String getValueFromNode(String xpath, Node node) throws XPathExpressionException {
-        return (String) xPath.compile(xpath).evaluate(node, XPathConstants.STRING);
+        Optional<ElementPath> path = elementPath(xpath);
+        if (path.isPresent()) {
+            return path.get().stringValue(node);
+        }
+        return (String) compile(xpath).evaluate(node, XPathConstants.STRING);
+    }
+
+    private static Optional<ElementPath> elementPath(String xpath) {
+        return elementPaths.computeIfAbsent(xpath, key -> Optional.ofNullable(ElementPath.compile(key)));
+    }
+
+    private static XPathExpression compile(String xpath) throws XPathExpressionException {
+        Map<String, XPathExpression> cache = expressions.get();
+        XPathExpression expression = cache.get(xpath);
+        if (expression == null) {
+            expression = xPath.get().compile(xpath);
+            cache.put(xpath, expression);
+        }
+        return expression;
     }
 }
@@ -20,25 +20,39 @@
 
 package com.microfocus.application.automation.tools.octane;
 
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import com.squareup.tape.FileObjectQueue;
 import net.sf.json.JSONObject;
 import net.sf.json.JSONSerializer;
 import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.Logger;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by benmeior on 11/21/2016
  *
- * Base implementation of ResultQueue: backed up by FileObjectQueue, persisted
+ * Base implementation of ResultQueue: pending items are kept in memory and persisted in a {@link SegmentedQueueStore}.
+ * Changes are group committed outside of the queue lock, so concurrent producers share fsyncs and peeking never
+ * waits for the disk.
  */
 
 public abstract class AbstractResultQueueImpl implements ResultQueue {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(AbstractResultQueueImpl.class);
 
 	private static final int RETRIES = 3;
+	private static final byte ITEM_FORMAT_VERSION = 1;
 	private final int MAX_RETRIES;
 
-	private FileObjectQueue<QueueItem> queue;
+	private SegmentedQueueStore store;
+
+	// guarded by this
+	private final ArrayDeque<PendingItem> items = new ArrayDeque<>();
 
 	private QueueItem currentItem;
 
@@ -50,90 +64,227 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 		this.MAX_RETRIES = maxRetries;
 	}
 
+	/**
+	 * @param queueFile the queue file of former versions, the segments are stored in a folder next to it
+	 */
 	protected void init(File queueFile) throws IOException {
-		queue = new FileObjectQueue<>(queueFile, new JsonConverter());
+		store = new SegmentedQueueStore(new File(queueFile.getParentFile(), queueFile.getName() + ".segments"));
+		synchronized (this) {
+			for (SegmentedQueueStore.Record record : store.getRecovered()) {
+				try {
+					items.add(new PendingItem(decode(record.getPayload()), record.getEnd()));
+				} catch (IOException e) {
+					logger.error("failed to read queue item of " + queueFile + ", skipping it", e);
+				}
+			}
+		}
+		if (queueFile.exists()) {
+			migrate(queueFile);
+		}
+	}
+
+	/**
+	 * Moves the items of a tape queue file of former versions into the store
+	 */
+	private void migrate(File queueFile) throws IOException {
+		// drained from a copy, so the original is intact until its items are committed to the store
+		File copy = new File(queueFile.getParentFile(), queueFile.getName() + ".migrating");
+		Files.copy(queueFile.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		List<QueueItem> legacyItems = new ArrayList<>();
+		FileObjectQueue<QueueItem> legacyQueue = new FileObjectQueue<>(copy, new JsonConverter());
+		try {
+			while (legacyQueue.size() > 0) {
+				legacyItems.add(legacyQueue.peek());
+				legacyQueue.remove();
+			}
+		} finally {
+			legacyQueue.close();
+			Files.deleteIfExists(copy.toPath());
+		}
+		synchronized (this) {
+			for (QueueItem item : legacyItems) {
+				append(item);
+			}
+		}
+		store.commit();
+		Files.delete(queueFile.toPath());
+		logger.info("migrated " + legacyItems.size() + " items of " + queueFile);
 	}
 
 	@Override
 	public synchronized QueueItem peekFirst() {
-		if (currentItem == null) {
-			currentItem = queue.peek();
+		if (currentItem == null && !items.isEmpty()) {
+			currentItem = items.peekFirst().item;
 		}
 		return currentItem;
 	}
 
 	@Override
-	public synchronized boolean failed() {
-		if (currentItem != null) {
-			boolean retry;
-			if (++currentItem.failCount <= MAX_RETRIES) {
-				queue.add(currentItem);
-				retry = true;
+	public boolean failed() {
+		boolean retry;
+		synchronized (this) {
+			if (currentItem != null) {
+				if (++currentItem.failCount <= MAX_RETRIES) {
+					append(currentItem);
+					retry = true;
+				} else {
+					retry = false;
+				}
+
+				removeFirst();
 			} else {
-				retry = false;
+				throw new IllegalStateException("no outstanding item");
 			}
-
-			remove();
-
-			return retry;
-		} else {
-			throw new IllegalStateException("no outstanding item");
 		}
+		commit();
+		return retry;
 	}
 
 	@Override
-	public synchronized void remove() {
-		if (currentItem != null) {
-			queue.remove();
-			currentItem = null;
-		} else {
-			throw new IllegalStateException("no outstanding item");
+	public void remove() {
+		synchronized (this) {
+			if (currentItem != null) {
+				removeFirst();
+			} else {
+				throw new IllegalStateException("no outstanding item");
+			}
 		}
+		commit();
 	}
 
 	@Override
-	public synchronized void add(String projectName, int buildNumber) {
-		queue.add(new QueueItem(projectName, buildNumber));
+	public void add(String projectName, int buildNumber) {
+		add(new QueueItem(projectName, buildNumber));
 	}
 
 	@Override
-	public synchronized void add(String projectName, String type, int buildNumber) {
-		queue.add(new QueueItem(projectName, type, buildNumber));
+	public void add(String projectName, String type, int buildNumber) {
+		add(new QueueItem(projectName, type, buildNumber));
 	}
 
 	@Override
-	public synchronized void add(String projectName, int buildNumber, String workspace) {
-		queue.add(new QueueItem(projectName, buildNumber, workspace));
+	public void add(String projectName, int buildNumber, String workspace) {
+		add(new QueueItem(projectName, buildNumber, workspace));
 	}
 
 	@Override
-	public synchronized void add(String instanceId, String projectName, int buildNumber, String workspace) {
+	public void add(String instanceId, String projectName, int buildNumber, String workspace) {
 		QueueItem item = new QueueItem(projectName, buildNumber, workspace);
 		item.setInstanceId(instanceId);
-		queue.add(item);
+		add(item);
 	}
 
-	public int size() {
-		return queue.size();
+	public synchronized int size() {
+		return items.size();
 	}
 
 	@Override
-	public synchronized void clear() {
-		while (queue.size() > 0) {
-			queue.remove();
+	public void clear() {
+		synchronized (this) {
+			items.clear();
+			store.moveHead(store.getTail());
+			currentItem = null;
 		}
-		currentItem = null;
+		commit();
 	}
 
 	@Override
 	public void close() {
-		if (queue != null) {
-			queue.close();
+		if (store != null) {
+			try {
+				store.close();
+			} catch (IOException e) {
+				logger.error("failed to close queue", e);
+			}
+		}
+	}
+
+	private void add(QueueItem item) {
+		synchronized (this) {
+			append(item);
 		}
+		commit();
 	}
 
-	private static class JsonConverter implements FileObjectQueue.Converter<QueueItem> {
+	// guarded by this
+	private void append(QueueItem item) {
+		try {
+			items.add(new PendingItem(item, store.append(encode(item))));
+		} catch (IOException e) {
+			throw new UncheckedIOException("failed to encode queue item", e);
+		}
+	}
+
+	// guarded by this
+	private void removeFirst() {
+		PendingItem first = items.pollFirst();
+		if (first != null) {
+			store.moveHead(first.end);
+		}
+		currentItem = null;
+	}
+
+	private void commit() {
+		try {
+			store.commit();
+		} catch (IOException e) {
+			throw new UncheckedIOException("failed to persist queue", e);
+		}
+	}
+
+	static byte[] encode(QueueItem item) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(ITEM_FORMAT_VERSION);
+			writeString(out, item.projectName);
+			out.writeInt(item.buildNumber);
+			out.writeInt(item.failCount);
+			writeString(out, item.workspace);
+			writeString(out, item.type);
+			writeString(out, item.instanceId);
+		}
+		return bytes.toByteArray();
+	}
+
+	static QueueItem decode(byte[] payload) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+			byte version = in.readByte();
+			if (version != ITEM_FORMAT_VERSION) {
+				throw new IOException("unsupported queue item format " + version);
+			}
+			String projectName = readString(in);
+			int buildNumber = in.readInt();
+			int failCount = in.readInt();
+			QueueItem item = new QueueItem(projectName, buildNumber, failCount, readString(in));
+			item.setType(readString(in));
+			item.setInstanceId(readString(in));
+			return item;
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static final class PendingItem {
+		private final QueueItem item;
+		// position to move the head of the store to when the item is removed
+		private final SegmentedQueueStore.Position end;
+
+		private PendingItem(QueueItem item, SegmentedQueueStore.Position end) {
+			this.item = item;
+			this.end = end;
+		}
+	}
 
+	static class JsonConverter implements FileObjectQueue.Converter<QueueItem> {
 		public static final String INSTANCE_ID = "instanceId";
 
 		@Override
@@ -55,7 +55,6 @@ import com.microfocus.application.automation.tools.octane.executor.ExecutorConne
 import com.microfocus.application.automation.tools.octane.executor.TestExecutionJobCreatorService;
 import com.microfocus.application.automation.tools.octane.executor.UftJobRecognizer;
 import com.microfocus.application.automation.tools.octane.model.ModelFactory;
-import com.microfocus.application.automation.tools.octane.model.processors.parameters.ParameterProcessors;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.AbstractProjectProcessor;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
 import com.microfocus.application.automation.tools.octane.model.processors.scm.SCMUtils;
@@ -64,7 +63,6 @@ import com.microfocus.application.automation.tools.octane.tests.TestListener;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
 import com.microfocus.application.automation.tools.octane.tests.junit.JUnitExtension;
 import hudson.ProxyConfiguration;
-import hudson.console.PlainTextConsoleOutputStream;
 import hudson.matrix.MatrixConfiguration;
 import hudson.maven.MavenModule;
 import hudson.model.*;
@@ -74,7 +72,6 @@ import org.acegisecurity.AccessDeniedException;
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.FileItemFactory;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.Logger;
@@ -157,39 +154,43 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 	public CIJobsList getJobsList(boolean includeParameters, Long workspaceId) {
 		ACLContext securityContext = startImpersonation(workspaceId);
 		CIJobsList result = dtoFactory.newDTO(CIJobsList.class);
-		Map<String, PipelineNode> jobsMap = new HashMap<>();
+		List<PipelineNode> jobs = new ArrayList<>();
 
 		try {
-			Collection<String> jobNames = Jenkins.get().getJobNames();
-			for (String jobName : jobNames) {
-				String tempJobName = jobName;
+			Map<String, Job> accessibleJobs = new HashMap<>();
+			List<JobsListIndex.Entry> entries = JobsListIndex.get().find(entry -> {
 				try {
-					Job tmpJob = (Job) Jenkins.get().getItemByFullName(tempJobName);
-
-					if (!isJobIsRelevantForPipelineModule(tmpJob)) {
-						continue;
+					//	returns null if the user has no read permission on the job
+					Job tmpJob = (Job) Jenkins.get().getItemByFullName(entry.getFullName());
+					if (isJobIsRelevantForPipelineModule(tmpJob)) {
+						accessibleJobs.put(entry.getFullName(), tmpJob);
+						return true;
 					}
+				} catch (Throwable e) {
+					logger.error("failed to add job '" + entry.getFullName() + "' to JobList", e);
+				}
+				return false;
+			});
 
-					PipelineNode tmpConfig;
-					if (tmpJob != null && JobProcessorFactory.WORKFLOW_MULTI_BRANCH_JOB_NAME.equals(tmpJob.getParent().getClass().getName())) {
-						tempJobName = tmpJob.getParent().getFullName();
-						tmpConfig = createPipelineNodeFromJobName(tempJobName);
+			for (JobsListIndex.Entry entry : entries) {
+				try {
+					if (entry.isMultiBranchChild()) {
+						jobs.add(createPipelineNodeFromJobName(entry.getListedName()));
 					} else {
-						tmpConfig = createPipelineNode(tempJobName, tmpJob, includeParameters);
+						jobs.add(createPipelineNode(entry, accessibleJobs.get(entry.getFullName()), includeParameters));
 					}
-					jobsMap.put(tempJobName, tmpConfig);
 				} catch (Throwable e) {
-					logger.error("failed to add job '" + tempJobName + "' to JobList", e);
+					logger.error("failed to add job '" + entry.getListedName() + "' to JobList", e);
 				}
 			}
 
-			if(jobsMap.isEmpty() && !Jenkins.get().hasPermission(Item.READ)){
+			if(jobs.isEmpty() && !Jenkins.get().hasPermission(Item.READ)){
 				//it is possible that user doesn't have general READ permission
 				// but has read permission to specific job, so we postponed this check to end
 				throw new PermissionException(HttpStatus.SC_FORBIDDEN);
 			}
 
-			result.setJobs(jobsMap.values().toArray(new PipelineNode[0]));
+			result.setJobs(jobs.toArray(new PipelineNode[0]));
 		} catch (AccessDeniedException ade) {
 			throw new PermissionException(HttpStatus.SC_FORBIDDEN);
 		} finally {
@@ -323,12 +324,22 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 
 	@Override
 	public InputStream getBuildLog(String jobId, String buildId) {
+		return getBuildLog(jobId, buildId, 0, false);
+	}
+
+	/**
+	 * Streams the plain text log of a build, without copying it
+	 *
+	 * @param offset number of bytes of the plain text log to skip, lets Octane resume a transfer
+	 * @param gzip   whether to gzip the log
+	 */
+	public InputStream getBuildLog(String jobId, String buildId, long offset, boolean gzip) {
 		ACLContext originalContext = startImpersonation();
 		try {
 			InputStream result = null;
 			Run run = getRunByRefNames(jobId, buildId);
 			if (run != null) {
-				result = getOctaneLogFile(run);
+				result = getOctaneLogFile(run, offset, gzip);
 			} else {
 				logger.error("build '" + jobId + " #" + buildId + "' not found");
 			}
@@ -555,13 +566,13 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 		ImpersonationUtil.stopImpersonation(impersonatedContext);
 	}
 
-    private PipelineNode createPipelineNode(String name, Job job, boolean includeParameters) {
+    private PipelineNode createPipelineNode(JobsListIndex.Entry entry, Job job, boolean includeParameters) {
         PipelineNode tmpConfig = dtoFactory.newDTO(PipelineNode.class)
-                .setJobCiId(JobProcessorFactory.getFlowProcessor(job).getTranslatedJobName())
-                .setName(name);
+                .setJobCiId(entry.getJobCiId())
+                .setName(entry.getListedName());
 
         if (includeParameters) {
-            tmpConfig.setParameters(ParameterProcessors.getConfigs(job));
+            tmpConfig.setParameters(new ArrayList<>(entry.getParameters()));
 
             //setIsTestRunner
             if (tmpConfig.getParameters() != null) {
@@ -585,22 +596,10 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 				.setName(name);
 	}
 
-	private InputStream getOctaneLogFile(Run run) {
+	private InputStream getOctaneLogFile(Run run, long offset, boolean gzip) {
 		InputStream result = null;
-		String octaneLogFilePath = run.getRootDir() + File.separator + "octane_log";
-		File logFile = new File(octaneLogFilePath);
-		if (!logFile.exists()) {
-			try (FileOutputStream fileOutputStream = new FileOutputStream(logFile);
-			    InputStream logStream = run.getLogInputStream();
-			    PlainTextConsoleOutputStream out = new PlainTextConsoleOutputStream(fileOutputStream)) {
-				IOUtils.copy(logStream, out);
-				out.flush();
-			} catch (IOException ioe) {
-				logger.error("failed to transfer native log to Octane's one for " + run);
-			}
-		}
 		try {
-			result = new FileInputStream(octaneLogFilePath);
+			result = OctaneBuildLog.open(run, offset, gzip);
 		} catch (IOException ioe) {
 			logger.error("failed to obtain log for " + run);
 		}
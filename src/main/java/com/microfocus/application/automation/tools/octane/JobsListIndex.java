@@ -0,0 +1,308 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import com.hp.octane.integrations.dto.parameters.CIParameter;
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import com.microfocus.application.automation.tools.octane.model.processors.parameters.ParameterProcessors;
+import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
+import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.matrix.MatrixConfiguration;
+import hudson.maven.MavenModule;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Index of the jobs listed to Octane, job full name to a lightweight description of the job.
+ * It is built from all the jobs once and then kept up to date by item events, so listing jobs neither walks
+ * the item tree nor computes the parameters of every job per request.
+ */
+public final class JobsListIndex {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(JobsListIndex.class);
+	private static final JobsListIndex instance = new JobsListIndex(JobsListIndex::describeAllJobs, JobsListIndex::describeTree);
+
+	private final Supplier<Iterable<Entry>> loader;
+	private final Function<Item, List<Entry>> describer;
+	// sorted by job full name, null until first used
+	private volatile ConcurrentSkipListMap<String, Entry> entries;
+
+	/**
+	 * @param loader    describes all the jobs, when the index is built
+	 * @param describer describes the item and all the jobs within it, when the item changes
+	 */
+	JobsListIndex(Supplier<Iterable<Entry>> loader, Function<Item, List<Entry>> describer) {
+		this.loader = loader;
+		this.describer = describer;
+	}
+
+	public static JobsListIndex get() {
+		return instance;
+	}
+
+	/**
+	 * Finds the jobs to list, in index order
+	 *
+	 * @param accessible tells whether a job can be listed to the current user
+	 * @return the accessible jobs, at most one per listed name
+	 */
+	public List<Entry> find(Predicate<Entry> accessible) {
+		Set<String> listedNames = new HashSet<>();
+		List<Entry> result = new ArrayList<>();
+		for (Entry entry : getEntries().values()) {
+			if (!listedNames.contains(entry.listedName) && accessible.test(entry)) {
+				listedNames.add(entry.listedName);
+				result.add(entry);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Describes the item again, and all the jobs within it if it is a folder.
+	 * Waits for an index build in progress, which may have passed the item already.
+	 */
+	public synchronized void update(Item item) {
+		if (entries != null) {
+			List<Entry> described = describer.apply(item);
+			removeTree(item.getFullName());
+			put(described);
+		}
+	}
+
+	/**
+	 * Removes the item and all the jobs within it
+	 */
+	public synchronized void remove(String fullName) {
+		if (entries != null) {
+			removeTree(fullName);
+		}
+	}
+
+	/**
+	 * Drops the index, the next request builds it again
+	 */
+	public synchronized void reset() {
+		entries = null;
+	}
+
+	private void put(Iterable<Entry> described) {
+		for (Entry entry : described) {
+			entries.put(entry.fullName, entry);
+		}
+	}
+
+	private void removeTree(String fullName) {
+		entries.remove(fullName);
+		//	'0' follows '/', so this is every name under the folder
+		entries.subMap(fullName + "/", fullName + "0").clear();
+	}
+
+	private ConcurrentSkipListMap<String, Entry> getEntries() {
+		ConcurrentSkipListMap<String, Entry> result = entries;
+		if (result == null) {
+			synchronized (this) {
+				if (entries == null) {
+					ConcurrentSkipListMap<String, Entry> built = new ConcurrentSkipListMap<>();
+					for (Entry entry : loader.get()) {
+						built.put(entry.fullName, entry);
+					}
+					entries = built;
+				}
+				result = entries;
+			}
+		}
+		return result;
+	}
+
+	private static Iterable<Entry> describeAllJobs() {
+		long start = System.currentTimeMillis();
+		List<Entry> result = new ArrayList<>();
+		try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+			for (Job job : Jenkins.get().allItems(Job.class)) {
+				addEntry(result, job);
+			}
+		}
+		logger.info("jobs list index built with " + result.size() + " jobs in " + (System.currentTimeMillis() - start) + " ms");
+		return result;
+	}
+
+	private static List<Entry> describeTree(Item item) {
+		List<Entry> result = new ArrayList<>();
+		try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+			if (item instanceof Job) {
+				addEntry(result, (Job) item);
+			}
+			if (item instanceof ItemGroup) {
+				for (Job job : Items.allItems((ItemGroup<?>) item, Job.class)) {
+					addEntry(result, job);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static void addEntry(List<Entry> entries, Job job) {
+		if (job instanceof MatrixConfiguration || job instanceof MavenModule) {
+			return;
+		}
+		try {
+			entries.add(describe(job));
+		} catch (Throwable e) {
+			logger.error("failed to add job '" + job.getFullName() + "' to jobs list index", e);
+		}
+	}
+
+	private static Entry describe(Job job) {
+		if (JobProcessorFactory.WORKFLOW_MULTI_BRANCH_JOB_NAME.equals(job.getParent().getClass().getName())) {
+			String parentName = job.getParent().getFullName();
+			return new Entry(job.getFullName(), parentName, true, BuildHandlerUtils.translateFolderJobName(parentName), Collections.emptyList());
+		}
+		return new Entry(job.getFullName(), job.getFullName(), false, JobProcessorFactory.getFlowProcessor(job).getTranslatedJobName(), ParameterProcessors.getConfigs(job));
+	}
+
+	/**
+	 * What Octane needs to list a job, without going to the job
+	 */
+	public static final class Entry {
+		private final String fullName;
+		private final String listedName;
+		private final boolean multiBranchChild;
+		private final String jobCiId;
+		private final List<CIParameter> parameters;
+
+		Entry(String fullName, String listedName, boolean multiBranchChild, String jobCiId, List<CIParameter> parameters) {
+			this.fullName = fullName;
+			this.listedName = listedName;
+			this.multiBranchChild = multiBranchChild;
+			this.jobCiId = jobCiId;
+			this.parameters = Collections.unmodifiableList(parameters);
+		}
+
+		public String getFullName() {
+			return fullName;
+		}
+
+		/**
+		 * @return the full name of the job, or of its multibranch parent for a branch job
+		 */
+		public String getListedName() {
+			return listedName;
+		}
+
+		public boolean isMultiBranchChild() {
+			return multiBranchChild;
+		}
+
+		public String getJobCiId() {
+			return jobCiId;
+		}
+
+		public List<CIParameter> getParameters() {
+			return parameters;
+		}
+	}
+
+	/**
+	 * Keeps the index up to date with created, changed, moved and deleted items
+	 */
+	@Extension
+	public static class IndexUpdater extends ItemListener {
+		private final JobsListIndex index;
+
+		public IndexUpdater() {
+			this(JobsListIndex.get());
+		}
+
+		IndexUpdater(JobsListIndex index) {
+			this.index = index;
+		}
+
+		@Override
+		public void onCreated(Item item) {
+			index.update(item);
+		}
+
+		@Override
+		public void onUpdated(Item item) {
+			index.update(item);
+		}
+
+		@Override
+		public void onDeleted(Item item) {
+			index.remove(item.getFullName());
+		}
+
+		@Override
+		public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+			index.remove(oldFullName);
+			index.update(item);
+		}
+
+		@Override
+		public void onLoaded() {
+			index.reset();
+		}
+	}
+
+	/**
+	 * Jobs are saved also when changed outside of the configuration page, e.g. when disabled or when parameters are added by scripts
+	 */
+	@Extension
+	public static class JobSaveListener extends SaveableListener {
+		private final JobsListIndex index;
+
+		public JobSaveListener() {
+			this(JobsListIndex.get());
+		}
+
+		JobSaveListener(JobsListIndex index) {
+			this.index = index;
+		}
+
+		@Override
+		public void onChange(Saveable o, XmlFile file) {
+			if (o instanceof Job) {
+				index.update((Job) o);
+			}
+		}
+	}
+}
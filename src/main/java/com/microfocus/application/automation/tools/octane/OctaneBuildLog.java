@@ -0,0 +1,189 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import hudson.console.PlainTextConsoleOutputStream;
+import hudson.model.Run;
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * Build log as served to Octane: the console log with the console notes stripped while it is read.
+ * Nothing is written to the build folder and only the current line of the log is held in memory.
+ */
+final class OctaneBuildLog {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(OctaneBuildLog.class);
+	// plain text copy of the log kept in the build folder by former versions
+	private static final String LEGACY_LOG_COPY = "octane_log";
+	private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+	private OctaneBuildLog() {
+	}
+
+	/**
+	 * @param run    the build
+	 * @param offset number of bytes of the plain text log to skip, lets a reader resume
+	 * @param gzip   whether to gzip the log
+	 * @return the plain text log of the build from the offset, empty if the log is not longer than the offset
+	 */
+	static InputStream open(Run run, long offset, boolean gzip) throws IOException {
+		deleteLegacyLogCopy(run);
+		InputStream result = new PlainTextConsoleInputStream(run.getLogInputStream());
+		try {
+			//	a reader that already has the whole log gets nothing more
+			IOUtils.skip(result, offset);
+		} catch (IOException e) {
+			result.close();
+			throw e;
+		}
+		return gzip ? gzip(result) : result;
+	}
+
+	private static void deleteLegacyLogCopy(Run run) {
+		File legacyCopy = new File(run.getRootDir(), LEGACY_LOG_COPY);
+		try {
+			Files.deleteIfExists(legacyCopy.toPath());
+		} catch (IOException e) {
+			logger.warn("failed to delete " + legacyCopy, e);
+		}
+	}
+
+	/**
+	 * Compresses while the stream is read, the gzip trailer is computed once all of the input was deflated
+	 */
+	static InputStream gzip(InputStream in) {
+		CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		Iterator<Supplier<InputStream>> parts = Arrays.<Supplier<InputStream>>asList(
+				() -> new ByteArrayInputStream(GZIP_HEADER),
+				() -> new DeflaterInputStream(checked, deflater),
+				() -> {
+					byte[] trailer = new byte[8];
+					writeIntLE(trailer, 0, checked.getChecksum().getValue());
+					writeIntLE(trailer, 4, deflater.getBytesRead());
+					deflater.end();
+					return new ByteArrayInputStream(trailer);
+				}).iterator();
+		return new SequenceInputStream(new Enumeration<InputStream>() {
+			@Override
+			public boolean hasMoreElements() {
+				return parts.hasNext();
+			}
+
+			@Override
+			public InputStream nextElement() {
+				return parts.next().get();
+			}
+		});
+	}
+
+	private static void writeIntLE(byte[] target, int offset, long value) {
+		for (int i = 0; i < 4; i++) {
+			target[offset + i] = (byte) (value >> (8 * i));
+		}
+	}
+
+	/**
+	 * Input side of {@link PlainTextConsoleOutputStream}: the log is pushed through it chunk by chunk,
+	 * and what comes out is served to the reader.
+	 */
+	private static final class PlainTextConsoleInputStream extends InputStream {
+		private final InputStream in;
+		private final FilteredBuffer filtered = new FilteredBuffer();
+		private final PlainTextConsoleOutputStream filter = new PlainTextConsoleOutputStream(filtered);
+		private final byte[] chunk = new byte[8192];
+		private final byte[] single = new byte[1];
+		private int position;
+		private boolean eof;
+
+		private PlainTextConsoleInputStream(InputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			while (position == filtered.size()) {
+				if (eof) {
+					return -1;
+				}
+				fill();
+			}
+			int count = Math.min(len, filtered.size() - position);
+			System.arraycopy(filtered.getBuffer(), position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return filtered.size() - position;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+
+		private void fill() throws IOException {
+			filtered.reset();
+			position = 0;
+			int count = in.read(chunk);
+			if (count == -1) {
+				eof = true;
+				// flushes the last line, if the log does not end with a new line
+				filter.close();
+			} else {
+				filter.write(chunk, 0, count);
+			}
+		}
+	}
+
+	private static final class FilteredBuffer extends ByteArrayOutputStream {
+		private byte[] getBuffer() {
+			return buf;
+		}
+	}
+}
@@ -0,0 +1,474 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only storage of the items of a result queue, in segment files of about a megabyte.
+ * Each record is its length, its crc and its payload. The position of the first pending record is kept in a head
+ * file, and segments before it are deleted.
+ * Appends and head moves are group committed: the thread that commits writes and fsyncs whatever all threads
+ * queued meanwhile, and threads that come later find their changes already committed.
+ * After a crash, committed records are recovered and a torn record at the tail is truncated.
+ * Records removed after the last commit are delivered again.
+ * A failed commit is undone: the segments are cut back to the last committed record and the changes stay queued
+ * for the next commit, so positions handed out by appends stay valid. If that fails too, every later commit fails
+ * and the store has to be opened again to recover.
+ */
+final class SegmentedQueueStore implements Closeable {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(SegmentedQueueStore.class);
+	private static final long SEGMENT_SIZE = Long.getLong("AbstractResultQueueImpl.SegmentSize", 1024 * 1024);
+	private static final String SEGMENT_SUFFIX = ".segment";
+	private static final String HEAD_FILE = "head";
+	private static final int RECORD_HEADER = 8;
+	private static final int MAX_RECORD = 16 * 1024 * 1024;
+
+	private final File dir;
+	private final long segmentSize;
+	private final Object commitLock = new Object();
+	private final List<Record> recovered = new ArrayList<>();
+
+	// guarded by this
+	private Map<Long, ByteArrayOutputStream> pendingWrites = new LinkedHashMap<>();
+	private Position head;
+	private boolean headDirty;
+	private long firstSegment;
+	private long tailSegment;
+	private long tailSize;
+	private long changes;
+
+	// guarded by commitLock
+	private long committedChanges;
+	// position after the last durable record
+	private Position committedTail;
+	private IOException failure;
+	private long openSegment = -1;
+	private FileChannel openChannel;
+	private RandomAccessFile headFile;
+
+	SegmentedQueueStore(File dir) throws IOException {
+		this(dir, SEGMENT_SIZE);
+	}
+
+	SegmentedQueueStore(File dir, long segmentSize) throws IOException {
+		this.dir = dir;
+		this.segmentSize = segmentSize;
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("failed to create queue folder " + dir);
+		}
+		headFile = new RandomAccessFile(new File(dir, HEAD_FILE), "rw");
+		recover();
+		committedTail = new Position(tailSegment, tailSize);
+	}
+
+	/**
+	 * @return the records that were pending when the store was opened, oldest first
+	 */
+	List<Record> getRecovered() {
+		return recovered;
+	}
+
+	/**
+	 * Queues a record for the next commit
+	 *
+	 * @return the position right after the record, to move the head to once the record is removed
+	 */
+	synchronized Position append(byte[] payload) {
+		if (tailSize >= segmentSize) {
+			tailSegment++;
+			tailSize = 0;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER).putInt(payload.length).putInt((int) crc.getValue());
+		ByteArrayOutputStream segmentWrites = pendingWrites.computeIfAbsent(tailSegment, segment -> new ByteArrayOutputStream());
+		segmentWrites.write(header.array(), 0, RECORD_HEADER);
+		segmentWrites.write(payload, 0, payload.length);
+		tailSize += RECORD_HEADER + payload.length;
+		changes++;
+		return new Position(tailSegment, tailSize);
+	}
+
+	/**
+	 * Marks everything before the position as removed, from the next commit on
+	 */
+	synchronized void moveHead(Position position) {
+		head = position;
+		headDirty = true;
+		changes++;
+	}
+
+	/**
+	 * @return the position after the last appended record
+	 */
+	synchronized Position getTail() {
+		return new Position(tailSegment, tailSize);
+	}
+
+	/**
+	 * Writes and fsyncs all the changes made so far, unless another thread already did
+	 */
+	void commit() throws IOException {
+		long target;
+		synchronized (this) {
+			target = changes;
+		}
+		synchronized (commitLock) {
+			if (failure != null) {
+				throw new IOException("queue in " + dir + " failed to undo a failed commit, it has to be opened again", failure);
+			}
+			if (committedChanges >= target) {
+				return;
+			}
+			Map<Long, ByteArrayOutputStream> writes;
+			Position newHead;
+			Position tail;
+			long upTo;
+			synchronized (this) {
+				writes = pendingWrites;
+				pendingWrites = new LinkedHashMap<>();
+				newHead = headDirty ? head : null;
+				headDirty = false;
+				tail = new Position(tailSegment, tailSize);
+				upTo = changes;
+			}
+
+			try {
+				writeSegments(writes);
+			} catch (IOException e) {
+				requeue(writes, newHead);
+				rollback(writes.keySet());
+				throw e;
+			}
+			committedTail = tail;
+			if (newHead != null) {
+				try {
+					writeHead(newHead);
+				} catch (IOException e) {
+					requeue(Collections.emptyMap(), newHead);
+					throw e;
+				}
+				deleteSegmentsBefore(newHead.segment);
+			}
+			committedChanges = upTo;
+		}
+	}
+
+	private void writeSegments(Map<Long, ByteArrayOutputStream> writes) throws IOException {
+		for (Map.Entry<Long, ByteArrayOutputStream> segmentWrites : writes.entrySet()) {
+			FileChannel channel = getChannel(segmentWrites.getKey());
+			ByteBuffer buffer = ByteBuffer.wrap(segmentWrites.getValue().toByteArray());
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		if (openChannel != null && !writes.isEmpty()) {
+			openChannel.force(false);
+		}
+	}
+
+	/**
+	 * Puts the writes and the head move of a failed commit back in front of the changes made meanwhile
+	 */
+	private synchronized void requeue(Map<Long, ByteArrayOutputStream> writes, Position newHead) {
+		Map<Long, ByteArrayOutputStream> merged = new LinkedHashMap<>(writes);
+		for (Map.Entry<Long, ByteArrayOutputStream> later : pendingWrites.entrySet()) {
+			merged.merge(later.getKey(), later.getValue(), (earlier, added) -> {
+				earlier.write(added.toByteArray(), 0, added.size());
+				return earlier;
+			});
+		}
+		pendingWrites = merged;
+		// a head moved meanwhile is further, and already dirty
+		if (newHead != null) {
+			headDirty = true;
+		}
+	}
+
+	/**
+	 * Cuts the written segments back to the last committed record, so the requeued writes land where they were appended
+	 */
+	private void rollback(Collection<Long> segments) {
+		try {
+			closeChannel();
+			for (long segment : segments) {
+				File file = segmentFile(segment);
+				if (!file.isFile() || segment < committedTail.segment) {
+					continue;
+				}
+				if (segment == committedTail.segment) {
+					try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+						channel.truncate(committedTail.offset);
+						channel.force(true);
+					}
+				} else {
+					Files.delete(file.toPath());
+				}
+			}
+		} catch (IOException e) {
+			logger.error("failed to undo a failed commit of queue in " + dir, e);
+			failure = e;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (commitLock) {
+			try {
+				commit();
+			} finally {
+				closeChannel();
+				headFile.close();
+			}
+		}
+	}
+
+	private FileChannel getChannel(long segment) throws IOException {
+		if (segment != openSegment) {
+			if (openChannel != null) {
+				// records of a rolled segment are durable before the next segment is written
+				openChannel.force(false);
+				closeChannel();
+			}
+			openChannel = FileChannel.open(segmentFile(segment).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			openSegment = segment;
+		}
+		return openChannel;
+	}
+
+	private void closeChannel() throws IOException {
+		if (openChannel != null) {
+			try {
+				openChannel.close();
+			} finally {
+				openChannel = null;
+				openSegment = -1;
+			}
+		}
+	}
+
+	private void writeHead(Position position) throws IOException {
+		ByteBuffer content = ByteBuffer.allocate(20).putLong(position.segment).putLong(position.offset);
+		CRC32 crc = new CRC32();
+		crc.update(content.array(), 0, 16);
+		content.putInt((int) crc.getValue());
+		headFile.seek(0);
+		headFile.write(content.array());
+		headFile.getFD().sync();
+	}
+
+	private Position readHead() throws IOException {
+		if (headFile.length() < 20) {
+			return null;
+		}
+		byte[] content = new byte[20];
+		headFile.seek(0);
+		headFile.readFully(content);
+		ByteBuffer buffer = ByteBuffer.wrap(content);
+		long segment = buffer.getLong();
+		long offset = buffer.getLong();
+		CRC32 crc = new CRC32();
+		crc.update(content, 0, 16);
+		if (buffer.getInt() != (int) crc.getValue()) {
+			logger.warn("queue head in " + dir + " is corrupted, pending items will be delivered again");
+			return null;
+		}
+		return new Position(segment, offset);
+	}
+
+	private void deleteSegmentsBefore(long segment) {
+		long first;
+		synchronized (this) {
+			first = firstSegment;
+			firstSegment = Math.max(firstSegment, segment);
+		}
+		for (long s = first; s < segment; s++) {
+			File file = segmentFile(s);
+			if (file.exists() && !file.delete()) {
+				logger.warn("failed to delete consumed queue segment " + file);
+			}
+		}
+	}
+
+	private void recover() throws IOException {
+		long[] segments = listSegments();
+		Position storedHead = readHead();
+		if (storedHead == null || (segments.length > 0 && storedHead.segment < segments[0])) {
+			storedHead = new Position(segments.length > 0 ? segments[0] : 0, 0);
+		}
+		head = storedHead;
+		firstSegment = segments.length > 0 ? segments[0] : head.segment;
+		tailSegment = head.segment;
+		tailSize = head.offset;
+
+		for (int i = 0; i < segments.length; i++) {
+			if (segments[i] < head.segment) {
+				continue;
+			}
+			long start = segments[i] == head.segment ? head.offset : 0;
+			long valid = readSegment(segments[i], start);
+			File file = segmentFile(segments[i]);
+			if (valid < file.length()) {
+				boolean last = i == segments.length - 1;
+				logger.warn("queue segment " + file + " has a " + (last ? "torn" : "corrupted") + " record at " + valid + (last ? ", truncating it" : ", skipping the rest of it"));
+				if (last) {
+					try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+						channel.truncate(valid);
+						channel.force(true);
+					}
+				}
+			}
+			tailSegment = segments[i];
+			tailSize = Math.min(valid, file.length());
+		}
+		// records always go after what exists on disk, even when a corrupted segment was skipped
+		if (segments.length > 0 && segments[segments.length - 1] > tailSegment) {
+			tailSegment = segments[segments.length - 1];
+			tailSize = segmentFile(tailSegment).length();
+		}
+	}
+
+	/**
+	 * @return the offset after the last valid record
+	 */
+	private long readSegment(long segment, long start) throws IOException {
+		long offset = start;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segmentFile(segment))))) {
+			long skipped = 0;
+			while (skipped < start) {
+				long count = in.skip(start - skipped);
+				if (count <= 0) {
+					return skipped;
+				}
+				skipped += count;
+			}
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					return offset;
+				}
+				if (length < 0 || length > MAX_RECORD) {
+					return offset;
+				}
+				byte[] payload = new byte[length];
+				int expectedCrc;
+				try {
+					expectedCrc = in.readInt();
+					in.readFully(payload);
+				} catch (EOFException e) {
+					return offset;
+				}
+				CRC32 crc = new CRC32();
+				crc.update(payload);
+				if ((int) crc.getValue() != expectedCrc) {
+					return offset;
+				}
+				offset += RECORD_HEADER + length;
+				recovered.add(new Record(payload, new Position(segment, offset)));
+			}
+		}
+	}
+
+	private long[] listSegments() {
+		File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+		if (files == null) {
+			return new long[0];
+		}
+		List<Long> segments = new ArrayList<>();
+		for (File file : files) {
+			try {
+				segments.add(Long.parseLong(file.getName().substring(0, file.getName().length() - SEGMENT_SUFFIX.length())));
+			} catch (NumberFormatException e) {
+				logger.warn("ignoring unexpected file " + file + " in queue folder");
+			}
+		}
+		long[] result = new long[segments.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = segments.get(i);
+		}
+		Arrays.sort(result);
+		return result;
+	}
+
+	private File segmentFile(long segment) {
+		return new File(dir, String.format("%019d%s", segment, SEGMENT_SUFFIX));
+	}
+
+	/**
+	 * Position in the store, the segment and the offset within it
+	 */
+	static final class Position {
+		private final long segment;
+		private final long offset;
+
+		Position(long segment, long offset) {
+			this.segment = segment;
+			this.offset = offset;
+		}
+	}
+
+	static final class Record {
+		private final byte[] payload;
+		private final Position end;
+
+		private Record(byte[] payload, Position end) {
+			this.payload = payload;
+			this.end = end;
+		}
+
+		byte[] getPayload() {
+			return payload;
+		}
+
+		/**
+		 * @return the position right after the record
+		 */
+		Position getEnd() {
+			return end;
+		}
+	}
+}
@@ -25,6 +25,7 @@ import com.hp.octane.integrations.OctaneSDK;
 import com.hp.octane.integrations.dto.general.CIServerInfo;
 import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigurationService;
+import com.microfocus.application.automation.tools.octane.events.PipelineFinishedProcessor;
 import hudson.Extension;
 import hudson.model.RootAction;
 import net.sf.json.JSONObject;
@@ -124,6 +125,7 @@ public class PluginActions implements RootAction {
                         allMetricsJson.put(client.getConfigurationService().getConfiguration().geLocationForLog(), confJson);
                     }
             );
+            addMetrics(PipelineFinishedProcessor.getMetrics(), "pipelineFinishedProcessor", allMetricsJson);
             result.put("metrics", allMetricsJson);
         }
 
@@ -24,17 +24,23 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * this action initiate a copy of all coverage reports from workspace to build folder.
  * the files are calculated by a pattern that the user enters in job configuration page
  */
 public class CoveragePublisherAction implements Action {
+	private static final int MAX_PARALLEL_COPIES = Integer.getInteger("CoveragePublisherAction.MaxParallelCopies", 4);
 	private final Run build;
+	private final transient CoverageService coverageService;
 
 	public CoveragePublisherAction(Run build, TaskListener listener) {
 		this.build = build;
-		CoverageService.setListener(listener);
+		this.coverageService = new CoverageService(listener);
 	}
 
 	/**
@@ -46,26 +52,46 @@ public class CoveragePublisherAction implements Action {
 		List<String> result = new LinkedList<>();
 		FilePath workspace = BuildHandlerUtils.getWorkspace(build);
 		if (workspace != null) {
+			ExecutorService executor = null;
 			try {
-				CoverageService.log("start copying coverage report to build folder, using file patten of " + filePattern);
-				String[] files = CoverageService.getCoverageFiles(workspace, filePattern);
+				coverageService.log("start copying coverage report to build folder, using file patten of " + filePattern);
+				String[] files = coverageService.getCoverageFiles(workspace, filePattern);
 				List<String> matchingReportFiles = filterFilesByFileExtension(files);
 				int index = 0;
 
+				List<String> outputFileNames = new ArrayList<>();
+				List<Future<Boolean>> copies = new ArrayList<>();
+				if (!matchingReportFiles.isEmpty()) {
+					executor = Executors.newFixedThreadPool(Math.min(MAX_PARALLEL_COPIES, matchingReportFiles.size()));
+				}
 				for (String fileName : matchingReportFiles) {
-					File resultFile = new File(workspace.child(fileName).toURI());
+					FilePath resultFile = workspace.child(fileName);
 					String nextOutputFilename = CoverageService.getCoverageReportFileName(index++, defaultFileName);
-					result.add(nextOutputFilename);
 					File targetReportFile = new File(build.getRootDir(), nextOutputFilename);
-					CoverageService.copyCoverageFile(resultFile, targetReportFile, workspace);
+					outputFileNames.add(nextOutputFilename);
+					copies.add(executor.submit(() -> coverageService.copyCoverageFile(resultFile, targetReportFile)));
+				}
+
+				for (int i = 0; i < copies.size(); i++) {
+					try {
+						if (copies.get(i).get()) {
+							result.add(outputFileNames.get(i));
+						}
+					} catch (ExecutionException e) {
+						coverageService.log("Copying coverage files to build folder failed because of " + e.getCause().toString());
+					}
 				}
 
 				if (result.isEmpty()) {
 					// most likely a configuration error in the job - e.g. false pattern to match the cucumber result files
-					CoverageService.log("No coverage file that matched the specified pattern was found in workspace");
+					coverageService.log("No coverage file that matched the specified pattern was found in workspace");
 				}
 			} catch (Exception e) {
-				CoverageService.log("Copying coverage files to build folder failed because of " + e.toString());
+				coverageService.log("Copying coverage files to build folder failed because of " + e.toString());
+			} finally {
+				if (executor != null) {
+					executor.shutdownNow();
+				}
 			}
 		}
 		return result;
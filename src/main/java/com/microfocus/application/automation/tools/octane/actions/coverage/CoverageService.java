@@ -19,22 +19,34 @@ package com.microfocus.application.automation.tools.octane.actions.coverage;
 import hudson.FilePath;
 import hudson.Util;
 import hudson.model.TaskListener;
+import hudson.remoting.Pipe;
 import hudson.remoting.VirtualChannel;
 import jenkins.MasterToSlaveFileCallable;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.types.FileSet;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Helper Service for coverage publisher
  */
 public class CoverageService {
     private static final String COVERAGE_REPORT_FILE_NAME_PREFIX = "coverage_report";
-    private static TaskListener listener;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final TaskListener listener;
+
+    public CoverageService(TaskListener listener) {
+        this.listener = listener;
+    }
 
     public static class Jacoco {
         public static final String JACOCO_TYPE = "JACOCOXML";
@@ -55,48 +67,71 @@ public class CoverageService {
         return COVERAGE_REPORT_FILE_NAME_PREFIX + index + "-" + fileSuffix;
     }
 
-    public static String[] getCoverageFiles(final FilePath workspace, String glob) throws IOException, InterruptedException {
+    public String[] getCoverageFiles(final FilePath workspace, String glob) throws IOException, InterruptedException {
         log(String.format("Looking for files that match the pattern %s in root directory %s", glob, workspace.getName()));
         return workspace.act(new ResultFilesCallable(glob));
     }
 
-    public static void copyCoverageFile(File resultFile, File targetReportFile, final FilePath workspace) throws IOException, InterruptedException {
-        log(String.format("Copying %s to %s", resultFile.getPath(), targetReportFile));
-
-        byte[] content = workspace.act(new FileContentCallable(resultFile));
+    /**
+     * copies the report to the target file, streaming it gzip compressed from the node that holds it,
+     * so the report is never held in memory as a whole
+     * @return true if the report was copied
+     */
+    public boolean copyCoverageFile(FilePath resultFile, File targetReportFile) throws IOException, InterruptedException {
+        log(String.format("Copying %s to %s", resultFile.getRemote(), targetReportFile));
 
-        if (validateContent(content)) {
-            log("Got coverage file content");
+        copyCompressed(resultFile, targetReportFile);
 
-            try (FileOutputStream os = new FileOutputStream(targetReportFile)) {
-                os.write(content);
-            }
+        if (validateContent(targetReportFile)) {
             log(String.format("coverage file copied successfully to %s", targetReportFile.getPath()));
+            return true;
         } else {
+            Files.deleteIfExists(targetReportFile.toPath());
             log("coverage file content corrupted, failed to copy the file to target destination");
+            return false;
+        }
+    }
+
+    static void copyCompressed(FilePath source, File target) throws IOException, InterruptedException {
+        Pipe pipe = Pipe.createRemoteToLocal();
+        Future<Void> sending = source.actAsync(new CompressedContentCallable(pipe));
+        try (InputStream in = new GZIPInputStream(pipe.getIn(), BUFFER_SIZE)) {
+            Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            try {
+                waitFor(sending, source);
+            } catch (IOException sendingFailure) {
+                e.addSuppressed(sendingFailure);
+            }
+            throw e;
+        }
+        waitFor(sending, source);
+    }
+
+    private static void waitFor(Future<Void> sending, FilePath source) throws IOException, InterruptedException {
+        try {
+            sending.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to read coverage file " + source.getRemote(), e.getCause());
         }
     }
 
     /**
      * most of the validations will be done in octane side
      * this is a place holder to do more validations if needed
-     * @param content of the file
+     * @param file copied file
      * @return status
      */
-    private static boolean validateContent(byte[] content) {
-        return content.length > 0;
+    private static boolean validateContent(File file) {
+        return file.length() > 0;
     }
 
-    public static void log(final String message) {
+    public void log(final String message) {
         if(listener != null) {
             listener.getLogger().println(message);
         }
     }
 
-    public static void setListener(TaskListener l) {
-        listener = l;
-    }
-
     /**
      * this class searched for files that match specific pattern
      */
@@ -115,16 +150,22 @@ public class CoverageService {
         }
     }
 
-    private static final class FileContentCallable extends MasterToSlaveFileCallable<byte[]> {
-        private final File file;
+    /**
+     * writes the file gzip compressed into the pipe, on the node that holds the file
+     */
+    private static final class CompressedContentCallable extends MasterToSlaveFileCallable<Void> {
+        private final Pipe pipe;
 
-        private FileContentCallable(File file) {
-            this.file = file;
+        private CompressedContentCallable(Pipe pipe) {
+            this.pipe = pipe;
         }
 
         @Override
-        public byte[] invoke(File rootDir, VirtualChannel channel) throws IOException {
-            return Files.readAllBytes(file.toPath());
+        public Void invoke(File file, VirtualChannel channel) throws IOException {
+            try (OutputStream out = new GZIPOutputStream(pipe.getOut(), BUFFER_SIZE)) {
+                Files.copy(file.toPath(), out);
+            }
+            return null;
         }
     }
 
@@ -0,0 +1,183 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.events;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the test result processing of finished pipelines away from the thread that delivers the flow node events.
+ * The queue is bounded: when it is full the submitting thread processes the build itself, which slows the event
+ * delivery down instead of piling up work. On shutdown the queued builds are processed before Jenkins stops.
+ */
+public final class PipelineFinishedProcessor {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(PipelineFinishedProcessor.class);
+
+	private static final int THREADS = Math.max(1, Integer.getInteger("PipelineFinishedProcessor.Threads", 2));
+	private static final int QUEUE_SIZE = Math.max(1, Integer.getInteger("PipelineFinishedProcessor.QueueSize", 100));
+	private static final int DRAIN_SECONDS = Math.max(0, Integer.getInteger("PipelineFinishedProcessor.DrainSeconds", 60));
+	private static final int FINISHED_BUILDS = Math.max(1, Integer.getInteger("PipelineFinishedProcessor.FinishedBuilds", 1000));
+
+	private static final PipelineFinishedProcessor instance = new PipelineFinishedProcessor(THREADS, QUEUE_SIZE, FINISHED_BUILDS);
+
+	private final ThreadPoolExecutor executor;
+	// guarded by this
+	private final Set<String> pending = new HashSet<>();
+	// the most recently processed builds, a late duplicate event of these is ignored; guarded by this
+	private final Map<String, Boolean> finished;
+
+	private final AtomicLong processed = new AtomicLong();
+	private final AtomicLong callerRuns = new AtomicLong();
+	private final AtomicLong duplicates = new AtomicLong();
+	private final AtomicLong totalLatency = new AtomicLong();
+	private final AtomicLong maxLatency = new AtomicLong();
+	private volatile long lastLatency;
+
+	PipelineFinishedProcessor(int threads, int queueSize, int finishedBuilds) {
+		finished = new LinkedHashMap<String, Boolean>() {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > finishedBuilds;
+			}
+		};
+		executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueSize),
+				new NamingThreadFactory(new DaemonThreadFactory(), "Octane pipeline results processor"),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Queues the processing of a finished build. The steps of the task run in order on a single thread.
+	 * A build that is already queued, in process or recently processed is not queued again.
+	 * A build whose processing failed is accepted again.
+	 *
+	 * @param buildKey the build
+	 * @param task     the processing, ending with the FINISHED event
+	 */
+	static void submit(String buildKey, Runnable task) {
+		instance.process(buildKey, task);
+	}
+
+	boolean process(String buildKey, Runnable task) {
+		if (!accept(buildKey)) {
+			duplicates.incrementAndGet();
+			logger.info("finished pipeline " + buildKey + " is already processed");
+			return false;
+		}
+		final long submitted = System.currentTimeMillis();
+		final Thread submitter = Thread.currentThread();
+		Runnable processing = () -> {
+			if (Thread.currentThread() == submitter) {
+				callerRuns.incrementAndGet();
+			}
+			boolean succeeded = false;
+			try {
+				task.run();
+				succeeded = true;
+			} catch (Throwable throwable) {
+				logger.error("failed to process finished pipeline " + buildKey, throwable);
+			} finally {
+				release(buildKey, succeeded);
+				long latency = System.currentTimeMillis() - submitted;
+				lastLatency = latency;
+				totalLatency.addAndGet(latency);
+				maxLatency.accumulateAndGet(latency, Math::max);
+				processed.incrementAndGet();
+			}
+		};
+		if (executor.isShutdown()) {
+			// Jenkins is stopping, the rejection policy would drop the build
+			processing.run();
+		} else {
+			executor.execute(processing);
+		}
+		return true;
+	}
+
+	private synchronized boolean accept(String buildKey) {
+		return !finished.containsKey(buildKey) && pending.add(buildKey);
+	}
+
+	private synchronized void release(String buildKey, boolean succeeded) {
+		pending.remove(buildKey);
+		if (succeeded) {
+			finished.put(buildKey, Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * Processes the queued builds before Jenkins stops, so that their FINISHED events are not lost.
+	 */
+	@Terminator
+	public static void drain() {
+		instance.drain(DRAIN_SECONDS);
+	}
+
+	boolean drain(long timeoutSeconds) {
+		executor.shutdown();
+		int queued = executor.getQueue().size() + executor.getActiveCount();
+		if (queued > 0) {
+			logger.info("processing " + queued + " finished pipelines before shutdown");
+		}
+		try {
+			if (executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		logger.warn(executor.getQueue().size() + " finished pipelines were not processed before shutdown");
+		return false;
+	}
+
+	public static Map<String, Object> getMetrics() {
+		return instance.metrics();
+	}
+
+	Map<String, Object> metrics() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		long count = processed.get();
+		metrics.put("threads", executor.getCorePoolSize());
+		metrics.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+		metrics.put("queueDepth", executor.getQueue().size());
+		metrics.put("inProcess", executor.getActiveCount());
+		metrics.put("processed", count);
+		metrics.put("processedOnEventThread", callerRuns.get());
+		metrics.put("duplicatesIgnored", duplicates.get());
+		metrics.put("lastLatencyMs", lastLatency);
+		metrics.put("averageLatencyMs", count == 0 ? 0 : totalLatency.get() / count);
+		metrics.put("maxLatencyMs", maxLatency.get());
+		return metrics;
+	}
+}
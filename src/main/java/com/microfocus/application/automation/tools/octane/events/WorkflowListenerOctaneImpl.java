@@ -47,9 +47,9 @@ import org.jenkinsci.plugins.workflow.flow.GraphListener;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Octane's listener for WorkflowRun events
@@ -69,7 +69,7 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 	//After upgrading Pipeline:Groovy plugin to Version 2.64: receive two start events, therefore
 	// pipeline job shows 2 bars for a single pipeline run.
 	// Here we add job key during start event and remove key in finished event
-	private static Set<String> workflowJobStarted = new HashSet<>();
+	private static final Set<String> workflowJobStarted = ConcurrentHashMap.newKeySet();
 	@Inject
 	private TestListener testListener;
 
@@ -83,8 +83,12 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 				sendPipelineStartedEvent(flowNode);
 			} else if (BuildHandlerUtils.isWorkflowEndNode(flowNode)) {
 				WorkflowRun parentRun = BuildHandlerUtils.extractParentRun(flowNode);
-				sendPipelineFinishedEvent(parentRun);
-				BuildLogHelper.enqueueBuildLog(parentRun);
+				workflowJobStarted.remove(getBuildKey(parentRun));
+				// tests are processed off the event thread; FINISHED and the build log follow in that order
+				PipelineFinishedProcessor.submit(getBuildKey(parentRun), () -> {
+					sendPipelineFinishedEvent(parentRun);
+					BuildLogHelper.enqueueBuildLog(parentRun);
+				});
 			} else if (BuildHandlerUtils.isStageStartNode(flowNode)) {
 				sendStageStartedEvent((StepStartNode) flowNode);
 			} else if (BuildHandlerUtils.isStageEndNode(flowNode)) {
@@ -100,10 +104,8 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 
 		//Avoid duplicate start events
 		String buildKey = getBuildKey(parentRun);
-		if (workflowJobStarted.contains(buildKey)) {
+		if (!workflowJobStarted.add(buildKey)) {
 			return;
-		} else {
-			workflowJobStarted.add(buildKey);
 		}
 
 		CIEvent event = dtoFactory.newDTO(CIEvent.class)
@@ -146,7 +148,6 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 	}
 
 	private void sendPipelineFinishedEvent(WorkflowRun parentRun) {
-		workflowJobStarted.remove(getBuildKey(parentRun));
 		boolean hasTests = testListener.processBuild(parentRun);
 
 		CIEvent event = dtoFactory.newDTO(CIEvent.class)
@@ -0,0 +1,79 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.hp.octane.integrations.dto.entities.Entity;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Octane entities (automated tests or data tables) of one scm repository, looked up by name.
+ * Lives for a single dispatcher run, so queued discovery results of the same repository share their lookups:
+ * only names that were not looked up yet go to Octane. Names touched by a dispatched result are invalidated,
+ * so the next result sees the changes of that dispatch.
+ */
+final class OctaneEntitiesCache {
+
+    // name -> (matching key -> entity), an empty map means that Octane has no entity with that name
+    private final Map<String, Map<String, Entity>> entitiesByName = new HashMap<>();
+
+    /**
+     * @param names  names to look up
+     * @param loader queries Octane for the given names, returns the found entities by matching key
+     * @return found entities of the given names by matching key
+     */
+    Map<String, Entity> get(Collection<String> names, Function<Set<String>, Map<String, Entity>> loader) {
+        Set<String> missing = new HashSet<>();
+        for (String name : names) {
+            if (!entitiesByName.containsKey(name)) {
+                missing.add(name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Entity> loaded = loader.apply(missing);
+            for (String name : missing) {
+                entitiesByName.put(name, new HashMap<>());
+            }
+            for (Map.Entry<String, Entity> entry : loaded.entrySet()) {
+                // the loader may return more than asked for, only names that were asked for are known to be complete
+                String name = entry.getValue().getName();
+                if (missing.contains(name)) {
+                    entitiesByName.get(name).put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        Map<String, Entity> result = new HashMap<>();
+        for (String name : names) {
+            result.putAll(entitiesByName.get(name));
+        }
+        return result;
+    }
+
+    void invalidate(Collection<String> names) {
+        entitiesByName.keySet().removeAll(names);
+    }
+}
@@ -84,6 +84,8 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
             return;
         }
 
+        // shared by all queued items of this run, so results of the same repository are validated with shared lookups
+        DispatchCaches caches = new DispatchCaches();
         ResultQueue.QueueItem item = null;
         try {
             while ((item = queue.peekFirst()) != null) {
@@ -119,7 +121,7 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
                 }
 
                 logger.warn("Persistence [" + item.getProjectName() + "#" + item.getBuildNumber() + "]");
-                dispatchDetectionResults(item, client.getEntitiesService(), result, build);
+                dispatchDetectionResults(item, client.getEntitiesService(), result, build, caches);
                 queue.remove();
             }
         } catch (OctaneRestException e) {
@@ -147,37 +149,84 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
         queue.close();
     }
 
-    private static void dispatchDetectionResults(ResultQueue.QueueItem item, EntitiesService entitiesService, UftTestDiscoveryResult result, AbstractBuild build) {
+    private static void dispatchDetectionResults(ResultQueue.QueueItem item, EntitiesService entitiesService, UftTestDiscoveryResult result, AbstractBuild build, DispatchCaches caches) {
+        prepareDispatching(entitiesService, result, caches);
+
+        try {
+            build.getWorkspace().act(new UFTTestDetectionFinalResultSaverCallable(result, build.getNumber()));
+        } catch (Exception e) {
+            logger.info("Failed to save final result : " + e.getMessage());
+        }
+
+        //dispatch
+        JobRunContext jobRunContext = JobRunContext.create(item.getProjectName(), item.getBuildNumber());
+        dispatch(result, caches, () -> UftTestDispatchUtils.dispatchDiscoveryResult(entitiesService, result, jobRunContext, null));
+    }
+
+    /**
+     * Completes the result with the state of Octane and drops the items that do not have to be dispatched
+     */
+    static void prepareDispatching(EntitiesService entitiesService, UftTestDiscoveryResult result, DispatchCaches caches) {
         //Check if there is diff in discovery and server status
         //for example : discovery found new test , but it already exist in server , instead of create new tests we will do update test
         if (result.isFullScan()) {
             UftTestDispatchUtils.prepareDispatchingForFullSync(entitiesService, result);
+            caches.invalidateRepository(result);
 
         } else {
-            if (isOctaneSupportTestRename(entitiesService)) {
+            if (caches.isOctaneSupportTestRename(result.getConfigurationId(), entitiesService)) {
                 handleMovedTests(result);
                 handleMovedDataTables(result);
             }
 
-            validateTestDiscoveryAndCompleteTestIdsForScmChangeDetection(entitiesService, result);
-            validateTestDiscoveryAndCompleteDataTableIdsForScmChangeDetection(entitiesService, result);
+            validateTestDiscoveryAndCompleteTestIdsForScmChangeDetection(entitiesService, result, caches.getTestsCache(result));
+            validateTestDiscoveryAndCompleteDataTableIdsForScmChangeDetection(entitiesService, result, caches.getDataTablesCache(result));
 
             UftTestDispatchUtils.removeItemsWithStatusNone(result.getAllTests());
             UftTestDispatchUtils.removeItemsWithStatusNone(result.getAllScmResourceFiles());
         }
+    }
 
+    /**
+     * Runs the dispatch of a prepared result, then drops what it changed in Octane from the caches,
+     * so the next queued items look those names up again
+     */
+    static void dispatch(UftTestDiscoveryResult result, DispatchCaches caches, Runnable dispatcher) {
         try {
-            build.getWorkspace().act(new UFTTestDetectionFinalResultSaverCallable(result, build.getNumber()));
-        } catch (Exception e) {
-            logger.info("Failed to save final result : " + e.getMessage());
+            dispatcher.run();
+        } finally {
+            invalidateDispatchedItems(result, caches.getTestsCache(result), caches.getDataTablesCache(result));
         }
+    }
 
-        //dispatch
-        JobRunContext jobRunContext = JobRunContext.create(item.getProjectName(), item.getBuildNumber());
-        UftTestDispatchUtils.dispatchDiscoveryResult(entitiesService, result, jobRunContext, null);
+    /**
+     * Drops the names of everything the result creates, updates or deletes in Octane from the caches
+     */
+    static void invalidateDispatchedItems(UftTestDiscoveryResult result, OctaneEntitiesCache testsCache, OctaneEntitiesCache dataTablesCache) {
+        Set<String> testNames = new HashSet<>();
+        for (AutomatedTest test : result.getAllTests()) {
+            if (!OctaneStatus.NONE.equals(test.getOctaneStatus())) {
+                testNames.add(test.getName());
+                if (test.getIsMoved()) {
+                    testNames.add(test.getOldName());
+                }
+            }
+        }
+        testsCache.invalidate(testNames);
+
+        Set<String> dataTableNames = new HashSet<>();
+        for (ScmResourceFile file : result.getAllScmResourceFiles()) {
+            if (!OctaneStatus.NONE.equals(file.getOctaneStatus())) {
+                dataTableNames.add(file.getName());
+                if (file.getIsMoved()) {
+                    dataTableNames.add(file.getOldName());
+                }
+            }
+        }
+        dataTablesCache.invalidate(dataTableNames);
     }
 
-    private static boolean validateTestDiscoveryAndCompleteDataTableIdsForScmChangeDetection(EntitiesService entitiesService, UftTestDiscoveryResult result) {
+    static boolean validateTestDiscoveryAndCompleteDataTableIdsForScmChangeDetection(EntitiesService entitiesService, UftTestDiscoveryResult result, OctaneEntitiesCache dataTablesCache) {
         boolean hasDiff = false;
         Set<String> allNames = new HashSet<>();
         for (ScmResourceFile file : result.getAllScmResourceFiles()) {
@@ -189,7 +238,8 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
         }
 
         //GET DataTables FROM OCTANE
-        Map<String, Entity> octaneEntityMapByRelativePath = UftTestDispatchUtils.getDataTablesFromServer(entitiesService, Long.parseLong(result.getWorkspaceId()), Long.parseLong(result.getScmRepositoryId()), allNames);
+        Map<String, Entity> octaneEntityMapByRelativePath = dataTablesCache.get(allNames, names ->
+                UftTestDispatchUtils.getDataTablesFromServer(entitiesService, Long.parseLong(result.getWorkspaceId()), Long.parseLong(result.getScmRepositoryId()), names));
 
 
         //MATCHING
@@ -240,7 +290,7 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
      *
      * @return true if there were changes comparing to discoverede results
      */
-    private static boolean validateTestDiscoveryAndCompleteTestIdsForScmChangeDetection(EntitiesService entitiesService, UftTestDiscoveryResult result) {
+    static boolean validateTestDiscoveryAndCompleteTestIdsForScmChangeDetection(EntitiesService entitiesService, UftTestDiscoveryResult result, OctaneEntitiesCache testsCache) {
         boolean hasDiff = false;
 
         Set<String> allTestNames = new HashSet<>();
@@ -254,7 +304,8 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
 
         //GET TESTS FROM OCTANE
         Collection<String> additionalFields = SdkStringUtils.isNotEmpty(result.getTestRunnerId()) ? Collections.singletonList(EntityConstants.AutomatedTest.TEST_RUNNER_FIELD) : null;
-        Map<String, Entity> octaneTestsMapByKey = UftTestDispatchUtils.getTestsFromServer(entitiesService, Long.parseLong(result.getWorkspaceId()), Long.parseLong(result.getScmRepositoryId()), true, allTestNames, additionalFields);
+        Map<String, Entity> octaneTestsMapByKey = testsCache.get(allTestNames, names ->
+                UftTestDispatchUtils.getTestsFromServer(entitiesService, Long.parseLong(result.getWorkspaceId()), Long.parseLong(result.getScmRepositoryId()), true, names, additionalFields));
 
 
         //MATCHING
@@ -302,6 +353,39 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
         return hasDiff;
     }
 
+    /**
+     * Lookups shared by the queued items of one dispatcher run.
+     * Queued items are not merged into one validation pass: each item is still validated and dispatched on its own,
+     * in queue order, only the Octane lookups it needs are served from here when an earlier item already made them.
+     */
+    static final class DispatchCaches {
+        private final Map<String, OctaneEntitiesCache> caches = new HashMap<>();
+        private final Map<String, Boolean> supportsTestRename = new HashMap<>();
+
+        OctaneEntitiesCache getTestsCache(UftTestDiscoveryResult result) {
+            // tests fetched with the test runner field are not interchangeable with tests fetched without it
+            String kind = SdkStringUtils.isNotEmpty(result.getTestRunnerId()) ? "tests-with-runner" : "tests";
+            return caches.computeIfAbsent(getRepositoryKey(result) + kind, key -> new OctaneEntitiesCache());
+        }
+
+        OctaneEntitiesCache getDataTablesCache(UftTestDiscoveryResult result) {
+            return caches.computeIfAbsent(getRepositoryKey(result) + "data-tables", key -> new OctaneEntitiesCache());
+        }
+
+        void invalidateRepository(UftTestDiscoveryResult result) {
+            String repositoryKey = getRepositoryKey(result);
+            caches.keySet().removeIf(key -> key.startsWith(repositoryKey));
+        }
+
+        boolean isOctaneSupportTestRename(String configurationId, EntitiesService entitiesService) {
+            return supportsTestRename.computeIfAbsent(configurationId, id -> UftTestDiscoveryDispatcher.isOctaneSupportTestRename(entitiesService));
+        }
+
+        private static String getRepositoryKey(UftTestDiscoveryResult result) {
+            return result.getConfigurationId() + "|" + result.getWorkspaceId() + "|" + result.getScmRepositoryId() + "|";
+        }
+    }
+
     @Override
     public long getRecurrencePeriod() {
         String value = System.getProperty("UftTestDiscoveryDispatcher.Period"); // let's us config the recurrence period. default is 30 seconds.
@@ -22,9 +22,6 @@ package com.microfocus.application.automation.tools.octane.model.processors.scm;
 
 import com.hp.octane.integrations.dto.DTOFactory;
 import com.hp.octane.integrations.dto.scm.*;
-import com.hp.octane.integrations.dto.scm.impl.LineRange;
-import com.hp.octane.integrations.dto.scm.impl.RevisionsMap;
-import com.hp.octane.integrations.dto.scm.impl.SCMFileBlameImpl;
 import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import hudson.FilePath;
 import hudson.model.*;
@@ -45,11 +42,7 @@ import jenkins.MasterToSlaveFileCallable;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.reflect.FieldUtils;
 import org.apache.logging.log4j.Logger;
-import org.eclipse.jgit.api.BlameCommand;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.blame.BlameResult;
-import org.eclipse.jgit.diff.*;
 import org.eclipse.jgit.errors.NoMergeBaseException;
 import org.eclipse.jgit.internal.JGitText;
 import org.eclipse.jgit.lib.Constants;
@@ -58,7 +51,6 @@ import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
-import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
 import java.io.File;
@@ -74,6 +66,7 @@ class GitSCMProcessor implements SCMProcessor {
 	private static final Logger logger = SDKBasedLoggerProvider.getLogger(GitSCMProcessor.class);
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
 	private static final String MASTER = "refs/remotes/origin/master";
+	private static final int LINE_ENRICHER_THREADS = Math.max(1, Integer.getInteger("GitSCMProcessor.LineEnricherThreads", 4));
 
 	@Override
 	public SCMData getSCMData(AbstractBuild build, SCM scm) {
@@ -97,7 +90,7 @@ class GitSCMProcessor implements SCMProcessor {
 		try {
 			FilePath workspace = build.getWorkspace();
 			if (workspace != null) {
-				scmData = workspace.act(new LineEnricherCallable(getCheckoutDir(build), scmData));
+				scmData = workspace.act(new LineEnricherCallable(getCheckoutDir(build), scmData, LINE_ENRICHER_THREADS));
 				logger.info("Line enricher: process took: " + ((System.currentTimeMillis() - startTime) / 1000) + " seconds");
 			} else {
 				logger.warn("Line enricher: workspace is null");
@@ -337,166 +330,4 @@ class GitSCMProcessor implements SCMProcessor {
 			}
 		}
 	}
-
-	/*line enricher running on the same jenkins node that the job is running in it*/
-	private static final class LineEnricherCallable extends MasterToSlaveFileCallable<SCMData> {
-		private final String checkoutDir;
-		private final SCMData scmData;
-
-		private LineEnricherCallable(String checkoutDir, SCMData scmData) {
-			this.checkoutDir = checkoutDir;
-			this.scmData = scmData;
-		}
-
-		@Override
-		public SCMData invoke(File rootDir, VirtualChannel channel) throws IOException {
-			File repoDir = new File(rootDir, checkoutDir + File.separator + ".git");
-			try (Git git = Git.open(repoDir);
-			     Repository repo = git.getRepository()) {
-				if (repo == null) {
-					return null;
-				}
-
-				try (RevWalk rw = new RevWalk(repo);
-				     DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
-					df.setDiffComparator(RawTextComparator.DEFAULT);
-					df.setRepository(repo);
-					df.setDetectRenames(true);
-
-					//add blame data to scm data
-					Set<String> committedFiles = getAddedOrEditedFiles(scmData);
-					List<SCMFileBlame> fileBlameList = getBlameData(repo, committedFiles);
-					scmData.setFileBlameList(fileBlameList);
-
-					for (SCMCommit curCommit : scmData.getCommits()) {
-						Map<String, SCMChange> fileChanges = new HashMap<>();
-						curCommit.getChanges().forEach(change -> fileChanges.put(change.getFile(), change));
-						RevCommit commit = rw.parseCommit(repo.resolve(curCommit.getRevId())); // Any ref will work here (HEAD, a sha1, tag, branch)
-						RevCommit parent = rw.parseCommit(commit.getParent(0).getId());
-
-						List<DiffEntry> diffs = df.scan(parent.getTree(), commit.getTree());
-						// FOR EACH FILE
-						for (DiffEntry diff : diffs) { // each file change will be in seperate diff
-							EditList fileEdits = df.toFileHeader(diff).toEditList();
-							switch (diff.getChangeType()) {
-								case ADD:
-									// old path == null, need to use new path
-									handleAddLinesDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-									break;
-								case COPY:
-									// need to validate this type
-									handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-									break;
-								case DELETE:
-									// new path == null, need to use old path
-									handleDeleteLinesDiff(fileEdits, fileChanges.get(diff.getOldPath()));
-									break;
-								case MODIFY:
-									handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-									break;
-								case RENAME:
-									// enrich delete event with 'rename to' data
-									SCMChange deletedChange = fileChanges.get(diff.getOldPath());
-									SCMChange newRenamedFile = fileChanges.get(diff.getNewPath());
-									deletedChange.setRenamedToFile(newRenamedFile.getFile());
-									// handle changes
-									handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-									break;
-								default:
-									break;
-							}
-						}
-					}
-					return scmData;
-				}
-			}
-		}
-	}
-
-	private static Set<String> getAddedOrEditedFiles(SCMData scmData) {
-		Set<String> filesCommittedInPPR = new HashSet<>();
-		for (SCMCommit curCommit : scmData.getCommits()) {
-			curCommit.getChanges().stream().filter(change -> !change.getType().equals("delete")).forEach(change -> filesCommittedInPPR.add(change.getFile()));
-		}
-		return filesCommittedInPPR;
-	}
-
-	private static List<SCMFileBlame> getBlameData(Repository repo, Set<String> files) {
-		BlameCommand blamer = new BlameCommand(repo);
-		List<SCMFileBlame> fileBlameList = new ArrayList<>();
-		ObjectId commitID;
-		try {
-			commitID = repo.resolve(Constants.HEAD);
-			for (String filePath : files) {
-				blamer.setStartCommit(commitID);
-				blamer.setFilePath(filePath);
-				BlameResult blameResult = blamer.call();
-				if (blameResult == null) {
-					continue;
-				}
-				RawText rawText = blameResult.getResultContents();
-				int fileSize = rawText.size();
-
-				RevisionsMap revisionsMap = new RevisionsMap();
-
-				if (fileSize > 0) {
-					String startRangeRevision = blameResult.getSourceCommit(0).getName();
-					int startRange = 1;
-					for (int i = 1; i < fileSize; i++) {
-						String currentRevision = blameResult.getSourceCommit(i).getName();
-						if (!currentRevision.equals(startRangeRevision)) {
-							LineRange range = new LineRange(startRange, i);//line numbers starting from 1 not from 0.
-							revisionsMap.addRangeToRevision(startRangeRevision, range);
-							startRange = i + 1;
-							startRangeRevision = currentRevision;
-						}
-					}
-				}
-				fileBlameList.add(new SCMFileBlameImpl(filePath, revisionsMap));
-			}
-		} catch (IOException e) {
-			logger.error("failed to resolve repo head", e);
-		} catch (GitAPIException e) {
-			logger.error("failed to get blame result from git", e);
-		}
-		return fileBlameList;
-	}
-
-	private static void handleModifyDiff(EditList fileEdits, SCMChange scmChange) {
-		if (scmChange != null) {
-			for (Edit edit : fileEdits) {
-				switch (edit.getType()) {
-					case INSERT:
-						scmChange.insertAddedLines(new LineRange(edit.getBeginB() + 1, edit.getEndB()));
-						break;
-					case DELETE:
-						scmChange.insertDeletedLines(new LineRange(edit.getBeginA() + 1, edit.getEndA()));
-						break;
-					case REPLACE:
-						scmChange.insertDeletedLines(new LineRange(edit.getBeginA() + 1, edit.getEndA()));
-						scmChange.insertAddedLines(new LineRange(edit.getBeginB() + 1, edit.getEndB()));
-						break;
-					default:
-						break;
-				}
-			}
-		}
-	}
-
-	// probably it's useless to track deleted lines (inside scm change), consider removing it later.
-	private static void handleDeleteLinesDiff(EditList fileEdits, SCMChange scmChange) {
-		if (scmChange != null) {
-			for (Edit edit : fileEdits) {
-				scmChange.insertDeletedLines(new LineRange(edit.getBeginA() + 1, edit.getEndA()));
-			}
-		}
-	}
-
-	private static void handleAddLinesDiff(EditList fileEdits, SCMChange scmChange) {
-		if (scmChange != null) {
-			for (Edit edit : fileEdits) {
-				scmChange.insertAddedLines(new LineRange(edit.getBeginB() + 1, edit.getEndB()));
-			}
-		}
-	}
 }
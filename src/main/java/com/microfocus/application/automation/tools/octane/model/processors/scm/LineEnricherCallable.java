@@ -0,0 +1,402 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import com.hp.octane.integrations.dto.scm.SCMChange;
+import com.hp.octane.integrations.dto.scm.SCMCommit;
+import com.hp.octane.integrations.dto.scm.SCMData;
+import com.hp.octane.integrations.dto.scm.SCMFileBlame;
+import com.hp.octane.integrations.dto.scm.impl.LineRange;
+import com.hp.octane.integrations.dto.scm.impl.RevisionsMap;
+import com.hp.octane.integrations.dto.scm.impl.SCMFileBlameImpl;
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import hudson.remoting.VirtualChannel;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.MasterToSlaveFileCallable;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.api.BlameCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.blame.BlameResult;
+import org.eclipse.jgit.diff.*;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Line enricher running on the same jenkins node that the job is running in it.
+ * Blame of the changed files and diff of the commits are done by a bounded pool of workers sharing the repository.
+ * Both are cached on the node, blame by (commit, path) and diff by commit, so rebuilds of the same revision skip the work.
+ * The caches are bounded by the line ranges and edits they hold, not by the number of files or commits,
+ * since one blame of a large file or one diff of a large commit can outweigh thousands of small ones.
+ */
+final class LineEnricherCallable extends MasterToSlaveFileCallable<SCMData> {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(LineEnricherCallable.class);
+	private static final int BLAME_CACHE_RANGES = Integer.getInteger("LineEnricherCallable.BlameCacheRanges", 200000);
+	private static final int DIFF_CACHE_EDITS = Integer.getInteger("LineEnricherCallable.DiffCacheEdits", 200000);
+	static final WeightedCache<SCMFileBlame> blameCache = new WeightedCache<>(BLAME_CACHE_RANGES);
+	static final WeightedCache<List<FileDiff>> diffCache = new WeightedCache<>(DIFF_CACHE_EDITS);
+
+	private final String checkoutDir;
+	private final SCMData scmData;
+	private final int threads;
+
+	LineEnricherCallable(String checkoutDir, SCMData scmData, int threads) {
+		this.checkoutDir = checkoutDir;
+		this.scmData = scmData;
+		this.threads = threads;
+	}
+
+	@Override
+	public SCMData invoke(File rootDir, VirtualChannel channel) throws IOException {
+		File repoDir = new File(rootDir, checkoutDir + File.separator + ".git");
+		try (Git git = Git.open(repoDir);
+		     Repository repo = git.getRepository()) {
+			if (repo == null) {
+				return null;
+			}
+
+			// blame and diff are mostly cpu bound, more workers than the node has cores do not help
+			int workers = Math.max(1, Math.min(threads, Runtime.getRuntime().availableProcessors()));
+			ExecutorService executor = Executors.newFixedThreadPool(workers, new NamingThreadFactory(new DaemonThreadFactory(), "GitSCMProcessor.lineEnricher"));
+			try {
+				//add blame data to scm data
+				List<Future<SCMFileBlame>> blames = new ArrayList<>();
+				ObjectId head = resolveHead(repo);
+				if (head != null) {
+					for (String filePath : getAddedOrEditedFiles(scmData)) {
+						blames.add(executor.submit(() -> getBlame(repo, head, filePath)));
+					}
+				}
+
+				List<Future<Void>> diffs = new ArrayList<>();
+				for (SCMCommit curCommit : scmData.getCommits()) {
+					diffs.add(executor.submit(() -> {
+						enrichCommit(repo, curCommit);
+						return null;
+					}));
+				}
+
+				List<SCMFileBlame> fileBlameList = new ArrayList<>();
+				for (Future<SCMFileBlame> blame : blames) {
+					try {
+						SCMFileBlame fileBlame = blame.get();
+						if (fileBlame != null) {
+							fileBlameList.add(fileBlame);
+						}
+					} catch (ExecutionException e) {
+						logger.error("failed to get blame result from git", e.getCause());
+					}
+				}
+				scmData.setFileBlameList(fileBlameList);
+
+				for (Future<Void> diff : diffs) {
+					try {
+						diff.get();
+					} catch (ExecutionException e) {
+						// a failing commit fails the whole enrichment
+						if (e.getCause() instanceof IOException) {
+							throw (IOException) e.getCause();
+						} else if (e.getCause() instanceof RuntimeException) {
+							throw (RuntimeException) e.getCause();
+						}
+						throw new IOException(e.getCause());
+					}
+				}
+				return scmData;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("line enricher interrupted");
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private static ObjectId resolveHead(Repository repo) {
+		try {
+			return repo.resolve(Constants.HEAD);
+		} catch (IOException e) {
+			logger.error("failed to resolve repo head", e);
+			return null;
+		}
+	}
+
+	private static Set<String> getAddedOrEditedFiles(SCMData scmData) {
+		Set<String> filesCommittedInPPR = new HashSet<>();
+		for (SCMCommit curCommit : scmData.getCommits()) {
+			curCommit.getChanges().stream().filter(change -> !change.getType().equals("delete")).forEach(change -> filesCommittedInPPR.add(change.getFile()));
+		}
+		return filesCommittedInPPR;
+	}
+
+	private static SCMFileBlame getBlame(Repository repo, ObjectId head, String filePath) throws GitAPIException {
+		String key = head.name() + ":" + filePath;
+		SCMFileBlame cached = blameCache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+
+		BlameCommand blamer = new BlameCommand(repo);
+		blamer.setStartCommit(head);
+		blamer.setFilePath(filePath);
+		BlameResult blameResult = blamer.call();
+		if (blameResult == null) {
+			return null;
+		}
+		RawText rawText = blameResult.getResultContents();
+		int fileSize = rawText.size();
+
+		RevisionsMap revisionsMap = new RevisionsMap();
+		int ranges = 0;
+
+		if (fileSize > 0) {
+			String startRangeRevision = blameResult.getSourceCommit(0).getName();
+			int startRange = 1;
+			for (int i = 1; i < fileSize; i++) {
+				String currentRevision = blameResult.getSourceCommit(i).getName();
+				if (!currentRevision.equals(startRangeRevision)) {
+					LineRange range = new LineRange(startRange, i);//line numbers starting from 1 not from 0.
+					revisionsMap.addRangeToRevision(startRangeRevision, range);
+					ranges++;
+					startRange = i + 1;
+					startRangeRevision = currentRevision;
+				}
+			}
+		}
+		SCMFileBlame fileBlame = new SCMFileBlameImpl(filePath, revisionsMap);
+		blameCache.put(key, fileBlame, 1 + ranges);
+		return fileBlame;
+	}
+
+	private static void enrichCommit(Repository repo, SCMCommit curCommit) throws IOException {
+		Map<String, SCMChange> fileChanges = new HashMap<>();
+		curCommit.getChanges().forEach(change -> fileChanges.put(change.getFile(), change));
+		// FOR EACH FILE
+		for (FileDiff diff : getDiffs(repo, curCommit.getRevId())) { // each file change will be in seperate diff
+			switch (diff.changeType) {
+				case ADD:
+					// old path == null, need to use new path
+					handleAddLinesDiff(diff.edits, fileChanges.get(diff.newPath));
+					break;
+				case COPY:
+					// need to validate this type
+					handleModifyDiff(diff.edits, fileChanges.get(diff.newPath));
+					break;
+				case DELETE:
+					// new path == null, need to use old path
+					handleDeleteLinesDiff(diff.edits, fileChanges.get(diff.oldPath));
+					break;
+				case MODIFY:
+					handleModifyDiff(diff.edits, fileChanges.get(diff.newPath));
+					break;
+				case RENAME:
+					// enrich delete event with 'rename to' data
+					SCMChange deletedChange = fileChanges.get(diff.oldPath);
+					SCMChange newRenamedFile = fileChanges.get(diff.newPath);
+					deletedChange.setRenamedToFile(newRenamedFile.getFile());
+					// handle changes
+					handleModifyDiff(diff.edits, fileChanges.get(diff.newPath));
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	private static List<FileDiff> getDiffs(Repository repo, String revId) throws IOException {
+		ObjectId commitId = repo.resolve(revId); // Any ref will work here (HEAD, a sha1, tag, branch)
+		if (commitId == null) {
+			throw new IOException("failed to resolve commit " + revId);
+		}
+		List<FileDiff> cached = diffCache.get(commitId.name());
+		if (cached != null) {
+			return cached;
+		}
+
+		List<FileDiff> fileDiffs = new ArrayList<>();
+		int edits = 0;
+		try (RevWalk rw = new RevWalk(repo);
+		     DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+			df.setDiffComparator(RawTextComparator.DEFAULT);
+			df.setRepository(repo);
+			df.setDetectRenames(true);
+
+			RevCommit commit = rw.parseCommit(commitId);
+			RevCommit parent = rw.parseCommit(commit.getParent(0).getId());
+			for (DiffEntry diff : df.scan(parent.getTree(), commit.getTree())) {
+				FileDiff fileDiff = new FileDiff(diff.getChangeType(), diff.getOldPath(), diff.getNewPath(), df.toFileHeader(diff).toEditList());
+				fileDiffs.add(fileDiff);
+				edits += 1 + fileDiff.edits.size();
+			}
+		}
+		diffCache.put(commitId.name(), fileDiffs, edits);
+		return fileDiffs;
+	}
+
+	private static void handleModifyDiff(EditList fileEdits, SCMChange scmChange) {
+		if (scmChange != null) {
+			for (Edit edit : fileEdits) {
+				switch (edit.getType()) {
+					case INSERT:
+						scmChange.insertAddedLines(new LineRange(edit.getBeginB() + 1, edit.getEndB()));
+						break;
+					case DELETE:
+						scmChange.insertDeletedLines(new LineRange(edit.getBeginA() + 1, edit.getEndA()));
+						break;
+					case REPLACE:
+						scmChange.insertDeletedLines(new LineRange(edit.getBeginA() + 1, edit.getEndA()));
+						scmChange.insertAddedLines(new LineRange(edit.getBeginB() + 1, edit.getEndB()));
+						break;
+					default:
+						break;
+				}
+			}
+		}
+	}
+
+	// probably it's useless to track deleted lines (inside scm change), consider removing it later.
+	private static void handleDeleteLinesDiff(EditList fileEdits, SCMChange scmChange) {
+		if (scmChange != null) {
+			for (Edit edit : fileEdits) {
+				scmChange.insertDeletedLines(new LineRange(edit.getBeginA() + 1, edit.getEndA()));
+			}
+		}
+	}
+
+	private static void handleAddLinesDiff(EditList fileEdits, SCMChange scmChange) {
+		if (scmChange != null) {
+			for (Edit edit : fileEdits) {
+				scmChange.insertAddedLines(new LineRange(edit.getBeginB() + 1, edit.getEndB()));
+			}
+		}
+	}
+
+	static void clearCaches() {
+		blameCache.clear();
+		diffCache.clear();
+	}
+
+	/**
+	 * Cache dropping the least recently used entries once the total weight of its entries exceeds the limit
+	 */
+	static final class WeightedCache<V> {
+		private final long maxWeight;
+		private final LinkedHashMap<String, Weighted<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+		private long weight;
+		private long hits;
+		private long misses;
+
+		WeightedCache(long maxWeight) {
+			this.maxWeight = maxWeight;
+		}
+
+		synchronized V get(String key) {
+			Weighted<V> entry = entries.get(key);
+			if (entry == null) {
+				misses++;
+				return null;
+			}
+			hits++;
+			return entry.value;
+		}
+
+		/**
+		 * @param valueWeight weight of the value, a value heavier than the whole cache is not cached
+		 */
+		synchronized void put(String key, V value, int valueWeight) {
+			Weighted<V> previous = entries.remove(key);
+			if (previous != null) {
+				weight -= previous.weight;
+			}
+			if (valueWeight > maxWeight) {
+				return;
+			}
+			entries.put(key, new Weighted<>(value, valueWeight));
+			weight += valueWeight;
+
+			Iterator<Weighted<V>> eldest = entries.values().iterator();
+			while (weight > maxWeight && eldest.hasNext()) {
+				weight -= eldest.next().weight;
+				eldest.remove();
+			}
+		}
+
+		synchronized long getWeight() {
+			return weight;
+		}
+
+		synchronized long getHits() {
+			return hits;
+		}
+
+		synchronized long getMisses() {
+			return misses;
+		}
+
+		synchronized void clear() {
+			entries.clear();
+			weight = 0;
+			hits = 0;
+			misses = 0;
+		}
+
+		private static final class Weighted<V> {
+			private final V value;
+			private final int weight;
+
+			private Weighted(V value, int weight) {
+				this.value = value;
+				this.weight = weight;
+			}
+		}
+	}
+
+	/**
+	 * Changed lines of one file in a commit
+	 */
+	private static final class FileDiff {
+		private final DiffEntry.ChangeType changeType;
+		private final String oldPath;
+		private final String newPath;
+		private final EditList edits;
+
+		private FileDiff(DiffEntry.ChangeType changeType, String oldPath, String newPath, EditList edits) {
+			this.changeType = changeType;
+			this.oldPath = oldPath;
+			this.newPath = newPath;
+			this.edits = edits;
+		}
+	}
+}
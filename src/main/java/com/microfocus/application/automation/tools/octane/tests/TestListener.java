@@ -54,9 +54,15 @@ public class TestListener {
 			for (OctaneTestsExtension ext : OctaneTestsExtension.all()) {
 				if (ext.supports(run)) {
 					TestResultContainer testResultContainer = ext.getTestResults(run, jenkinsRootUrl);
-					if (testResultContainer != null && testResultContainer.getIterator().hasNext()) {
-						resultWriter.writeResults(testResultContainer);
-						hasTests = true;
+					if (testResultContainer != null) {
+						try {
+							if (testResultContainer.getIterator().hasNext()) {
+								resultWriter.writeResults(testResultContainer);
+								hasTests = true;
+							}
+						} finally {
+							testResultContainer.close();
+						}
 					}
 				}
 			}
@@ -23,9 +23,11 @@ package com.microfocus.application.automation.tools.octane.tests;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFields;
 import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Iterator;
 
-public class TestResultContainer {
+public class TestResultContainer implements Closeable {
 
     private Iterator<TestResult> iterator;
     private ResultFields resultFields;
@@ -42,4 +44,14 @@ public class TestResultContainer {
     public ResultFields getResultFields() {
         return resultFields;
     }
+
+    /**
+     * Releases what the iterator holds open when it was not read to the end.
+     */
+    @Override
+    public void close() throws IOException {
+        if (iterator instanceof Closeable) {
+            ((Closeable) iterator).close();
+        }
+    }
 }
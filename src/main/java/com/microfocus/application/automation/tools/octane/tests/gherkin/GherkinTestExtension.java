@@ -25,13 +25,12 @@ import com.microfocus.application.automation.tools.octane.configuration.SDKBased
 import com.microfocus.application.automation.tools.octane.tests.OctaneTestsExtension;
 import com.microfocus.application.automation.tools.octane.tests.TestProcessingException;
 import com.microfocus.application.automation.tools.octane.tests.TestResultContainer;
-import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
 import hudson.Extension;
 import hudson.model.Run;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.util.List;
+import java.io.UncheckedIOException;
 
 @Extension
 public class GherkinTestExtension extends OctaneTestsExtension {
@@ -52,12 +51,14 @@ public class GherkinTestExtension extends OctaneTestsExtension {
 	public TestResultContainer getTestResults(Run<?, ?> build, String jenkinsRootUrl) throws
 			TestProcessingException, IOException, InterruptedException {
 		try {
-			List<TestResult> testResults = GherkinTestResultsCollector.collectGherkinTestsResults(build.getRootDir());
-			return new TestResultContainer(testResults.iterator(), null);
+			GherkinTestResultsIterator testResults = GherkinTestResultsCollector.iterateGherkinTestsResults(build.getRootDir());
+			// reads the first feature, a broken file is reported here; later failures end the writing of the results
+			testResults.hasNext();
+			return new TestResultContainer(testResults, null);
+		} catch (UncheckedIOException e) {
+			throw new TestProcessingException("Error while reading gherkin test results", e.getCause());
 		} catch (IOException e) {
 			throw e;
-		} catch (InterruptedException e) {
-			throw e;
 		} catch (Exception e) {
 			throw new TestProcessingException("Error while processing gherkin test results", e);
 		}
@@ -23,11 +23,17 @@ package com.microfocus.application.automation.tools.octane.tests.gherkin;
 import com.microfocus.application.automation.tools.octane.tests.junit.TestResultStatus;
 import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
 
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,23 +41,39 @@ import java.util.Map;
  * Created by franksha on 20/03/2016.
  */
 public class GherkinTestResult implements TestResult {
+    private static final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        return factory;
+    });
+
     private Map<String, String> attributes;
-    private Element contentElement;
+    // the feature element as written to mqmTests.xml, kept serialized instead of as a DOM tree
+    private byte[] content;
 
-    public GherkinTestResult(String name, Element xmlElement, long duration, TestResultStatus status) {
+    public GherkinTestResult(String name, byte[] content, long duration, TestResultStatus status) {
         this.attributes = new HashMap<>();
         this.attributes.put("name", name);
         this.attributes.put("duration", String.valueOf(duration));
         this.attributes.put("status", status.toPrettyName());
-        this.contentElement = xmlElement;
+        this.content = content;
     }
 
     public Map<String, String> getAttributes() {
         return attributes;
     }
 
+    /**
+     * @return the feature element, parsed on every call
+     */
     public Element getXmlElement() {
-        return contentElement;
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(content)).getDocumentElement();
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            throw new IllegalStateException("Failed to parse gherkin feature content", e);
+        }
     }
 
     @Override
@@ -62,27 +84,28 @@ public class GherkinTestResult implements TestResult {
                 writer.writeAttribute(attrName, attributes.get(attrName));
             }
         }
-        writeXmlElement(writer, contentElement);
+        writeContent(writer);
         writer.writeEndElement();
     }
 
-    private void writeXmlElement(XMLStreamWriter writer, Element rootElement) throws XMLStreamException {
-        if (rootElement != null) {
-            writer.writeStartElement(rootElement.getTagName());
-            for (int a = 0; a < rootElement.getAttributes().getLength(); a++) {
-                String attrName = rootElement.getAttributes().item(a).getNodeName();
-                writer.writeAttribute(attrName, rootElement.getAttribute(attrName));
-            }
-            NodeList childNodes = rootElement.getChildNodes();
-            for (int c = 0; c < childNodes.getLength(); c++) {
-                Node child = childNodes.item(c);
-                if (child instanceof Element) {
-                    writeXmlElement(writer, (Element) child);
-                } else if (child.getNodeType() == Node.CDATA_SECTION_NODE) {
-                    writer.writeCharacters(child.getNodeValue());
+    private void writeContent(XMLStreamWriter writer) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.get().createXMLStreamReader(new ByteArrayInputStream(content));
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    writer.writeStartElement(reader.getLocalName());
+                    for (int a = 0; a < reader.getAttributeCount(); a++) {
+                        writer.writeAttribute(reader.getAttributeLocalName(a), reader.getAttributeValue(a));
+                    }
+                } else if (event == XMLStreamConstants.CDATA || event == XMLStreamConstants.CHARACTERS) {
+                    writer.writeCharacters(reader.getText());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    writer.writeEndElement();
                 }
             }
-            writer.writeEndElement();
+        } finally {
+            reader.close();
         }
     }
 }
@@ -23,56 +23,223 @@ package com.microfocus.application.automation.tools.octane.tests.gherkin;
 import com.microfocus.application.automation.tools.octane.actions.cucumber.CucumberResultsService;
 import com.microfocus.application.automation.tools.octane.tests.junit.TestResultStatus;
 import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.TransformerException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by franksha on 20/03/2016.
  */
 public class GherkinTestResultsCollector {
 
+    private static final String XML_VERSION = "1";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // only CDATA content is kept, so the parser has to tell it apart from other text
+    private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    private static final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        if (factory.isPropertySupported(REPORT_CDATA)) {
+            factory.setProperty(REPORT_CDATA, true);
+        }
+        return factory;
+    });
+    private static final ThreadLocal<XMLOutputFactory> outputFactory = ThreadLocal.withInitial(XMLOutputFactory::newInstance);
+
     public static List<TestResult> collectGherkinTestsResults(File buildDir) throws ParserConfigurationException, IOException, InterruptedException, SAXException, TransformerException {
         List<TestResult> result = new ArrayList<>();
+        for (File gherkinTestResultsFile : getGherkinResultFiles(buildDir)) {
+            try (FeatureReader reader = new FeatureReader(gherkinTestResultsFile)) {
+                GherkinTestResult feature;
+                while ((feature = reader.readFeature()) != null) {
+                    result.add(feature);
+                }
+            }
+        }
+        return result;
+    }
 
-        //Retrieve the cucumber results xml
+    /**
+     * Validates all result files of the build, then reads their features one at a time as the iterator advances,
+     * so only the feature being written is held in memory.
+     */
+    public static GherkinTestResultsIterator iterateGherkinTestsResults(File buildDir) throws IOException {
+        List<File> files = getGherkinResultFiles(buildDir);
+        for (File file : files) {
+            new FeatureReader(file).close();
+        }
+        return new GherkinTestResultsIterator(files);
+    }
+
+    private static List<File> getGherkinResultFiles(File buildDir) {
+        List<File> files = new ArrayList<>();
         int i = 0;
         File gherkinTestResultsFile = new File(buildDir, CucumberResultsService.getGherkinResultFileName(i));
-
         while (gherkinTestResultsFile.exists()) {
-            String gherkinTestResultsPath = buildDir.getAbsolutePath() + File.separator + CucumberResultsService.getGherkinResultFileName(i);
+            files.add(gherkinTestResultsFile);
+            i++;
+            gherkinTestResultsFile = new File(buildDir, CucumberResultsService.getGherkinResultFileName(i));
+        }
+        return files;
+    }
 
-            //parse the xml
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            Document doc = dBuilder.parse(gherkinTestResultsPath);
-            doc.getDocumentElement().normalize();
+    /**
+     * Reads the features of one result file. Each feature is kept as a small element tree only until its
+     * status is known, and then handed over as the serialized content that goes into mqmTests.xml.
+     */
+    static final class FeatureReader implements Closeable {
+        private final InputStream in;
+        private final XMLStreamReader reader;
+
+        FeatureReader(File file) throws IOException {
+            in = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE);
+            try {
+                reader = inputFactory.get().createXMLStreamReader(in);
+                validateXMLVersion(reader);
+            } catch (XMLStreamException e) {
+                in.close();
+                throw new IOException("Failed to read gherkin results file " + file, e);
+            } catch (RuntimeException e) {
+                in.close();
+                throw e;
+            }
+        }
 
-            validateXMLVersion(doc);
+        /**
+         * @return the next feature of the file, or null when there are no more
+         */
+        GherkinTestResult readFeature() throws IOException {
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "feature".equals(reader.getLocalName())) {
+                        XmlNode featureNode = XmlNode.read(reader);
+                        FeatureInfo featureInfo = new FeatureInfo(featureNode);
+                        return new GherkinTestResult(featureInfo.getName(), featureNode.toXml(), featureInfo.getDuration(), featureInfo.getStatus());
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to read gherkin results", e);
+            }
+        }
 
-            //Go over the features
-            NodeList featureNodes = doc.getElementsByTagName("feature");
-            for (int f = 0; f < featureNodes.getLength(); f++) {
-                Element featureElement = (Element) featureNodes.item(f);
-                FeatureInfo featureInfo = new FeatureInfo(featureElement);
-                result.add(new GherkinTestResult(featureInfo.getName(), featureElement, featureInfo.getDuration(), featureInfo.getStatus()));
+        @Override
+        public void close() throws IOException {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // close quietly
+            } finally {
+                in.close();
             }
+        }
+    }
 
-            i++;
-            gherkinTestResultsFile = new File(buildDir, CucumberResultsService.getGherkinResultFileName(i));
-        } //end while
+    /**
+     * Element tree of a single feature: attributes, child elements and the CDATA content, which is all that
+     * is written to mqmTests.xml.
+     */
+    private static final class XmlNode {
+        private final String name;
+        private final Map<String, String> attributes = new LinkedHashMap<>();
+        private final List<Object> children = new ArrayList<>();
+
+        private XmlNode(String name) {
+            this.name = name;
+        }
 
-        return result;
+        private static XmlNode read(XMLStreamReader reader) throws XMLStreamException {
+            XmlNode node = new XmlNode(reader.getLocalName());
+            for (int a = 0; a < reader.getAttributeCount(); a++) {
+                node.attributes.put(reader.getAttributeLocalName(a), reader.getAttributeValue(a));
+            }
+            StringBuilder cdata = null;
+            while (true) {
+                int event = reader.next();
+                if (event != XMLStreamConstants.CDATA && cdata != null) {
+                    node.children.add(cdata.toString());
+                    cdata = null;
+                }
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    node.children.add(read(reader));
+                } else if (event == XMLStreamConstants.CDATA) {
+                    // a long CDATA section may be reported in several parts
+                    if (cdata == null) {
+                        cdata = new StringBuilder();
+                    }
+                    cdata.append(reader.getText());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    return node;
+                }
+            }
+        }
+
+        private String getAttribute(String attrName) {
+            String value = attributes.get(attrName);
+            return value != null ? value : "";
+        }
+
+        private List<XmlNode> getElementsByTagName(String tagName) {
+            List<XmlNode> elements = new ArrayList<>();
+            collect(tagName, elements);
+            return elements;
+        }
+
+        private void collect(String tagName, List<XmlNode> elements) {
+            for (Object child : children) {
+                if (child instanceof XmlNode) {
+                    XmlNode element = (XmlNode) child;
+                    if (tagName.equals(element.name)) {
+                        elements.add(element);
+                    }
+                    element.collect(tagName, elements);
+                }
+            }
+        }
+
+        private byte[] toXml() throws XMLStreamException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            XMLStreamWriter writer = outputFactory.get().createXMLStreamWriter(out, "UTF-8");
+            write(writer);
+            writer.close();
+            return out.toByteArray();
+        }
+
+        private void write(XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeStartElement(name);
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                writer.writeAttribute(attribute.getKey(), attribute.getValue());
+            }
+            for (Object child : children) {
+                if (child instanceof XmlNode) {
+                    ((XmlNode) child).write(writer);
+                } else {
+                    writer.writeCData((String) child);
+                }
+            }
+            writer.writeEndElement();
+        }
     }
 
     private static class FeatureInfo {
@@ -82,16 +249,15 @@ public class GherkinTestResultsCollector {
         private boolean statusDetermined = false;
         private long duration = 0;
 
-        public FeatureInfo(Element featureElement) {
+        public FeatureInfo(XmlNode featureElement) {
             name = featureElement.getAttribute("name");
-            NodeList backgroundNodes = featureElement.getElementsByTagName("background");
-            Element backgroundElement = backgroundNodes.getLength() > 0 ? (Element)backgroundNodes.item(0) : null;
-            NodeList backgroundSteps = backgroundElement != null ? backgroundElement.getElementsByTagName("step") : null;
+            List<XmlNode> backgroundNodes = featureElement.getElementsByTagName("background");
+            XmlNode backgroundElement = !backgroundNodes.isEmpty() ? backgroundNodes.get(0) : null;
+            List<XmlNode> backgroundSteps = backgroundElement != null ? backgroundElement.getElementsByTagName("step") : null;
 
             //Go over the scenarios
-            NodeList scenarioNodes = featureElement.getElementsByTagName("scenario");
-            for (int s = 0; s < scenarioNodes.getLength(); s++) {
-                Element scenarioElement = (Element) scenarioNodes.item(s);
+            List<XmlNode> scenarioNodes = featureElement.getElementsByTagName("scenario");
+            for (XmlNode scenarioElement : scenarioNodes) {
                 ScenarioInfo scenarioInfo = new ScenarioInfo(scenarioElement, backgroundSteps);
                 String scenarioName = scenarioInfo.getName();
                 scenarioNames.add(scenarioName);
@@ -130,15 +296,15 @@ public class GherkinTestResultsCollector {
             private boolean statusDetermined = false;
             private String name;
 
-            public ScenarioInfo(Element scenarioElement, NodeList backgroundSteps) {
+            public ScenarioInfo(XmlNode scenarioElement, List<XmlNode> backgroundSteps) {
                 name = getScenarioName(scenarioElement);
 
-                List<Element> stepElements = getStepElements(backgroundSteps, scenarioElement);
-                for (Element stepElement : stepElements) {
+                List<XmlNode> stepElements = getStepElements(backgroundSteps, scenarioElement);
+                for (XmlNode stepElement : stepElements) {
                     addStep(stepElement);
                 }
 
-                scenarioElement.setAttribute("status", status.toPrettyName());
+                scenarioElement.attributes.put("status", status.toPrettyName());
 
                 //for surefire report
                 stepNames.add(name);
@@ -161,12 +327,12 @@ public class GherkinTestResultsCollector {
                 return name;
             }
 
-            private void addStep(Element stepElement) {
+            private void addStep(XmlNode stepElement) {
                 String stepName = stepElement.getAttribute("name");
                 stepNames.add(stepName);
 
                 String durationStr = stepElement.getAttribute("duration");
-                long stepDuration = durationStr != "" ? Long.parseLong(durationStr) : 0;
+                long stepDuration = !durationStr.isEmpty() ? Long.parseLong(durationStr) : 0;
                 duration += stepDuration;
 
                 String stepStatus = stepElement.getAttribute("status");
@@ -179,26 +345,19 @@ public class GherkinTestResultsCollector {
                 }
             }
 
-            private List<Element> getStepElements(NodeList backgroundSteps, Element scenarioElement) {
-                List<Element> stepElements = new ArrayList<>();
+            private List<XmlNode> getStepElements(List<XmlNode> backgroundSteps, XmlNode scenarioElement) {
+                List<XmlNode> stepElements = new ArrayList<>();
                 if(backgroundSteps != null) {
-                    for (int bs = 0; bs < backgroundSteps.getLength(); bs++) {
-                        Element stepElement = (Element) backgroundSteps.item(bs);
-                        stepElements.add(stepElement);
-                    }
-                }
-                NodeList stepNodes = scenarioElement.getElementsByTagName("step");
-                for (int sn = 0; sn < stepNodes.getLength(); sn++) {
-                    Element stepElement = (Element) stepNodes.item(sn);
-                    stepElements.add(stepElement);
+                    stepElements.addAll(backgroundSteps);
                 }
+                stepElements.addAll(scenarioElement.getElementsByTagName("step"));
 
                 return stepElements;
             }
 
-            private String getScenarioName(Element scenarioElement) {
+            private String getScenarioName(XmlNode scenarioElement) {
                 String scenarioName = scenarioElement.getAttribute("name");
-                if (scenarioElement.hasAttribute("outlineIndex")) {
+                if (scenarioElement.attributes.containsKey("outlineIndex")) {
                     String outlineIndexStr = scenarioElement.getAttribute("outlineIndex");
                     if (outlineIndexStr != null && !outlineIndexStr.isEmpty()) {
                         Integer outlineIndex = Integer.valueOf(scenarioElement.getAttribute("outlineIndex"));
@@ -219,20 +378,20 @@ public class GherkinTestResultsCollector {
         }
     }
 
-    private static void validateXMLVersion(Document doc) {
-        String XML_VERSION = "1";
-        NodeList featuresNodes = doc.getElementsByTagName("features");
-        if(featuresNodes.getLength() > 0) {
-            String versionAttr = ((Element) featuresNodes.item(0)).getAttribute("version");
-            if (versionAttr == null || versionAttr.isEmpty() || versionAttr.compareTo(XML_VERSION) != 0) {
-                throw new IllegalArgumentException("\n********************************************************\n" +
-                    "Incompatible xml version received from the Octane formatter.\n" +
-                    "expected version = " + XML_VERSION + " actual version = " + versionAttr + ".\n" +
-                    "You may need to update the octane formatter version to the correct version in order to work with this jenkins plugin\n" +
-                    "********************************************************");
-            }
-        } else {
-            throw new IllegalArgumentException("The file does not contain Octane Gherkin results. Configuration error?");
+    private static void validateXMLVersion(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT && "features".equals(reader.getLocalName())) {
+                String versionAttr = reader.getAttributeValue(null, "version");
+                if (versionAttr == null || versionAttr.isEmpty() || versionAttr.compareTo(XML_VERSION) != 0) {
+                    throw new IllegalArgumentException("\n********************************************************\n" +
+                        "Incompatible xml version received from the Octane formatter.\n" +
+                        "expected version = " + XML_VERSION + " actual version = " + versionAttr + ".\n" +
+                        "You may need to update the octane formatter version to the correct version in order to work with this jenkins plugin\n" +
+                        "********************************************************");
+                }
+                return;
+            }
         }
+        throw new IllegalArgumentException("The file does not contain Octane Gherkin results. Configuration error?");
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.gherkin;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the features of the gherkin result files of a build one at a time, see
+ * {@link GherkinTestResultsCollector#iterateGherkinTestsResults(File)}.
+ * A file that cannot be read is reported as an {@link UncheckedIOException}; a consumer that stops early
+ * closes the iterator to release the file being read.
+ */
+public class GherkinTestResultsIterator implements Iterator<TestResult>, Closeable {
+	private static Logger logger = SDKBasedLoggerProvider.getLogger(GherkinTestResultsIterator.class);
+
+	private final Iterator<File> files;
+	private GherkinTestResultsCollector.FeatureReader reader;
+	private File file;
+	private GherkinTestResult next;
+	private boolean closed;
+
+	GherkinTestResultsIterator(List<File> files) {
+		this.files = files.iterator();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next != null) {
+			return true;
+		}
+		if (closed) {
+			return false;
+		}
+		try {
+			while (next == null && (reader != null || files.hasNext())) {
+				if (reader == null) {
+					file = files.next();
+					reader = new GherkinTestResultsCollector.FeatureReader(file);
+				}
+				next = reader.readFeature();
+				if (next == null) {
+					closeReader();
+				}
+			}
+		} catch (IOException e) {
+			close();
+			throw new UncheckedIOException("Failed to read gherkin test results from " + file, e); // NON-NLS
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+		return next != null;
+	}
+
+	@Override
+	public TestResult next() {
+		if (hasNext()) {
+			TestResult value = next;
+			next = null;
+			return value;
+		} else {
+			throw new NoSuchElementException();
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Stops the iteration and closes the file being read.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		next = null;
+		closeReader();
+	}
+
+	private void closeReader() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (IOException ioe) {
+				logger.error("Failed to close the stream", ioe); // NON-NLS
+			}
+			reader = null;
+		}
+	}
+}
@@ -32,7 +32,6 @@ import com.microfocus.application.automation.tools.octane.tests.build.BuildHandl
 import com.microfocus.application.automation.tools.octane.tests.detection.MFToolsDetectionExtension;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFields;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFieldsDetectionService;
-import com.microfocus.application.automation.tools.octane.tests.impl.ObjectStreamIterator;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.maven.MavenBuild;
@@ -94,7 +93,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 
 			FilePath filePath = workspace.act(new GetJUnitTestResults(run, Collections.singletonList(resultFile), false, jenkinsRootUrl));
 			ResultFields detectedFields = getResultFields(run);
-			return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+			return new TestResultContainer(new TestResultSpillIterator(filePath), detectedFields);
 		} else {
 			//avoid java.lang.NoClassDefFoundError when maven plugin is not present
 			if ("hudson.maven.MavenModuleSetBuild".equals(run.getClass().getName())) {
@@ -115,7 +114,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 				if (!resultFiles.isEmpty()) {
 					ResultFields detectedFields = getResultFields(run);
 					FilePath filePath = BuildHandlerUtils.getWorkspace(run).act(new GetJUnitTestResults(run, resultFiles, false, jenkinsRootUrl));
-					return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+					return new TestResultContainer(new TestResultSpillIterator(filePath), detectedFields);
 				}
 			}
 			logger.debug("No JUnit result report found");
@@ -178,7 +177,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 						}
 					}
 				}
-				additionalContext = testFolderNames;
+				additionalContext = new UftTestFolderIndex(testFolderNames);
 			}
 			if (HPRunnerType.StormRunnerLoad.equals(hpRunnerType)) {
 				try {
@@ -193,23 +192,16 @@ public class JUnitExtension extends OctaneTestsExtension {
 
 		@Override
 		public FilePath invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
-			OutputStream os = filePath.write();
-			BufferedOutputStream bos = new BufferedOutputStream(os);
-			ObjectOutputStream oos = new ObjectOutputStream(bos);
-
-			try {
+			try (TestResultSpillWriter writer = new TestResultSpillWriter(filePath.write())) {
 				for (FilePath report : reports) {
 					JUnitXmlIterator iterator = new JUnitXmlIterator(report.read(), moduleDetection, workspace, sharedCheckOutDirectory, jobName, buildId, buildStarted, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, additionalContext);
 					while (iterator.hasNext()) {
-						oos.writeObject(iterator.next());
+						writer.write(iterator.next());
 					}
 				}
 			} catch (XMLStreamException e) {
 				throw new IOException(e);
 			}
-			os.flush();
-
-			oos.close();
 			return filePath;
 		}
 
@@ -28,11 +28,13 @@ import com.microfocus.application.automation.tools.octane.configuration.SDKBased
 import com.microfocus.application.automation.tools.octane.tests.HPRunnerType;
 import com.microfocus.application.automation.tools.octane.tests.xml.AbstractXmlIterator;
 import hudson.FilePath;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.Logger;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.EndDocument;
 import javax.xml.stream.events.EndElement;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
@@ -44,7 +46,6 @@ import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * JUnit result parser and enricher according to HPRunnerType
@@ -75,6 +76,11 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 	private String sharedCheckOutDirectory;
 	private Object additionalContext;
 	private String filePath;
+	private String uftPathToTest;
+	private final StringBuilder uftReportMarkers = new StringBuilder();
+	private String stormRunnerReportFile;
+	private String stormRunnerReportURL;
+	private boolean stormRunnerReportResolved;
 	public static final String SRL_REPORT_URL = "reportUrl";
 
 	public JUnitXmlIterator(InputStream read, List<ModuleDetection> moduleDetection, FilePath workspace, String sharedCheckOutDirectory, String jobName, String buildId, long buildStarted, boolean stripPackageAndClass, HPRunnerType hpRunnerType, String jenkinsRootUrl, Object additionalContext) throws XMLStreamException {
@@ -166,7 +172,10 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 
                 if (hpRunnerType.equals(HPRunnerType.UFT)) {
 					if (testName != null && testName.contains("..")) { //resolve existence of ../ - for example c://a/../b => c://b
-						testName = new File(testName).getCanonicalPath();
+						String normalized = FilenameUtils.normalize(testName);
+						if (normalized != null) {
+							testName = normalized;
+						}
 					}
 
                     String myPackageName = packageName;
@@ -177,7 +186,7 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 
 					// if workspace is prefix of the method name, cut it off
 					// currently this handling is needed for UFT tests
-					int uftTextIndexStart = getUftTestIndexStart(workspace, sharedCheckOutDirectory, testName);
+					int uftTextIndexStart = getUftTestIndexStart(testName);
 					if (uftTextIndexStart != -1) {
 						String path = testName.substring(uftTextIndexStart);
 						path = path.replace(SdkConstants.FileSystem.LINUX_PATH_SPLITTER, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
@@ -196,21 +205,15 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 
 					String cleanedTestName = cleanTestName(testName);
 					boolean testReportCreated = true;
-					if (additionalContext != null && additionalContext instanceof List) {
-						//test folders are appear in the following format GUITest1[1], while [1] number of test. It possible that tests with the same name executed in the same job
-						//by adding [1] or [2] we can differentiate between different instances.
-						//We assume that test folders are sorted so in this section, once we found the test folder, we remove it from collection , in order to find the second instance in next iteration
-						List<String> createdTests = (List<String>) additionalContext;
-						String searchFor = cleanedTestName + "[";
-						Optional<String> optional = createdTests.stream().filter(str -> str.startsWith(searchFor)).findFirst();
-						if (optional.isPresent()) {
-							cleanedTestName = optional.get();
-							createdTests.remove(cleanedTestName);
+					if (additionalContext instanceof UftTestFolderIndex) {
+						String testFolder = ((UftTestFolderIndex) additionalContext).take(cleanedTestName);
+						if (testFolder != null) {
+							cleanedTestName = testFolder;
 						}
-						testReportCreated = optional.isPresent();
+						testReportCreated = testFolder != null;
 					}
 
-					workspace.createTextTempFile("build" + buildId + "." + cleanTestName(testName) + ".", "", "Created  " + testReportCreated);
+					uftReportMarkers.append(cleanTestName(testName)).append(": Created  ").append(testReportCreated).append(System.lineSeparator());
 					if (testReportCreated) {
 						externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/UFTReport/" + cleanedTestName + "/run_results.html";
 					} else {
@@ -220,10 +223,7 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 				} else if (hpRunnerType.equals(HPRunnerType.PerformanceCenter)) {
 					externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/performanceTestsReports/pcRun/Report.html";
 				} else if (hpRunnerType.equals(HPRunnerType.StormRunnerLoad)) {
-					externalURL = tryGetStormRunnerReportURLFromJunitFile(filePath);
-					if (StringUtils.isEmpty(externalURL) && additionalContext != null && additionalContext instanceof Collection) {
-						externalURL = tryGetStormRunnerReportURLFromLog((Collection) additionalContext);
-					}
+					externalURL = getStormRunnerReportURL();
 				}
 			} else if ("duration".equals(localName)) { // NON-NLS
 				duration = parseTime(readNextValue());
@@ -254,6 +254,8 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 				}
 
 			}
+		} else if (event instanceof EndDocument) {
+			writeUftReportMarkers();
 		} else if (event instanceof EndElement) {
 			EndElement element = (EndElement) event;
 			String localName = element.getName().getLocalPart();
@@ -270,6 +272,31 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 		}
 	}
 
+	/**
+	 * The report URL only depends on the JUnit file and the build log, so it is resolved once per file.
+	 */
+	private String getStormRunnerReportURL() {
+		if (!stormRunnerReportResolved || !StringUtils.equals(filePath, stormRunnerReportFile)) {
+			stormRunnerReportResolved = true;
+			stormRunnerReportFile = filePath;
+			stormRunnerReportURL = tryGetStormRunnerReportURLFromJunitFile(filePath);
+			if (StringUtils.isEmpty(stormRunnerReportURL) && additionalContext instanceof Collection) {
+				stormRunnerReportURL = tryGetStormRunnerReportURLFromLog((Collection) additionalContext);
+			}
+		}
+		return stormRunnerReportURL;
+	}
+
+	/**
+	 * Leaves one marker file per report in the workspace, listing which tests got a UFT report folder.
+	 */
+	private void writeUftReportMarkers() throws IOException, InterruptedException {
+		if (uftReportMarkers.length() > 0) {
+			workspace.createTextTempFile("build" + buildId + ".", "", uftReportMarkers.toString());
+			uftReportMarkers.setLength(0);
+		}
+	}
+
 	private static String tryGetStormRunnerReportURLFromLog(Collection logLines) {
 		//console contains link to report
 		//link start with "View report:"
@@ -313,29 +340,32 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 		return result;
 	}
 
-	private int getUftTestIndexStart(FilePath workspace, String sharedCheckOutDirectory, String testName) {
-		int returnIndex = -1;
+	private int getUftTestIndexStart(String testName) {
+		if (uftPathToTest == null) {
+			uftPathToTest = resolveUftPathToTest();
+		}
+		if (!uftPathToTest.isEmpty() && testName.toLowerCase().startsWith(uftPathToTest)) {
+			return uftPathToTest.length() + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the lower cased folder the UFT tests are checked out to, or an empty string if it cannot be resolved
+	 */
+	private String resolveUftPathToTest() {
 		try {
-			if (sharedCheckOutDirectory == null) {
-				sharedCheckOutDirectory = "";
-			}
-			String pathToTest;
 			if (StringUtils.isEmpty(sharedCheckOutDirectory)) {
-				pathToTest = workspace.getRemote();
-			} else {
-				pathToTest = Paths.get(sharedCheckOutDirectory).isAbsolute() ?
-						sharedCheckOutDirectory :
-						Paths.get(workspace.getRemote(), sharedCheckOutDirectory).toFile().getCanonicalPath();
-			}
-
-
-			if (testName.toLowerCase().startsWith(pathToTest.toLowerCase())) {
-				returnIndex = pathToTest.length() + 1;
+				return workspace.getRemote().toLowerCase();
 			}
+			String pathToTest = Paths.get(sharedCheckOutDirectory).isAbsolute() ?
+					sharedCheckOutDirectory :
+					Paths.get(workspace.getRemote(), sharedCheckOutDirectory).toFile().getCanonicalPath();
+			return pathToTest.toLowerCase();
 		} catch (Exception e) {
-			logger.error(String.format("Failed to getUftTestIndexStart for testName '%s' and sharedCheckOutDirectory '%s' : %s", testName, sharedCheckOutDirectory, e.getMessage()), e);
+			logger.error(String.format("Failed to getUftTestIndexStart for sharedCheckOutDirectory '%s' : %s", sharedCheckOutDirectory, e.getMessage()), e);
+			return "";
 		}
-		return returnIndex;
 	}
 
 	private String cleanTestName(String testName) {
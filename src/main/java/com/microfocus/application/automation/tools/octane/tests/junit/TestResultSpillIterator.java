@@ -0,0 +1,160 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
+import hudson.FilePath;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams back the test results written by {@link TestResultSpillWriter}.
+ */
+public class TestResultSpillIterator implements Iterator<TestResult> {
+	private static Logger logger = SDKBasedLoggerProvider.getLogger(TestResultSpillIterator.class);
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final TestResultStatus[] STATUSES = TestResultStatus.values();
+
+	private final DataInputStream in;
+	private final List<String> dictionary = new ArrayList<>();
+	private JUnitTestResult next;
+	private boolean closed;
+
+	public TestResultSpillIterator(FilePath filePath) throws IOException, InterruptedException {
+		this(filePath.read());
+	}
+
+	public TestResultSpillIterator(InputStream is) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(is, BUFFER_SIZE));
+		if (in.readInt() != TestResultSpillWriter.MAGIC) {
+			in.close();
+			throw new IOException("Unexpected test results format");
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next != null) {
+			return true;
+		}
+		if (closed) {
+			return false;
+		}
+		try {
+			next = readNext();
+		} catch (EOFException e) {
+			next = null;
+		} catch (IOException | RuntimeException e) {
+			logger.error("Failed to read test results", e); // NON-NLS
+			next = null;
+		}
+		if (next == null) {
+			close();
+		}
+		return next != null;
+	}
+
+	@Override
+	public TestResult next() {
+		if (hasNext()) {
+			TestResult value = next;
+			next = null;
+			return value;
+		} else {
+			throw new NoSuchElementException();
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private JUnitTestResult readNext() throws IOException {
+		while (true) {
+			byte type = in.readByte();
+			int length = in.readInt();
+			if (type == TestResultSpillWriter.DICTIONARY) {
+				dictionary.add(readString());
+			} else if (type == TestResultSpillWriter.TEST) {
+				return readTest();
+			} else {
+				in.skipBytes(length);
+			}
+		}
+	}
+
+	private JUnitTestResult readTest() throws IOException {
+		String testName = readString();
+		String moduleName = lookup(in.readInt());
+		String packageName = lookup(in.readInt());
+		String className = lookup(in.readInt());
+		TestResultStatus status = STATUSES[in.readByte()];
+		long duration = in.readLong();
+		long started = in.readLong();
+		TestError testError = null;
+		if (in.readBoolean()) {
+			String errorType = lookup(in.readInt());
+			String errorMsg = readString();
+			String stackTrace = readString();
+			testError = new TestError(stackTrace, errorType, errorMsg);
+		}
+		String externalReportUrl = readString();
+		String description = readString();
+		return new JUnitTestResult(moduleName, packageName, className, testName, status, duration, started, testError,
+				externalReportUrl, description);
+	}
+
+	private String lookup(int id) {
+		return id == TestResultSpillWriter.NULL ? null : dictionary.get(id);
+	}
+
+	private String readString() throws IOException {
+		int length = in.readInt();
+		if (length == TestResultSpillWriter.NULL) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void close() {
+		closed = true;
+		try {
+			in.close();
+		} catch (IOException ioe) {
+			logger.error("Failed to close the stream", ioe); // NON-NLS
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes test results in a compact record format, read back by {@link TestResultSpillIterator}.
+ * <p>
+ * The stream starts with {@link #MAGIC} followed by records of the form {@code [type:byte][length:int][payload]}.
+ * Module, package, class and error type names are sent once as {@link #DICTIONARY} records and referenced by id
+ * from the {@link #TEST} records, so a large suite costs little more than its test names and errors.
+ * Unlike {@link java.io.ObjectOutputStream}, the writer keeps no reference to the written results.
+ */
+public class TestResultSpillWriter implements Closeable {
+
+	static final int MAGIC = 0x4f545231; // OTR1
+	static final byte DICTIONARY = 1;
+	static final byte TEST = 2;
+	static final int NULL = -1;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final DataOutputStream out;
+	private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+	private final DataOutputStream record = new DataOutputStream(recordBuffer);
+	private final Map<String, Integer> dictionary = new HashMap<>();
+
+	public TestResultSpillWriter(OutputStream os) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(os, BUFFER_SIZE));
+		out.writeInt(MAGIC);
+	}
+
+	public void write(JUnitTestResult result) throws IOException {
+		int module = lookup(result.getModuleName());
+		int packageName = lookup(result.getPackageName());
+		int className = lookup(result.getClassName());
+		TestError error = result.getTestError();
+		int errorType = error == null ? NULL : lookup(error.getErrorType());
+
+		writeString(record, result.getTestName());
+		record.writeInt(module);
+		record.writeInt(packageName);
+		record.writeInt(className);
+		record.writeByte(result.getResult().ordinal());
+		record.writeLong(result.getDuration());
+		record.writeLong(result.getStarted());
+		record.writeBoolean(error != null);
+		if (error != null) {
+			record.writeInt(errorType);
+			writeString(record, error.getErrorMsg());
+			writeString(record, error.getStackTraceStr());
+		}
+		writeString(record, result.getExternalReportUrl());
+		writeString(record, result.getDescription());
+		flushRecord(TEST);
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	private int lookup(String value) throws IOException {
+		if (value == null) {
+			return NULL;
+		}
+		Integer id = dictionary.get(value);
+		if (id == null) {
+			id = dictionary.size();
+			dictionary.put(value, id);
+			writeString(record, value);
+			flushRecord(DICTIONARY);
+		}
+		return id;
+	}
+
+	private void flushRecord(byte type) throws IOException {
+		out.writeByte(type);
+		out.writeInt(recordBuffer.size());
+		recordBuffer.writeTo(out);
+		recordBuffer.reset();
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(NULL);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
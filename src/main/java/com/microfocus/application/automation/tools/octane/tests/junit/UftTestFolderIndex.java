@@ -0,0 +1,61 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Report folders created for UFT tests, indexed by test name.
+ * Test folders appear in the format GUITest1[1], where [1] is the number of the run: the same test may be executed
+ * more than once in a job. The folders of a test are handed out in their listing order, so every run gets its own
+ * report.
+ */
+public class UftTestFolderIndex implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Map<String, ArrayDeque<String>> folders = new HashMap<>();
+
+	public UftTestFolderIndex(Collection<String> folderNames) {
+		for (String folderName : folderNames) {
+			int index = folderName.lastIndexOf('[');
+			if (index < 0) {
+				continue;
+			}
+			folders.computeIfAbsent(folderName.substring(0, index), key -> new ArrayDeque<>()).add(folderName);
+		}
+	}
+
+	/**
+	 * Takes the next report folder of a test.
+	 *
+	 * @param testName the test name, without the path
+	 * @return the folder name, or null if UFT did not create a report for the test
+	 */
+	public synchronized String take(String testName) {
+		ArrayDeque<String> testFolders = folders.get(testName);
+		return testFolders == null ? null : testFolders.pollFirst();
+	}
+}
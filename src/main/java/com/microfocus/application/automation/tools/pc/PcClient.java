@@ -31,7 +31,6 @@ import com.microfocus.application.automation.tools.pc.helper.DateFormatter;
 import com.microfocus.application.automation.tools.run.PcBuilder;
 import hudson.FilePath;
 
-import java.beans.IntrospectionException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -52,13 +51,23 @@ public class PcClient {
     private PcRestProxy restProxy;
     private boolean loggedIn;
     private PrintStream logger;
+    private PcRunContext context;
     private DateFormatter dateFormatter = new DateFormatter("");
 
     public PcClient(PcModel pcModel, PrintStream logger) {
+        this(pcModel, new PcRunContext(logger, null, null));
+    }
+
+    public PcClient(PcModel pcModel, PcRunContext context) {
+        PrintStream logger = context.getLogger();
         try {
             model = pcModel;
+            this.context = context;
+            this.logger = logger;
             String credentialsProxyId = model.getCredentialsProxyId(true);
-            UsernamePasswordCredentials usernamePCPasswordCredentialsForProxy = PcBuilder.getCredentialsId(credentialsProxyId);
+            UsernamePasswordCredentials usernamePCPasswordCredentialsForProxy = context.findCredentials(credentialsProxyId);
+            if (usernamePCPasswordCredentialsForProxy == null)
+                usernamePCPasswordCredentialsForProxy = context.getProxyCredentials();
             String proxyOutUser = (usernamePCPasswordCredentialsForProxy == null || model.getProxyOutURL(true).isEmpty()) ? "" : usernamePCPasswordCredentialsForProxy.getUsername();
             String proxyOutPassword= (usernamePCPasswordCredentialsForProxy == null || model.getProxyOutURL(true).isEmpty()) ? "" : usernamePCPasswordCredentialsForProxy.getPassword().getPlainText();
             if(model.getProxyOutURL(true) != null && !model.getProxyOutURL(true).isEmpty()) {
@@ -71,7 +80,6 @@ public class PcClient {
                 }
             }
             restProxy = new PcRestProxy(model.isHTTPSProtocol(),model.getPcServerName(true), model.getAlmDomain(true), model.getAlmProject(true), model.getProxyOutURL(true),proxyOutUser,proxyOutPassword);
-            this.logger = logger;
         }catch (PcException e){
             logger.println(String.format("%s - %s", dateFormatter.getDate(), e.getMessage()));
         }
@@ -79,26 +87,35 @@ public class PcClient {
     }
 
     public <T extends PcRestProxy> PcClient(PcModel pcModel, PrintStream logger, T proxy) {
+        this(pcModel, new PcRunContext(logger, null, null), proxy);
+    }
+
+    public <T extends PcRestProxy> PcClient(PcModel pcModel, PcRunContext context, T proxy) {
         model = pcModel;
         restProxy = proxy;
-        this.logger = logger;
+        this.context = context;
+        this.logger = context.getLogger();
     }
 
     public boolean login() {
         try {
             String credentialsId = model.getCredentialsId(true);
-            UsernamePasswordCredentials usernamePCPasswordCredentials = PcBuilder.getCredentialsId(credentialsId);
+            UsernamePasswordCredentials usernamePCPasswordCredentials = context.findCredentials(credentialsId);
             if(usernamePCPasswordCredentials != null) {
                 if(model.getCredentialsId().startsWith("$"))
                     logger.println(String.format("%s - %s", dateFormatter.getDate(), Messages.UsingPCCredentialsBuildParameters()));
                 else
                     logger.println(String.format("%s - %s", dateFormatter.getDate(), Messages.UsingPCCredentialsConfiguration()));
+            }
+            else {
+                usernamePCPasswordCredentials = context.getCredentials();
+            }
+            if(usernamePCPasswordCredentials != null) {
                 logger.println(String.format("%s - %s\n[PCServer='%s://%s/loadtest/%s', User='%s']", dateFormatter.getDate(), Messages.TryingToLogin(), model.isHTTPSProtocol(), restProxy.GetPcServer(), restProxy.GetTenant(), usernamePCPasswordCredentials.getUsername()));
                 loggedIn = restProxy.authenticate(usernamePCPasswordCredentials.getUsername(), usernamePCPasswordCredentials.getPassword().getPlainText());
             }
             else {
-                logger.println(String.format("%s - %s\n[PCServer='%s://%s/loadtest/%s', User='%s']", dateFormatter.getDate(), Messages.TryingToLogin(), model.isHTTPSProtocol(), restProxy.GetPcServer(), restProxy.GetTenant(), PcBuilder.usernamePCPasswordCredentials.getUsername()));
-                loggedIn = restProxy.authenticate(PcBuilder.usernamePCPasswordCredentials.getUsername(), PcBuilder.usernamePCPasswordCredentials.getPassword().getPlainText());
+                logger.println(String.format("%s - %s: %s", dateFormatter.getDate(), Messages.CannotFindCredentials(), credentialsId));
             }
         } catch (PcException e) {
             logger.println(String.format("%s - %s", dateFormatter.getDate(), e.getMessage()));
@@ -636,58 +653,57 @@ public class PcClient {
     }
 
 
-    // This method will return a map with the following structure: <transaction_name:selected_measurement_value>
-    // for example:
-    // <Action_Transaction:0.001>
-    // <Virtual transaction 2:0.51>
-    // This function uses reflection since we know only at runtime which transactions data will be reposed from the rest request.
-    public Map<String, String>  getTrendReportByXML(String trendReportId, int runId, TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType,TrendReportTypes.Measurement measurement) throws IOException, PcException, IntrospectionException, NoSuchMethodException {
-
-        Map<String, String> measurmentsMap = new LinkedHashMap<String, String>();
-        measurmentsMap.put("RunId","_" + runId + "_");
-        measurmentsMap.put("Trend Measurement Type",measurement.toString() + "_" + pctType.toString());
-
-
-
-            TrendReportTransactionDataRoot res = restProxy.getTrendReportByXML(trendReportId, runId);
-
-//            java.lang.reflect.Method rootMethod =  res.getClass().getMethod("getTrendReport" + dataType.toString() + "DataRowsList");
-//            ArrayList<Object> RowsListObj = (ArrayList<Object>) rootMethod.invoke(res);
-//            RowsListObj.get(0);
-
-            List<Object> RowsListObj = res.getTrendReportRoot();
-
-            for (int i=0; i< RowsListObj.size();i++){
-                try {
-
-                    java.lang.reflect.Method rowListMethod = RowsListObj.get(i).getClass().getMethod("getTrendReport" + dataType.toString() + "DataRowList");
-
-                for ( Object DataRowObj : (ArrayList<Object>)rowListMethod.invoke(RowsListObj.get(i)))
-                {
-                    if (DataRowObj.getClass().getMethod("getPCT_TYPE").invoke(DataRowObj).equals(pctType.toString()))
-                    {
-                        java.lang.reflect.Method method;
-                        method = DataRowObj.getClass().getMethod("get" + measurement.toString());
-                        measurmentsMap.put(DataRowObj.getClass().getMethod("getPCT_NAME").invoke(DataRowObj).toString(),method.invoke(DataRowObj)==null?"":method.invoke(DataRowObj).toString());
-                    }
+    // Fetches the trend report data of a run once and flattens it into typed rows, one per
+    // transaction, monitor or regular measurement, for example:
+    // <Transaction, TRT, Action_Transaction, PCT_AVERAGE=0.001, ...>
+    // <Monitors, UDP, Virtual transaction 2, PCT_AVERAGE=0.51, ...>
+    public List<TrendReportRow> getTrendReportRows(String trendReportId, int runId) throws IOException, PcException {
+
+        TrendReportTransactionDataRoot res = restProxy.getTrendReportByXML(trendReportId, runId);
+        List<TrendReportRow> rows = new ArrayList<TrendReportRow>();
+        if (res == null || res.getTrendReportRoot() == null)
+            return rows;
+
+        for (Object rowsObj : res.getTrendReportRoot()) {
+            if (rowsObj instanceof TrendReportTransactionDataRows) {
+                for (Object rowObj : ((TrendReportTransactionDataRows) rowsObj).getTrendReportTransactionDataRowList()) {
+                    TrendReportTransactionDataRow row = (TrendReportTransactionDataRow) rowObj;
+                    rows.add(new TrendReportRow(TrendReportTypes.DataType.Transaction, row.getPCT_TYPE(), row.getPCT_NAME())
+                            .put(TrendReportTypes.Measurement.PCT_MINIMUM, row.getPCT_MINIMUM())
+                            .put(TrendReportTypes.Measurement.PCT_MAXIMUM, row.getPCT_MAXIMUM())
+                            .put(TrendReportTypes.Measurement.PCT_AVERAGE, row.getPCT_AVERAGE())
+                            .put(TrendReportTypes.Measurement.PCT_MEDIAN, row.getPCT_MEDIAN())
+                            .put(TrendReportTypes.Measurement.PCT_STDDEVIATION, row.getPCT_STDDEVIATION())
+                            .put(TrendReportTypes.Measurement.PCT_COUNT1, row.getPCT_COUNT1())
+                            .put(TrendReportTypes.Measurement.PCT_SUM1, row.getPCT_SUM1())
+                            .put(TrendReportTypes.Measurement.PCT_PERCENTILE_90, row.getPCT_PERCENTILE_90())
+                            .put(TrendReportTypes.Measurement.PCT_PERCENTILE_95, row.getPCT_PERCENTILE_95()));
                 }
-                }catch (NoSuchMethodException e){
-                  //  logger.println("No such method exception: " + e);
+            } else if (rowsObj instanceof TrendReportMonitorsDataRows) {
+                for (Object rowObj : ((TrendReportMonitorsDataRows) rowsObj).getTrendReportMonitorsDataRowList()) {
+                    TrendReportMonitorsDataRow row = (TrendReportMonitorsDataRow) rowObj;
+                    rows.add(new TrendReportRow(TrendReportTypes.DataType.Monitors, row.getPCT_TYPE(), row.getPCT_NAME())
+                            .put(TrendReportTypes.Measurement.PCT_MINIMUM, row.getPCT_MINIMUM())
+                            .put(TrendReportTypes.Measurement.PCT_MAXIMUM, row.getPCT_MAXIMUM())
+                            .put(TrendReportTypes.Measurement.PCT_AVERAGE, row.getPCT_AVERAGE())
+                            .put(TrendReportTypes.Measurement.PCT_MEDIAN, row.getPCT_MEDIAN())
+                            .put(TrendReportTypes.Measurement.PCT_STDDEVIATION, row.getPCT_STDDEVIATION())
+                            .put(TrendReportTypes.Measurement.PCT_COUNT1, row.getPCT_COUNT1())
+                            .put(TrendReportTypes.Measurement.PCT_SUM1, row.getPCT_SUM1()));
                 }
-                catch (Exception e){
-                    logger.println(String.format("%s - Error on getTrendReportByXML: %s ", dateFormatter.getDate(), e));
+            } else if (rowsObj instanceof TrendReportRegularDataRows) {
+                for (Object rowObj : ((TrendReportRegularDataRows) rowsObj).getTrendReportRegularDataRowList()) {
+                    TrendReportRegularDataRow row = (TrendReportRegularDataRow) rowObj;
+                    rows.add(new TrendReportRow(TrendReportTypes.DataType.Regular, row.getPCT_TYPE(), row.getPCT_NAME())
+                            .put(TrendReportTypes.Measurement.PCT_MINIMUM, row.getPCT_MINIMUM())
+                            .put(TrendReportTypes.Measurement.PCT_MAXIMUM, row.getPCT_MAXIMUM())
+                            .put(TrendReportTypes.Measurement.PCT_AVERAGE, row.getPCT_AVERAGE())
+                            .put(TrendReportTypes.Measurement.PCT_MEDIAN, row.getPCT_MEDIAN())
+                            .put(TrendReportTypes.Measurement.PCT_SUM1, row.getPCT_SUM1()));
                 }
             }
-
-
-
-
-          //  logger.print(res);
-
-
-        return measurmentsMap;
-
-
+        }
+        return rows;
     }
 
 }
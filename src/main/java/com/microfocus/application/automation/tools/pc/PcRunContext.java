@@ -0,0 +1,100 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.common.UsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
+import hudson.model.Run;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.PrintStream;
+
+/**
+ * State of a single Performance Center execution: the build it runs for, the log it writes to and
+ * the credentials resolved for it. Each execution gets its own context, so concurrent PC builds on
+ * one controller never share a logger, a run or credentials.
+ */
+public class PcRunContext {
+
+    private final Run<?, ?> run;
+    private final PrintStream logger;
+    private final UsernamePasswordCredentials credentials;
+    private final UsernamePasswordCredentials proxyCredentials;
+
+    public PcRunContext(Run<?, ?> run, PrintStream logger, String credentialsId, String credentialsProxyId) {
+        this.run = run;
+        this.logger = logger;
+        this.credentials = credentialsId != null ? findCredentials(credentialsId) : null;
+        this.proxyCredentials = StringUtils.isNotEmpty(credentialsProxyId) ? findCredentials(credentialsProxyId) : null;
+    }
+
+    public PcRunContext(PrintStream logger, UsernamePasswordCredentials credentials, UsernamePasswordCredentials proxyCredentials) {
+        this.run = null;
+        this.logger = logger;
+        this.credentials = credentials;
+        this.proxyCredentials = proxyCredentials;
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    public PrintStream getLogger() {
+        return logger;
+    }
+
+    /**
+     * @return the PC credentials configured on the build step, resolved when the execution started
+     */
+    public UsernamePasswordCredentials getCredentials() {
+        return credentials;
+    }
+
+    /**
+     * @return the proxy credentials configured on the build step, resolved when the execution started
+     */
+    public UsernamePasswordCredentials getProxyCredentials() {
+        return proxyCredentials;
+    }
+
+    /**
+     * Looks up credentials in the scope of this execution's build, e.g. an id taken from a build parameter.
+     */
+    public UsernamePasswordCredentials findCredentials(String credentialsId) {
+        if (StringUtils.isBlank(credentialsId) || run == null)
+            return null;
+
+        UsernamePasswordCredentials usernamePasswordCredentials = CredentialsProvider.findCredentialById(credentialsId,
+                StandardUsernamePasswordCredentials.class,
+                run,
+                URIRequirementBuilder.create().build());
+
+        if (usernamePasswordCredentials == null && logger != null) {
+            logger.println(String.format("%s : %s",
+                    Messages.CannotFindCredentials(),
+                    credentialsId));
+        }
+
+        return usernamePasswordCredentials;
+    }
+}
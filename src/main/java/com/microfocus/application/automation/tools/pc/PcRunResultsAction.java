@@ -0,0 +1,56 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records on a build the JUnit results files written by its PC build steps, so that the results
+ * recorder reads the files of this build and not those of another build of the same job.
+ */
+public class PcRunResultsAction extends InvisibleAction {
+
+    private final List<String> fileNames = new ArrayList<String>();
+
+    /**
+     * Gets the action of a build, adding it on first use.
+     */
+    public static synchronized PcRunResultsAction of(Run<?, ?> build) {
+        PcRunResultsAction action = build.getAction(PcRunResultsAction.class);
+        if (action == null) {
+            action = new PcRunResultsAction();
+            build.addAction(action);
+        }
+        return action;
+    }
+
+    public synchronized void add(String fileName) {
+        fileNames.add(fileName);
+    }
+
+    public synchronized List<String> getFileNames() {
+        return new ArrayList<String>(fileNames);
+    }
+}
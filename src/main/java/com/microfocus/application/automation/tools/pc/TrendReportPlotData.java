@@ -0,0 +1,169 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes.DataType;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes.Measurement;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes.PctType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projects the rows of one trend report fetch onto every CSV file read by the Plot plugin.
+ * Rows are visited once; each file receives the values of its data type, PCT type and measurement.
+ */
+public final class TrendReportPlotData {
+
+    private static final Plot[] PLOTS = {
+            // Transaction - TRT
+            new Plot(DataType.Transaction, PctType.TRT, Measurement.PCT_MINIMUM),
+            new Plot(DataType.Transaction, PctType.TRT, Measurement.PCT_MAXIMUM),
+            new Plot(DataType.Transaction, PctType.TRT, Measurement.PCT_AVERAGE),
+            new Plot(DataType.Transaction, PctType.TRT, Measurement.PCT_MEDIAN),
+            new Plot(DataType.Transaction, PctType.TRT, Measurement.PCT_STDDEVIATION),
+            new Plot(DataType.Transaction, PctType.TRT, Measurement.PCT_COUNT1),
+            new Plot(DataType.Transaction, PctType.TRT, Measurement.PCT_PERCENTILE_90),
+            new Plot(DataType.Transaction, PctType.TRT, Measurement.PCT_PERCENTILE_95),
+            // Transaction - TPS
+            new Plot(DataType.Transaction, PctType.TPS, Measurement.PCT_MINIMUM),
+            new Plot(DataType.Transaction, PctType.TPS, Measurement.PCT_MAXIMUM),
+            new Plot(DataType.Transaction, PctType.TPS, Measurement.PCT_AVERAGE),
+            new Plot(DataType.Transaction, PctType.TPS, Measurement.PCT_MEDIAN),
+            new Plot(DataType.Transaction, PctType.TPS, Measurement.PCT_SUM1),
+            // Transaction - TRS
+            new Plot(DataType.Transaction, PctType.TRS, Measurement.PCT_COUNT1),
+            // Monitors - UDP
+            new Plot(DataType.Monitors, PctType.UDP, Measurement.PCT_MINIMUM),
+            new Plot(DataType.Monitors, PctType.UDP, Measurement.PCT_MAXIMUM),
+            new Plot(DataType.Monitors, PctType.UDP, Measurement.PCT_AVERAGE),
+            new Plot(DataType.Monitors, PctType.UDP, Measurement.PCT_MEDIAN),
+            new Plot(DataType.Monitors, PctType.UDP, Measurement.PCT_STDDEVIATION),
+            new Plot(DataType.Monitors, PctType.UDP, Measurement.PCT_COUNT1),
+            new Plot(DataType.Monitors, PctType.UDP, Measurement.PCT_SUM1),
+            // Regular - VU
+            new Plot(DataType.Regular, PctType.VU, Measurement.PCT_MAXIMUM),
+            new Plot(DataType.Regular, PctType.VU, Measurement.PCT_AVERAGE),
+            // Regular - WEB
+            new Plot(DataType.Regular, PctType.WEB, Measurement.PCT_MINIMUM),
+            new Plot(DataType.Regular, PctType.WEB, Measurement.PCT_MAXIMUM),
+            new Plot(DataType.Regular, PctType.WEB, Measurement.PCT_AVERAGE),
+            new Plot(DataType.Regular, PctType.WEB, Measurement.PCT_MEDIAN),
+            new Plot(DataType.Regular, PctType.WEB, Measurement.PCT_SUM1)
+    };
+
+    private final int runId;
+    private final Map<String, Map<String, String>> valuesByFile = new LinkedHashMap<String, Map<String, String>>();
+
+    private TrendReportPlotData(int runId) {
+        this.runId = runId;
+    }
+
+    /**
+     * Builds the values of every plot file from a single pass over the rows of the trend report.
+     * As before, a name reported twice for the same file keeps its first position and its last value.
+     */
+    public static TrendReportPlotData project(int runId, Iterable<TrendReportRow> rows) {
+        TrendReportPlotData data = new TrendReportPlotData(runId);
+        Map<String, List<Plot>> plotsByType = new HashMap<String, List<Plot>>();
+        for (Plot plot : PLOTS) {
+            data.valuesByFile.put(plot.fileName, new LinkedHashMap<String, String>());
+            String key = typeKey(plot.dataType, plot.pctType.toString());
+            List<Plot> plots = plotsByType.get(key);
+            if (plots == null) {
+                plots = new ArrayList<Plot>();
+                plotsByType.put(key, plots);
+            }
+            plots.add(plot);
+        }
+
+        for (TrendReportRow row : rows) {
+            List<Plot> plots = plotsByType.get(typeKey(row.getDataType(), row.getPctType()));
+            if (plots == null) {
+                continue;
+            }
+            for (Plot plot : plots) {
+                data.valuesByFile.get(plot.fileName).put(row.getName(), row.getValue(plot.measurement));
+            }
+        }
+        return data;
+    }
+
+    public List<String> getFileNames() {
+        return new ArrayList<String>(valuesByFile.keySet());
+    }
+
+    /**
+     * Writes one plot file: a header line with the transaction names and a line with their values,
+     * both prefixed by the run id and the measurement type columns.
+     */
+    public void write(String fileName, Writer writer) throws IOException {
+        Plot plot = findPlot(fileName);
+        Map<String, String> values = valuesByFile.get(fileName);
+
+        writer.write("RunId,Trend Measurement Type,");
+        for (String name : values.keySet()) {
+            writer.write(name);
+            writer.write(',');
+        }
+        writer.write("\r\n");
+        writer.write("_" + runId + "_,");
+        writer.write(plot.measurement.toString() + "_" + plot.pctType.toString());
+        writer.write(',');
+        for (String value : values.values()) {
+            writer.write(value);
+            writer.write(',');
+        }
+    }
+
+    private static Plot findPlot(String fileName) {
+        for (Plot plot : PLOTS) {
+            if (plot.fileName.equals(fileName)) {
+                return plot;
+            }
+        }
+        throw new IllegalArgumentException("Unknown trend report plot file: " + fileName);
+    }
+
+    private static String typeKey(DataType dataType, String pctType) {
+        return dataType + "/" + pctType;
+    }
+
+    private static final class Plot {
+
+        private final DataType dataType;
+        private final PctType pctType;
+        private final Measurement measurement;
+        private final String fileName;
+
+        Plot(DataType dataType, PctType pctType, Measurement measurement) {
+            this.dataType = dataType;
+            this.pctType = pctType;
+            this.measurement = measurement;
+            this.fileName = measurement.toString().toLowerCase() + "_" + pctType.toString().toLowerCase() + ".csv";
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One row of a PC trend report (a transaction, monitor or regular measurement of a single run),
+ * with the measurement values the plot CSV files are built from.
+ */
+public final class TrendReportRow {
+
+    private final TrendReportTypes.DataType dataType;
+    private final String pctType;
+    private final String name;
+    private final Map<TrendReportTypes.Measurement, String> values =
+            new EnumMap<TrendReportTypes.Measurement, String>(TrendReportTypes.Measurement.class);
+
+    public TrendReportRow(TrendReportTypes.DataType dataType, String pctType, String name) {
+        this.dataType = dataType;
+        this.pctType = pctType;
+        this.name = name;
+    }
+
+    public TrendReportRow put(TrendReportTypes.Measurement measurement, Object value) {
+        values.put(measurement, value == null ? "" : value.toString());
+        return this;
+    }
+
+    public TrendReportTypes.DataType getDataType() {
+        return dataType;
+    }
+
+    public String getPctType() {
+        return pctType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the measurement value, or an empty string when the row does not carry it
+     */
+    public String getValue(TrendReportTypes.Measurement measurement) {
+        String value = values.get(measurement);
+        return value == null ? "" : value;
+    }
+}
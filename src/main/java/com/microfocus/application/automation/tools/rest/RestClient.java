@@ -21,6 +21,7 @@
 package com.microfocus.application.automation.tools.rest;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -31,8 +32,17 @@ import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
@@ -59,8 +69,23 @@ import com.microfocus.adm.performancecenter.plugins.common.rest.RESTConstants;
  */
 public class RestClient implements Client {
 
+    /**
+     * Upper bound of requests a single client keeps in flight at once. Connections are returned to the
+     * JVM keep-alive cache after every call, so this is effectively the size of the client's connection pool.
+     */
+    private static final int MAX_CONNECTIONS = Integer.getInteger("RestClient.MaxConnections", 10);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Shared by all clients, it only runs the asynchronous variants of the http calls.
+     */
+    private static final ExecutorService asyncExecutor = createAsyncExecutor();
+
     private final String _serverUrl;
-    protected Map<String, String> _cookies = new HashMap<String, String>();
+    protected Map<String, String> _cookies = new ConcurrentHashMap<String, String>();
+    private volatile String _cookiesString = "";
+    private final Semaphore _connections = new Semaphore(MAX_CONNECTIONS, true);
     private final String _restPrefix;
     private final String _webuiPrefix;
     private final String _username;
@@ -211,6 +236,48 @@ public class RestClient implements Client {
         return ret;
     }
 
+    /**
+     * Http get request, executed on the shared client pool
+     */
+    @Override
+    public CompletableFuture<Response> httpGetAsync(
+            final String url,
+            final String queryString,
+            final Map<String, String> headers,
+            final ResourceAccessLevel resourceAccessLevel) {
+
+        return CompletableFuture.supplyAsync(
+                () -> httpGet(url, queryString, headers, resourceAccessLevel), asyncExecutor);
+    }
+
+    /**
+     * Http post request, executed on the shared client pool
+     */
+    @Override
+    public CompletableFuture<Response> httpPostAsync(
+            final String url,
+            final byte[] data,
+            final Map<String, String> headers,
+            final ResourceAccessLevel resourceAccessLevel) {
+
+        return CompletableFuture.supplyAsync(
+                () -> httpPost(url, data, headers, resourceAccessLevel), asyncExecutor);
+    }
+
+    /**
+     * Http put request, executed on the shared client pool
+     */
+    @Override
+    public CompletableFuture<Response> httpPutAsync(
+            final String url,
+            final byte[] data,
+            final Map<String, String> headers,
+            final ResourceAccessLevel resourceAccessLevel) {
+
+        return CompletableFuture.supplyAsync(
+                () -> httpPut(url, data, headers, resourceAccessLevel), asyncExecutor);
+    }
+
     /**
      * Get server url
      */
@@ -245,6 +312,12 @@ public class RestClient implements Client {
         if ((queryString != null) && !queryString.isEmpty()) {
             url += "?" + queryString;
         }
+        try {
+            _connections.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SSEException(e);
+        }
         try {
             HttpURLConnection connection = (HttpURLConnection)ProxyConfiguration.open(new URL(url));
             connection.setRequestMethod(type);
@@ -265,6 +338,8 @@ public class RestClient implements Client {
             updateCookies(ret);
         } catch (Exception cause) {
             throw new SSEException(cause);
+        } finally {
+            _connections.release();
         }
 
         return ret;
@@ -279,7 +354,7 @@ public class RestClient implements Client {
             byte[] bytes) {
 
         // set all cookies for request
-        connnection.setRequestProperty(RESTConstants.COOKIE, getCookiesString());
+        connnection.setRequestProperty(RESTConstants.COOKIE, _cookiesString);
 
         setConnectionHeaders(connnection, headers);
 
@@ -293,11 +368,9 @@ public class RestClient implements Client {
 
         if (bytes != null && bytes.length > 0) {
             connnection.setDoOutput(true);
-            try {
-                OutputStream out = connnection.getOutputStream();
+            try (OutputStream out = connnection.getOutputStream()) {
                 out.write(bytes);
                 out.flush();
-                out.close();
             } catch (Exception cause) {
                 throw new SSEException(cause);
             }
@@ -350,18 +423,21 @@ public class RestClient implements Client {
         }
 
         // this takes data from the previously set stream (error or input)
-        // and stores it in a byte[] inside the response
+        // and stores it in a byte[] inside the response.
+        // the stream is drained and closed so the socket goes back to the keep-alive cache
         ByteArrayOutputStream container = new ByteArrayOutputStream();
-        byte[] buf = new byte[1024];
-        int read;
-        try {
-            while ((read = inputStream.read(buf, 0, 1024)) > 0) {
-                container.write(buf, 0, read);
+        if (inputStream != null) {
+            byte[] buf = new byte[BUFFER_SIZE];
+            int read;
+            try (InputStream in = inputStream) {
+                while ((read = in.read(buf, 0, BUFFER_SIZE)) > 0) {
+                    container.write(buf, 0, read);
+                }
+            } catch (IOException ex) {
+                throw new SSEException(ex);
             }
-            ret.setData(container.toByteArray());
-        } catch (Exception ex) {
-            throw new SSEException(ex);
         }
+        ret.setData(container.toByteArray());
 
         return ret;
     }
@@ -371,7 +447,7 @@ public class RestClient implements Client {
      */
     private void updateCookies(Response response) {
 
-        Iterable<String> newCookies = response.getHeaders().get(RESTConstants.SET_COOKIE);
+        Iterable<String> newCookies = getHeader(response, RESTConstants.SET_COOKIE);
         if (newCookies != null) {
             for (String cookie : newCookies) {
                 int equalIndex = cookie.indexOf('=');
@@ -380,7 +456,24 @@ public class RestClient implements Client {
                 String cookieValue = cookie.substring(equalIndex + 1, semicolonIndex);
                 _cookies.put(cookieKey, cookieValue);
             }
+            synchronized (_cookies) {
+                _cookiesString = getCookiesString();
+            }
+        }
+    }
+
+    /**
+     * Header names are case insensitive, servers and proxies do not always keep the canonical form
+     */
+    private static Iterable<String> getHeader(Response response, String name) {
+
+        for (Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
         }
+
+        return null;
     }
 
     /**
@@ -409,4 +502,24 @@ public class RestClient implements Client {
     public Map<String, String> getCookies() {
         return _cookies;
     }
+
+    /**
+     * Bounded, daemon pool serving the asynchronous http calls of all clients
+     */
+    private static ExecutorService createAsyncExecutor() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                MAX_CONNECTIONS,
+                MAX_CONNECTIONS,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "RestClient-async-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
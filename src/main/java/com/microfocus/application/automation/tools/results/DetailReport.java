@@ -27,6 +27,7 @@ import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
 
 import javax.servlet.ServletException;
+import java.io.File;
 import java.io.IOException;
 
 public class DetailReport implements ModelObject {
@@ -38,11 +39,21 @@ public class DetailReport implements ModelObject {
     private String fail = "";
     private Run<?, ?> build = null;
     private DirectoryBrowserSupport _directoryBrowserSupport = null;
+    private String archiveFolder = null;
 
     public DetailReport(Run<?,?> build, String name, DirectoryBrowserSupport directoryBrowserSupport) {
+        this(build, name, directoryBrowserSupport, null);
+    }
+
+    /**
+     * @param archiveFolder folder of the build holding reports kept as {@code <report>.zip}, null if there are none
+     */
+    public DetailReport(Run<?,?> build, String name, DirectoryBrowserSupport directoryBrowserSupport,
+                        String archiveFolder) {
         this.build = build;
         this.name = name;
         _directoryBrowserSupport = directoryBrowserSupport;
+        this.archiveFolder = archiveFolder;
     }
 
     @Override
@@ -60,11 +71,32 @@ public class DetailReport implements ModelObject {
     }
 
     public void doDynamic(StaplerRequest req, StaplerResponse rsp) throws IOException, ServletException {
+        if (archiveFolder != null && serveArchived(req, rsp)) {
+            return;
+        }
 
         if (_directoryBrowserSupport != null)
             _directoryBrowserSupport.generateResponse(req, rsp, this);
     }
 
+    /**
+     * Reports kept as a single archive are served as ./&lt;report&gt;/&lt;file&gt; straight from the zip of that report,
+     * which is not necessarily the report of this page, the same as the directory browser would serve them.
+     */
+    private boolean serveArchived(StaplerRequest req, StaplerResponse rsp) throws IOException, ServletException {
+        String path = req.getRestOfPath();
+        int separator = path.indexOf('/', 1);
+        if (!path.startsWith("/") || separator < 0) {
+            return false;
+        }
+        String report = path.substring(1, separator);
+        if (report.isEmpty() || report.contains("..") || report.contains("\\")) {
+            return false;
+        }
+        File archive = new File(new File(build.getRootDir(), archiveFolder), report + ".zip");
+        return ReportArchive.serve(archive, path.substring(separator + 1), req, rsp);
+    }
+
     public String getColor() {
         return color;
     }
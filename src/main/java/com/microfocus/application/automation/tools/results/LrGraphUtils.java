@@ -20,17 +20,15 @@
 
 package com.microfocus.application.automation.tools.results;
 
-import com.microfocus.application.automation.tools.results.projectparser.performance.AvgTransactionResponseTime;
 import com.microfocus.application.automation.tools.results.projectparser.performance.LrProjectScenarioResults;
-import com.microfocus.application.automation.tools.results.projectparser.performance.PercentileTransactionWholeRun;
 import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.TransactionSeries;
 import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -90,11 +88,8 @@ public final class LrGraphUtils {
      */
     static void constructPercentileTransactionGraph(Map.Entry<String, LrProjectScenarioResults> scenarioResults,
                                                     JSONObject scenarioGraphData) {
-        Map<Integer, TreeMap<String, PercentileTransactionWholeRun>> percentileTransactionResults =
-                scenarioResults.getValue().getPercentileTransactionResults();
         JSONObject percentileTransactionResultsGraphSet =
-                extractPercentileTransactionSet(percentileTransactionResults,
-                        scenarioResults.getValue().getTransactions());
+                extractTransactionSeries(scenarioResults.getValue().getPercentileTransactionResults());
         if (!percentileTransactionResultsGraphSet.getJSONArray(LABELS).isEmpty()) {
             percentileTransactionResultsGraphSet
                     .put(TITLE, PERCENTILE_TRANSACTION_RESPONSE_TIME);
@@ -108,32 +103,35 @@ public final class LrGraphUtils {
         }
     }
 
-    private static JSONObject extractPercentileTransactionSet(
-            Map<Integer, TreeMap<String, PercentileTransactionWholeRun>> graphData, HashSet<String> transactions) {
+    /**
+     * Serialises a transaction series straight from its columns, builds without a sample become null points.
+     *
+     * @param graphData the transaction series
+     * @return the graph data set
+     */
+    static JSONObject extractTransactionSeries(TransactionSeries graphData) {
         JSONObject graphDataSet = new JSONObject();
         JSONArray labels = new JSONArray();
-
-        HashMap<String, ArrayList<Number>> percentileTrtData = new HashMap<String, ArrayList<Number>>(0);
-        for (String transaction : transactions) {
-            percentileTrtData.put(transaction, new ArrayList<Number>(0));
+        int buildCount = graphData.getBuildCount();
+        for (int buildIndex = 0; buildIndex < buildCount; buildIndex++) {
+            labels.add(graphData.getBuildNumber(buildIndex));
         }
 
-        for (Map.Entry<Integer, TreeMap<String, PercentileTransactionWholeRun>> result : graphData.entrySet()) {
-            labels.add(result.getKey());
-
-            for (String transaction : transactions) {
-                if (!result.getValue().containsKey(transaction)) {
-                    percentileTrtData.get(transaction).add(null);
-                    // TODO:change to null
-                    continue;
-                }
-                percentileTrtData.get(transaction).add((result.getValue()).get(transaction).getActualValue());
+        JSONArray graphSeries = new JSONArray();
+        for (int transactionId = 0; transactionId < graphData.getTransactionCount(); transactionId++) {
+            JSONArray data = new JSONArray();
+            for (int buildIndex = 0; buildIndex < buildCount; buildIndex++) {
+                double value = graphData.getValue(transactionId, buildIndex);
+                data.add(Double.isNaN(value) ? null : value);
             }
+            JSONObject dataset = new JSONObject();
+            dataset.put("name", graphData.getTransactionName(transactionId));
+            dataset.put("data", data);
+            graphSeries.add(dataset);
         }
 
         graphDataSet.put(LABELS, labels);
-        graphDataSet.put(SERIES, createGraphDatasets(percentileTrtData));
-
+        graphDataSet.put(SERIES, graphSeries);
         return graphDataSet;
     }
 
@@ -158,10 +156,8 @@ public final class LrGraphUtils {
      */
     static void constructAvgTransactionGraph(Map.Entry<String, LrProjectScenarioResults> scenarioResults,
                                              JSONObject scenarioGraphData) {
-        Map<Integer, TreeMap<String, AvgTransactionResponseTime>> avgTransactionResponseTimeResults =
-                scenarioResults.getValue().getAvgTransactionResponseTimeResults();
         JSONObject avgTransactionResponseTimeGraphSet =
-                extractAvgTrtData(avgTransactionResponseTimeResults, scenarioResults.getValue().getTransactions());
+                extractTransactionSeries(scenarioResults.getValue().getAvgTransactionResponseTimeResults());
         if (!avgTransactionResponseTimeGraphSet.getJSONArray(LABELS).isEmpty()) {
             avgTransactionResponseTimeGraphSet.put(TITLE, "Average Transaction Response Time");
             avgTransactionResponseTimeGraphSet.put(X_AXIS_TITLE, "Build number");
@@ -176,36 +172,6 @@ public final class LrGraphUtils {
         }
     }
 
-    private static JSONObject extractAvgTrtData(Map<Integer, TreeMap<String, AvgTransactionResponseTime>> graphData,
-                                                HashSet<String> transactions) {
-        HashMap<String, ArrayList<Number>> averageTRTData = new HashMap<String, ArrayList<Number>>(0);
-        JSONObject graphDataSet = new JSONObject();
-
-        JSONArray labels = new JSONArray();
-
-        for (String transaction : transactions) {
-            averageTRTData.put(transaction, new ArrayList<Number>(0));
-        }
-
-        for (Map.Entry<Integer, TreeMap<String, AvgTransactionResponseTime>> result : graphData.entrySet()) {
-            labels.add(result.getKey());
-
-            for (String transaction : transactions) {
-                if (!result.getValue().containsKey(transaction)) {
-                    averageTRTData.get(transaction).add(null);
-                    // TODO:change to null
-                    continue;
-                }
-                averageTRTData.get(transaction).add((result.getValue()).get(transaction).getActualValueAvg());
-            }
-        }
-
-        graphDataSet.put(LABELS, labels);
-        JSONArray datasets = createGraphDatasets(averageTRTData);
-        graphDataSet.put(SERIES, datasets);
-        return graphDataSet;
-    }
-
     /**
      * Construct error graph.
      *
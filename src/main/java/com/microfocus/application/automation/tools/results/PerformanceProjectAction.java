@@ -31,12 +31,14 @@ import com.microfocus.application.automation.tools.results.projectparser.perform
 import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
 import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
 import hudson.model.Action;
+import hudson.model.Item;
 import hudson.model.Job;
-import hudson.model.Run;
-import hudson.util.RunList;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
+import org.kohsuke.stapler.interceptor.RequirePOST;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -61,13 +63,12 @@ public class PerformanceProjectAction implements Action {
      */
     private static final Logger LOGGER = Logger
             .getLogger(PerformanceProjectAction.class.getName());
-    private static final int MAX_DISPLAY_BUILDS = 20;
     /**
      * The Current project.
      */
     public final Job<?, ?> currentProject;
     private ArrayList<LrJobResults> jobLrResults;
-    private int lastBuildId = -1;
+    private long lastIndexRevision = -1;
     private ArrayList<Integer> _workedBuilds;
     private ProjectLrResults _projectResult;
     private Collection<Action> projectActions;
@@ -208,64 +209,35 @@ public class PerformanceProjectAction implements Action {
      * @return the boolean
      */
     boolean isVisible() {
-        List<? extends Run<?, ?>> builds = currentProject.getBuilds();
-        for (Run run : builds) {
-            if (run.getAction(PerformanceJobReportAction.class) != null) {
-                return true;
-            }
-        }
-        return false;
+        return !PerformanceTrendIndex.of(currentProject).isEmpty();
     }
 
     /**
      * Gets updated data.
      */
     public synchronized void getUpdatedData() {
-        if (!isUpdateDataNeeded()) {
+        PerformanceTrendIndex index = PerformanceTrendIndex.of(currentProject);
+        if (!isUpdateDataNeeded(index)) {
             return;
         }
 
         this._projectResult = new ProjectLrResults();
 
         _workedBuilds = new ArrayList<Integer>();
+        lastIndexRevision = index.getRevision();
 
-        RunList<? extends Run> projectBuilds = currentProject.getBuilds();
-
-        // updateLastBuild();
-
-        for (Run run : projectBuilds) {
-            PerformanceJobReportAction performanceJobReportAction = run.getAction(PerformanceJobReportAction.class);
-            if (performanceJobReportAction == null) {
-                continue;
-            }
-            if (run.isBuilding()) {
-                continue;
-            }
-
-            int runNumber = run.getNumber();
-            if (_workedBuilds.contains(runNumber)) {
-                continue;
-            }
-
+        for (Map.Entry<String, SortedMap<Integer, JobLrScenarioResult>> scenarioBuilds :
+                index.getScenarioResults().entrySet()) {
+            LrProjectScenarioResults lrProjectScenarioResults = new LrProjectScenarioResults(scenarioBuilds.getKey());
+            _projectResult.addScenario(lrProjectScenarioResults);
 
-
-            _workedBuilds.add(runNumber);
-            LrJobResults jobLrResult = performanceJobReportAction.getLrResultBuildDataset();
-
-            // get all the ran scenario results from this run and insert them into the project
-            for (Map.Entry<String, JobLrScenarioResult> runResult : jobLrResult.getLrScenarioResults().entrySet()) {
-                // add the scenario if it's the first time it's ran in this build (allows scenarios to be also added
-                // at diffrent time)
-                if (!_projectResult.getScenarioResults().containsKey(runResult.getKey())) {
-                    _projectResult.addScenario(new LrProjectScenarioResults(runResult.getKey()));
+            for (Map.Entry<Integer, JobLrScenarioResult> runResult : scenarioBuilds.getValue().entrySet()) {
+                int runNumber = runResult.getKey();
+                if (!_workedBuilds.contains(runNumber)) {
+                    _workedBuilds.add(runNumber);
                 }
+
                 // Join the SLA rule results
-                LrProjectScenarioResults lrProjectScenarioResults =
-                        _projectResult.getScenarioResults().get(runResult.getKey());
-                if(lrProjectScenarioResults.getBuildCount() > MAX_DISPLAY_BUILDS)
-                {
-                    continue;
-                }
                 lrProjectScenarioResults.incBuildCount();
                 JobLrScenarioResult scenarioRunResult = runResult.getValue();
                 for (GoalResult goalResult : scenarioRunResult.scenarioSlaResults) {
@@ -277,12 +249,22 @@ public class PerformanceProjectAction implements Action {
                 joinVUserScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
                 joinTransactionScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
                 joinDurationStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
-
             }
-
         }
     }
 
+    /**
+     * Rebuilds the trend index of the job from its whole build history.
+     *
+     * @return redirect back to the project report
+     */
+    @RequirePOST
+    public HttpResponse doRebuildIndex() {
+        currentProject.checkPermission(Item.CONFIGURE);
+        PerformanceTrendIndex.of(currentProject).rebuild();
+        return HttpResponses.redirectToDot();
+    }
+
     private void joinDurationStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
                                    JobLrScenarioResult scenarioRunResult) {
         long scenarioConnectionMax = scenarioRunResult.getScenarioDuration();
@@ -394,45 +376,22 @@ public class PerformanceProjectAction implements Action {
                         .put(runNumber, (TimeRangeResult) goalResult);
                 break;
             case PercentileTRT:
-                if (!lrProjectScenarioResults.getPercentileTransactionResults().containsKey(runNumber)) {
-                    lrProjectScenarioResults.getPercentileTransactionResults()
-                            .put(runNumber, new TreeMap<String, PercentileTransactionWholeRun>());
-                }
-                lrProjectScenarioResults.getTransactions()
-                        .add(((PercentileTransactionWholeRun) goalResult).getName());
-                lrProjectScenarioResults.getPercentileTransactionResults().get(runNumber)
-                        .put(((PercentileTransactionWholeRun) goalResult).getName(),
-                                (PercentileTransactionWholeRun) goalResult);
+                PercentileTransactionWholeRun percentileResult = (PercentileTransactionWholeRun) goalResult;
+                lrProjectScenarioResults.getPercentileTransactionResults()
+                        .put(runNumber, percentileResult.getName(), percentileResult.getActualValue());
                 break;
             case AverageTRT:
-                if (!lrProjectScenarioResults.getAvgTransactionResponseTimeResults()
-                        .containsKey(runNumber)) {
-                    lrProjectScenarioResults.getAvgTransactionResponseTimeResults()
-                            .put(runNumber, new TreeMap<String, AvgTransactionResponseTime>());
-                }
-                lrProjectScenarioResults.getTransactions()
-                        .add(((AvgTransactionResponseTime) goalResult).getName());
-                lrProjectScenarioResults.getAvgTransactionResponseTimeResults().get(runNumber)
-                        .put(((AvgTransactionResponseTime) goalResult).getName(),
-                                (AvgTransactionResponseTime) goalResult);
+                AvgTransactionResponseTime avgTrtResult = (AvgTransactionResponseTime) goalResult;
+                lrProjectScenarioResults.getAvgTransactionResponseTimeResults()
+                        .put(runNumber, avgTrtResult.getName(), avgTrtResult.getActualValueAvg());
                 break;
             default:
                 break;
         }
     }
 
-    private boolean isUpdateDataNeeded() {
-//        final Run<?, ?> lastBuild = currentProject.getLastBuild();
-//        if (null == lastBuild) {
-//            return false;
-//        }
-//
-//        int latestBuildNumber = lastBuild.getNumber();
-//        if (latestBuildNumber == lastBuildId) {
-//            return true;
-//        }
-
-        return true;
+    private boolean isUpdateDataNeeded(PerformanceTrendIndex index) {
+        return _projectResult == null || index.getRevision() != lastIndexRevision;
     }
 
 //    @Override
@@ -77,7 +77,7 @@ public class PerformanceReportAction implements Action, SimpleBuildStep.LastBuil
             String[] values = line.split("\t");
             if (values.length < 1)
                 continue;
-            DetailReport report = new DetailReport(build, values[0], dbs);
+            DetailReport report = new DetailReport(build, values[0], dbs, PERFORMANCE_REPORT_FOLDER);
             if (rolling) {
                 report.setColor("#FFF");
                 rolling = false;
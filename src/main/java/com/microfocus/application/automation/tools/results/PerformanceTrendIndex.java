@@ -0,0 +1,312 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per job index of the LoadRunner results used by the project trend page.
+ * It is kept in the job folder and updated whenever a build with LoadRunner results completes or is deleted,
+ * so rendering the trend never has to load the history of the job. Per scenario only the latest
+ * {@link #MAX_BUILDS_PER_SCENARIO} builds are kept, which is all the trend page displays. With so few
+ * builds per scenario the index file is small and simply rewritten on every change.
+ */
+public class PerformanceTrendIndex {
+
+    /**
+     * Number of builds shown per scenario on the trend page.
+     */
+    static final int MAX_BUILDS_PER_SCENARIO = 21;
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceTrendIndex.class.getName());
+    private static final String INDEX_FILE_NAME = "lrTrendIndex.xml";
+    private static final ConcurrentMap<String, PerformanceTrendIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Scenario name to its results, by build number in ascending order.
+     */
+    private final TreeMap<String, TreeMap<Integer, JobLrScenarioResult>> scenarios = new TreeMap<>();
+    private transient Job<?, ?> job;
+    private transient boolean loaded;
+    private transient long revision;
+
+    private PerformanceTrendIndex(Job<?, ?> job) {
+        this.job = job;
+    }
+
+    /**
+     * Gets the index of a job. The index is read from the job folder, or built from the job history,
+     * on first use under the lock of the index only, so a job with a long history holds up no other job.
+     *
+     * @param job the job
+     * @return the index
+     */
+    public static PerformanceTrendIndex of(@Nonnull Job<?, ?> job) {
+        return indexes.compute(job.getFullName(),
+                (name, index) -> index != null && index.job == job ? index : new PerformanceTrendIndex(job));
+    }
+
+    /**
+     * Forgets the indexes of an item and of the items it contains.
+     *
+     * @param fullName the full name of the item
+     */
+    static void forget(String fullName) {
+        indexes.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(fullName + "/"));
+    }
+
+    private XmlFile getIndexFile() {
+        return new XmlFile(Run.XSTREAM2, new File(job.getRootDir(), INDEX_FILE_NAME));
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        XmlFile file = getIndexFile();
+        if (file.exists()) {
+            try {
+                file.unmarshal(this);
+                return;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to read LoadRunner trend index of " + job.getFullName()
+                        + ", rebuilding it", e);
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the whole build history of the job.
+     */
+    public synchronized void rebuild() {
+        loaded = true;
+        scenarios.clear();
+        for (Run<?, ?> run : job.getBuilds()) {
+            if (run.isBuilding()) {
+                continue;
+            }
+            PerformanceJobReportAction action = run.getAction(PerformanceJobReportAction.class);
+            if (action != null) {
+                addResults(run.getNumber(), action.getLrResultBuildDataset());
+            }
+        }
+        changed();
+    }
+
+    /**
+     * Adds the results of a completed build.
+     *
+     * @param buildNumber the build number
+     * @param results     the LoadRunner results of the build
+     */
+    public synchronized void add(int buildNumber, LrJobResults results) {
+        load();
+        addResults(buildNumber, results);
+        changed();
+    }
+
+    /**
+     * Removes a deleted build. Scenarios that lose a build are filled up again from the older builds.
+     *
+     * @param buildNumber the build number
+     */
+    public synchronized void remove(int buildNumber) {
+        load();
+        boolean removed = false;
+        Set<String> shortened = new HashSet<>();
+        for (Map.Entry<String, TreeMap<Integer, JobLrScenarioResult>> scenario : scenarios.entrySet()) {
+            boolean full = scenario.getValue().size() >= MAX_BUILDS_PER_SCENARIO;
+            if (scenario.getValue().remove(buildNumber) != null) {
+                removed = true;
+                if (full) {
+                    shortened.add(scenario.getKey());
+                }
+            }
+        }
+        if (removed) {
+            if (!shortened.isEmpty()) {
+                refill(shortened, buildNumber);
+            }
+            scenarios.values().removeIf(Map::isEmpty);
+            changed();
+        }
+    }
+
+    /**
+     * Gets the indexed results, scenario name to results by build number, latest build first.
+     *
+     * @return a snapshot of the index
+     */
+    public synchronized SortedMap<String, SortedMap<Integer, JobLrScenarioResult>> getScenarioResults() {
+        load();
+        SortedMap<String, SortedMap<Integer, JobLrScenarioResult>> ret = new TreeMap<>();
+        for (Map.Entry<String, TreeMap<Integer, JobLrScenarioResult>> scenario : scenarios.entrySet()) {
+            TreeMap<Integer, JobLrScenarioResult> builds = new TreeMap<>(Collections.<Integer>reverseOrder());
+            builds.putAll(scenario.getValue());
+            ret.put(scenario.getKey(), builds);
+        }
+        return ret;
+    }
+
+    /**
+     * @return true if no build of the job has LoadRunner results
+     */
+    public synchronized boolean isEmpty() {
+        load();
+        return scenarios.isEmpty();
+    }
+
+    /**
+     * Changes on every update, lets readers cache what they computed from the index.
+     *
+     * @return the revision of the index in memory
+     */
+    public synchronized long getRevision() {
+        load();
+        return revision;
+    }
+
+    private void addResults(int buildNumber, LrJobResults results) {
+        for (Map.Entry<String, JobLrScenarioResult> scenarioResult : results.getLrScenarioResults().entrySet()) {
+            TreeMap<Integer, JobLrScenarioResult> builds = scenarios.get(scenarioResult.getKey());
+            if (builds == null) {
+                builds = new TreeMap<>();
+                scenarios.put(scenarioResult.getKey(), builds);
+            }
+            builds.put(buildNumber, scenarioResult.getValue());
+            while (builds.size() > MAX_BUILDS_PER_SCENARIO) {
+                builds.pollFirstEntry();
+            }
+        }
+    }
+
+    /**
+     * Walks back the history older than the kept builds of the given scenarios until their windows are full again.
+     * Only scenarios whose window was full can have older builds to bring back.
+     */
+    private void refill(Set<String> shortened, int removedBuild) {
+        Map<String, Integer> oldestKept = new TreeMap<>();
+        int from = removedBuild;
+        for (String name : shortened) {
+            TreeMap<Integer, JobLrScenarioResult> builds = scenarios.get(name);
+            int oldest = builds.isEmpty() ? removedBuild : Math.min(builds.firstKey(), removedBuild);
+            oldestKept.put(name, oldest);
+            from = Math.max(from, oldest);
+        }
+        for (Run<?, ?> run : job.getBuilds()) {
+            if (oldestKept.isEmpty()) {
+                break;
+            }
+            if (run.getNumber() >= from || run.isBuilding()) {
+                continue;
+            }
+            PerformanceJobReportAction action = run.getAction(PerformanceJobReportAction.class);
+            if (action == null) {
+                continue;
+            }
+            Map<String, JobLrScenarioResult> results = action.getLrResultBuildDataset().getLrScenarioResults();
+            for (Map.Entry<String, Integer> scenario : new TreeMap<>(oldestKept).entrySet()) {
+                JobLrScenarioResult result = results.get(scenario.getKey());
+                if (result == null || run.getNumber() >= scenario.getValue()) {
+                    continue;
+                }
+                TreeMap<Integer, JobLrScenarioResult> builds = scenarios.get(scenario.getKey());
+                builds.put(run.getNumber(), result);
+                if (builds.size() >= MAX_BUILDS_PER_SCENARIO) {
+                    oldestKept.remove(scenario.getKey());
+                }
+            }
+        }
+    }
+
+    private void changed() {
+        revision++;
+        try {
+            getIndexFile().write(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save LoadRunner trend index of " + job.getFullName(), e);
+        }
+    }
+
+    /**
+     * Keeps the indexes of the jobs up to date with their builds.
+     */
+    @Extension
+    public static class IndexUpdater extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+            PerformanceJobReportAction action = run.getAction(PerformanceJobReportAction.class);
+            if (action != null) {
+                of(run.getParent()).add(run.getNumber(), action.getLrResultBuildDataset());
+            }
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            if (run.getAction(PerformanceJobReportAction.class) != null) {
+                of(run.getParent()).remove(run.getNumber());
+            }
+        }
+    }
+
+    /**
+     * Drops the indexes of deleted and moved jobs, a moved job reads its index again from its new folder.
+     */
+    @Extension
+    public static class JobListener extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            forget(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            forget(oldFullName);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import hudson.FilePath;
+import hudson.model.Computer;
+import hudson.model.DirectoryBrowserSupport;
+import hudson.remoting.FastPipedInputStream;
+import hudson.remoting.FastPipedOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Moves report folders from the executing node to the master as a stream.
+ * The zip produced on the node is either written straight into the target archive or extracted entry by entry
+ * while it arrives, so only a bounded buffer is held in the master heap whatever the size of the report.
+ */
+public final class ReportArchive {
+
+    /**
+     * When set, LoadRunner HTML reports are kept as a single zip in the build folder and served from it
+     * instead of being unpacked.
+     */
+    static final boolean KEEP_HTML_REPORTS_ARCHIVED = Boolean.getBoolean("RunResultRecorder.KeepHtmlReportsArchived");
+
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+    private static final String DEFAULT_CSP = "sandbox; default-src 'none'; img-src 'self'; style-src 'self';";
+
+    private ReportArchive() {
+    }
+
+    /**
+     * Zips a folder of the executing node directly into an archive file.
+     *
+     * @param source  the folder to archive
+     * @param archive the archive to create
+     * @throws IOException          on transfer errors
+     * @throws InterruptedException if interrupted
+     */
+    public static void archive(FilePath source, FilePath archive) throws IOException, InterruptedException {
+        try (OutputStream out = archive.write()) {
+            source.zip(out);
+        } catch (IOException | InterruptedException e) {
+            archive.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Copies a folder of the executing node into a local directory, extracting the entries while the zip is still
+     * being transferred. The folder lands in {@code targetDir} under its own name, like a zip + unzip would.
+     *
+     * @param source    the folder to copy
+     * @param targetDir the local parent directory
+     * @throws IOException          on transfer errors or entries pointing outside of the target directory
+     * @throws InterruptedException if interrupted
+     */
+    public static void extract(final FilePath source, File targetDir) throws IOException, InterruptedException {
+        final FastPipedOutputStream out = new FastPipedOutputStream();
+        FastPipedInputStream in = new FastPipedInputStream(out, PIPE_BUFFER_SIZE);
+        Future<Void> producer = Computer.threadPoolForRemoting.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException, InterruptedException {
+                try {
+                    source.zip(out);
+                } catch (IOException | InterruptedException | RuntimeException e) {
+                    out.error(e);
+                    throw e;
+                }
+                out.close();
+                return null;
+            }
+        });
+
+        try {
+            unzip(in, targetDir);
+            // let the node finish writing the central directory
+            IOUtils.copy(in, new NullOutputStream());
+        } finally {
+            in.close();
+        }
+
+        try {
+            producer.get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            producer.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the entries of a zip stream below a local directory.
+     *
+     * @param in        the zip stream, left open
+     * @param targetDir the local directory
+     * @throws IOException on read or write errors, or entries pointing outside of the target directory
+     */
+    static void unzip(InputStream in, File targetDir) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        String targetPath = targetDir.getCanonicalPath() + File.separator;
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            File file = new File(targetDir, entry.getName());
+            if (!file.getCanonicalPath().startsWith(targetPath)) {
+                throw new IOException("Zip entry is outside of the target directory: " + entry.getName());
+            }
+            if (entry.isDirectory()) {
+                file.mkdirs();
+                continue;
+            }
+            file.getParentFile().mkdirs();
+            try (OutputStream fileOut = new FileOutputStream(file)) {
+                IOUtils.copy(zip, fileOut);
+            }
+            if (entry.getTime() > 0) {
+                file.setLastModified(entry.getTime());
+            }
+        }
+    }
+
+    /**
+     * Serves a file of an archived report without unpacking it. The archive index is used to seek to the entry.
+     *
+     * @param archive the report archive, with a single root folder
+     * @param path    the path of the file relative to the root folder
+     * @param req     the request
+     * @param rsp     the response
+     * @return false if the archive does not exist
+     * @throws IOException      on read errors
+     * @throws ServletException on response errors
+     */
+    public static boolean serve(File archive, String path, StaplerRequest req, StaplerResponse rsp)
+            throws IOException, ServletException {
+        if (!archive.isFile()) {
+            return false;
+        }
+
+        try (ZipFile zip = new ZipFile(archive)) {
+            ZipEntry entry = zip.getEntry(getRootFolder(zip) + path);
+            if (entry == null || entry.isDirectory()) {
+                rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return true;
+            }
+            rsp.setHeader("Content-Security-Policy",
+                    System.getProperty(DirectoryBrowserSupport.class.getName() + ".CSP", DEFAULT_CSP));
+            try (InputStream data = zip.getInputStream(entry)) {
+                rsp.serveFile(req, data, entry.getTime(), entry.getSize(), entry.getName());
+            }
+        }
+        return true;
+    }
+
+    private static String getRootFolder(ZipFile zip) {
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        if (!entries.hasMoreElements()) {
+            return "";
+        }
+        String name = entries.nextElement().getName();
+        int separator = name.indexOf('/');
+        return separator < 0 ? "" : name.substring(0, separator + 1);
+    }
+}
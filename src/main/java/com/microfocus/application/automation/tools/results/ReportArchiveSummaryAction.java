@@ -0,0 +1,85 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import hudson.model.Action;
+
+/**
+ * Shows on the build page how long the test reports took to archive and with which concurrency settings.
+ */
+public class ReportArchiveSummaryAction implements Action {
+
+    private int reports;
+    private long elapsedMillis;
+    private final int threads;
+    private final int threadsPerNode;
+
+    public ReportArchiveSummaryAction(int threads, int threadsPerNode) {
+        this.threads = threads;
+        this.threadsPerNode = threadsPerNode;
+    }
+
+    /**
+     * Adds the work of one results file, a pipeline may publish several.
+     *
+     * @param reports       the number of report tasks done
+     * @param elapsedMillis the time they took
+     */
+    public void add(int reports, long elapsedMillis) {
+        this.reports += reports;
+        this.elapsedMillis += elapsedMillis;
+    }
+
+    public int getReports() {
+        return reports;
+    }
+
+    public String getDuration() {
+        return String.format("%.1f sec", elapsedMillis / 1000.0);
+    }
+
+    public String getThroughput() {
+        return elapsedMillis == 0 ? "-" : String.format("%.2f", reports * 1000.0 / elapsedMillis);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getThreadsPerNode() {
+        return threadsPerNode;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return null;
+    }
+}
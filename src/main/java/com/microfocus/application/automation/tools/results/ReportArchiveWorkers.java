@@ -0,0 +1,216 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the per test report work of {@link RunResultRecorder} on a bounded pool shared by all builds.
+ * A per node permit, taken by the build before it submits a task, keeps concurrent builds from opening too many
+ * transfers against the same agent without ever parking a pool thread.
+ */
+final class ReportArchiveWorkers {
+
+    static final int THREADS = Math.max(1, Integer.getInteger("RunResultRecorder.ArchiveThreads", 4));
+    static final int THREADS_PER_NODE = Math.max(1, Integer.getInteger("RunResultRecorder.ArchiveThreadsPerNode", 4));
+
+    private static final long IDLE_SECONDS = 30;
+    private static final ConcurrentMap<String, Semaphore> NODE_PERMITS = new ConcurrentHashMap<String, Semaphore>();
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+    private static final Object[] FOLDER_LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < FOLDER_LOCKS.length; i++) {
+            FOLDER_LOCKS[i] = new Object();
+        }
+    }
+
+    private final CompletionService<Void> completionService;
+    private final List<Permit> permits = new ArrayList<Permit>();
+    private final Semaphore nodePermits;
+    private final PrintStream logger;
+    private final long start = System.currentTimeMillis();
+    private int submitted;
+    private int completed;
+
+    /**
+     * @param nodeName the node the reports are copied from
+     * @param logger   the build log
+     */
+    ReportArchiveWorkers(String nodeName, PrintStream logger) {
+        this.logger = logger;
+        this.completionService = new ExecutorCompletionService<Void>(EXECUTOR);
+        Semaphore created = new Semaphore(THREADS_PER_NODE);
+        Semaphore existing = NODE_PERMITS.putIfAbsent(nodeName == null ? "" : nodeName, created);
+        this.nodePermits = existing == null ? created : existing;
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, IDLE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "RunResultRecorder.archive"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Gets the lock guarding a folder that the tasks of several builds may write.
+     *
+     * @param folder the folder
+     * @return the lock, shared with a few unrelated folders
+     */
+    static Object lockFor(File folder) {
+        return FOLDER_LOCKS[(folder.getAbsolutePath().hashCode() & Integer.MAX_VALUE) % FOLDER_LOCKS.length];
+    }
+
+    /**
+     * Submits a task, waiting first for a free transfer of the node.
+     *
+     * @param task the task
+     * @throws InterruptedException if interrupted while waiting, the task is not submitted
+     */
+    void submit(Callable<Void> task) throws InterruptedException {
+        nodePermits.acquire();
+        Permit permit = new Permit(task);
+        try {
+            completionService.submit(permit);
+        } catch (RuntimeException e) {
+            nodePermits.release();
+            throw e;
+        }
+        permits.add(permit);
+        submitted++;
+    }
+
+    /**
+     * Waits for the submitted tasks, printing a progress line every tenth of the work.
+     *
+     * @param what what the tasks do, for the progress line
+     * @throws IOException          the first failure of a task, after all tasks are done
+     * @throws InterruptedException if interrupted, the remaining tasks are cancelled
+     */
+    void await(String what) throws IOException, InterruptedException {
+        int pending = submitted - completed;
+        int step = Math.max(1, pending / 10);
+        Throwable failure = null;
+        for (int done = 1; done <= pending; done++) {
+            try {
+                completionService.take().get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                shutdown();
+                throw e;
+            }
+            completed++;
+            if (done % step == 0 || done == pending) {
+                logger.println(String.format("%s: %d/%d done", what, done, pending));
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw new IOException(failure);
+        }
+    }
+
+    int getCompleted() {
+        return completed;
+    }
+
+    long getElapsedMillis() {
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Cancels the tasks of this build that did not run yet and interrupts the running ones.
+     * Each task gives its node permit back itself once it is done, a cancelled one when it is skipped.
+     */
+    void shutdown() {
+        for (Permit permit : permits) {
+            permit.cancel();
+        }
+    }
+
+    /**
+     * A submitted task holding a node permit, given back when the task ends.
+     */
+    private final class Permit implements Callable<Void> {
+
+        private final Callable<Void> task;
+        // guarded by this
+        private Thread runner;
+        // guarded by this
+        private boolean cancelled;
+
+        private Permit(Callable<Void> task) {
+            this.task = task;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            try {
+                synchronized (this) {
+                    if (cancelled) {
+                        return null;
+                    }
+                    runner = Thread.currentThread();
+                }
+                try {
+                    return task.call();
+                } finally {
+                    synchronized (this) {
+                        runner = null;
+                    }
+                }
+            } finally {
+                nodePermits.release();
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+}
@@ -67,6 +67,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -422,6 +423,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 				}
 			} else { // UFT Test
 				boolean reportIsHtml = false;
+				ReportArchiveWorkers workers = new ReportArchiveWorkers(getNodeName(runWorkspace), listener.getLogger());
 				NodeList testCasesNodes = ((Element) testSuiteNode).getElementsByTagName("testcase");
 				Map<String, Integer> fileNameCount = new HashMap<>();
 				for (int i = 0; i < testCasesNodes.getLength(); i++) {
@@ -502,32 +504,28 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
 									FilePath testFolder = new FilePath(projectWS.getChannel(), testFolderPath);
 
-									String zipFileName = getUniqueZipFileNameInFolder(zipFileNames, testFolder.getName(), "UFT");
+									final String zipFileName = getUniqueZipFileNameInFolder(zipFileNames, testFolder.getName(), "UFT");
 									zipFileNames.add(zipFileName);
 
-									ByteArrayOutputStream outstr = new ByteArrayOutputStream();
-
-									// don't use FileFilter for zip, or it will cause bug when files are on slave
-									reportFolder.zip(outstr);
-
 									/*
 									 * I did't use copyRecursiveTo or copyFrom due to bug in
 									 * jekins:https://issues.jenkins-ci.org/browse /JENKINS-9189 //(which is
 									 * cleaimed to have been fixed, but not. So I zip the folder to stream and copy
 									 * it to the master.
 									 */
-
-									ByteArrayInputStream instr = new ByteArrayInputStream(outstr.toByteArray());
-
-									FilePath archivedFile = new FilePath(new FilePath(artifactsDir), zipFileName);
-									archivedFile.copyFrom(instr);
-
-									outstr.close();
-									instr.close();
-
-									// add to Report list
-									String zipFileUrlName = "artifact/" + zipFileName;
-									reportMetaData.setArchiveUrl(zipFileUrlName);
+									// don't use FileFilter for zip, or it will cause bug when files are on slave
+									final FilePath archivedFile = new FilePath(new FilePath(artifactsDir), zipFileName);
+									final FilePath archivedFolder = reportFolder;
+									final ReportMetaData archivedReport = reportMetaData;
+									workers.submit(new Callable<Void>() {
+										@Override
+										public Void call() throws IOException, InterruptedException {
+											ReportArchive.archive(archivedFolder, archivedFile);
+											// add to Report list
+											archivedReport.setArchiveUrl("artifact/" + zipFileName);
+											return null;
+										}
+									});
 
 								} else {
 									listener.getLogger().println("No report folder was found in: " + reportFolderPath);
@@ -537,9 +535,15 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 						}
 					}
 
-					if (reportIsHtml && !ReportInfoToCollect.isEmpty()) {
-						collectAndPrepareHtmlReports(build, listener, ReportInfoToCollect, runWorkspace);
+					try {
+						workers.await("Archiving test reports");
+						if (reportIsHtml && !ReportInfoToCollect.isEmpty()) {
+							collectAndPrepareHtmlReports(build, listener, ReportInfoToCollect, runWorkspace, workers);
+						}
+					} finally {
+						workers.shutdown();
 					}
+					addArchiveSummary(build, workers);
 
 					if (!ReportInfoToCollect.isEmpty()) {
 						// serialize report metadata
@@ -623,102 +627,115 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
 	}
 
-	private Boolean collectAndPrepareHtmlReports(Run build, TaskListener listener, List<ReportMetaData> htmlReportsInfo,
-			FilePath runWorkspace) throws IOException, InterruptedException {
-		File reportDir = new File(new File(build.getRootDir(), "archive"), "UFTReport");
+	private Boolean collectAndPrepareHtmlReports(final Run build, final TaskListener listener,
+			List<ReportMetaData> htmlReportsInfo, final FilePath runWorkspace, ReportArchiveWorkers workers)
+			throws IOException, InterruptedException {
+		final File reportDir = new File(new File(build.getRootDir(), "archive"), "UFTReport");
 
-		FilePath rootTarget = new FilePath(reportDir);
+		final FilePath rootTarget = new FilePath(reportDir);
 
-		try {
-			for (ReportMetaData htmlReportInfo : htmlReportsInfo) {
+		for (final ReportMetaData htmlReportInfo : htmlReportsInfo) {
 
-				// make sure it's a html report
-				if (!htmlReportInfo.getIsHtmlReport()) {
-					continue;
+			// make sure it's a html report
+			if (!htmlReportInfo.getIsHtmlReport()) {
+				continue;
+			}
+
+			workers.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException, InterruptedException {
+					try {
+						prepareHtmlReport(build, listener, htmlReportInfo, runWorkspace, reportDir, rootTarget);
+					} catch (Exception ex) {
+						listener.getLogger().println("catch exception in collectAndPrepareHtmlReports: " + ex);
+						listener.getLogger().println(ex.getMessage());
+						listener.getLogger().println(ex.getCause());
+						ex.printStackTrace(listener.getLogger());
+					}
+					return null;
 				}
+			});
+		}
 
-				String htmlReportDir = htmlReportInfo.getFolderPath(); // C:\UFTTest\GuiTest1\Report
+		workers.await("Copying HTML reports");
 
-				try {
-					EnvVars env = build.getEnvironment(listener);
-					long indexFolder = getIndexOfReportFolder(new File(htmlReportDir), EXTERNAL_REPORT_FOLDER, env.get("NODE_NAME"));
-					if(indexFolder > 0) {
-						String innerHtmlReportDir = htmlReportDir.substring(0, htmlReportDir.lastIndexOf('\\')) + "\\" + EXTERNAL_REPORT_FOLDER + indexFolder;
+		return true;
+	}
 
-						archiveAndCopyReportFolder(runWorkspace, reportDir, innerHtmlReportDir);
-					}
-				} catch (Exception e){
-					listener.getLogger().println("Path to test folder not found");
+	private void prepareHtmlReport(Run build, TaskListener listener, ReportMetaData htmlReportInfo,
+			FilePath runWorkspace, File reportDir, FilePath rootTarget) throws IOException, InterruptedException {
+		String htmlReportDir = htmlReportInfo.getFolderPath(); // C:\UFTTest\GuiTest1\Report
+
+		try {
+			EnvVars env = build.getEnvironment(listener);
+			long indexFolder = getIndexOfReportFolder(new File(htmlReportDir), EXTERNAL_REPORT_FOLDER, env.get("NODE_NAME"));
+			if(indexFolder > 0) {
+				String innerHtmlReportDir = htmlReportDir.substring(0, htmlReportDir.lastIndexOf('\\')) + "\\" + EXTERNAL_REPORT_FOLDER + indexFolder;
+
+				// tests may share the name of their external report folder
+				File target = new File(reportDir, org.apache.commons.io.FilenameUtils.getName(innerHtmlReportDir));
+				synchronized (ReportArchiveWorkers.lockFor(target)) {
+					archiveAndCopyReportFolder(runWorkspace, reportDir, innerHtmlReportDir);
 				}
-				//for example:  C:\Program Files (x86)\Jenkins\workspace\job_name
-
-				// archive and copy to the subdirs of master
-				archiveAndCopyReportFolder(runWorkspace, reportDir, htmlReportDir);
-				// zip copy and unzip
-				// now,all the files are in the C:\Program Files (x86)
-				// \Jenkins\jobs\testAction\builds\35\archive\UFTReport\Report
-				// we need to rename the above path to targetPath.
-				// So at last we got files in C:\Program Files (x86)
-				// \Jenkins\jobs\testAction\builds\35\archive\UFTReport\GuiTest
-				String unzippedFileName = org.apache.commons.io.FilenameUtils.getName(htmlReportDir);
-
-				String testName = htmlReportInfo.getDisPlayName(); // like "GuiTest1"
-				String dest = testName;
-				FilePath targetPath = new FilePath(rootTarget, dest); // target path is something like "C:\Program Files
-				// (x86)\Jenkins\jobs\testAction\builds\35\archive\UFTReport\GuiTest1"
-				FilePath unzippedFolderPath = new FilePath(rootTarget, unzippedFileName); // C:\Program Files
-				// (x86)\Jenkins\jobs\testAction\builds\35\archive\UFTReport\Report
-				// //C:\Program Files\(x86)\Jenkins\jobs\testAction\builds\35\archive\UFTReport\Report
-
-				//rename unzippedFolderPath to targetPath
-				unzippedFolderPath.renameTo(targetPath);
-
-				// fill in the urlName of this report. we need a network path not a FS path
-				String resourceUrl = htmlReportInfo.getResourceURL();
-				FilePath source = new FilePath(runWorkspace, htmlReportDir);
-
-				// if it's a parallel runner report path, we must change the resFileName
-				boolean isParallelRunner = isParallelRunnerReportPath(source);
-				String resFileName = isParallelRunner ? "/parallelrun_results.html" : "/run_results.html";
-
-				String urlName = resourceUrl + resFileName; // like artifact/UFTReport/GuiTest1/run_results.html
-				// or for Parallel runner /GuiTest1[1]/parallelrun_results.html
-
-				htmlReportInfo.setUrlName(urlName);
 			}
-		} catch (Exception ex) {
-			listener.getLogger().println("catch exception in collectAndPrepareHtmlReports: " + ex);
-			listener.getLogger().println(ex.getMessage());
-			listener.getLogger().println(ex.getCause());
-			listener.getLogger().println(ex.getStackTrace());
+		} catch (Exception e){
+			listener.getLogger().println("Path to test folder not found");
 		}
+		//for example:  C:\Program Files (x86)\Jenkins\workspace\job_name
 
-		return true;
-	}
+		// archive and copy to the subdirs of master
+		// the report folders of all tests share a name (e.g. "Report"), so each one is unpacked into its own
+		// staging folder before it is moved to C:\Program Files (x86)
+		// \Jenkins\jobs\testAction\builds\35\archive\UFTReport\GuiTest1
+		String unzippedFileName = org.apache.commons.io.FilenameUtils.getName(htmlReportDir);
 
-	private void archiveAndCopyReportFolder(FilePath runWorkspace, File reportDir, String htmlReportDir) throws IOException, InterruptedException {
-		FilePath rootTarget = new FilePath(reportDir);
+		String testName = htmlReportInfo.getDisPlayName(); // like "GuiTest1"
+		String dest = testName;
+		FilePath targetPath = new FilePath(rootTarget, dest); // target path is something like "C:\Program Files
+		// (x86)\Jenkins\jobs\testAction\builds\35\archive\UFTReport\GuiTest1"
+		FilePath stagingPath = new FilePath(rootTarget, dest + ".tmp");
+		archiveAndCopyReportFolder(runWorkspace, new File(reportDir, dest + ".tmp"), htmlReportDir);
 
-		FilePath source  = new FilePath(runWorkspace, htmlReportDir);
+		//rename unzippedFolderPath to targetPath
+		new FilePath(stagingPath, unzippedFileName).renameTo(targetPath);
+		stagingPath.deleteRecursive();
 
-		ByteArrayOutputStream outStr = new ByteArrayOutputStream();
-		source.zip(outStr);
+		// fill in the urlName of this report. we need a network path not a FS path
+		String resourceUrl = htmlReportInfo.getResourceURL();
+		FilePath source = new FilePath(runWorkspace, htmlReportDir);
 
-		ByteArrayInputStream inStr= new ByteArrayInputStream(outStr.toByteArray());
-		String zipFileName = "UFT_Report_HTML_tmp.zip";
-		FilePath archivedFile = new FilePath(rootTarget, zipFileName);
+		// if it's a parallel runner report path, we must change the resFileName
+		boolean isParallelRunner = isParallelRunnerReportPath(source);
+		String resFileName = isParallelRunner ? "/parallelrun_results.html" : "/run_results.html";
 
-		//copy from slave to master
-		archivedFile.copyFrom(inStr);
+		String urlName = resourceUrl + resFileName; // like artifact/UFTReport/GuiTest1/run_results.html
+		// or for Parallel runner /GuiTest1[1]/parallelrun_results.html
 
-		// end zip copy and unzip
-		archivedFile.unzip(rootTarget);
+		htmlReportInfo.setUrlName(urlName);
+	}
 
-		//delete temporary archive UFT_Report_HTML_tmp.zip
-		archivedFile.delete();
+	private void addArchiveSummary(Run<?, ?> build, ReportArchiveWorkers workers) {
+		if (workers.getCompleted() == 0) {
+			return;
+		}
+		ReportArchiveSummaryAction summary = build.getAction(ReportArchiveSummaryAction.class);
+		if (summary == null) {
+			summary = new ReportArchiveSummaryAction(ReportArchiveWorkers.THREADS, ReportArchiveWorkers.THREADS_PER_NODE);
+			build.addAction(summary);
+		}
+		summary.add(workers.getCompleted(), workers.getElapsedMillis());
+	}
 
-		outStr.close();
-		inStr.close();
+	private static String getNodeName(FilePath workspace) {
+		Computer computer = workspace.toComputer();
+		return computer == null ? "" : computer.getName();
+	}
+
+	private void archiveAndCopyReportFolder(FilePath runWorkspace, File reportDir, String htmlReportDir) throws IOException, InterruptedException {
+		FilePath source  = new FilePath(runWorkspace, htmlReportDir);
+
+		//copy from slave to master, the zip is unpacked while it is transferred
+		ReportArchive.extract(source, reportDir);
 	}
 
 
@@ -752,24 +769,12 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 			throws IOException, InterruptedException {
 		FilePath slaReportFilePath = new FilePath(reportFolder, "RunReport.xml");
 		if (slaReportFilePath.exists()) {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			slaReportFilePath.zip(baos);
 			File slaDirectory = new File(buildDir, "RunReport");
 			if (!slaDirectory.exists()) {
 				slaDirectory.mkdir();
 			}
-			ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-			FilePath slaDirectoryFilePath = new FilePath(slaDirectory);
-			FilePath tmpZipFile = new FilePath(slaDirectoryFilePath, "runReport.zip");
-			tmpZipFile.copyFrom(bais);
-			bais.close();
-			baos.close();
-			tmpZipFile.unzip(slaDirectoryFilePath);
-			FilePath slaFile = new FilePath(slaDirectoryFilePath, "RunReport.xml");
-			slaFile.getBaseName();
-			slaFile.renameTo(new FilePath(slaDirectoryFilePath, scenarioName + ".xml"));
-
-			slaFile = new FilePath(slaDirectoryFilePath, scenarioName + ".xml");
+			FilePath slaFile = new FilePath(new FilePath(slaDirectory), scenarioName + ".xml");
+			slaReportFilePath.copyTo(slaFile);
 
 			return slaFile;
 		}
@@ -789,22 +794,13 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
 				listener.getLogger().println("Zipping report folder: " + reportFolder);
 
-				ByteArrayOutputStream outstr = new ByteArrayOutputStream();
-				reportFolder.zip(outstr);
-
 				/*
 				 * I did't use copyRecursiveTo or copyFrom due to bug in
 				 * jekins:https://issues.jenkins-ci.org/browse /JENKINS-9189 //(which is
 				 * cleaimed to have been fixed, but not. So I zip the folder to stream and copy
 				 * it to the master.
 				 */
-
-				ByteArrayInputStream instr = new ByteArrayInputStream(outstr.toByteArray());
-
-				archivedFile.copyFrom(instr);
-
-				outstr.close();
-				instr.close();
+				ReportArchive.archive(reportFolder, archivedFile);
 				return true;
 			} else {
 				listener.getLogger().println("No report folder was found in: " + reportFolder);
@@ -851,25 +847,22 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 			if (srcDirectoryFilePath.exists()) {
 				FilePath srcFilePath = new FilePath(srcDirectoryFilePath, IE_REPORT_FOLDER);
 				if (srcFilePath.exists()) {
-					ByteArrayOutputStream baos = new ByteArrayOutputStream();
-					srcFilePath.zip(baos);
 					File reportDirectory = new File(artifactsDir.getParent(), PERFORMANCE_REPORT_FOLDER);
 					if (!reportDirectory.exists()) {
 						reportDirectory.mkdir();
 					}
-					ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-					FilePath reportDirectoryFilePath = new FilePath(reportDirectory);
-					FilePath tmpZipFile = new FilePath(reportDirectoryFilePath, "tmp.zip");
-					tmpZipFile.copyFrom(bais);
-					bais.close();
-					baos.close();
-					tmpZipFile.unzip(reportDirectoryFilePath);
 					String newFolderName = org.apache.commons.io.FilenameUtils.getName(testFolderPathFile.getPath());
-					FileUtils.moveDirectory(new File(reportDirectory, IE_REPORT_FOLDER),
-							new File(reportDirectory, newFolderName));
-					tmpZipFile.delete();
+					if (ReportArchive.KEEP_HTML_REPORTS_ARCHIVED) {
+						// served from the archive by DetailReport
+						ReportArchive.archive(srcFilePath, new FilePath(new File(reportDirectory, newFolderName + ".zip")));
+					} else {
+						ReportArchive.extract(srcFilePath, reportDirectory);
+						FileUtils.moveDirectory(new File(reportDirectory, IE_REPORT_FOLDER),
+								new File(reportDirectory, newFolderName));
+					}
+					// an archive has no folder listing, link the main page of the report instead
 					outputReportFiles(reportNames, reportDirectory, testResult, "Performance Report",
-							HTML_REPORT_FOLDER);
+							ReportArchive.KEEP_HTML_REPORTS_ARCHIVED ? HTML_REPORT_FOLDER + ".html" : HTML_REPORT_FOLDER);
 				}
 			}
 		}
@@ -1412,13 +1405,9 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
                 if (resultsFileName != null) {
                     almSSEResultNames.add(resultsFileName);
                 }
-            } else if (builder instanceof PcBuilder) {
-                String resultsFileName = ((PcBuilder) builder).getRunResultsFileName();
-                if (resultsFileName != null) {
-                    pcResultNames.add(resultsFileName);
-                }
             }
         }
+        pcResultNames.addAll(PcBuilder.getRunResultsFileNames(build));
 
         FileFilter fileSystemResultFileFilter = new WildcardFileFilter(String.format("*_%d.xml", build.getNumber()));
         List<FilePath> fileSystemResultsPath = workspace.list(fileSystemResultFileFilter);
@@ -0,0 +1,95 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.parser;
+
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Test report formats known to the parsers, recognized by the root element of the report.
+ * Only the prolog and the root start tag are read, so sniffing costs the same for any report size.
+ */
+public enum ReportFormat {
+	JENKINS_JUNIT("result"),
+	MAVEN_SUREFIRE("testsuite"),
+	TESTNG("testng-results"),
+	NUNIT("test-results"),
+	NUNIT3("test-run"),
+	ANT_JUNIT("testsuites"),
+	UNKNOWN(null);
+
+	private static final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(() -> {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	});
+
+	private final String rootElement;
+
+	ReportFormat(String rootElement) {
+		this.rootElement = rootElement;
+	}
+
+	public String getRootElement() {
+		return rootElement;
+	}
+
+	public static ReportFormat forRootElement(String localName) {
+		for (ReportFormat format : values()) {
+			if (format.rootElement != null && format.rootElement.equals(localName)) {
+				return format;
+			}
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Reads the report up to its root element. The stream is left open for the caller to close.
+	 * @return the format of the report, or {@link #UNKNOWN} if the root is not recognized or the content is not XML
+	 */
+	public static ReportFormat sniff(InputStream in) {
+		XMLStreamReader reader = null;
+		try {
+			reader = inputFactory.get().createXMLStreamReader(in);
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+					return forRootElement(reader.getLocalName());
+				}
+			}
+			return UNKNOWN;
+		} catch (XMLStreamException e) {
+			return UNKNOWN;
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException e) {
+					// the underlying stream is closed by the caller
+				}
+			}
+		}
+	}
+}
@@ -21,9 +21,12 @@
 package com.microfocus.application.automation.tools.results.parser;
 
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import com.microfocus.application.automation.tools.results.parser.antjunit.AntJUnitReportParserImpl;
 import com.microfocus.application.automation.tools.results.parser.jenkinsjunit.JenkinsJUnitReportParserImpl;
@@ -40,6 +43,7 @@ public class ReportParserManager {
 	private static ReportParserManager instance = new ReportParserManager();
 
 	private List<ReportParser> parserList;
+	private Map<ReportFormat, ReportParser> parsersByFormat;
 	private FilePath workspace;
 	private Logger logger;
 
@@ -55,13 +59,28 @@ public class ReportParserManager {
 		return instance;
 	}
 
+	/**
+	 * Parses the report with the parser of its format, sniffed from the root element.
+	 * If that parser fails, or the format is not recognized, the other parsers are tried in order.
+	 */
 	public List<AlmTestSet> parseTestSets(String reportFilePath, String testingFramework, String testingTool) {
 		init();
+		ReportParser formatParser = parsersByFormat.get(sniffFormat(reportFilePath));
+		if (formatParser != null) {
+			try {
+				return parseTestSets(formatParser, reportFilePath, testingFramework, testingTool);
+			} catch (Exception e) {
+				logger.log("Failed to parse file with: " + formatParser.getClass().getName());
+			}
+		}
+
 		List<AlmTestSet> testsets = null;
 		for (ReportParser reportParser : parserList) {
+			if (reportParser == formatParser) {
+				continue;
+			}
 			try {
-				InputStream in = new FileInputStream(reportFilePath);
-				testsets = reportParser.parseTestSets(in, testingFramework, testingTool);
+				testsets = parseTestSets(reportParser, reportFilePath, testingFramework, testingTool);
 				break;
 			} catch (Exception e) {
 				logger.log("Failed to parse file with: " + reportParser.getClass().getName());
@@ -70,18 +89,42 @@ public class ReportParserManager {
 		return testsets;
 	}
 
+	private static List<AlmTestSet> parseTestSets(ReportParser reportParser, String reportFilePath, String testingFramework, String testingTool)
+			throws ReportParseException, IOException {
+		try (InputStream in = new FileInputStream(reportFilePath)) {
+			return reportParser.parseTestSets(in, testingFramework, testingTool);
+		}
+	}
+
+	private static ReportFormat sniffFormat(String reportFilePath) {
+		try (InputStream in = new FileInputStream(reportFilePath)) {
+			return ReportFormat.sniff(in);
+		} catch (IOException e) {
+			return ReportFormat.UNKNOWN;
+		}
+	}
+
 	private void init() {
 		if (parserList == null) {
 			parserList = new ArrayList<ReportParser>();
+			parsersByFormat = new EnumMap<ReportFormat, ReportParser>(ReportFormat.class);
 		}
 
 		if (parserList.isEmpty()) {
-			parserList.add(new JenkinsJUnitReportParserImpl());
-			parserList.add(new MavenSureFireReportParserImpl());
-			parserList.add(new TestNGXmlReportParserImpl());
-			parserList.add(new NUnit3ReportParserImpl(workspace));
-			parserList.add(new NUnitReportParserImpl());
-			parserList.add(new AntJUnitReportParserImpl());
+			ReportParser nunit3Parser = new NUnit3ReportParserImpl(workspace);
+			addParser(ReportFormat.JENKINS_JUNIT, new JenkinsJUnitReportParserImpl());
+			addParser(ReportFormat.MAVEN_SUREFIRE, new MavenSureFireReportParserImpl());
+			addParser(ReportFormat.TESTNG, new TestNGXmlReportParserImpl());
+			addParser(ReportFormat.NUNIT3, nunit3Parser);
+			addParser(ReportFormat.NUNIT, new NUnitReportParserImpl());
+			addParser(ReportFormat.ANT_JUNIT, new AntJUnitReportParserImpl());
+			// NUnit 2 reports were always taken by the NUnit3 XSL conversion, which comes first in the list
+			parsersByFormat.put(ReportFormat.NUNIT, nunit3Parser);
 		}
 	}
+
+	private void addParser(ReportFormat format, ReportParser reportParser) {
+		parserList.add(reportParser);
+		parsersByFormat.put(format, reportParser);
+	}
 }
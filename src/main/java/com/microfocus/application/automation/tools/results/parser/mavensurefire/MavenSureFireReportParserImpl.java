@@ -55,7 +55,7 @@ public class MavenSureFireReportParserImpl implements ReportParser {
 	}	
     
 	private Testsuite parseFromMavenSurefirePluginJUnitReport(InputStream reportInputStream) throws JAXBException {
-		JAXBContext jaxbContext = JAXBContext.newInstance(Testsuite.class);
+		JAXBContext jaxbContext = ParserUtil.getJAXBContext(Testsuite.class);
 		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
 		return (Testsuite)unmarshaller.unmarshal(reportInputStream);
 	}
@@ -57,7 +57,7 @@ public class NUnitReportParserImpl implements ReportParser {
 	}	
     
 	private ResultType parseFromNUnitReport(InputStream reportInputStream) throws JAXBException {
-		JAXBContext jaxbContext = JAXBContext.newInstance(ResultType.class);
+		JAXBContext jaxbContext = ParserUtil.getJAXBContext(ResultType.class);
 		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
 		return (ResultType)unmarshaller.unmarshal(reportInputStream);
 	}
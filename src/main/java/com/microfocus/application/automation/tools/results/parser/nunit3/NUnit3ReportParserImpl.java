@@ -26,7 +26,9 @@ import com.microfocus.application.automation.tools.results.parser.antjunit.AntJU
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
 import hudson.FilePath;
 
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -47,6 +49,9 @@ public class NUnit3ReportParserImpl implements ReportParser {
     private static final String TEMP_JUNIT_FILE_SUFFIX = ".xml";
     private static final String NUNIT_TO_JUNIT_XSLFILE = "nunit-to-junit.xsl";
 
+    // the compiled stylesheet is thread safe and reused by every conversion
+    private static volatile Templates nunitTemplates;
+
     private FilePath workspace;
 
     public NUnit3ReportParserImpl(FilePath workspace) {
@@ -63,9 +68,7 @@ public class NUnit3ReportParserImpl implements ReportParser {
 
         FileOutputStream fileOutputStream = null;
         try {
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer nunitTransformer = transformerFactory.newTransformer(
-                        new StreamSource(this.getClass().getResourceAsStream(NUNIT_TO_JUNIT_XSLFILE)));
+            Transformer nunitTransformer = getNunitTemplates().newTransformer();
             File junitTargetFile = new File(workspace.createTempFile(TEMP_JUNIT_FILE_PREFIX, TEMP_JUNIT_FILE_SUFFIX).toURI());
             fileOutputStream = new FileOutputStream(junitTargetFile);
             nunitTransformer.transform(new StreamSource(reportInputStream), new StreamResult(fileOutputStream));
@@ -94,4 +97,14 @@ public class NUnit3ReportParserImpl implements ReportParser {
             }
         }
     }
+
+    private static Templates getNunitTemplates() throws TransformerConfigurationException {
+        Templates templates = nunitTemplates;
+        if (templates == null) {
+            templates = TransformerFactory.newInstance().newTemplates(
+                    new StreamSource(NUnit3ReportParserImpl.class.getResourceAsStream(NUNIT_TO_JUNIT_XSLFILE)));
+            nunitTemplates = templates;
+        }
+        return templates;
+    }
 }
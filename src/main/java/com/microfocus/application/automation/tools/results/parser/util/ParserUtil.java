@@ -22,8 +22,13 @@ package com.microfocus.application.automation.tools.results.parser.util;
 
 import java.io.StringWriter;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
 import com.microfocus.application.automation.tools.results.parser.ReportParser;
@@ -37,6 +42,54 @@ public class ParserUtil {
 	public static char[] testNameInvalidChars = new char[] { '\\', '/', ':', '"', '?', '\'', '<', '>', '|', '*', '%' };
 	public static char[] testSetNameInvalidChars = new char[] { '\\', '^', ',', '"', '*' };
 
+	private static final ConcurrentMap<Class<?>, JAXBContext> jaxbContexts = new ConcurrentHashMap<Class<?>, JAXBContext>();
+
+	/**
+	 * JAXB contexts are expensive to build and thread safe, so one is kept per bound class.
+	 * Unmarshallers and marshallers created from it are not thread safe and must not be shared.
+	 */
+	public static JAXBContext getJAXBContext(Class<?> c) throws JAXBException {
+		JAXBContext context = jaxbContexts.get(c);
+		if (context == null) {
+			context = JAXBContext.newInstance(c);
+			JAXBContext existing = jaxbContexts.putIfAbsent(c, context);
+			if (existing != null) {
+				context = existing;
+			}
+		}
+		return context;
+	}
+
+	private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+	// marshallers are not thread safe: each thread keeps its own per class, with a reused output buffer
+	private static final ThreadLocal<MarshallerCache> marshallerCache = ThreadLocal.withInitial(MarshallerCache::new);
+
+	private static final class MarshallerCache {
+		private final Map<Class<?>, Marshaller> marshallers = new HashMap<Class<?>, Marshaller>();
+		private final StringWriter buffer = new StringWriter(1024);
+
+		private Marshaller get(Class<?> c) throws JAXBException {
+			Marshaller marshaller = marshallers.get(c);
+			if (marshaller == null) {
+				marshaller = getJAXBContext(c).createMarshaller();
+				marshaller.setProperty(Marshaller.JAXB_ENCODING,"utf-8");
+				marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+				marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+				marshallers.put(c, marshaller);
+			}
+			return marshaller;
+		}
+
+		private void resetBuffer() {
+			StringBuffer sb = buffer.getBuffer();
+			sb.setLength(0);
+			if (sb.capacity() > MAX_RETAINED_BUFFER) {
+				sb.trimToSize();
+			}
+		}
+	}
+
 	public static String repaceInvalidChars(char[] invalidChars, char newChar, String source)
     {
 		StringBuffer temp = new StringBuffer(source);
@@ -89,17 +142,17 @@ public class ParserUtil {
 	
 	public static String marshallerObject(Class c, Object o){
 		String s = "<?xml version=\"1.0\" ?>";
+		MarshallerCache cache = marshallerCache.get();
 		try {
-			JAXBContext jaxbContext = JAXBContext.newInstance(c);
-			Marshaller marshaller =  jaxbContext.createMarshaller();
-			marshaller.setProperty(Marshaller.JAXB_ENCODING,"utf-8");
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
-			
-			StringWriter baos = new StringWriter();  
-			marshaller.marshal(o, baos);
-			s += baos.toString();
+			cache.resetBuffer();
+			cache.buffer.write(s);
+			cache.get(c).marshal(o, cache.buffer);
+			s = cache.buffer.toString();
 		}catch (Exception e) {
+			// a marshaller that failed half way is not reused
+			cache.marshallers.remove(c);
+		} finally {
+			cache.resetBuffer();
 		}
 		return s;
 	}
@@ -20,7 +20,6 @@
 
 package com.microfocus.application.automation.tools.results.projectparser.performance;
 
-import java.util.HashSet;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -42,10 +41,9 @@ public class LrProjectScenarioResults extends LrScenario {
     private SortedMap<Integer, WholeRunResult> averageHitsPerSecondResults;
     private SortedMap<Integer, WholeRunResult> totalHitsResults;
     private SortedMap<Integer, TimeRangeResult> errPerSecResults;
-    private SortedMap<Integer, TreeMap<String, PercentileTransactionWholeRun>> percentileTransactionResults;
-    private SortedMap<Integer, TreeMap<String, AvgTransactionResponseTime>> avgTransactionResponseTimeResults;
-    //Holds the data of a transactionss for the whole Job
-    private HashSet<String> transactions;
+    //Holds the per transaction values of the percentile and average TRT rules, one column per transaction
+    private TransactionSeries percentileTransactionResults;
+    private TransactionSeries avgTransactionResponseTimeResults;
     //Holds the data of connections per run for the whole Job
     private SortedMap<Integer, Integer> maxConnectionsCount;
     //Holds the summary data of vuser status(count, fail, pass, error) for the whole Job
@@ -73,9 +71,8 @@ public class LrProjectScenarioResults extends LrScenario {
         averageHitsPerSecondResults = new TreeMap<Integer, WholeRunResult>();
         totalHitsResults = new TreeMap<Integer, WholeRunResult>();
         errPerSecResults = new TreeMap<Integer, TimeRangeResult>();
-        percentileTransactionResults = new TreeMap<>();
-        avgTransactionResponseTimeResults = new TreeMap<Integer, TreeMap<String, AvgTransactionResponseTime>>();
-        transactions = new HashSet<String>();
+        percentileTransactionResults = new TransactionSeries();
+        avgTransactionResponseTimeResults = new TransactionSeries();
         maxConnectionsCount = new TreeMap<>();
 
         durationData = new TreeMap<>();
@@ -159,7 +156,7 @@ public class LrProjectScenarioResults extends LrScenario {
      *
      * @return the percentile transaction results
      */
-    public SortedMap<Integer, TreeMap<String, PercentileTransactionWholeRun>> getPercentileTransactionResults() {
+    public TransactionSeries getPercentileTransactionResults() {
         return percentileTransactionResults;
     }
 
@@ -168,19 +165,10 @@ public class LrProjectScenarioResults extends LrScenario {
      *
      * @return the avg transaction response time results
      */
-    public SortedMap<Integer, TreeMap<String, AvgTransactionResponseTime>> getAvgTransactionResponseTimeResults() {
+    public TransactionSeries getAvgTransactionResponseTimeResults() {
         return avgTransactionResponseTimeResults;
     }
 
-    /**
-     * Gets transactions.
-     *
-     * @return the transactions
-     */
-    public HashSet<String> getTransactions() {
-        return transactions;
-    }
-
     /**
      * Gets max connections count.
      *
@@ -0,0 +1,136 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column oriented store of a per transaction metric across the builds of a job.
+ * Transaction names are interned to dense ids, the build numbers are kept as a sorted {@code int[]} and every
+ * transaction owns a {@code double[]} column aligned with it. Missing samples are stored as {@link Double#NaN}.
+ */
+public class TransactionSeries {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Map<String, Integer> transactionIds = new HashMap<String, Integer>();
+    private final List<String> transactionNames = new ArrayList<String>();
+    private final List<double[]> columns = new ArrayList<double[]>();
+    private int[] builds = new int[INITIAL_CAPACITY];
+    private int buildCount;
+
+    /**
+     * Records the value of a transaction for a build.
+     *
+     * @param buildNumber the build number
+     * @param transaction the transaction name
+     * @param value       the measured value
+     */
+    public void put(int buildNumber, String transaction, double value) {
+        int buildIndex = buildIndexFor(buildNumber);
+        columns.get(transactionIdFor(transaction))[buildIndex] = value;
+    }
+
+    /**
+     * Gets the build numbers, sorted in ascending order.
+     *
+     * @return a copy of the build numbers
+     */
+    public int[] getBuilds() {
+        return Arrays.copyOf(builds, buildCount);
+    }
+
+    public int getBuildCount() {
+        return buildCount;
+    }
+
+    public int getBuildNumber(int buildIndex) {
+        return builds[buildIndex];
+    }
+
+    public int getTransactionCount() {
+        return transactionNames.size();
+    }
+
+    public String getTransactionName(int transactionId) {
+        return transactionNames.get(transactionId);
+    }
+
+    /**
+     * Gets the value of a transaction for the build at the given position.
+     *
+     * @param transactionId the transaction id
+     * @param buildIndex    the position of the build in {@link #getBuilds()}
+     * @return the value, or {@link Double#NaN} when the build has no sample for the transaction
+     */
+    public double getValue(int transactionId, int buildIndex) {
+        return columns.get(transactionId)[buildIndex];
+    }
+
+    public boolean isEmpty() {
+        return buildCount == 0;
+    }
+
+    private int transactionIdFor(String transaction) {
+        Integer id = transactionIds.get(transaction);
+        if (id == null) {
+            id = transactionNames.size();
+            transactionIds.put(transaction, id);
+            transactionNames.add(transaction);
+            double[] column = new double[builds.length];
+            Arrays.fill(column, Double.NaN);
+            columns.add(column);
+        }
+        return id;
+    }
+
+    private int buildIndexFor(int buildNumber) {
+        int index = Arrays.binarySearch(builds, 0, buildCount, buildNumber);
+        if (index >= 0) {
+            return index;
+        }
+        index = -index - 1;
+        if (buildCount == builds.length) {
+            grow(builds.length * 2);
+        }
+        System.arraycopy(builds, index, builds, index + 1, buildCount - index);
+        builds[index] = buildNumber;
+        for (double[] column : columns) {
+            System.arraycopy(column, index, column, index + 1, buildCount - index);
+            column[index] = Double.NaN;
+        }
+        buildCount++;
+        return index;
+    }
+
+    private void grow(int capacity) {
+        builds = Arrays.copyOf(builds, capacity);
+        for (int i = 0; i < columns.size(); i++) {
+            double[] column = Arrays.copyOf(columns.get(i), capacity);
+            Arrays.fill(column, buildCount, capacity, Double.NaN);
+            columns.set(i, column);
+        }
+    }
+}
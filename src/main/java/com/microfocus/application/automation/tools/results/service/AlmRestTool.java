@@ -25,6 +25,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 
 import com.microfocus.application.automation.tools.common.Pair;
 import com.microfocus.application.automation.tools.rest.RestClient;
@@ -40,6 +43,16 @@ import com.microfocus.application.automation.tools.sse.sdk.authenticator.Authent
 import com.microfocus.application.automation.tools.sse.sdk.authenticator.RestAuthenticator;
 
 public class AlmRestTool {
+
+	/**
+	 * Number of entities fetched per page by {@link #getAllAlmEntities}.
+	 */
+	private static final int PAGE_SIZE = Integer.getInteger("AlmRestTool.PageSize", 1000);
+
+	/**
+	 * Upper bound of create requests {@link #createAlmEntities} keeps in flight at once.
+	 */
+	private static final int MAX_PENDING_CREATES = Integer.getInteger("AlmRestTool.MaxPendingCreates", 8);
 	
 	private Logger _logger ;
 	private RestClient restClient;
@@ -236,13 +249,86 @@ public class AlmRestTool {
 
 	}
 
+    /**
+     * Get all ALM entities matching the query, following the server paging.
+     * The query string must not contain page-size or start-index.
+     */
+	public <E extends AlmEntity > List<E> getAllAlmEntities( E entity, String queryString){
+
+		List<E> ret = new ArrayList<E>();
+		int startIndex = 1;
+		while(true) {
+			List<E> page = getAlmEntity(entity, String.format("%s&page-size=%d&start-index=%d", queryString, PAGE_SIZE, startIndex));
+			ret.addAll(page);
+			if(page.size() < PAGE_SIZE) {
+				return ret;
+			}
+			startIndex += page.size();
+		}
+	}
+
     /**
      * Create ALM entity
      */
 	public <E extends AlmEntity> E createAlmEntity (E entity, String[] fieldsForCreation) throws ExternalEntityUploadException {
 		
 		CreateAlmEntityRequest createRequest = new CreateAlmEntityRequest(getRestClient(), entity, getPairListForAlmEntityFields(entity, fieldsForCreation) );
-		Response response = createRequest.perform();	
+		return getCreatedEntity(entity, createRequest.perform());
+	}
+
+    /**
+     * Create ALM entities, keeping at most AlmRestTool.MaxPendingCreates requests in flight.
+     * The created entities are returned in the order of the given ones. Every request is waited for
+     * before the first failure, if any, is thrown.
+     */
+	public <E extends AlmEntity> List<E> createAlmEntities (List<E> entities, String[] fieldsForCreation) throws ExternalEntityUploadException {
+
+		final Semaphore pending = new Semaphore(MAX_PENDING_CREATES);
+		List<CompletableFuture<E>> created = new ArrayList<CompletableFuture<E>>(entities.size());
+		try {
+			for(final E entity : entities) {
+				pending.acquire();
+				CreateAlmEntityRequest createRequest = new CreateAlmEntityRequest(getRestClient(), entity, getPairListForAlmEntityFields(entity, fieldsForCreation) );
+				created.add(createRequest.performAsync().handle((response, cause) -> {
+					pending.release();
+					try {
+						if(cause != null) {
+							_logger.log("Failed to create Entity:" + entity.toString());
+							throw new ExternalEntityUploadException("Failed to create Entity:" + entity.toString(), cause);
+						}
+						return getCreatedEntity(entity, response);
+					} catch (ExternalEntityUploadException e) {
+						throw new CompletionException(e);
+					}
+				}));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ExternalEntityUploadException(e);
+		}
+
+		try {
+			CompletableFuture.allOf(created.toArray(new CompletableFuture[0])).join();
+		} catch (CompletionException e) {
+			// reported below, in the order of the entities
+		}
+
+		List<E> ret = new ArrayList<E>(created.size());
+		for(CompletableFuture<E> entity : created) {
+			try {
+				ret.add(entity.join());
+			} catch (CompletionException e) {
+				if(e.getCause() instanceof ExternalEntityUploadException) {
+					throw (ExternalEntityUploadException) e.getCause();
+				}
+				throw new ExternalEntityUploadException(e.getCause());
+			}
+		}
+		return ret;
+	}
+
+	private <E extends AlmEntity> E getCreatedEntity (E entity, Response response) throws ExternalEntityUploadException {
+
 		if(response.isOk() && !response.toString().equals("")){
 			List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
 			List entities = getAlmEntityList(entities2, entity.getClass());
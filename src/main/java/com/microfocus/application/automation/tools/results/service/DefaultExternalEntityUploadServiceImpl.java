@@ -52,6 +52,16 @@ import hudson.FilePath;
 public class DefaultExternalEntityUploadServiceImpl implements
 		IExternalEntityUploadService {
 
+	/**
+	 * Falls back to looking up and creating the entities of every test one by one.
+	 */
+	private static final boolean SERIAL_UPLOAD = Boolean.getBoolean("DefaultExternalEntityUploadServiceImpl.SerialUpload");
+
+	/**
+	 * Number of test ids put in a single test configuration query.
+	 */
+	private static final int IDS_PER_QUERY = 100;
+
 	Logger logger;
 	private AlmRestTool restTool;
 	private FilePath workspace;
@@ -80,8 +90,6 @@ public class DefaultExternalEntityUploadServiceImpl implements
 
 		String className = (String) test.getFieldValue(AlmTest.TS_UT_CLASS_NAME);
 		String methodName = (String) test.getFieldValue(AlmTest.TS_UT_METHOD_NAME);
-		String packageName = (String) test.getFieldValue(AlmTest.TS_UT_PACKAGE_NAME);
-		String testingFramework = (String) test.getFieldValue(AlmTest.TS_TESTING_FRAMEWORK);
 		
 		String queryString = String.format("query={parent-id[%s];subtype-id[EXTERNAL-TEST];ut-class-name[%s];ut-method-name[%s]}&fields=id,name,ut-package-name,ut-class-name,ut-method-name,testing-framework&page-size=2000", 
 											String.valueOf(testFolderId),
@@ -89,49 +97,61 @@ public class DefaultExternalEntityUploadServiceImpl implements
 											AlmRestTool.getEncodedString(methodName));		
 		List<AlmTestImpl> existingTests = restTool.getAlmEntity(new AlmTestImpl(), queryString);
 		
-		AlmTestImpl importedTest = null;//restTool.getEntityUnderParentFolder(AlmTestImpl.class, testFolderId, test.getName());
+		AlmTest importedTest = findExistingTest(test, existingTests);//restTool.getEntityUnderParentFolder(AlmTestImpl.class, testFolderId, test.getName());
 		
-		if(existingTests != null && existingTests.size() >0) {
-			boolean exists = false;
-			Map<String, AlmTestImpl> existingTestMap = new HashMap<String, AlmTestImpl> ();
-			
-			for(AlmTestImpl existingTest : existingTests) {
-				if(existingTest.getKey().endsWith(test.getKey())) {
-					exists = true;
-					importedTest = existingTest;
-					break;
-				}
-				existingTestMap.put(existingTest.getName(), existingTest);
+		if(importedTest	== null) {
+			prepareTest(test, testFolderId, testingTool, testdesigner);
+			return restTool.createAlmEntity(test, getTestCreationFields());
+		}
+
+
+		return importedTest;
+	}
+
+	/**
+	 * Looks for the test among the existing tests of its folder with the same class and method name.
+	 * If it is not there, the test is given a name none of them uses.
+	 */
+	private AlmTest findExistingTest(AlmTest test, List<? extends AlmTest> existingTests) {
+
+		String className = (String) test.getFieldValue(AlmTest.TS_UT_CLASS_NAME);
+		String methodName = (String) test.getFieldValue(AlmTest.TS_UT_METHOD_NAME);
+		String packageName = (String) test.getFieldValue(AlmTest.TS_UT_PACKAGE_NAME);
+		String testingFramework = (String) test.getFieldValue(AlmTest.TS_TESTING_FRAMEWORK);
+
+		if(existingTests == null || existingTests.size() <= 0) {
+			return null;
+		}
+
+		Map<String, AlmTest> existingTestMap = new HashMap<String, AlmTest> ();
+		for(AlmTest existingTest : existingTests) {
+			if(existingTest.getKey().endsWith(test.getKey())) {
+				return existingTest;
 			}
-			
-			if(!exists) {
-				String tempName = className + "_" + methodName;
+			existingTestMap.put(existingTest.getName(), existingTest);
+		}
+
+		String tempName = className + "_" + methodName;
+		if(!existingTestMap.containsKey(tempName)) {
+			test.setFieldValue(AlmTest.TEST_NAME, tempName);
+		} else { 
+			tempName = packageName + "_" +tempName;
+			if(!existingTestMap.containsKey(tempName)) {
+				test.setFieldValue(AlmTest.TEST_NAME, tempName);
+			} else {
+				tempName = tempName +"_" +testingFramework;
 				if(!existingTestMap.containsKey(tempName)) {
 					test.setFieldValue(AlmTest.TEST_NAME, tempName);
-				} else { 
-					tempName = packageName + "_" +tempName;
-					if(!existingTestMap.containsKey(tempName)) {
-						test.setFieldValue(AlmTest.TEST_NAME, tempName);
-					} else {
-						tempName = tempName +"_" +testingFramework;
-						if(!existingTestMap.containsKey(tempName)) {
-							test.setFieldValue(AlmTest.TEST_NAME, tempName);
-						}
-					}
 				}
-				
 			}
 		}
-		
-		if(importedTest	== null) {
-			test.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(testFolderId));	
-			test.setFieldValue(AlmTest.TS_TESTING_TOOL, testingTool);
-			test.setFieldValue(AlmTest.TEST_RESPONSIBLE, testdesigner);
-			return restTool.createAlmEntity(test, getTestCreationFields());
-		}
-
+		return null;
+	}
 
-		return importedTest;
+	private void prepareTest(AlmTest test, int testFolderId, String testingTool, String testdesigner) {
+		test.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(testFolderId));	
+		test.setFieldValue(AlmTest.TS_TESTING_TOOL, testingTool);
+		test.setFieldValue(AlmTest.TEST_RESPONSIBLE, testdesigner);
 	}
 	
 	private String [] getTestSetCreationFields() {
@@ -190,15 +210,17 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		if(testInstances!=null && testInstances.size() > 0){
 			return testInstances.get(0);
 		} else {
-
-			testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTSET_ID, String.valueOf(testsetId));
-			testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_CONFIG_ID, String.valueOf(testconfigId));
-			testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID, String.valueOf(testId));
-			testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTER_NAME, tester);
-
+			prepareTestInstance(testinstance, testsetId, testId, testconfigId, tester);
 			return restTool.createAlmEntity(testinstance, getTestInstanceCreationFields());
 		}
 	}
+
+	private void prepareTestInstance(AlmTestInstance testinstance, String testsetId, String testId, String testconfigId, String tester) {
+		testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTSET_ID, String.valueOf(testsetId));
+		testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_CONFIG_ID, String.valueOf(testconfigId));
+		testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID, String.valueOf(testId));
+		testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTER_NAME, tester);
+	}
 	
     private String generateImportRunName() {
         Calendar cal = new GregorianCalendar();
@@ -244,6 +266,20 @@ public class DefaultExternalEntityUploadServiceImpl implements
 								String jobName,
 								String buildUrl) throws ExternalEntityUploadException{
 		
+		prepareRun(tester, run, testsetId, testId, testInstanceId, testconfigId, subversion, jobName, buildUrl);
+		return restTool.createAlmEntity(run, getRunCreationFields());
+	}
+
+	private void prepareRun(String tester, 
+							AlmRun run, 
+							String testsetId, 
+							String testId, 
+							String testInstanceId, 
+							String testconfigId, 
+							String subversion,
+							String jobName,
+							String buildUrl) {
+		
 		run.setFieldValue(AlmRun.RUN_CONFIG_ID, String.valueOf(testconfigId));
 		run.setFieldValue(AlmRun.RUN_CYCLE_ID, String.valueOf(testsetId));
 		run.setFieldValue(AlmRun.RUN_TEST_ID, String.valueOf(testId));
@@ -260,10 +296,6 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		
 		run.setFieldValue(AlmCommonProperties.NAME, generateImportRunName());
 		run.setFieldValue(AlmCommonProperties.OWNER, tester);
-		
-		return restTool.createAlmEntity(run, getRunCreationFields());
-
-
 	}
 
 	private String[] getCreationFieldsForTestFolder() {
@@ -398,7 +430,18 @@ public class DefaultExternalEntityUploadServiceImpl implements
 
 			if(testFolder != null && testsetFolder != null) {
 				logger.log("INFO: Uploading ALM Entities...");
-				importExternalTestSet(
+				if(SERIAL_UPLOAD) {
+					importExternalTestSet(
+						testsets,
+						actualUser,
+						Integer.valueOf(testsetFolder.getId()),
+						Integer.valueOf(testFolder.getId()),
+						testingTool,
+						subversion,
+						jobName,
+						buildUrl);
+				} else {
+					importExternalTestSetInBulk(
 						testsets,
 						actualUser,
 						Integer.valueOf(testsetFolder.getId()),
@@ -407,6 +450,7 @@ public class DefaultExternalEntityUploadServiceImpl implements
 						subversion,
 						jobName,
 						buildUrl);
+				}
 			}
 		} catch (Exception e) {
 			throw new ExternalEntityUploadException(e);
@@ -414,7 +458,7 @@ public class DefaultExternalEntityUploadServiceImpl implements
 	}
 	
 	
-	private void importExternalTestSet(List<AlmTestSet> testsets, String tester, int testsetFolderId, int testFolderId, String testingTool, String subversion, String jobName, String buildUrl ) throws ExternalEntityUploadException{
+	void importExternalTestSet(List<AlmTestSet> testsets, String tester, int testsetFolderId, int testFolderId, String testingTool, String subversion, String jobName, String buildUrl ) throws ExternalEntityUploadException{
 
 		
 		for (AlmTestSet testset : testsets){
@@ -467,4 +511,188 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		
 	}
 	
+	/**
+	 * Imports the test sets with the entities of the target folder and test set fetched in paged queries
+	 * up front, so only the missing tests and test instances are created. New entities and the runs are
+	 * sent through {@link AlmRestTool#createAlmEntities}, which keeps several requests in flight.
+	 * The outcome is the same as for {@link #importExternalTestSet}.
+	 */
+	void importExternalTestSetInBulk(List<AlmTestSet> testsets, String tester, int testsetFolderId, int testFolderId, String testingTool, String subversion, String jobName, String buildUrl ) throws ExternalEntityUploadException{
+
+		Map<String, List<AlmTest>> existingTests = null;
+		Map<String, String> mainTestConfigIds = new HashMap<String, String>();
+
+		for (AlmTestSet testset : testsets){
+			AlmTestSet importedTestSet = importTestSet(testset, testsetFolderId);
+			if(importedTestSet == null ) {
+				continue;
+			}
+			List<AlmEntity> testinstances = testset.getRelatedEntities().get(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION);
+			if(testinstances == null || testinstances.size() <=0) {
+				continue;
+			}
+			if(existingTests == null) {
+				existingTests = getExistingTests(testFolderId);
+			}
+
+			// tests
+			List<AlmTestInstance> instances = new ArrayList<AlmTestInstance>();
+			List<AlmTest> importedTests = new ArrayList<AlmTest>();
+			List<AlmTest> newTests = new ArrayList<AlmTest>();
+			for(AlmEntity testinstanceEntity: testinstances){
+				AlmTestInstance testInstance = (AlmTestInstance) testinstanceEntity;
+				List<AlmEntity> tests = testInstance.getRelatedEntities().get(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION);
+				if(tests == null || tests.size() <= 0) {
+					continue;
+				}
+
+				AlmTest test = (AlmTest) tests.get(0);
+				List<AlmTest> sameMethodTests = getTestsOfMethod(existingTests, test);
+				AlmTest importedTest = findExistingTest(test, sameMethodTests);
+				if(importedTest == null) {
+					prepareTest(test, testFolderId, testingTool, tester);
+					sameMethodTests.add(test);
+					newTests.add(test);
+					importedTest = test;
+				}
+				instances.add(testInstance);
+				importedTests.add(importedTest);
+			}
+			List<AlmTest> createdTests = restTool.createAlmEntities(newTests, getTestCreationFields());
+			for(int i = 0; i < newTests.size(); i++) {
+				newTests.get(i).setId(createdTests.get(i).getId());
+			}
+
+			// main test configurations
+			List<String> testIds = new ArrayList<String>();
+			for(AlmTest importedTest : importedTests) {
+				if(!mainTestConfigIds.containsKey(importedTest.getId()) && !testIds.contains(importedTest.getId())) {
+					testIds.add(importedTest.getId());
+				}
+			}
+			fetchMainTestConfigIds(testIds, mainTestConfigIds);
+
+			// test instances
+			Map<String, AlmTestInstance> existingInstances = getExistingTestInstances(importedTestSet.getId());
+			List<AlmTestInstance> importedInstances = new ArrayList<AlmTestInstance>();
+			List<AlmTestInstance> newInstances = new ArrayList<AlmTestInstance>();
+			for(int i = 0; i < instances.size(); i++) {
+				AlmTest importedTest = importedTests.get(i);
+				String mainTestConfigId = mainTestConfigIds.get(importedTest.getId());
+				if(mainTestConfigId == null) {
+					importedInstances.add(null);
+					continue;
+				}
+
+				String instanceKey = importedTest.getId() + "/" + mainTestConfigId;
+				AlmTestInstance importedInstance = existingInstances.get(instanceKey);
+				if(importedInstance == null) {
+					importedInstance = instances.get(i);
+					prepareTestInstance(importedInstance, importedTestSet.getId(), importedTest.getId(), mainTestConfigId, tester);
+					existingInstances.put(instanceKey, importedInstance);
+					newInstances.add(importedInstance);
+				}
+				importedInstances.add(importedInstance);
+			}
+			List<AlmTestInstance> createdInstances = restTool.createAlmEntities(newInstances, getTestInstanceCreationFields());
+			for(int i = 0; i < newInstances.size(); i++) {
+				newInstances.get(i).setId(createdInstances.get(i).getId());
+			}
+
+			// runs
+			List<AlmRun> runs = new ArrayList<AlmRun>();
+			for(int i = 0; i < instances.size(); i++) {
+				AlmTestInstance importedInstance = importedInstances.get(i);
+				if(importedInstance == null) {
+					continue;
+				}
+				List<AlmEntity> instanceRuns = instances.get(i).getRelatedEntities().get(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION);
+				if(instanceRuns == null || instanceRuns.size() <= 0) {
+					continue;
+				}
+
+				AlmRun run = (AlmRun) instanceRuns.get(0);
+				String testId = importedTests.get(i).getId();
+				prepareRun(tester, 
+							run,  
+							importedTestSet.getId(),
+							testId, 
+							importedInstance.getId(), 
+							mainTestConfigIds.get(testId), 
+							subversion,
+							jobName,
+							buildUrl
+							);
+				runs.add(run);
+			}
+			restTool.createAlmEntities(runs, getRunCreationFields());
+		}
+	}
+
+	/**
+	 * External tests of the folder, by class and method name.
+	 */
+	private Map<String, List<AlmTest>> getExistingTests(int testFolderId) {
+
+		String queryString = String.format("query={parent-id[%s];subtype-id[EXTERNAL-TEST]}&fields=id,name,ut-package-name,ut-class-name,ut-method-name,testing-framework",
+											String.valueOf(testFolderId));
+		Map<String, List<AlmTest>> existingTests = new HashMap<String, List<AlmTest>>();
+		for(AlmTestImpl existingTest : restTool.getAllAlmEntities(new AlmTestImpl(), queryString)) {
+			getTestsOfMethod(existingTests, existingTest).add(existingTest);
+		}
+		return existingTests;
+	}
+
+	private List<AlmTest> getTestsOfMethod(Map<String, List<AlmTest>> existingTests, AlmTest test) {
+
+		String key = test.getFieldValue(AlmTest.TS_UT_CLASS_NAME) + "#" + test.getFieldValue(AlmTest.TS_UT_METHOD_NAME);
+		List<AlmTest> tests = existingTests.get(key);
+		if(tests == null) {
+			tests = new ArrayList<AlmTest>();
+			existingTests.put(key, tests);
+		}
+		return tests;
+	}
+
+	/**
+	 * Adds the first configuration of every test to the map, by test id.
+	 */
+	private void fetchMainTestConfigIds(List<String> testIds, Map<String, String> mainTestConfigIds) {
+
+		for(int from = 0; from < testIds.size(); from += IDS_PER_QUERY) {
+			StringBuilder ids = new StringBuilder();
+			for(String testId : testIds.subList(from, Math.min(from + IDS_PER_QUERY, testIds.size()))) {
+				if(ids.length() > 0) {
+					ids.append("%20OR%20");
+				}
+				ids.append(testId);
+			}
+
+			String queryString = String.format("query={parent-id[%s]}&fields=id,name,parent-id", ids);
+			for(AlmTestConfigImpl testConfig : restTool.getAllAlmEntities(new AlmTestConfigImpl(), queryString)) {
+				String testId = testConfig.getFieldValue(AlmCommonProperties.PARENT_ID);
+				if(!mainTestConfigIds.containsKey(testId)) {
+					mainTestConfigIds.put(testId, testConfig.getId());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test instances of the test set, by test and configuration id.
+	 */
+	private Map<String, AlmTestInstance> getExistingTestInstances(String testsetId) {
+
+		String queryString = String.format("query={cycle-id[%s]}&fields=id,name,test-id,test-config-id", testsetId);
+		Map<String, AlmTestInstance> existingInstances = new HashMap<String, AlmTestInstance>();
+		for(AlmTestInstanceImpl testInstance : restTool.getAllAlmEntities(new AlmTestInstanceImpl(), queryString)) {
+			String instanceKey = testInstance.getFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID)
+					+ "/" + testInstance.getFieldValue(AlmTestInstance.TEST_INSTANCE_CONFIG_ID);
+			if(!existingInstances.containsKey(instanceKey)) {
+				existingInstances.put(instanceKey, testInstance);
+			}
+		}
+		return existingInstances;
+	}
+	
 }
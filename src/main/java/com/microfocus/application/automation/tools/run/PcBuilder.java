@@ -27,6 +27,9 @@ package com.microfocus.application.automation.tools.run;
 import com.microfocus.adm.performancecenter.plugins.common.pcentities.*;
 import com.microfocus.application.automation.tools.pc.PcClient;
 import com.microfocus.application.automation.tools.pc.PcModel;
+import com.microfocus.application.automation.tools.pc.PcRunContext;
+import com.microfocus.application.automation.tools.pc.PcRunResultsAction;
+import com.microfocus.application.automation.tools.pc.TrendReportPlotData;
 import com.microfocus.application.automation.tools.pc.helper.DateFormatter;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Error;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Failure;
@@ -58,9 +61,9 @@ import org.kohsuke.stapler.QueryParameter;
 import javax.annotation.Nonnull;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Marshaller;
-import java.beans.IntrospectionException;
 import java.io.*;
 import java.lang.reflect.Method;
+import java.nio.charset.Charset;
 import java.text.Format;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -72,7 +75,6 @@ import hudson.model.Run;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardUsernameListBoxModel;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
-import com.cloudbees.plugins.credentials.common.UsernamePasswordCredentials;
 import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
 import com.cloudbees.plugins.credentials.matchers.IdMatcher;
 
@@ -95,9 +97,6 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     public static final String    ERROR           = "Error";
 
     private PcModel pcModel;
-    public static UsernamePasswordCredentials usernamePCPasswordCredentials;
-    public static UsernamePasswordCredentials usernamePCPasswordCredentialsForProxy;
-    private transient static Run<?, ?> _run;
 
     private final String timeslotDurationHours;
     private final String timeslotDurationMinutes;
@@ -123,15 +122,6 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     private String retryDelay;
     private String retryOccurrences;
 
-    private int runId;
-    private String testName;
-    private FilePath pcReportFile;
-    private String junitResultsFileName;
-    private static PrintStream logger;
-    private File WorkspacePath;
-    private FilePath Workspace;
-    private DateFormatter dateFormatter = new DateFormatter("");
-
     @DataBoundConstructor
     public PcBuilder(
             String serverAndPort,
@@ -190,12 +180,6 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     @Override
     public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
             throws InterruptedException, IOException {
-        if(build.getWorkspace() != null)
-            WorkspacePath =  new File(build.getWorkspace().toURI());
-        else
-            WorkspacePath =  null;
-        if((getPcModel() != null) && (build != null) && (build instanceof AbstractBuild))
-            setPcModelBuildParameters(build, listener);
         if(build.getWorkspace() != null)
             perform(build, build.getWorkspace(), launcher, listener);
         else
@@ -203,28 +187,6 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         return true;
     }
 
-    private void setPcModelBuildParameters(AbstractBuild<?, ?> build, BuildListener listener) throws IOException, InterruptedException {
-            Map<String, String> mapParamsAndEnvars = new HashMap<String, String>();
-            Map<String, String> buildParameters = build.getBuildVariables();
-            mapParamsAndEnvars.putAll(buildParameters);
-            if(listener != null) {
-                Map<String, String> buildEnvars = build.getEnvironment(listener);
-                mapParamsAndEnvars.putAll(buildEnvars);
-            }
-            else
-            {
-                Map<String, String> buildEnvars = build.getEnvironment(new LogTaskListener(null, Level.INFO));
-                mapParamsAndEnvars.putAll(buildEnvars);
-            }
-            String buildParametersAndEnvars =  mapParamsAndEnvars.toString();
-            if (!buildParameters.isEmpty())
-                getPcModel().setBuildParameters(buildParametersAndEnvars);
-    }
-
-    public File getWorkspacePath(){
-        return WorkspacePath;
-    }
-
 
     public String getCredentialsId() {
         return credentialsId;
@@ -234,21 +196,6 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         return credentialsProxyId;
     }
 
-    public static UsernamePasswordCredentials getCredentialsId(String credentialsId)
-    {
-        if(credentialsId!=null && _run != null )
-            return getCredentialsById(credentialsId, _run, logger);
-        return null;
-    }
-
-    public static UsernamePasswordCredentials getCredentialsProxyId(String credentialsProxyId)
-    {
-        if(credentialsProxyId!=null && _run != null )
-            return getCredentialsById(credentialsProxyId, _run, logger);
-        return null;
-    }
-
-
     public  void setCredentialsId(String newCredentialsId)
     {
         credentialsId = newCredentialsId;
@@ -263,58 +210,57 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         getPcModel();
     }
 
-    private static UsernamePasswordCredentials getCredentialsById(String credentialsId, Run<?, ?> run, PrintStream logger) {
-        if (StringUtils.isBlank(credentialsId))
-            return null;
-
-        UsernamePasswordCredentials usernamePCPasswordCredentials = CredentialsProvider.findCredentialById(credentialsId,
-                StandardUsernamePasswordCredentials.class,
-                run,
-                URIRequirementBuilder.create().build());
-
-        if (usernamePCPasswordCredentials == null) {
-            logger.println(String.format("%s : %s",
-                    Messages.CannotFindCredentials(),
-                    credentialsId));
-        }
-
-        return usernamePCPasswordCredentials;
-    }
-
     //pcModel is intialized here.
     public PcModel getPcModel() {
         if(pcModel == null)
         {
-            pcModel =
-                    new PcModel(
-                            serverAndPort.trim(),
-                            pcServerName.trim(),
-                            credentialsId,
-                            almDomain.trim(),
-                            almProject.trim(),
-                            testId.trim(),
-                            autoTestInstanceID,
-                            testInstanceId.trim(),
-                            timeslotDurationHours.trim(),
-                            timeslotDurationMinutes.trim(),
-                            postRunAction,
-                            vudsMode,
-                            description,
-                            addRunToTrendReport,
-                            trendReportId,
-                            HTTPSProtocol,
-                            proxyOutURL,
-                            credentialsProxyId,
-                            retry,
-                            retryDelay,
-                            retryOccurrences);
+            pcModel = createPcModel();
         }
         return pcModel;
     }
+
+    // every execution works on its own model, as build parameters are applied to it
+    private PcModel createPcModel() {
+        return new PcModel(
+                serverAndPort.trim(),
+                pcServerName.trim(),
+                credentialsId,
+                almDomain.trim(),
+                almProject.trim(),
+                testId.trim(),
+                autoTestInstanceID,
+                testInstanceId.trim(),
+                timeslotDurationHours.trim(),
+                timeslotDurationMinutes.trim(),
+                postRunAction,
+                vudsMode,
+                description,
+                addRunToTrendReport,
+                trendReportId,
+                HTTPSProtocol,
+                proxyOutURL,
+                credentialsProxyId,
+                retry,
+                retryDelay,
+                retryOccurrences);
+    }
     
-    public String getRunResultsFileName() {
-        
-        return junitResultsFileName;
+    /**
+     * Gets the JUnit results files written by the PC build steps of a build.
+     *
+     * @param build the build
+     * @return the file names, relative to the workspace of the build
+     */
+    public static List<String> getRunResultsFileNames(Run<?, ?> build) {
+        PcRunResultsAction action = build.getAction(PcRunResultsAction.class);
+        return action == null ? Collections.<String>emptyList() : action.getFileNames();
+    }
+
+    /**
+     * Creates the client of one execution. Tests replace it to talk to a stub PC server.
+     */
+    protected PcClient createPcClient(PcModel model, PcRunContext context) {
+        return new PcClient(model, context);
     }
     
     public static String getArtifactsDirectoryName() {
@@ -342,20 +288,6 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         return pcReportFileName;
     }
 
-    private void setBuildParameters (AbstractBuild<?, ?> build)
-    {
-        try {
-            if (build != null && build.getBuildVariables() != null)
-                    getPcModel().setBuildParameters(build.getBuildVariables().toString());
-        }
-        catch (Exception ex) {
-            logger.println(String.format("%s - %s: %s",
-                    dateFormatter.getDate(),
-                    Messages.BuildParameterNotConsidered(),
-                    ex.getMessage()));
-        }
-    }
-
     public static String getPluginVersion() {
         Plugin plugin = getJenkinsInstance().getPlugin(Messages.ArtifactId());
         return plugin.getWrapper().getVersion();
@@ -378,620 +310,566 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         return "unknown";
     }
 
-    private Testsuites execute(PcClient pcClient, Run<?, ?> build)
-            throws InterruptedException,NullPointerException {
-        _run = build;
-        try {
-            String version = getVersion();
-            if(!(version == null || version.equals("unknown")))
-                logger.println(String.format("%s - %s '%s'",
-                        dateFormatter.getDate(),
-                        Messages.PluginVersionIs(),
-                        version));
-            if((getPcModel() !=null) && (build != null) && (build instanceof AbstractBuild))
-                setPcModelBuildParameters((AbstractBuild) build, null);
-            if (!StringUtils.isBlank(getPcModel().getDescription()))
-                logger.println(String.format("%s - %s: %s",
-                        dateFormatter.getDate(),
-                        Messages.TestDescription(),
-                        getPcModel().getDescription()));
-            if (!beforeRun(pcClient))
-                return null;
+    @Override
+    @Deprecated
+    public boolean perform(Build<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
+        return super.perform(build, launcher, listener);
+    }
+
+    /**
+     * Writes the CSV files of the plot plugin for a run into the workspace. The trend report is fetched once
+     * and every plot file is projected from the same rows.
+     *
+     * @return false if a file could not be saved, the remaining files are not written then
+     */
+    static boolean updateCSVFilesForPlot(PcClient pcClient, String trendReportId, int runId, FilePath workspace, PrintStream logger)
+            throws IOException, PcException {
 
-            return run(pcClient, build);
+        TrendReportPlotData plotData = TrendReportPlotData.project(runId, pcClient.getTrendReportRows(trendReportId, runId));
+        for (String fileName : plotData.getFileNames()) {
+            if (!saveFileToWorkspacePath(plotData, fileName, workspace, logger))
+                return false;
+        }
+        return true;
+    }
 
+    private static boolean saveFileToWorkspacePath(TrendReportPlotData plotData, String fileName, FilePath workspace, PrintStream logger)
+            throws IOException {
+        try {
+            FilePath filePath = workspace.child(fileName);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(filePath.write(), Charset.defaultCharset()))) {
+                plotData.write(fileName, writer);
+            }
+            return true;
         } catch (InterruptedException e) {
-            build.setResult(Result.ABORTED);
-            pcClient.stopRun(runId);
-            throw e;
-        } catch (NullPointerException e) {
-            logger.println(String.format("%s - %s: %s",
-                    dateFormatter.getDate(),
+            Thread.currentThread().interrupt();
+            logger.println(String.format("%s - %s: %s %s: %s. %s: %s",
+                    new DateFormatter("").getDate(),
+                    Messages.ErrorSavingFile(),
+                    fileName,
+                    Messages.ToWorkspacePath(),
+                    workspace.getRemote(),
                     Messages.Error(),
                     e.getMessage()));
-        } catch (Exception e) {
-            logger.println(String.format("%s - %s",
-                    dateFormatter.getDate(),
-                    e.getMessage()));
-        } finally {
-            pcClient.logout();
+            return false;
         }
-        return null;
     }
 
-    private Testsuites run(PcClient pcClient, Run<?, ?> build)
-            throws InterruptedException, ClientProtocolException,
-            IOException, PcException {
-        if((getPcModel() !=null) && (build != null) && (build instanceof AbstractBuild))
-            setPcModelBuildParameters((AbstractBuild) build, null);
-        PcRunResponse response = null;
-        String errorMessage = "";
-        String eventLogString = "";
-        boolean trendReportReady = false;
-        try {
-            runId = pcClient.startRun();
-            if (runId == 0)
-                return null;
-        } catch (NumberFormatException|ClientProtocolException|PcException ex) {
-            logger.println(String.format("%s - %s. %s: %s",
-                    dateFormatter.getDate(),
-                    Messages.StartRunFailed(),
-                    Messages.Error(),
-                    ex.getMessage()));
-            throw ex;
-        } catch (IOException ex) {
-            logger.println(String.format("%s - %s. %s: %s",
-                    dateFormatter.getDate(),
-                    Messages.StartRunFailed(),
-                    Messages.Error(),
-                    ex.getMessage()));
-            throw ex;
+    /**
+     * State of one execution of this build step. The builder is shared by every build of the job,
+     * so the run id, log, credentials, workspace, results file and parameterised model of a run live
+     * here and are never visible to another build running at the same time.
+     */
+    private final class PcRunExecution {
+
+        private final FilePath workspace;
+        private final PrintStream logger;
+        private final PcModel model;
+        private final PcRunContext context;
+        private final DateFormatter dateFormatter = new DateFormatter("");
+        private int runId;
+        private String testName;
+        private FilePath pcReportFile;
+
+        private PcRunExecution(Run<?, ?> build, FilePath workspace, TaskListener listener) throws IOException, InterruptedException {
+            this.workspace = workspace;
+            this.logger = listener.getLogger();
+            this.model = createPcModel();
+            if (build instanceof AbstractBuild)
+                setPcModelBuildParameters((AbstractBuild<?, ?>) build, listener);
+            this.context = new PcRunContext(build, logger, credentialsId, credentialsProxyId);
         }
 
-        //getTestName failure should not fail test execution.
-        try {
-            testName = pcClient.getTestName();
-            if(testName == null) {
-                testName = String.format("TestId_%s", getPcModel().getTestId());
-                logger.println(String.format("%s - getTestName failed. Using '%s' as testname.",
+        private void perform(Run<?, ?> build) throws InterruptedException, IOException {
+            PcClient pcClient = createPcClient(model, context);
+            Testsuites testsuites = execute(pcClient, build);
+
+            String junitResultsFileName = getJunitResultsFileName();
+            PcRunResultsAction.of(build).add(junitResultsFileName);
+            FilePath resultsFilePath = workspace.child(junitResultsFileName);
+            Result resultStatus = createRunResults(resultsFilePath, testsuites);
+            provideStepResultStatus(resultStatus, build);
+        }
+
+        private void setPcModelBuildParameters(AbstractBuild<?, ?> build, TaskListener listener) throws IOException, InterruptedException {
+                Map<String, String> mapParamsAndEnvars = new HashMap<String, String>();
+                Map<String, String> buildParameters = build.getBuildVariables();
+                mapParamsAndEnvars.putAll(buildParameters);
+                if(listener != null) {
+                    Map<String, String> buildEnvars = build.getEnvironment(listener);
+                    mapParamsAndEnvars.putAll(buildEnvars);
+                }
+                else
+                {
+                    Map<String, String> buildEnvars = build.getEnvironment(new LogTaskListener(null, Level.INFO));
+                    mapParamsAndEnvars.putAll(buildEnvars);
+                }
+                String buildParametersAndEnvars =  mapParamsAndEnvars.toString();
+                if (!buildParameters.isEmpty())
+                    model.setBuildParameters(buildParametersAndEnvars);
+        }
+
+        private Testsuites execute(PcClient pcClient, Run<?, ?> build)
+                throws InterruptedException,NullPointerException {
+            try {
+                String version = getVersion();
+                if(!(version == null || version.equals("unknown")))
+                    logger.println(String.format("%s - %s '%s'",
+                            dateFormatter.getDate(),
+                            Messages.PluginVersionIs(),
+                            version));
+                if (!StringUtils.isBlank(model.getDescription()))
+                    logger.println(String.format("%s - %s: %s",
+                            dateFormatter.getDate(),
+                            Messages.TestDescription(),
+                            model.getDescription()));
+                if (!beforeRun(pcClient))
+                    return null;
+
+                return run(pcClient, build);
+
+            } catch (InterruptedException e) {
+                build.setResult(Result.ABORTED);
+                pcClient.stopRun(runId);
+                throw e;
+            } catch (NullPointerException e) {
+                logger.println(String.format("%s - %s: %s",
                         dateFormatter.getDate(),
-                        testName));
-            } else
-                logger.println(String.format("%s - %s %s",
+                        Messages.Error(),
+                        e.getMessage()));
+            } catch (Exception e) {
+                logger.println(String.format("%s - %s",
                         dateFormatter.getDate(),
-                        Messages.TestNameIs(),
-                        testName));
-        }  catch (PcException|IOException ex) {
-            testName = String.format("TestId_%s", getPcModel().getTestId());
-            logger.println(String.format("%s - getTestName failed. Using '%s' as testname. Error: %s \n",
-                    dateFormatter.getDate(),
-                    testName,
-                    ex.getMessage()));
+                        e.getMessage()));
+            } finally {
+                pcClient.logout();
+            }
+            return null;
         }
 
-        try {
-            List<ParameterValue> parameters = new ArrayList<>();
-            parameters.add(new StringParameterValue(RUNID_BUILD_VARIABLE, "" + runId));
-            // This allows a user to access the runId from within Jenkins using a build variable.
-            build.addAction(new AdditionalParametersAction(parameters));
-            logger.print(String.format("%s - %s: %s = %s \n",
-                    dateFormatter.getDate(),
-                    Messages.SetEnvironmentVariable(),
-                    RUNID_BUILD_VARIABLE,
-                    runId));
-            response = pcClient.waitForRunCompletion(runId);
-
-            if (response != null && RunState.get(response.getRunState()) == FINISHED && getPcModel().getPostRunAction() != PostRunAction.DO_NOTHING) {
-                pcReportFile = pcClient.publishRunReport(runId, getReportDirectory(build));
-
-                // Adding the trend report section if ID has been set or if the Associated Trend report is selected.
-                if(((("USE_ID").equals(getPcModel().getAddRunToTrendReport()) && getPcModel().getTrendReportId(true) != null) || ("ASSOCIATED").equals(getPcModel().getAddRunToTrendReport())) && RunState.get(response.getRunState()) != RUN_FAILURE){
-                    Thread.sleep(5000);
-                    pcClient.addRunToTrendReport(this.runId, getPcModel().getTrendReportId(true));
-                    pcClient.waitForRunToPublishOnTrendReport(this.runId, getPcModel().getTrendReportId(true));
-                    pcClient.downloadTrendReportAsPdf(getPcModel().getTrendReportId(true), getTrendReportsDirectory(build));
-                    trendReportReady = true;
+        private Testsuites run(PcClient pcClient, Run<?, ?> build)
+                throws InterruptedException, ClientProtocolException,
+                IOException, PcException {
+            PcRunResponse response = null;
+            String errorMessage = "";
+            String eventLogString = "";
+            boolean trendReportReady = false;
+            try {
+                runId = pcClient.startRun();
+                if (runId == 0)
+                    return null;
+            } catch (NumberFormatException|ClientProtocolException|PcException ex) {
+                logger.println(String.format("%s - %s. %s: %s",
+                        dateFormatter.getDate(),
+                        Messages.StartRunFailed(),
+                        Messages.Error(),
+                        ex.getMessage()));
+                throw ex;
+            } catch (IOException ex) {
+                logger.println(String.format("%s - %s. %s: %s",
+                        dateFormatter.getDate(),
+                        Messages.StartRunFailed(),
+                        Messages.Error(),
+                        ex.getMessage()));
+                throw ex;
+            }
+
+            //getTestName failure should not fail test execution.
+            try {
+                testName = pcClient.getTestName();
+                if(testName == null) {
+                    testName = String.format("TestId_%s", model.getTestId());
+                    logger.println(String.format("%s - getTestName failed. Using '%s' as testname.",
+                            dateFormatter.getDate(),
+                            testName));
+                } else
+                    logger.println(String.format("%s - %s %s",
+                            dateFormatter.getDate(),
+                            Messages.TestNameIs(),
+                            testName));
+            }  catch (PcException|IOException ex) {
+                testName = String.format("TestId_%s", model.getTestId());
+                logger.println(String.format("%s - getTestName failed. Using '%s' as testname. Error: %s \n",
+                        dateFormatter.getDate(),
+                        testName,
+                        ex.getMessage()));
+            }
+
+            try {
+                List<ParameterValue> parameters = new ArrayList<>();
+                parameters.add(new StringParameterValue(RUNID_BUILD_VARIABLE, "" + runId));
+                // This allows a user to access the runId from within Jenkins using a build variable.
+                build.addAction(new AdditionalParametersAction(parameters));
+                logger.print(String.format("%s - %s: %s = %s \n",
+                        dateFormatter.getDate(),
+                        Messages.SetEnvironmentVariable(),
+                        RUNID_BUILD_VARIABLE,
+                        runId));
+                response = pcClient.waitForRunCompletion(runId);
+
+                if (response != null && RunState.get(response.getRunState()) == FINISHED && model.getPostRunAction() != PostRunAction.DO_NOTHING) {
+                    pcReportFile = pcClient.publishRunReport(runId, getReportDirectory(build));
+
+                    // Adding the trend report section if ID has been set or if the Associated Trend report is selected.
+                    if(((("USE_ID").equals(model.getAddRunToTrendReport()) && model.getTrendReportId(true) != null) || ("ASSOCIATED").equals(model.getAddRunToTrendReport())) && RunState.get(response.getRunState()) != RUN_FAILURE){
+                        Thread.sleep(5000);
+                        pcClient.addRunToTrendReport(this.runId, model.getTrendReportId(true));
+                        pcClient.waitForRunToPublishOnTrendReport(this.runId, model.getTrendReportId(true));
+                        pcClient.downloadTrendReportAsPdf(model.getTrendReportId(true), getTrendReportsDirectory(build));
+                        trendReportReady = true;
+                    }
+
+                } else if (response != null && RunState.get(response.getRunState()).ordinal() > FINISHED.ordinal()) {
+                    PcRunEventLog eventLog = pcClient.getRunEventLog(runId);
+                    eventLogString = buildEventLogString(eventLog);
                 }
 
-            } else if (response != null && RunState.get(response.getRunState()).ordinal() > FINISHED.ordinal()) {
-                PcRunEventLog eventLog = pcClient.getRunEventLog(runId);
-                eventLogString = buildEventLogString(eventLog);
+            } catch (PcException e) {
+                logger.println(String.format("%s - Error: %s",
+                        dateFormatter.getDate(),
+                        e.getMessage()));
             }
 
-        } catch (PcException e) {
-            logger.println(String.format("%s - Error: %s",
-                    dateFormatter.getDate(),
-                    e.getMessage()));
-        }
+            Testsuites ret = new Testsuites();
+            parsePcRunResponse(ret,response, build, errorMessage, eventLogString);
+            parsePcTrendResponse(ret,build,pcClient,trendReportReady,model.getTrendReportId(true),runId);
 
-        Testsuites ret = new Testsuites();
-        parsePcRunResponse(ret,response, build, errorMessage, eventLogString);
-        try {
-            parsePcTrendResponse(ret,build,pcClient,trendReportReady,getPcModel().getTrendReportId(true),runId);
-        } catch (IntrospectionException e) {
-            e.printStackTrace();
-        } catch (NoSuchMethodException e) {
-            e.printStackTrace();
+            return ret;
         }
-
-        return ret;
-    }
     
-    private String buildEventLogString(PcRunEventLog eventLog) {
+        private String buildEventLogString(PcRunEventLog eventLog) {
         
-        String logFormat = "%-5s | %-7s | %-19s | %s\n";
-        StringBuilder eventLogStr = new StringBuilder("Event Log:\n\n" + String.format(logFormat, "ID", "TYPE", "TIME","DESCRIPTION"));
-        for (PcRunEventLogRecord record : eventLog.getRecordsList()) {
-            eventLogStr.append(String.format(logFormat, record.getID(), record.getType(), record.getTime(), record.getDescription()));            
+            String logFormat = "%-5s | %-7s | %-19s | %s\n";
+            StringBuilder eventLogStr = new StringBuilder("Event Log:\n\n" + String.format(logFormat, "ID", "TYPE", "TIME","DESCRIPTION"));
+            for (PcRunEventLogRecord record : eventLog.getRecordsList()) {
+                eventLogStr.append(String.format(logFormat, record.getID(), record.getType(), record.getTime(), record.getDescription()));            
+            }
+            return eventLogStr.toString();
         }
-        return eventLogStr.toString();
-    }
 
-    private boolean beforeRun(PcClient pcClient) {
-        return validatePcForm() && pcClient.login();
-    }
+        private boolean beforeRun(PcClient pcClient) {
+            return validatePcForm() && pcClient.login();
+        }
     
-    private String getReportDirectory(Run<?, ?> build) {
-        return String.format(
-                runReportStructure,
-                build.getRootDir().getPath(),
-                artifactsDirectoryName);
-    }
+        private String getReportDirectory(Run<?, ?> build) {
+            return String.format(
+                    runReportStructure,
+                    build.getRootDir().getPath(),
+                    artifactsDirectoryName);
+        }
 
-    private String getTrendReportsDirectory(Run<?, ?> build) {
-        return String.format(
-                trendReportStructure,
-                build.getRootDir().getPath(),
-                artifactsDirectoryName);
-    }
+        private String getTrendReportsDirectory(Run<?, ?> build) {
+            return String.format(
+                    trendReportStructure,
+                    build.getRootDir().getPath(),
+                    artifactsDirectoryName);
+        }
 
 
-    @Override
-    @Deprecated
-    public boolean perform(Build<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
-        return super.perform(build, launcher, listener);
-    }
 
-    private boolean validatePcForm() {
+        private boolean validatePcForm() {
         
-        logger.println(String.format("%s - %s",
-                dateFormatter.getDate(),
-                Messages.ValidatingParametersBeforeRun()));
-        String prefix = "doCheck";
-        boolean ret = true;
-        Method[] methods = getDescriptor().getClass().getMethods();
-        Method[] modelMethods = getPcModel().getClass().getMethods();
-        for (Method method : methods) {
-            String name = method.getName();
-            if (name.startsWith(prefix)) {
-                name = name.replace(prefix, "").toLowerCase();
-                for (Method modelMethod : modelMethods) {
-                    String modelMethodName = modelMethod.getName();
-                    if (modelMethodName.toLowerCase().equals("get" + name) && modelMethod.getParameterTypes().length==0) {
-                        try {
-                            Object obj = FormValidation.ok();
-                            if (!("testinstanceid".equals(name) && "AUTO".equals(getPcModel().getAutoTestInstanceID()))
-                                    && !(("retrydelay".equals(name) && "NO_RETRY".equals(getPcModel().getRetry())) || getPcModel().getRetry().isEmpty())
-                                    && !(("retryoccurrences".equals(name) && "NO_RETRY".equals(getPcModel().getRetry())) || getPcModel().getRetry().isEmpty())
-                                    ) {
-                                if("doCheckCredentialsId".equals(method.getName()) && "credentialsid".equals(name) && "getCredentialsId".equals(modelMethodName)
-                                    || "doCheckCredentialsProxyId".equals(method.getName()) && "credentialsproxyid".equals(name) && "getCredentialsProxyId".equals(modelMethodName)
-                                        )
-                                    obj = method.invoke(getDescriptor(), null,null, modelMethod.invoke(getPcModel()));
-                                else
-                                    obj = method.invoke(getDescriptor(), modelMethod.invoke(getPcModel()));
-                            }
-                            if (!obj.equals(FormValidation.ok())) {
-                                logger.println(obj);
-                                ret = false;
+            logger.println(String.format("%s - %s",
+                    dateFormatter.getDate(),
+                    Messages.ValidatingParametersBeforeRun()));
+            String prefix = "doCheck";
+            boolean ret = true;
+            Method[] methods = getDescriptor().getClass().getMethods();
+            Method[] modelMethods = model.getClass().getMethods();
+            for (Method method : methods) {
+                String name = method.getName();
+                if (name.startsWith(prefix)) {
+                    name = name.replace(prefix, "").toLowerCase();
+                    for (Method modelMethod : modelMethods) {
+                        String modelMethodName = modelMethod.getName();
+                        if (modelMethodName.toLowerCase().equals("get" + name) && modelMethod.getParameterTypes().length==0) {
+                            try {
+                                Object obj = FormValidation.ok();
+                                if (!("testinstanceid".equals(name) && "AUTO".equals(model.getAutoTestInstanceID()))
+                                        && !(("retrydelay".equals(name) && "NO_RETRY".equals(model.getRetry())) || model.getRetry().isEmpty())
+                                        && !(("retryoccurrences".equals(name) && "NO_RETRY".equals(model.getRetry())) || model.getRetry().isEmpty())
+                                        ) {
+                                    if("doCheckCredentialsId".equals(method.getName()) && "credentialsid".equals(name) && "getCredentialsId".equals(modelMethodName)
+                                        || "doCheckCredentialsProxyId".equals(method.getName()) && "credentialsproxyid".equals(name) && "getCredentialsProxyId".equals(modelMethodName)
+                                            )
+                                        obj = method.invoke(getDescriptor(), null,null, modelMethod.invoke(model));
+                                    else
+                                        obj = method.invoke(getDescriptor(), modelMethod.invoke(model));
+                                }
+                                if (!obj.equals(FormValidation.ok())) {
+                                    logger.println(obj);
+                                    ret = false;
+                                }
+                                break;
+                            } catch (Exception e) {
+                                logger.println(String.format("%s - Validation error: method.getName() = '%s', name = '%s', modelMethodName = '%s', exception = '%s'.",
+                                        dateFormatter.getDate(),
+                                        method.getName(),
+                                        name,
+                                        modelMethodName,
+                                        e.getMessage()));
                             }
-                            break;
-                        } catch (Exception e) {
-                            logger.println(String.format("%s - Validation error: method.getName() = '%s', name = '%s', modelMethodName = '%s', exception = '%s'.",
-                                    dateFormatter.getDate(),
-                                    method.getName(),
-                                    name,
-                                    modelMethodName,
-                                    e.getMessage()));
                         }
                     }
                 }
             }
-        }
 
-        boolean isTrendReportIdValid = validateTrendReportIdIsNumeric(getPcModel().getTrendReportId(true),("USE_ID").equals(getPcModel().getAddRunToTrendReport()));
+            boolean isTrendReportIdValid = validateTrendReportIdIsNumeric(model.getTrendReportId(true),("USE_ID").equals(model.getAddRunToTrendReport()));
 
-        ret &= isTrendReportIdValid;
-        return ret;
+            ret &= isTrendReportIdValid;
+            return ret;
         
-    }
+        }
 
 
 
-    private boolean validateTrendReportIdIsNumeric(String trendReportId, boolean addRunToTrendReport){
+        private boolean validateTrendReportIdIsNumeric(String trendReportId, boolean addRunToTrendReport){
 
-        FormValidation res = FormValidation.ok();
-        if(addRunToTrendReport){
-            if(trendReportId.isEmpty()){
-                res = FormValidation.error(String.format("%s: %s.",
-                        Messages.ParameterIsMissing(),
-                        Messages.TrendReportIDIsMissing()));
-            }
-            else{
+            FormValidation res = FormValidation.ok();
+            if(addRunToTrendReport){
+                if(trendReportId.isEmpty()){
+                    res = FormValidation.error(String.format("%s: %s.",
+                            Messages.ParameterIsMissing(),
+                            Messages.TrendReportIDIsMissing()));
+                }
+                else{
 
-                try{
+                    try{
 
-                    Integer.parseInt(trendReportId);
-                }
-                catch(NumberFormatException e) {
+                        Integer.parseInt(trendReportId);
+                    }
+                    catch(NumberFormatException e) {
 
-                    res = FormValidation.error(Messages.IllegalParameter());
-                }
+                        res = FormValidation.error(Messages.IllegalParameter());
+                    }
 
+                }
             }
-        }
 
-        logger.println(String.format("%s - %s",
-                dateFormatter.getDate(),
-                res.toString().replace(": <div/>","")));
+            logger.println(String.format("%s - %s",
+                    dateFormatter.getDate(),
+                    res.toString().replace(": <div/>","")));
 
-        return res.equals(FormValidation.ok());
-    }
-    
-    private Testsuites parsePcRunResponse(Testsuites ret,
-                                          PcRunResponse runResponse,
-                                          Run<?, ?> build,
-                                          String errorMessage, String eventLogString) throws IOException, InterruptedException {
-
-        RunState runState = RunState.get(runResponse.getRunState());
-
-
-        List<Testsuite> testSuites = ret.getTestsuite();
-        Testsuite testSuite = new Testsuite();
-        Testcase testCase = new Testcase();
-        //testCase.setClassname("Performance Tests.Test ID: " + runResponse.getTestID());
-        testCase.setClassname("Performance Test.Load Test");
-        testCase.setName(testName + "(ID:" + runResponse.getTestID() + ")");
-        testCase.setTime(String.valueOf(runResponse.getDuration() * 60));
-        if (pcReportFile != null && pcReportFile.exists() && runState == FINISHED) {
-            testCase.getSystemOut().add(getOutputForReportLinks(build));
+            return res.equals(FormValidation.ok());
         }
-        updateTestStatus(testCase, runResponse, errorMessage, eventLogString);
-        testSuite.getTestcase().add(testCase);
-        testSuite.setName("Performance Test ID: " + runResponse.getTestID() + ", Run ID: " + runResponse.getID());
-        testSuites.add(testSuite);
-        return ret;
-    }
-
-    private Testsuites parsePcTrendResponse(Testsuites ret,Run<?, ?> build,PcClient pcClient,boolean trendReportReady,String TrendReportID, int runID) throws PcException,IntrospectionException,IOException, InterruptedException ,NoSuchMethodException{
-
-
-        if(trendReportReady){
-            String reportUrlTemp = trendReportStructure.replaceFirst("%s/", "") + "/trendReport%s.pdf";
-            String reportUrl = String.format(reportUrlTemp, artifactsResourceName, getPcModel().getTrendReportId(true));
-            pcClient.publishTrendReport(reportUrl, getPcModel().getTrendReportId(true));
-
-            // Updating all CSV files for plot plugin
-            // this helps to show the transaction of each result
-            if (isPluginActive("Plot plugin")) {
-                logger.println(String.format("%s %s.",
-                        dateFormatter.getDate(),
-                        Messages.UpdatingCsvFilesForTrendingCharts()));
-                updateCSVFilesForPlot(pcClient, runID);
-                String plotUrlPath = "/job/" + build.getParent().getName() + "/plot";
-                logger.println(String.format("%s - %s",
-                        dateFormatter.getDate(),
-                        HyperlinkNote.encodeTo(plotUrlPath, Messages.TrendingCharts()))); // + HyperlinkNote.encodeTo("https://wiki.jenkins-ci.org/display/JENKINS/HP+Application+Automation+Tools#HPApplicationAutomationTools-RunningPerformanceTestsusingHPPerformanceCenter","More Info"));
-            }else{
-                logger.println(String.format("%s - %s %s (%s).",
-                        dateFormatter.getDate(),
-                        Messages.YouCanViewTrendCharts(),
-                        HyperlinkNote.encodeTo("https://wiki.jenkins.io/display/JENKINS/MICRO+FOCUS+Application+Automation+Tools#MicroFocusApplicationAutomationTools-RunningPerformanceTestsusingPerformanceCenter", Messages.Documentation()),
-                        Messages.PerformanceCenter1255AndLater()));
+    
+        private Testsuites parsePcRunResponse(Testsuites ret,
+                                              PcRunResponse runResponse,
+                                              Run<?, ?> build,
+                                              String errorMessage, String eventLogString) throws IOException, InterruptedException {
+
+            RunState runState = RunState.get(runResponse.getRunState());
+
+
+            List<Testsuite> testSuites = ret.getTestsuite();
+            Testsuite testSuite = new Testsuite();
+            Testcase testCase = new Testcase();
+            //testCase.setClassname("Performance Tests.Test ID: " + runResponse.getTestID());
+            testCase.setClassname("Performance Test.Load Test");
+            testCase.setName(testName + "(ID:" + runResponse.getTestID() + ")");
+            testCase.setTime(String.valueOf(runResponse.getDuration() * 60));
+            if (pcReportFile != null && pcReportFile.exists() && runState == FINISHED) {
+                testCase.getSystemOut().add(getOutputForReportLinks(build));
             }
+            updateTestStatus(testCase, runResponse, errorMessage, eventLogString);
+            testSuite.getTestcase().add(testCase);
+            testSuite.setName("Performance Test ID: " + runResponse.getTestID() + ", Run ID: " + runResponse.getID());
+            testSuites.add(testSuite);
+            return ret;
         }
-        return ret;
-    }
-
-    private boolean isPluginActive(String pluginDisplayName){
-        List<PluginWrapper> allPlugin = Jenkins.get().pluginManager.getPlugins();
-        for (PluginWrapper pw :
-                allPlugin) {
 
-            if (pw.getDisplayName().toLowerCase().equals(pluginDisplayName.toLowerCase())) {
-                return pw.isActive();
+        private Testsuites parsePcTrendResponse(Testsuites ret,Run<?, ?> build,PcClient pcClient,boolean trendReportReady,String TrendReportID, int runID) throws PcException,IOException, InterruptedException {
+
+
+            if(trendReportReady){
+                String reportUrlTemp = trendReportStructure.replaceFirst("%s/", "") + "/trendReport%s.pdf";
+                String reportUrl = String.format(reportUrlTemp, artifactsResourceName, model.getTrendReportId(true));
+                pcClient.publishTrendReport(reportUrl, model.getTrendReportId(true));
+
+                // Updating all CSV files for plot plugin
+                // this helps to show the transaction of each result
+                if (isPluginActive("Plot plugin")) {
+                    logger.println(String.format("%s %s.",
+                            dateFormatter.getDate(),
+                            Messages.UpdatingCsvFilesForTrendingCharts()));
+                    updateCSVFilesForPlot(pcClient, runID);
+                    String plotUrlPath = "/job/" + build.getParent().getName() + "/plot";
+                    logger.println(String.format("%s - %s",
+                            dateFormatter.getDate(),
+                            HyperlinkNote.encodeTo(plotUrlPath, Messages.TrendingCharts()))); // + HyperlinkNote.encodeTo("https://wiki.jenkins-ci.org/display/JENKINS/HP+Application+Automation+Tools#HPApplicationAutomationTools-RunningPerformanceTestsusingHPPerformanceCenter","More Info"));
+                }else{
+                    logger.println(String.format("%s - %s %s (%s).",
+                            dateFormatter.getDate(),
+                            Messages.YouCanViewTrendCharts(),
+                            HyperlinkNote.encodeTo("https://wiki.jenkins.io/display/JENKINS/MICRO+FOCUS+Application+Automation+Tools#MicroFocusApplicationAutomationTools-RunningPerformanceTestsusingPerformanceCenter", Messages.Documentation()),
+                            Messages.PerformanceCenter1255AndLater()));
+                }
             }
+            return ret;
         }
-        return false;
-    }
-
-    private class TriTrendReportTypes {
 
-        private TrendReportTypes.DataType dataType;
-        private TrendReportTypes.PctType pctType;
-        private TrendReportTypes.Measurement measurement;
+        private boolean isPluginActive(String pluginDisplayName){
+            List<PluginWrapper> allPlugin = Jenkins.get().pluginManager.getPlugins();
+            for (PluginWrapper pw :
+                    allPlugin) {
 
-        public TrendReportTypes.DataType getDataType() {
-            return dataType;
-        }
-
-        public TrendReportTypes.PctType getPctType() {
-            return pctType;
-        }
-
-        public TrendReportTypes.Measurement getMeasurement() {
-            return measurement;
+                if (pw.getDisplayName().toLowerCase().equals(pluginDisplayName.toLowerCase())) {
+                    return pw.isActive();
+                }
+            }
+            return false;
         }
 
-        TriTrendReportTypes (TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement) {
-            this.dataType = dataType;
-            this.pctType = pctType;
-            this.measurement = measurement;
-        }
-    }
+        private void updateCSVFilesForPlot(PcClient pcClient, int runId) throws IOException, PcException {
 
-    private void updateCSVFilesForPlot(PcClient pcClient, int runId) throws IOException, PcException, IntrospectionException, NoSuchMethodException {
-
-        TriTrendReportTypes triTrendReportTypes[] = {
-                // Transaction - TRT
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_MINIMUM),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_MAXIMUM),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_AVERAGE),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_MEDIAN),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_STDDEVIATION),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_COUNT1),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_PERCENTILE_90),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_PERCENTILE_95),
-                // Transaction - TPS
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TPS, TrendReportTypes.Measurement.PCT_MINIMUM),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TPS, TrendReportTypes.Measurement.PCT_MAXIMUM),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TPS, TrendReportTypes.Measurement.PCT_AVERAGE),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TPS, TrendReportTypes.Measurement.PCT_MEDIAN),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TPS, TrendReportTypes.Measurement.PCT_SUM1),
-                // Transaction - TRS
-                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRS, TrendReportTypes.Measurement.PCT_COUNT1),
-                // Monitors - UDP
-                new TriTrendReportTypes(TrendReportTypes.DataType.Monitors, TrendReportTypes.PctType.UDP, TrendReportTypes.Measurement.PCT_MINIMUM),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Monitors, TrendReportTypes.PctType.UDP, TrendReportTypes.Measurement.PCT_MAXIMUM),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Monitors, TrendReportTypes.PctType.UDP, TrendReportTypes.Measurement.PCT_AVERAGE),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Monitors, TrendReportTypes.PctType.UDP, TrendReportTypes.Measurement.PCT_MEDIAN),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Monitors, TrendReportTypes.PctType.UDP, TrendReportTypes.Measurement.PCT_STDDEVIATION),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Monitors, TrendReportTypes.PctType.UDP, TrendReportTypes.Measurement.PCT_COUNT1),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Monitors, TrendReportTypes.PctType.UDP, TrendReportTypes.Measurement.PCT_SUM1),
-                // Regular - VU
-                new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.VU, TrendReportTypes.Measurement.PCT_MAXIMUM),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.VU, TrendReportTypes.Measurement.PCT_AVERAGE),
-                // Regular - WEB
-                new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.WEB, TrendReportTypes.Measurement.PCT_MINIMUM),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.WEB, TrendReportTypes.Measurement.PCT_MAXIMUM),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.WEB, TrendReportTypes.Measurement.PCT_AVERAGE),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.WEB, TrendReportTypes.Measurement.PCT_MEDIAN),
-                new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.WEB, TrendReportTypes.Measurement.PCT_SUM1)
-        };
-
-        for (TriTrendReportTypes triTrendReportType : triTrendReportTypes
-             ) {
-            saveFileToWorkspacePath(pcClient,getPcModel().getTrendReportId(true),runId, triTrendReportType.getDataType(), triTrendReportType.getPctType(), triTrendReportType.getMeasurement());
+            PcBuilder.updateCSVFilesForPlot(pcClient, model.getTrendReportId(true), runId, workspace, logger);
         }
 
-    }
-
-
-    private boolean saveFileToWorkspacePath(PcClient pcClient, String trendReportID, int runId,TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement)throws IOException, PcException, IntrospectionException, NoSuchMethodException{
-        String fileName = measurement.toString().toLowerCase()  + "_" +  pctType.toString().toLowerCase() + ".csv";
-        Map<String, String> measurementMap = pcClient.getTrendReportByXML(trendReportID, runId, dataType, pctType, measurement);
-        try {
-            FilePath filePath = new FilePath(Workspace.getChannel(), getWorkspacePath().getPath() + "/" + fileName);
-            String filepathContent="";
-            for (String key : measurementMap.keySet()) {
-                filepathContent += key + ",";
+        private void updateTestStatus(Testcase testCase, PcRunResponse response, String errorMessage, String eventLog) {
+            RunState runState = RunState.get(response.getRunState());
+            if (runState == RUN_FAILURE) {
+                setError(testCase,
+                        String.format("%s. %s",
+                                runState,
+                                errorMessage),
+                        eventLog);
+            } else if (statusBySLA && runState == FINISHED && !(response.getRunSLAStatus().equalsIgnoreCase("passed"))) {
+                setFailure(testCase, Messages.RunMeasurementsNotReachSLACriteria() + ": "
+                                     + response.getRunSLAStatus(), eventLog);
+            } else if (runState.hasFailure()) {          
+                setFailure(testCase,
+                        String.format("%s. %s",
+                                runState,
+                                errorMessage),
+                        eventLog);
+            } else if(errorMessage != null && !errorMessage.isEmpty()){
+                setFailure(testCase,
+                        String.format("%s. %s",
+                                runState,
+                                errorMessage),
+                        eventLog);
             }
-            filepathContent += "\r\n";
-            for (String value : measurementMap.values()) {
-                filepathContent += value + ",";
-            }
-            filePath.write(filepathContent, null);
-            return true;
-        } catch (InterruptedException e) {
-            if (getWorkspacePath().getPath() != null)
-                logger.println(String.format("%s - %s: %s %s: %s. %s: %s",
-                        dateFormatter.getDate(),
-                        Messages.ErrorSavingFile(),
-                        fileName,
-                        Messages.ToWorkspacePath(),
-                        getWorkspacePath().getPath(),
-                        Messages.Error(),
-                        e.getMessage()));
-            else
-                logger.println(String.format("%s - %s: %s. %s. %s: %s",
-                        dateFormatter.getDate(),
-                        Messages.ErrorSavingFile(),
-                        fileName,
-                        Messages.WorkspacePathIsUnavailable(),
-                        Messages.Error(),
-                        e.getMessage()));
-            return false;
+            else{
+                testCase.setStatus(JUnitTestCaseStatus.PASS);
             }
-    }
-
-
-
-    private void updateTestStatus(Testcase testCase, PcRunResponse response, String errorMessage, String eventLog) {
-        RunState runState = RunState.get(response.getRunState());
-        if (runState == RUN_FAILURE) {
-            setError(testCase,
-                    String.format("%s. %s",
-                            runState,
-                            errorMessage),
-                    eventLog);
-        } else if (statusBySLA && runState == FINISHED && !(response.getRunSLAStatus().equalsIgnoreCase("passed"))) {
-            setFailure(testCase, Messages.RunMeasurementsNotReachSLACriteria() + ": "
-                                 + response.getRunSLAStatus(), eventLog);
-        } else if (runState.hasFailure()) {          
-            setFailure(testCase,
-                    String.format("%s. %s",
-                            runState,
-                            errorMessage),
-                    eventLog);
-        } else if(errorMessage != null && !errorMessage.isEmpty()){
-            setFailure(testCase,
-                    String.format("%s. %s",
-                            runState,
-                            errorMessage),
-                    eventLog);
-        }
-        else{
-            testCase.setStatus(JUnitTestCaseStatus.PASS);
         }
-    }
     
-    private void setError(Testcase testCase, String message, String eventLog) {
-        Error error = new Error();
-        error.setMessage(message);
-        if (!(eventLog == null || eventLog.isEmpty()))
-            testCase.getSystemErr().add(eventLog);
-        testCase.getError().add(error);
-        testCase.setStatus(JUnitTestCaseStatus.ERROR);
-        logger.println(String.format("%s - %s %s",
-                dateFormatter.getDate(),
-                message ,
-                eventLog));
-    }
+        private void setError(Testcase testCase, String message, String eventLog) {
+            Error error = new Error();
+            error.setMessage(message);
+            if (!(eventLog == null || eventLog.isEmpty()))
+                testCase.getSystemErr().add(eventLog);
+            testCase.getError().add(error);
+            testCase.setStatus(JUnitTestCaseStatus.ERROR);
+            logger.println(String.format("%s - %s %s",
+                    dateFormatter.getDate(),
+                    message ,
+                    eventLog));
+        }
     
-    private void setFailure(Testcase testCase, String message, String eventLog) {
-        Failure failure = new Failure();
-        failure.setMessage(message);
-        if (!(eventLog == null || eventLog.isEmpty()))
-            testCase.getSystemErr().add(eventLog);
-        testCase.getFailure().add(failure);
-        testCase.setStatus(JUnitTestCaseStatus.FAILURE);
-        logger.println(String.format("%s - %s: %s %s",
-                dateFormatter.getDate(),
-                Messages.Failure(),
-                message,
-                eventLog));
-    }
+        private void setFailure(Testcase testCase, String message, String eventLog) {
+            Failure failure = new Failure();
+            failure.setMessage(message);
+            if (!(eventLog == null || eventLog.isEmpty()))
+                testCase.getSystemErr().add(eventLog);
+            testCase.getFailure().add(failure);
+            testCase.setStatus(JUnitTestCaseStatus.FAILURE);
+            logger.println(String.format("%s - %s: %s %s",
+                    dateFormatter.getDate(),
+                    Messages.Failure(),
+                    message,
+                    eventLog));
+        }
     
-    private String getOutputForReportLinks(Run<?, ?> build) {
-        String urlPattern = getArtifactsUrlPattern(build);
-        String viewUrl = String.format(urlPattern + "/%s", pcReportFileName);
-        String downloadUrl = String.format(urlPattern + "/%s", "*zip*/pcRun");
-        logger.println(String.format("%s - %s", dateFormatter.getDate(), HyperlinkNote.encodeTo(viewUrl, Messages.ViewAnalysisReportOfRun() + " " + runId)));
-
-        return String.format("%s: %s" +
-                        "\n\n%s:\n%s" +
-                        "\n\n%s:\n%s",
-                Messages.LoadTestRunID(), runId,
-                Messages.ViewAnalysisReport(),  getPcModel().getserverAndPort() +  "/" +  build.getUrl() + viewUrl,
-                Messages.DownloadReport(), getPcModel().getserverAndPort() + "/" + build.getUrl() + downloadUrl);
-    }
+        private String getOutputForReportLinks(Run<?, ?> build) {
+            String urlPattern = getArtifactsUrlPattern(build);
+            String viewUrl = String.format(urlPattern + "/%s", pcReportFileName);
+            String downloadUrl = String.format(urlPattern + "/%s", "*zip*/pcRun");
+            logger.println(String.format("%s - %s", dateFormatter.getDate(), HyperlinkNote.encodeTo(viewUrl, Messages.ViewAnalysisReportOfRun() + " " + runId)));
+
+            return String.format("%s: %s" +
+                            "\n\n%s:\n%s" +
+                            "\n\n%s:\n%s",
+                    Messages.LoadTestRunID(), runId,
+                    Messages.ViewAnalysisReport(),  model.getserverAndPort() +  "/" +  build.getUrl() + viewUrl,
+                    Messages.DownloadReport(), model.getserverAndPort() + "/" + build.getUrl() + downloadUrl);
+        }
     
-    private String getArtifactsUrlPattern(Run<?, ?> build) {
+        private String getArtifactsUrlPattern(Run<?, ?> build) {
 
-        String runReportUrlTemp = runReportStructure.replaceFirst("%s/", "");
-        return String.format(
-                runReportUrlTemp,
-                artifactsResourceName);
-    }
+            String runReportUrlTemp = runReportStructure.replaceFirst("%s/", "");
+            return String.format(
+                    runReportUrlTemp,
+                    artifactsResourceName);
+        }
     
-    private void provideStepResultStatus(Result resultStatus, Run<?, ?> build) {
-        String runIdStr =
-                (runId > 0) ? String.format(" (LRE RunID: %s)", String.valueOf(runId)) : "";
-        logger.println(String.format("%s - %s%s: %s\n- - -",
-                dateFormatter.getDate(),
-                Messages.ResultStatus(),
-                runIdStr,
-                resultStatus.toString()));
-        build.setResult(resultStatus);
+        private void provideStepResultStatus(Result resultStatus, Run<?, ?> build) {
+            String runIdStr =
+                    (runId > 0) ? String.format(" (LRE RunID: %s)", String.valueOf(runId)) : "";
+            logger.println(String.format("%s - %s%s: %s\n- - -",
+                    dateFormatter.getDate(),
+                    Messages.ResultStatus(),
+                    runIdStr,
+                    resultStatus.toString()));
+            build.setResult(resultStatus);
         
-    }
+        }
     
-    private Result createRunResults(FilePath filePath, Testsuites testsuites) {
-        Result ret = Result.SUCCESS;
-        try {
-            if (testsuites != null) {
-                StringWriter writer = new StringWriter();
-                JAXBContext context = JAXBContext.newInstance(Testsuites.class);
-                Marshaller marshaller = context.createMarshaller();
-                marshaller.marshal(testsuites, writer);
-                filePath.write(writer.toString(), null);
-                if (containsErrorsOrFailures(testsuites.getTestsuite())) {
+        private Result createRunResults(FilePath filePath, Testsuites testsuites) {
+            Result ret = Result.SUCCESS;
+            try {
+                if (testsuites != null) {
+                    StringWriter writer = new StringWriter();
+                    JAXBContext context = JAXBContext.newInstance(Testsuites.class);
+                    Marshaller marshaller = context.createMarshaller();
+                    marshaller.marshal(testsuites, writer);
+                    filePath.write(writer.toString(), null);
+                    if (containsErrorsOrFailures(testsuites.getTestsuite())) {
+                        ret = Result.FAILURE;
+                    }
+                } else {
+                    logger.println(String.format("%s - %s", dateFormatter.getDate(), Messages.EmptyResults()));
                     ret = Result.FAILURE;
                 }
-            } else {
-                logger.println(String.format("%s - %s", dateFormatter.getDate(), Messages.EmptyResults()));
+            
+            } catch (Exception cause) {
+                logger.print(String.format(
+                        "%s - %s. %s: %s",
+                        dateFormatter.getDate(),
+                        Messages.FailedToCreateRunResults(),
+                        Messages.Exception(),
+                        cause.getMessage()));
                 ret = Result.FAILURE;
             }
-            
-        } catch (Exception cause) {
-            logger.print(String.format(
-                    "%s - %s. %s: %s",
-                    dateFormatter.getDate(),
-                    Messages.FailedToCreateRunResults(),
-                    Messages.Exception(),
-                    cause.getMessage()));
-            ret = Result.FAILURE;
+            return ret;
         }
-        return ret;
-    }
     
-    private boolean containsErrorsOrFailures(List<Testsuite> testsuites) {
-        boolean ret = false;
-        for (Testsuite testsuite : testsuites) {
-            for (Testcase testcase : testsuite.getTestcase()) {
-                String status = testcase.getStatus();
-                if (status.equals(JUnitTestCaseStatus.ERROR)
-                    || status.equals(JUnitTestCaseStatus.FAILURE)) {
-                    ret = true;
-                    break;
+        private boolean containsErrorsOrFailures(List<Testsuite> testsuites) {
+            boolean ret = false;
+            for (Testsuite testsuite : testsuites) {
+                for (Testcase testcase : testsuite.getTestcase()) {
+                    String status = testcase.getStatus();
+                    if (status.equals(JUnitTestCaseStatus.ERROR)
+                        || status.equals(JUnitTestCaseStatus.FAILURE)) {
+                        ret = true;
+                        break;
+                    }
                 }
             }
+            return ret;
         }
-        return ret;
-    }
     
-    private String getJunitResultsFileName() {
-        Format formatter = new SimpleDateFormat("ddMMyyyyHHmmssSSS");
-        String time = formatter.format(new Date());
-        junitResultsFileName = String.format("Results%s.xml", time);
-        return junitResultsFileName;
+        private String getJunitResultsFileName() {
+            Format formatter = new SimpleDateFormat("ddMMyyyyHHmmssSSS");
+            String time = formatter.format(new Date());
+            return String.format("Results%s.xml", time);
+        }
     }
 
     @Override
     public void perform(@Nonnull Run<?, ?> build, @Nonnull FilePath workspace, @Nonnull Launcher launcher,
                         @Nonnull TaskListener listener) throws InterruptedException, IOException {
-        Workspace = workspace;
-        WorkspacePath = new File(workspace.toURI());
-        Result resultStatus = Result.FAILURE;
-        //trendReportReady = false;
-        logger = listener.getLogger();
-        if(credentialsId != null)
-            usernamePCPasswordCredentials = getCredentialsById(credentialsId, build, logger);
-        if(credentialsProxyId != null && !credentialsProxyId.isEmpty())
-            usernamePCPasswordCredentialsForProxy = getCredentialsById(credentialsProxyId, build, logger);
-        PcClient pcClient = new PcClient(getPcModel(), logger);
-        Testsuites testsuites = execute(pcClient, build);
-
-//        // Create Trend Report
-//        if(trendReportReady){
-//            String reportUrlTemp = trendReportStructure.replaceFirst("%s/", "") + "/trendReport%s.pdf";
-//            String reportUrl = String.format(reportUrlTemp, artifactsResourceName, getPcModel().getTrendReportId(true));
-//            pcClient.publishTrendReport(reportUrl, getPcModel().getTrendReportId(true));
-//        }
-//        // End Create Trend Report
-
-        FilePath resultsFilePath = workspace.child(getJunitResultsFileName());
-        resultStatus = createRunResults(resultsFilePath, testsuites);
-        provideStepResultStatus(resultStatus, build);
-
-        if (!Result.SUCCESS.equals(resultStatus) && !Result.FAILURE.equals(resultStatus)) {
-            return;
-        }
-//        //Only do this if build worked (Not unstable or aborted - which might mean there is no report
-//        JUnitResultArchiver jUnitResultArchiver = new JUnitResultArchiver(this.getRunResultsFileName());
-//        jUnitResultArchiver.setKeepLongStdio(true);
-//        jUnitResultArchiver.perform(build, workspace, launcher, listener);
-
+        new PcRunExecution(build, workspace, listener).perform(build);
     }
 
     public String getServerAndPort()
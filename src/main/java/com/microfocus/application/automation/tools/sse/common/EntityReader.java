@@ -0,0 +1,315 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+
+/**
+ * Single pass StAX reader for ALM {@code Entity}/{@code Entities} payloads.
+ * A response is read once into plain field maps, so callers looking up several fields of
+ * the same entity do not parse the document again for every field.
+ */
+public class EntityReader {
+
+    private static final String ENTITY = "Entity";
+    private static final String FIELDS = "Fields";
+    private static final String FIELD = "Field";
+    private static final String VALUE = "Value";
+    private static final String NAME = "Name";
+
+    private static final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    });
+
+    private EntityReader() {
+    }
+
+    /**
+     * Reads the fields of a single {@code Entity} document (the root element).
+     * Fields without a value are mapped to null, fields missing from the payload are absent from the map.
+     */
+    public static Map<String, String> readFields(byte[] xml) {
+
+        try {
+            return readFields(inputFactory.get().createXMLStreamReader(new ByteArrayInputStream(xml)));
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    public static Map<String, String> readFields(String xml) {
+
+        try {
+            return readFields(inputFactory.get().createXMLStreamReader(new StringReader(xml)));
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    /**
+     * Reads every {@code Entity} of the payload, in document order of their start tags, so an enclosing entity
+     * comes before the entities nested in it. As with a DOM lookup by tag name, the fields of nested entities are
+     * visible in their enclosing entity as well.
+     */
+    public static List<Map<String, String>> readEntities(byte[] xml) {
+
+        try {
+            return readEntities(inputFactory.get().createXMLStreamReader(new ByteArrayInputStream(xml)));
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    public static List<Map<String, String>> readEntities(String xml) {
+
+        try {
+            return readEntities(inputFactory.get().createXMLStreamReader(new StringReader(xml)));
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    /**
+     * Streams the {@code Entity} elements of the payload to {@code consumer}, each one as soon as it is
+     * closed, without collecting the whole document. Entities are passed in the order of their end tags,
+     * so unlike {@link #readEntities(byte[])}, nested entities come before their enclosing entity.
+     * Returns the number of entities read.
+     */
+    public static int readEntities(byte[] xml, Consumer<Map<String, String>> consumer) {
+
+        try {
+            return readEntities(inputFactory.get().createXMLStreamReader(new ByteArrayInputStream(xml)), consumer);
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    /**
+     * Looks up a field in a map produced by {@link #readFields}, an absent field reads as an empty string.
+     */
+    public static String getField(Map<String, String> fields, String fieldName) {
+
+        return fields.containsKey(fieldName) ? fields.get(fieldName) : StringUtils.EMPTY_STRING;
+    }
+
+    private static Map<String, String> readFields(XMLStreamReader reader) {
+
+        Map<String, String> ret = new HashMap<String, String>();
+        try {
+            int depth = 0;
+            boolean entityRoot = false;
+            boolean inFields = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (depth == 1) {
+                        entityRoot = ENTITY.equals(name);
+                        if (!entityRoot) {
+                            break;
+                        }
+                    } else if (depth == 2) {
+                        inFields = FIELDS.equals(name);
+                    } else if (depth == 3 && inFields && FIELD.equals(name)) {
+                        String fieldName = getNecessaryAttribute(reader, NAME);
+                        String value = readFieldValue(reader);
+                        depth--;
+                        if (!ret.containsKey(fieldName)) {
+                            ret.put(fieldName, value);
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    if (depth == 1) {
+                        inFields = false;
+                    }
+                }
+            }
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        } finally {
+            close(reader);
+        }
+
+        return ret;
+    }
+
+    private static List<Map<String, String>> readEntities(XMLStreamReader reader) {
+
+        List<Map<String, String>> ret = new ArrayList<Map<String, String>>();
+        readEntities(reader, ret::add, entity -> {
+        });
+
+        return ret;
+    }
+
+    private static int readEntities(XMLStreamReader reader, Consumer<Map<String, String>> consumer) {
+
+        return readEntities(reader, entity -> {
+        }, consumer);
+    }
+
+    /**
+     * Reads the entities of the payload, each one is passed to {@code opened} at its start tag, while its
+     * fields are still to be read, and to {@code closed} at its end tag, with all of its fields.
+     */
+    private static int readEntities(
+            XMLStreamReader reader,
+            Consumer<Map<String, String>> opened,
+            Consumer<Map<String, String>> closed) {
+
+        int ret = 0;
+        Deque<Map<String, String>> openEntities = new ArrayDeque<Map<String, String>>();
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (ENTITY.equals(name)) {
+                        Map<String, String> entity = new HashMap<String, String>();
+                        openEntities.push(entity);
+                        opened.accept(entity);
+                    } else if (FIELD.equals(name) && !openEntities.isEmpty()) {
+                        String fieldName = reader.getAttributeCount() > 0 ? reader.getAttributeValue(0) : null;
+                        String value = readFieldValue(reader);
+                        for (Map<String, String> entity : openEntities) {
+                            entity.put(fieldName, value);
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT
+                        && ENTITY.equals(reader.getLocalName())) {
+                    closed.accept(openEntities.pop());
+                    ret++;
+                }
+            }
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        } finally {
+            close(reader);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Consumes the current {@code Field} element and returns the text of its {@code Value} child,
+     * null when the field has no value.
+     */
+    private static String readFieldValue(XMLStreamReader reader) throws XMLStreamException {
+
+        String ret = null;
+        int depth = 1;
+        boolean firstChild = true;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                if (depth == 2 && firstChild && VALUE.equals(reader.getLocalName())) {
+                    ret = readText(reader);
+                    depth--;
+                }
+                firstChild = false;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (depth == 1) {
+                firstChild = false;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Consumes the current element and returns its leading text, null if it does not start with text.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+
+        StringBuilder text = null;
+        boolean leading = true;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                leading = false;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (leading && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                if (text == null) {
+                    text = new StringBuilder();
+                }
+                text.append(reader.getText());
+            } else {
+                leading = false;
+            }
+        }
+
+        return text == null ? null : text.toString();
+    }
+
+    private static String getNecessaryAttribute(XMLStreamReader reader, String attributeName) {
+
+        String ret = reader.getAttributeValue(null, attributeName);
+        if (ret == null) {
+            throw new SSEException(String.format(
+                    "Error parsing XML, missing mandatory attribute '%s'",
+                    attributeName));
+        }
+        if (StringUtils.isNullOrEmpty(ret)) {
+            throw new SSEException(String.format(
+                    "Error parsing XML, mandatory attribute '%s' cannot be empty", //$NON-NLS-1$
+                    attributeName));
+        }
+
+        return ret;
+    }
+
+    private static void close(XMLStreamReader reader) {
+
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // nothing to release
+            }
+        }
+    }
+}
@@ -20,7 +20,9 @@
 
 package com.microfocus.application.automation.tools.sse.result;
 
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
+import java.util.Map;
+
+import com.microfocus.application.automation.tools.sse.common.EntityReader;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -46,9 +48,10 @@ public class PCPublisher extends Publisher {
         try {
             Response response = getEntityName(nameSuffix);
             if (response.isOk() && !response.toString().equals("")) {
-                String runId = XPathUtils.getAttributeValue(response.toString(), "id");
-                String testId = XPathUtils.getAttributeValue(response.toString(), "testcycl-id");
-                String testSetId = XPathUtils.getAttributeValue(response.toString(), "cycle-id");
+                Map<String, String> fields = EntityReader.readFields(response.getData());
+                String runId = EntityReader.getField(fields, "id");
+                String testId = EntityReader.getField(fields, "testcycl-id");
+                String testSetId = EntityReader.getField(fields, "cycle-id");
                 ret =
                         String.format(
                                 "PC Test ID: %s, Run ID: %s, Test Set ID: %s",
@@ -21,6 +21,7 @@
 package com.microfocus.application.automation.tools.sse.sdk;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /***
  *
@@ -48,6 +49,43 @@ public interface Client {
             Map<String, String> headers,
             ResourceAccessLevel resourceAccessLevel);
 
+    /**
+     * Asynchronous variant of {@link #httpGet}. Implementations without a transport of their own
+     * complete the future on the calling thread.
+     */
+    default CompletableFuture<Response> httpGetAsync(
+            String url,
+            String queryString,
+            Map<String, String> headers,
+            ResourceAccessLevel resourceAccessLevel) {
+
+        return CompletableFuture.completedFuture(httpGet(url, queryString, headers, resourceAccessLevel));
+    }
+
+    /**
+     * Asynchronous variant of {@link #httpPost}.
+     */
+    default CompletableFuture<Response> httpPostAsync(
+            String url,
+            byte[] data,
+            Map<String, String> headers,
+            ResourceAccessLevel resourceAccessLevel) {
+
+        return CompletableFuture.completedFuture(httpPost(url, data, headers, resourceAccessLevel));
+    }
+
+    /**
+     * Asynchronous variant of {@link #httpPut}.
+     */
+    default CompletableFuture<Response> httpPutAsync(
+            String url,
+            byte[] data,
+            Map<String, String> headers,
+            ResourceAccessLevel resourceAccessLevel) {
+
+        return CompletableFuture.completedFuture(httpPut(url, data, headers, resourceAccessLevel));
+    }
+
     String build(String suffix);
 
     String buildRestRequest(String suffix);
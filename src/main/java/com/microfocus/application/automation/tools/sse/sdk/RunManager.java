@@ -100,6 +100,7 @@ public class RunManager {
             _running = false;
         }
         if (_pollHandler != null) {
+            _pollHandler.cancel();
             _polling = false;
         }
     }
@@ -20,8 +20,10 @@
 
 package com.microfocus.application.automation.tools.sse.sdk;
 
+import java.util.Map;
+
+import com.microfocus.application.automation.tools.sse.common.EntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 
 /***
  * 
@@ -36,9 +38,9 @@ public class RunResponse {
     
     public void initialize(Response response) {
         
-        String xml = response.toString();
-        _successStatus = XPathUtils.getAttributeValue(xml, "SuccessStaus");
-        _runId = parseRunId(XPathUtils.getAttributeValue(xml, "info"));
+        Map<String, String> fields = EntityReader.readFields(response.getData());
+        _successStatus = EntityReader.getField(fields, "SuccessStaus");
+        _runId = parseRunId(EntityReader.getField(fields, "info"));
     }
     
     protected String parseRunId(String runIdResponse) {
@@ -20,18 +20,23 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
-import java.util.List;
 import java.util.Map;
 
+import com.microfocus.application.automation.tools.sse.common.EntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 import com.microfocus.application.automation.tools.sse.sdk.request.EventLogRequest;
 
+/**
+ * Prints the event log of a timeslot incrementally. Only the id of the last printed event is kept,
+ * every poll asks ALM for the events after it, so a poll costs the new events rather than the whole log.
+ */
 public class EventLogHandler extends Handler {
     
+    private static final int PAGE_SIZE = Integer.getInteger("EventLogHandler.PageSize", 500);
+    
     private String _timeslotId = StringUtils.EMPTY_STRING;
     private int _lastRead = -1;
     
@@ -46,17 +51,23 @@ public class EventLogHandler extends Handler {
         boolean ret = false;
         Response eventLog = null;
         try {
-            eventLog = getEventLog();
-            String xml = eventLog.toString();
-            List<Map<String, String>> entities = XPathUtils.toEntities(xml);
-            for (Map<String, String> currEntity : entities) {
-                if (isNew(currEntity)) {
-                    logger.log(String.format(
-                            "%s:%s",
-                            currEntity.get("creation-time"),
-                            currEntity.get("description")));
+            int read;
+            do {
+                int lastRead = _lastRead;
+                eventLog = getEventLog();
+                read = EntityReader.readEntities(eventLog.getData(), currEntity -> {
+                    if (isNew(currEntity)) {
+                        logger.log(String.format(
+                                "%s:%s",
+                                currEntity.get("creation-time"),
+                                currEntity.get("description")));
+                    }
+                });
+                // a full page may be followed by more events, unless the cursor did not move
+                if (_lastRead == lastRead) {
+                    break;
                 }
-            }
+            } while (read >= PAGE_SIZE);
             ret = true;
         } catch (Throwable cause) {
             logger.log(String.format(
@@ -70,6 +81,14 @@ public class EventLogHandler extends Handler {
         return ret;
     }
     
+    /**
+     * Id of the latest event written to the log, -1 before any event was read
+     */
+    public int getLastRead() {
+        
+        return _lastRead;
+    }
+    
     private boolean isNew(Map<String, String> currEntity) {
         
         boolean ret = false;
@@ -84,7 +103,7 @@ public class EventLogHandler extends Handler {
     
     private Response getEventLog() {
         
-        return new EventLogRequest(_client, _timeslotId).execute();
+        return new EventLogRequest(_client, _timeslotId, _lastRead, PAGE_SIZE).execute();
     }
     
 }
@@ -20,8 +20,10 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
+import java.util.Map;
+
+import com.microfocus.application.automation.tools.sse.common.EntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -72,9 +74,12 @@ public class LabPollHandler extends PollHandler {
     }
     
     @Override
-    protected void log(Logger logger) {
+    protected boolean log(Logger logger) {
         
+        int lastRead = _eventLogHandler.getLastRead();
         _eventLogHandler.log(logger);
+        
+        return _eventLogHandler.getLastRead() > lastRead;
     }
     
     @Override
@@ -82,11 +87,11 @@ public class LabPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String endTime = XPathUtils.getAttributeValue(xml, "end-time");
+            Map<String, String> fields = EntityReader.readFields(response.getData());
+            String endTime = EntityReader.getField(fields, "end-time");
             if (!StringUtils.isNullOrEmpty(endTime)) {
-                String startTime = XPathUtils.getAttributeValue(xml, "start-time");
-                String currentRunState = XPathUtils.getAttributeValue(xml, "state");
+                String startTime = EntityReader.getField(fields, "start-time");
+                String currentRunState = EntityReader.getField(fields, "state");
                 logger.log(String.format(
                         "Timeslot %s is %s.\nRun start time: %s, Run end time: %s",
                         _timeslotId,
@@ -108,10 +113,9 @@ public class LabPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String state = XPathUtils.getAttributeValue(xml, "state");
-            String completedSuccessfully =
-                    XPathUtils.getAttributeValue(xml, "completed-successfully");
+            Map<String, String> fields = EntityReader.readFields(response.getData());
+            String state = EntityReader.getField(fields, "state");
+            String completedSuccessfully = EntityReader.getField(fields, "completed-successfully");
             logger.log(String.format(
                     "Run state of %s: %s, Completed successfully: %s",
                     _runId,
@@ -143,8 +147,7 @@ public class LabPollHandler extends PollHandler {
         
         String ret = StringUtils.EMPTY_STRING;
         try {
-            String xml = response.toString();
-            ret = XPathUtils.getAttributeValue(xml, "reservation-id");
+            ret = EntityReader.getField(EntityReader.readFields(response.getData()), "reservation-id");
         } catch (Throwable cause) {
             logger.log(String.format("Failed to parse response for timeslot ID: %s", response));
         }
@@ -22,9 +22,10 @@ package com.microfocus.application.automation.tools.sse.sdk.handler;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import com.microfocus.application.automation.tools.sse.common.EntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -61,9 +62,9 @@ public class PCPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String pcEndTime = XPathUtils.getAttributeValue(xml, "pc-end-time");
-            String status = XPathUtils.getAttributeValue(xml, "status");
+            Map<String, String> fields = EntityReader.readFields(response.getData());
+            String pcEndTime = EntityReader.getField(fields, "pc-end-time");
+            String status = EntityReader.getField(fields, "status");
             if (!StringUtils.isNullOrEmpty(pcEndTime)) {
                 logger.log(String.format("PC test end time: %s", pcEndTime));
                 ret = true;
@@ -85,9 +86,9 @@ public class PCPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String status = XPathUtils.getAttributeValue(xml, "status");
-            String state = XPathUtils.getAttributeValue(xml, "state");
+            Map<String, String> fields = EntityReader.readFields(response.getData());
+            String status = EntityReader.getField(fields, "status");
+            String state = EntityReader.getField(fields, "state");
             logger.log(String.format("Run status of %s: %s, State: %s", _runId, status, state));
             ret = true;
             
@@ -20,13 +20,30 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 
 public abstract class PollHandler extends Handler {
     
+    private static final int MAX_FAILURES = 3;
+    private static final int FAST_POLLS = 12;
+    private static final double BACKOFF_FACTOR = 1.5;
+    private static final int MAX_INTERVAL = 60000; // millisecond
+    
+    enum PollState {
+        RUNNING, FINISHED, FAILED
+    }
+    
     private int _interval = 5000; // millisecond
+    private long _currentInterval = -1;
+    private int _polls = 0;
+    private int _failures = 0;
+    private boolean _progress = false;
+    private final CountDownLatch _cancelled = new CountDownLatch(1);
     
     public PollHandler(Client client, String entityId) {
         
@@ -51,28 +68,91 @@ public abstract class PollHandler extends Handler {
         return doPoll(logger);
     }
     
+    /**
+     * Stops polling, a pending {@link #poll} returns false.
+     */
+    public void cancel() {
+        
+        _cancelled.countDown();
+    }
+    
+    /**
+     * Polls the run on the calling thread until it finishes, fails or the poll is cancelled.
+     */
     protected boolean doPoll(Logger logger) throws InterruptedException {
         
-        boolean ret = false;
-        int failures = 0;
-        while (failures < 3) {
-            Response response = getResponse();
-            if (isOk(response, logger)) {
-                log(logger);
-                if (isFinished(response, logger)) {
-                    ret = true;
-                    logRunEntityResults(getRunEntityResultsResponse(), logger);
+        PollMetrics metrics = PollMetrics.getInstance();
+        metrics.started();
+        try {
+            long due = System.currentTimeMillis();
+            while (_cancelled.getCount() > 0) {
+                metrics.polled(Math.max(0, System.currentTimeMillis() - due));
+                PollState state = pollOnce(logger);
+                if (state != PollState.RUNNING) {
+                    return state == PollState.FINISHED;
+                }
+                long interval = nextInterval();
+                due = System.currentTimeMillis() + interval;
+                if (sleep(interval, logger)) { // cancelled
                     break;
                 }
-            } else {
-                ++failures;
             }
-            if (sleep(logger)) { // interrupted
-                break;
+        } finally {
+            metrics.finished();
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Waits for the next poll
+     * @return true if the poll was cancelled meanwhile
+     */
+    protected boolean sleep(long interval, Logger logger) throws InterruptedException {
+        
+        try {
+            return _cancelled.await(interval, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            logger.log("Interrupted while polling");
+            throw ex;
+        }
+    }
+    
+    /**
+     * A single poll of the run
+     */
+    PollState pollOnce(Logger logger) {
+        
+        ++_polls;
+        Response response = getResponse();
+        if (isOk(response, logger)) {
+            _progress = log(logger);
+            if (isFinished(response, logger)) {
+                logRunEntityResults(getRunEntityResultsResponse(), logger);
+                return PollState.FINISHED;
             }
+        } else if (++_failures >= MAX_FAILURES) {
+            return PollState.FAILED;
         }
         
-        return ret;
+        return PollState.RUNNING;
+    }
+    
+    /**
+     * Delay before the next poll: the configured interval while the run starts up or reports progress,
+     * growing exponentially up to a minute during long quiet stretches of the run.
+     */
+    long nextInterval() {
+        
+        if (_progress || _currentInterval < 0 || _polls <= FAST_POLLS) {
+            _currentInterval = _interval;
+        } else {
+            _currentInterval = Math.min(
+                    Math.max(_interval, MAX_INTERVAL),
+                    (long) (_currentInterval * BACKOFF_FACTOR));
+        }
+        
+        return _currentInterval;
     }
     
     protected abstract Response getRunEntityResultsResponse();
@@ -99,18 +179,12 @@ public abstract class PollHandler extends Handler {
         return ret;
     }
     
-    protected boolean sleep(Logger logger) throws InterruptedException {
+    /**
+     * Logs the progress of the run
+     * @return true if the run reported something new since the previous poll
+     */
+    protected boolean log(Logger logger) {
         
-        boolean ret = false;
-        try {
-            Thread.sleep(_interval);
-        } catch (InterruptedException ex) {
-            logger.log("Interrupted while polling");
-            throw ex;
-        }
-        
-        return ret;
+        return false;
     }
-    
-    protected void log(Logger logger) {}
 }
@@ -0,0 +1,118 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.sdk.handler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Controller wide counters of the ALM Lab and PC run polls. Every run polls on its own build thread,
+ * a slow or hung ALM server only holds up the builds using it.
+ */
+public class PollMetrics {
+
+    private static final long RATE_WINDOW = TimeUnit.MINUTES.toMillis(1);
+
+    private static final PollMetrics instance = new PollMetrics();
+
+    private final AtomicInteger _activePolls = new AtomicInteger();
+    private final AtomicLong _requests = new AtomicLong();
+    private final AtomicLong _lastLag = new AtomicLong();
+    private final AtomicLong _maxLag = new AtomicLong();
+    private final AtomicLong _windowStart = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong _windowRequests = new AtomicLong();
+    private volatile double _requestsPerSecond;
+
+    PollMetrics() {
+    }
+
+    public static PollMetrics getInstance() {
+
+        return instance;
+    }
+
+    void started() {
+
+        _activePolls.incrementAndGet();
+    }
+
+    void finished() {
+
+        _activePolls.decrementAndGet();
+    }
+
+    /**
+     * Records a poll that started {@code lag} milliseconds after it was due
+     */
+    void polled(long lag) {
+
+        _requests.incrementAndGet();
+        _windowRequests.incrementAndGet();
+        _lastLag.set(lag);
+        _maxLag.accumulateAndGet(lag, Math::max);
+        long now = System.currentTimeMillis();
+        long windowStart = _windowStart.get();
+        if (now - windowStart >= RATE_WINDOW && _windowStart.compareAndSet(windowStart, now)) {
+            _requestsPerSecond = _windowRequests.getAndSet(0) * 1000.0 / (now - windowStart);
+        }
+    }
+
+    /**
+     * Number of runs currently being polled
+     */
+    public int getActivePolls() {
+
+        return _activePolls.get();
+    }
+
+    /**
+     * Number of polls issued since the controller started
+     */
+    public long getRequests() {
+
+        return _requests.get();
+    }
+
+    /**
+     * Polls per second measured over the last complete one minute window
+     */
+    public double getRequestsPerSecond() {
+
+        return _requestsPerSecond;
+    }
+
+    /**
+     * Delay in milliseconds between the time the latest poll was due and the time it started
+     */
+    public long getPollLag() {
+
+        return _lastLag.get();
+    }
+
+    /**
+     * Largest poll lag in milliseconds observed so far
+     */
+    public long getMaxPollLag() {
+
+        return _maxLag.get();
+    }
+}
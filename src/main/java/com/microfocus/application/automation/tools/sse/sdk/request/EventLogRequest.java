@@ -22,21 +22,30 @@ package com.microfocus.application.automation.tools.sse.sdk.request;
 
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 
+/**
+ * Reads the events of a timeslot written after {@code lastRead}, oldest first, one page at a time.
+ */
 public class EventLogRequest extends GetRequest {
     
     private final String _timeslotId;
+    private final int _lastRead;
+    private final int _pageSize;
     
-    public EventLogRequest(Client client, String timeslotId) {
+    public EventLogRequest(Client client, String timeslotId, int lastRead, int pageSize) {
         
         super(client, timeslotId);
         _timeslotId = timeslotId;
+        _lastRead = lastRead;
+        _pageSize = pageSize;
     }
     
     @Override
     protected String getSuffix() {
         
         return String.format(
-                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]}&fields=id,event-type,creation-time,action,description",
-                _timeslotId);
+                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"];id[%%3E%d]}&fields=id,event-type,creation-time,action,description&order-by={id[ASC]}&page-size=%d",
+                _timeslotId,
+                _lastRead,
+                _pageSize);
     }
-}
\ No newline at end of file
+}
@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by barush on 29/10/2014.
@@ -61,6 +62,18 @@ public abstract class GeneralPostRequest extends GeneralRequest {
                 ResourceAccessLevel.PROTECTED);
     }
     
+    /**
+     * Same request as {@link #perform()}, sent through the client's asynchronous transport
+     */
+    public CompletableFuture<Response> performAsync() {
+        
+        return _client.httpPostAsync(
+                getUrl(),
+                getDataBytes(),
+                getHeaders(),
+                ResourceAccessLevel.PROTECTED);
+    }
+    
     private byte[] getDataBytes() {
         
         StringBuilder builder = new StringBuilder("<Entity><Fields>");
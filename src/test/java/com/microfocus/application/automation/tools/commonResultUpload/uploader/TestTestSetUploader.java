@@ -0,0 +1,282 @@
+/*
+ *
+ *  *
+ *  *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  *  marks are the property of their respective owners.
+ *  * __________________________________________________________________
+ *  * MIT License
+ *  *
+ *  * © Copyright 2012-2019 Micro Focus or one of its affiliates..
+ *  *
+ *  * The only warranties for products and services of Micro Focus and its affiliates
+ *  * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ *  * accompanying such products and services. Nothing herein should be construed as
+ *  * constituting an additional warranty. Micro Focus shall not be liable for technical
+ *  * or editorial errors or omissions contained herein.
+ *  * The information contained herein is subject to change without notice.
+ *  * ___________________________________________________________________
+ *  *
+ *
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.uploader;
+
+import com.microfocus.application.automation.tools.commonResultUpload.CommonUploadLogger;
+import com.microfocus.application.automation.tools.commonResultUpload.service.CustomizationService;
+import com.microfocus.application.automation.tools.commonResultUpload.service.FolderService;
+import com.microfocus.application.automation.tools.commonResultUpload.service.RestService;
+import com.microfocus.application.automation.tools.commonResultUpload.service.UDFTranslator;
+import com.microfocus.application.automation.tools.commonResultUpload.service.VersionControlService;
+import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.model.XmlResultEntity;
+import com.microfocus.application.automation.tools.sse.common.EntityReader;
+import com.microfocus.application.automation.tools.sse.common.RestClient4Test;
+import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.microfocus.application.automation.tools.commonResultUpload.ParamConstant.ACTUAL_USER;
+import static com.microfocus.application.automation.tools.commonResultUpload.ParamConstant.ALM_TESTSET_FOLDER;
+import static com.microfocus.application.automation.tools.commonResultUpload.ParamConstant.ALM_TEST_FOLDER;
+
+/**
+ * Uploads test sets to a stub ALM project and counts the requests sent for every uploaded test.
+ */
+public class TestTestSetUploader {
+
+    @Test
+    public void testRepeatedLookupsAreCachedForTheUpload() {
+        StubAlm small = new StubAlm();
+        upload(small, 10);
+        StubAlm large = new StubAlm();
+        upload(large, 30);
+
+        // find the test, create it, read its configuration, find and create its instance, create its run
+        Assert.assertEquals(6 * 20, large.requests - small.requests);
+        Assert.assertEquals(1, large.count("GET", "customization/entities/test"));
+        Assert.assertEquals(small.count("GET", "test-folders"), large.count("GET", "test-folders"));
+        Assert.assertEquals(small.count("GET", "test-set-folders"), large.count("GET", "test-set-folders"));
+    }
+
+    @Test
+    public void testRunIsCreatedWithItsStatus() {
+        StubAlm alm = new StubAlm();
+        upload(alm, 10);
+
+        Assert.assertEquals(0, alm.count("PUT", "runs"));
+        Assert.assertEquals(10, alm.entities("runs").size());
+        for (Map<String, String> run : alm.entities("runs")) {
+            Assert.assertEquals("Passed", run.get("status"));
+            Assert.assertEquals("hp.qc.run.MANUAL", run.get("subtype-id"));
+        }
+    }
+
+    private void upload(StubAlm alm, int tests) {
+        CommonUploadLogger logger = new CommonUploadLogger(null);
+        Map<String, String> params = new HashMap<>();
+        params.put(ALM_TEST_FOLDER, "Uploads\\Common");
+        params.put(ALM_TESTSET_FOLDER, "Uploads\\Nightly");
+        params.put(ACTUAL_USER, "sa");
+
+        CustomizationService cs = new CustomizationService(alm, logger);
+        RestService rs = new RestService(alm, logger, new UDFTranslator(cs, logger));
+        FolderService fs = new FolderService(rs);
+        RunUploader runu = new RunUploader(logger, params, rs, cs, null);
+        TestInstanceUploader tiu = new TestInstanceUploader(logger, params, rs, runu, cs);
+        TestUploader testu = new TestUploader(logger, params, rs, fs, tiu, cs, new VersionControlService(alm, logger));
+        new TestSetUploader(logger, params, rs, fs, testu).upload(createTestSets(tests));
+
+        Assert.assertEquals(0, logger.getErrorCount());
+    }
+
+    private List<XmlResultEntity> createTestSets(int tests) {
+        List<XmlResultEntity> testEntities = new ArrayList<>();
+        for (int i = 0; i < tests; i++) {
+            Map<String, String> run = new HashMap<>();
+            run.put("status", "Passed");
+            run.put("duration", "3.2");
+            List<XmlResultEntity> runs = new ArrayList<>();
+            runs.add(entity(run, new ArrayList<XmlResultEntity>()));
+
+            Map<String, String> test = new HashMap<>();
+            test.put("name", "login-" + i);
+            test.put("subtype-id", "MANUAL");
+            testEntities.add(entity(test, runs));
+        }
+
+        Map<String, String> testset = new HashMap<>();
+        testset.put("name", "nightly");
+        testset.put("subtype-id", "hp.qc.test-set.default");
+        List<XmlResultEntity> testsets = new ArrayList<>();
+        testsets.add(entity(testset, testEntities));
+        return testsets;
+    }
+
+    private static XmlResultEntity entity(Map<String, String> values, List<XmlResultEntity> subEntities) {
+        XmlResultEntity entity = new XmlResultEntity();
+        entity.setValueMap(values);
+        entity.setSubEntities(subEntities);
+        return entity;
+    }
+
+    /**
+     * In-memory ALM project counting the requests it receives.
+     */
+    private static class StubAlm extends RestClient4Test {
+
+        private static final String PROJECT_PATH = "projects/demo/";
+
+        private final Map<String, List<Map<String, String>>> collections = new HashMap<>();
+        private final Map<String, Integer> counts = new HashMap<>();
+        private int nextId = 1000;
+        int requests;
+
+        StubAlm() {
+            super("http://localhost:8080/qcbin", "DEFAULT", "demo", "sa");
+        }
+
+        int count(String method, String resource) {
+            Integer count = counts.get(method + " " + resource);
+            return count == null ? 0 : count;
+        }
+
+        List<Map<String, String>> entities(String collection) {
+            List<Map<String, String>> entities = collections.get(collection);
+            if (entities == null) {
+                entities = new ArrayList<>();
+                collections.put(collection, entities);
+            }
+            return entities;
+        }
+
+        @Override
+        public Response httpGet(String url, String queryString, Map<String, String> headers, ResourceAccessLevel resourceAccessLevel) {
+            String resource = record("GET", url);
+            if (resource.startsWith("customization/entities/")) {
+                return ok(customization(resource));
+            }
+            StringBuilder body = new StringBuilder("<Entities>");
+            for (Map<String, String> entity : query(resource, queryString)) {
+                appendEntity(body, entity);
+            }
+            return ok(body.append("</Entities>").toString());
+        }
+
+        @Override
+        public Response httpPost(String url, byte[] data, Map<String, String> headers, ResourceAccessLevel resourceAccessLevel) {
+            String resource = record("POST", url);
+            Map<String, String> entity = new HashMap<>(EntityReader.readFields(data));
+            entity.put("id", String.valueOf(nextId++));
+            entities(resource).add(entity);
+            if ("tests".equals(resource)) {
+                Map<String, String> testConfig = new HashMap<>();
+                testConfig.put("id", String.valueOf(nextId++));
+                testConfig.put("name", entity.get("name"));
+                testConfig.put("parent-id", entity.get("id"));
+                entities("test-configs").add(testConfig);
+            }
+            StringBuilder body = new StringBuilder();
+            appendEntity(body, entity);
+            return ok(body.toString());
+        }
+
+        @Override
+        public Response httpPut(String url, byte[] data, Map<String, String> headers, ResourceAccessLevel resourceAccessLevel) {
+            String resource = record("PUT", url);
+            String collection = resource.substring(0, resource.indexOf('/'));
+            String id = resource.substring(resource.indexOf('/') + 1);
+            for (Map<String, String> entity : entities(collection)) {
+                if (id.equals(entity.get("id"))) {
+                    entity.putAll(EntityReader.readFields(data));
+                    StringBuilder body = new StringBuilder();
+                    appendEntity(body, entity);
+                    return ok(body.toString());
+                }
+            }
+            return new Response(null, null, null, HttpURLConnection.HTTP_NOT_FOUND);
+        }
+
+        private String record(String method, String url) {
+            requests++;
+            String resource = url.substring(url.indexOf(PROJECT_PATH) + PROJECT_PATH.length());
+            String counted = method.equals("PUT") ? resource.substring(0, resource.indexOf('/')) : resource;
+            counts.put(method + " " + counted, count(method, counted) + 1);
+            return resource;
+        }
+
+        private static String customization(String resource) {
+            if (resource.endsWith("/types")) {
+                String entity = resource.split("/")[2];
+                String id = "test".equals(entity) ? "MANUAL" : String.format("hp.qc.%s.MANUAL", entity);
+                return String.format("<types><type name=\"MANUAL\" id=\"%s\"/></types>", id);
+            }
+            if (resource.endsWith("/fields")) {
+                return "<Fields/>";
+            }
+            return "<EntityResourceDescriptor><SupportsVC>false</SupportsVC></EntityResourceDescriptor>";
+        }
+
+        private List<Map<String, String>> query(String collection, String queryString) {
+            Map<String, String> conditions = new HashMap<>();
+            for (String parameter : queryString.split("&")) {
+                if (!parameter.startsWith("query=")) {
+                    continue;
+                }
+                String query = decode(parameter.substring("query=".length()));
+                for (String condition : query.substring(1, query.length() - 1).split(";")) {
+                    if (condition.isEmpty()) {
+                        continue;
+                    }
+                    int bracket = condition.indexOf('[');
+                    conditions.put(condition.substring(0, bracket),
+                            condition.substring(bracket + 1, condition.length() - 1).replace("\"", ""));
+                }
+            }
+
+            List<Map<String, String>> matches = new ArrayList<>();
+            for (Map<String, String> entity : entities(collection)) {
+                boolean match = true;
+                for (Map.Entry<String, String> condition : conditions.entrySet()) {
+                    match &= condition.getValue().equals(entity.get(condition.getKey()));
+                }
+                if (match) {
+                    matches.add(entity);
+                }
+            }
+            return matches;
+        }
+
+        private static String decode(String value) {
+            try {
+                return URLDecoder.decode(value, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static void appendEntity(StringBuilder body, Map<String, String> entity) {
+            body.append("<Entity><Fields>");
+            for (Map.Entry<String, String> field : entity.entrySet()) {
+                body.append("<Field Name=\"").append(field.getKey()).append("\"><Value>")
+                        .append(field.getValue() == null ? "" : field.getValue())
+                        .append("</Value></Field>");
+            }
+            body.append("</Fields></Entity>");
+        }
+
+        private static Response ok(String body) {
+            return new Response(null, body.getBytes(), null, HttpURLConnection.HTTP_OK);
+        }
+    }
+}
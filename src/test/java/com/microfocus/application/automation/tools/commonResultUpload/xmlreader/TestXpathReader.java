@@ -0,0 +1,116 @@
+/*
+ *
+ *  *
+ *  *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  *  marks are the property of their respective owners.
+ *  * __________________________________________________________________
+ *  * MIT License
+ *  *
+ *  * © Copyright 2012-2019 Micro Focus or one of its affiliates..
+ *  *
+ *  * The only warranties for products and services of Micro Focus and its affiliates
+ *  * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ *  * accompanying such products and services. Nothing herein should be construed as
+ *  * constituting an additional warranty. Micro Focus shall not be liable for technical
+ *  * or editorial errors or omissions contained herein.
+ *  * The information contained herein is subject to change without notice.
+ *  * ___________________________________________________________________
+ *  *
+ *
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.xmlreader;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checks that the plain-path evaluator returns what the XPath engine returns for the same mapping.
+ */
+public class TestXpathReader {
+
+    private static final String RESULT = "<result>"
+            + "<suites><suite name=\"s1\"><title>Suite <b>one</b></title>"
+            + "<cases>"
+            + "<case id=\"1\" status=\"passed\"><name>a</name><info><owner>x</owner></info></case>"
+            + "<case id=\"2\"><name>b</name><info/><info><owner>y</owner></info></case>"
+            + "<case><name/></case>"
+            + "</cases></suite>"
+            + "<suite name=\"s2\"><cases/></suite></suites>"
+            + "</result>";
+
+    private static final String[] VALUE_PATHS = {
+            ".", "./name", "name", "@id", "@status", "info/owner", "info/@missing", "missing", "missing/@id",
+            "name[1]", "../../@name", "concat(@id, '-', name)", "count(info)"
+    };
+
+    @Test
+    public void testValuesMatchXPathEngine() throws Exception {
+        XpathReader reader = new XpathReader(write(RESULT));
+        XPath xPath = XPathFactory.newInstance().newXPath();
+
+        NodeList cases = reader.getNodeListFromNode("/result/suites/suite/cases/case", reader.getDoc());
+        Assert.assertEquals(3, cases.getLength());
+        for (int i = 0; i < cases.getLength(); i++) {
+            Node node = cases.item(i);
+            for (String path : VALUE_PATHS) {
+                Assert.assertEquals(path, xPath.evaluate(path, node, XPathConstants.STRING),
+                        reader.getValueFromNode(path, node));
+            }
+        }
+        Assert.assertEquals(xPath.evaluate(".", reader.getDoc()), reader.getValueFromNode(".", reader.getDoc()));
+    }
+
+    @Test
+    public void testNodeListsMatchXPathEngine() throws Exception {
+        XpathReader reader = new XpathReader(write(RESULT));
+        XPath xPath = XPathFactory.newInstance().newXPath();
+        Node suite = reader.getNodeListFromNode("/result/suites/suite", reader.getDoc()).item(0);
+
+        for (String path : new String[] {".", "cases/case", "cases/case/@id", "cases/case/info", "case"}) {
+            NodeList expected = (NodeList) xPath.evaluate(path, suite, XPathConstants.NODESET);
+            NodeList actual = reader.getNodeListFromNode(path, suite);
+            Assert.assertEquals(path, expected.getLength(), actual.getLength());
+            for (int i = 0; i < expected.getLength(); i++) {
+                Assert.assertTrue(path, expected.item(i).isSameNode(actual.item(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyPlainPathsAreEvaluatedDirectly() {
+        Assert.assertNotNull(ElementPath.compile("."));
+        Assert.assertNotNull(ElementPath.compile("cases/case"));
+        Assert.assertNotNull(ElementPath.compile("./info/@owner"));
+        Assert.assertNull(ElementPath.compile("/result/suites"));
+        Assert.assertNull(ElementPath.compile("//case"));
+        Assert.assertNull(ElementPath.compile("../name"));
+        Assert.assertNull(ElementPath.compile("case[@id='1']"));
+        Assert.assertNull(ElementPath.compile("ns:case"));
+        Assert.assertNull(ElementPath.compile("name/text()"));
+        Assert.assertNull(ElementPath.compile("@*"));
+    }
+
+    private static File write(String xml) throws Exception {
+        File file = File.createTempFile("result", ".xml");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(xml);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import com.squareup.tape.FileObjectQueue;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109","squid:S1607","squid:S2701","squid:S2698"})
+public class AbstractResultQueueImplTest {
+
+	// the benchmark only prints timings, so it only runs when asked for
+	private static final boolean BENCHMARK = Boolean.getBoolean("AbstractResultQueueImplTest.Benchmark");
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testItemsSurviveRestart() throws Exception {
+		File queueFile = new File(tmp.getRoot(), "queue.dat");
+		TestQueue queue = new TestQueue(queueFile);
+		queue.add("job-a", 1);
+		queue.add("job-b", "type", 2);
+		queue.add("job-c", 3, "/workspace");
+		queue.add("instance", "folder/job-d", 4, null);
+		queue.close();
+
+		queue = new TestQueue(queueFile);
+		assertEquals(4, queue.size());
+		assertItem(queue.peekFirst(), "job-a", 1, null, null, null, 0);
+		queue.remove();
+		assertItem(queue.peekFirst(), "job-b", 2, null, "type", null, 0);
+		queue.remove();
+		assertItem(queue.peekFirst(), "job-c", 3, "/workspace", null, null, 0);
+		queue.remove();
+		assertItem(queue.peekFirst(), "folder/job-d", 4, null, null, "instance", 0);
+		queue.close();
+
+		queue = new TestQueue(queueFile);
+		assertEquals(1, queue.size());
+		assertEquals("folder/job-d", queue.peekFirst().getProjectName());
+		queue.close();
+	}
+
+	@Test
+	public void testFailedItemsAreRetriedAtTheEnd() throws Exception {
+		TestQueue queue = new TestQueue(new File(tmp.getRoot(), "queue.dat"));
+		queue.add("job-a", 1);
+		queue.add("job-b", 2);
+
+		assertEquals("job-a", queue.peekFirst().getProjectName());
+		assertTrue(queue.failed());
+		assertEquals("job-b", queue.peekFirst().getProjectName());
+		queue.remove();
+		for (int i = 1; i <= 3; i++) {
+			assertEquals(i, queue.peekFirst().getFailCount());
+			assertEquals(i < 3, queue.failed());
+		}
+		assertNull(queue.peekFirst());
+		queue.close();
+	}
+
+	@Test
+	public void testCrashRecovery() throws Exception {
+		File queueFile = new File(tmp.getRoot(), "queue.dat");
+		TestQueue queue = new TestQueue(queueFile);
+		for (int i = 0; i < 100; i++) {
+			queue.add("job", i);
+		}
+		for (int i = 0; i < 10; i++) {
+			queue.peekFirst();
+			queue.remove();
+		}
+		// crash: the queue is not closed and the last record is torn
+		File segments = new File(tmp.getRoot(), "queue.dat.segments");
+		File[] segmentFiles = segments.listFiles((dir, name) -> name.endsWith(".segment"));
+		assertEquals(1, segmentFiles.length);
+		long committedLength = segmentFiles[0].length();
+		try (FileOutputStream out = new FileOutputStream(segmentFiles[0], true)) {
+			out.write(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 5, 6});
+		}
+
+		queue = new TestQueue(queueFile);
+		assertEquals(90, queue.size());
+		assertEquals(10, queue.peekFirst().getBuildNumber());
+		assertEquals(committedLength, segmentFiles[0].length());
+		queue.add("job", 100);
+		queue.close();
+
+		queue = new TestQueue(queueFile);
+		assertEquals(91, queue.size());
+		for (int i = 10; i < 100; i++) {
+			queue.peekFirst();
+			queue.remove();
+		}
+		assertEquals(100, queue.peekFirst().getBuildNumber());
+		queue.close();
+	}
+
+	@Test
+	public void testConsumedSegmentsAreDeleted() throws Exception {
+		File dir = tmp.newFolder("segments");
+		SegmentedQueueStore store = new SegmentedQueueStore(dir, 100);
+		List<SegmentedQueueStore.Position> ends = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			ends.add(store.append(new byte[40]));
+		}
+		store.commit();
+		int segments = dir.listFiles((d, name) -> name.endsWith(".segment")).length;
+		assertTrue(segments > 10);
+
+		store.moveHead(ends.get(39));
+		store.close();
+		assertTrue(dir.listFiles((d, name) -> name.endsWith(".segment")).length < segments);
+
+		store = new SegmentedQueueStore(dir, 100);
+		assertEquals(10, store.getRecovered().size());
+		store.close();
+	}
+
+	@Test
+	public void testFailedCommitIsUndoneAndRetried() throws Exception {
+		File dir = tmp.newFolder("segments");
+		SegmentedQueueStore store = new SegmentedQueueStore(dir, 100);
+		List<SegmentedQueueStore.Position> ends = new ArrayList<>();
+		ends.add(store.append(record(1)));
+		ends.add(store.append(record(2)));
+		store.commit();
+		File firstSegment = dir.listFiles((d, name) -> name.endsWith(".segment"))[0];
+		long committedLength = firstSegment.length();
+
+		// the third record still fits the first segment, the others roll to a segment that cannot be created
+		File blocked = new File(dir, firstSegment.getName().replaceFirst("0\\.segment$", "1.segment"));
+		assertTrue(blocked.mkdir());
+		ends.add(store.append(record(3)));
+		ends.add(store.append(record(4)));
+		ends.add(store.append(record(5)));
+		store.moveHead(ends.get(0));
+		try {
+			store.commit();
+			fail("commit into a folder should fail");
+		} catch (IOException e) {
+			// expected
+		}
+		assertEquals(committedLength, firstSegment.length());
+
+		ends.add(store.append(record(6)));
+		assertTrue(blocked.delete());
+		store.commit();
+		store.close();
+
+		store = new SegmentedQueueStore(dir, 100);
+		List<Integer> recovered = new ArrayList<>();
+		for (SegmentedQueueStore.Record stored : store.getRecovered()) {
+			recovered.add((int) stored.getPayload()[0]);
+		}
+		assertEquals(Arrays.asList(2, 3, 4, 5, 6), recovered);
+		store.moveHead(ends.get(3));
+		store.close();
+
+		store = new SegmentedQueueStore(dir, 100);
+		assertEquals(2, store.getRecovered().size());
+		assertEquals(5, store.getRecovered().get(0).getPayload()[0]);
+		store.close();
+	}
+
+	@Test
+	public void testMigratesTapeQueue() throws Exception {
+		File queueFile = new File(tmp.getRoot(), "queue.dat");
+		FileObjectQueue<ResultQueue.QueueItem> legacy = new FileObjectQueue<>(queueFile, new AbstractResultQueueImpl.JsonConverter());
+		legacy.add(new ResultQueue.QueueItem("job-a", 1, "/workspace"));
+		legacy.add(new ResultQueue.QueueItem("job-b", 2));
+		legacy.close();
+
+		TestQueue queue = new TestQueue(queueFile);
+		assertFalse(queueFile.exists());
+		assertEquals(2, queue.size());
+		assertItem(queue.peekFirst(), "job-a", 1, "/workspace", null, null, 0);
+		queue.close();
+
+		queue = new TestQueue(queueFile);
+		assertEquals(2, queue.size());
+		queue.close();
+	}
+
+	/**
+	 * Producers adding concurrently, as builds finishing at once do, against the former tape based queue
+	 */
+	@Test
+	public void testThroughputAgainstFileObjectQueue() throws Exception {
+		Assume.assumeTrue(BENCHMARK);
+		int threads = 8;
+		int itemsPerThread = 250;
+
+		FileObjectQueue<ResultQueue.QueueItem> legacy = new FileObjectQueue<>(new File(tmp.getRoot(), "legacy.dat"), new AbstractResultQueueImpl.JsonConverter());
+		long legacyTime = produce(threads, itemsPerThread, (project, build) -> {
+			synchronized (legacy) {
+				legacy.add(new ResultQueue.QueueItem(project, build, "/workspace/" + project));
+			}
+		});
+		assertEquals(threads * itemsPerThread, legacy.size());
+		legacy.close();
+
+		TestQueue queue = new TestQueue(new File(tmp.getRoot(), "queue.dat"));
+		long segmentedTime = produce(threads, itemsPerThread, (project, build) -> queue.add(project, build, "/workspace/" + project));
+		assertEquals(threads * itemsPerThread, queue.size());
+		queue.close();
+
+		System.out.println(String.format("%d items from %d threads: tape queue %d ms, segmented queue %d ms",
+				threads * itemsPerThread, threads, legacyTime, segmentedTime));
+	}
+
+	private static long produce(int threads, int itemsPerThread, Producer producer) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long start = System.currentTimeMillis();
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				String project = "job-" + t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < itemsPerThread; i++) {
+						producer.add(project, i);
+					}
+					return null;
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+			return System.currentTimeMillis() - start;
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+
+	private static byte[] record(int id) {
+		byte[] payload = new byte[40];
+		payload[0] = (byte) id;
+		return payload;
+	}
+
+	private static void assertItem(ResultQueue.QueueItem item, String projectName, int buildNumber, String workspace, String type, String instanceId, int failCount) {
+		assertEquals(projectName, item.getProjectName());
+		assertEquals(buildNumber, item.getBuildNumber());
+		assertEquals(workspace, item.getWorkspace());
+		assertEquals(type, item.getType());
+		assertEquals(instanceId, item.getInstanceId());
+		assertEquals(failCount, item.getFailCount());
+	}
+
+	private interface Producer {
+		void add(String project, int build) throws IOException;
+	}
+
+	private static final class TestQueue extends AbstractResultQueueImpl {
+		private TestQueue(File queueFile) throws IOException {
+			init(queueFile);
+		}
+	}
+}
@@ -0,0 +1,298 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Saveable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109","squid:S1607","squid:S2701","squid:S2698"})
+public class JobsListIndexTest {
+
+	private static final int JOBS = 10000;
+
+	@Test
+	public void testRequestsAreServedFromTheIndex() {
+		AtomicInteger described = new AtomicInteger();
+		AtomicInteger builds = new AtomicInteger();
+		JobsListIndex index = new JobsListIndex(() -> {
+			builds.incrementAndGet();
+			List<JobsListIndex.Entry> entries = new ArrayList<>();
+			for (int i = 0; i < JOBS; i++) {
+				described.incrementAndGet();
+				entries.add(job(String.format("folder-%02d/job-%05d", i % 100, i)));
+			}
+			return entries;
+		}, item -> Collections.emptyList());
+
+		for (int i = 0; i < 20; i++) {
+			assertEquals(JOBS, index.find(entry -> true).size());
+		}
+
+		assertEquals(1, builds.get());
+		assertEquals(JOBS, described.get());
+	}
+
+	@Test
+	public void testInaccessibleJobsAreNotListed() {
+		JobsListIndex index = new JobsListIndex(() -> Arrays.asList(job("a"), job("folder/b"), job("folder/c")), item -> Collections.emptyList());
+
+		assertEquals(Arrays.asList("a", "folder/c"), names(index.find(entry -> !entry.getFullName().equals("folder/b"))));
+	}
+
+	@Test
+	public void testMultiBranchChildrenAreListedOnce() {
+		JobsListIndex index = new JobsListIndex(() -> Arrays.asList(
+				job("a"),
+				new JobsListIndex.Entry("mb/develop", "mb", true, "mb", Collections.emptyList()),
+				new JobsListIndex.Entry("mb/master", "mb", true, "mb", Collections.emptyList()),
+				job("z")), item -> Collections.emptyList());
+
+		assertEquals(Arrays.asList("a", "mb", "z"), listedNames(index.find(entry -> true)));
+		// a branch that cannot be read does not hide the others
+		assertEquals(Arrays.asList("a", "mb", "z"), listedNames(index.find(entry -> !entry.getFullName().equals("mb/develop"))));
+	}
+
+	@Test
+	public void testRemoveDropsFolderContents() {
+		JobsListIndex index = new JobsListIndex(() -> Arrays.asList(job("folder"), job("folder/a"), job("folder/sub/b"), job("folder-2/c"), job("folder2")), item -> Collections.emptyList());
+		index.find(entry -> true);
+
+		index.remove("folder");
+
+		assertEquals(Arrays.asList("folder-2/c", "folder2"), names(index.find(entry -> true)));
+	}
+
+	@Test
+	public void testFolderRenameMovesNestedJobsAndBranches() {
+		Controller controller = new Controller(job("folder/a"), job("folder/sub/b"), branch("folder/mb", "develop"), branch("folder/mb", "master"), job("folder-2/c"));
+		JobsListIndex.IndexUpdater updater = new JobsListIndex.IndexUpdater(controller.index);
+		controller.index.find(entry -> true);
+
+		controller.rename("folder", "renamed");
+		// Jenkins notifies the moved folder and then every item within it
+		for (String name : Arrays.asList("renamed", "renamed/a", "renamed/sub", "renamed/sub/b", "renamed/mb", "renamed/mb/develop", "renamed/mb/master")) {
+			updater.onLocationChanged(item(name), name.replaceFirst("^renamed", "folder"), name);
+		}
+
+		List<JobsListIndex.Entry> all = controller.index.find(entry -> true);
+		assertEquals(Arrays.asList("folder-2/c", "renamed/a", "renamed/mb/develop", "renamed/sub/b"), names(all));
+		assertEquals(Arrays.asList("folder-2/c", "renamed/a", "renamed/mb", "renamed/sub/b"), listedNames(all));
+		assertEquals("renamed/job/mb", all.get(2).getJobCiId());
+	}
+
+	@Test
+	public void testFolderDeleteDropsNestedJobsAndBranches() {
+		Controller controller = new Controller(job("folder/a"), job("folder/sub/b"), branch("folder/mb", "develop"), job("folder-2/c"), job("folder2"));
+		JobsListIndex.IndexUpdater updater = new JobsListIndex.IndexUpdater(controller.index);
+		controller.index.find(entry -> true);
+
+		controller.delete("folder");
+		updater.onDeleted(item("folder"));
+
+		assertEquals(Arrays.asList("folder-2/c", "folder2"), names(controller.index.find(entry -> true)));
+		assertEquals(0, controller.described.get());
+	}
+
+	@Test
+	public void testBranchDeleteKeepsTheMultiBranchListedUntilTheLastBranch() {
+		Controller controller = new Controller(branch("mb", "develop"), branch("mb", "master"), job("z"));
+		JobsListIndex.IndexUpdater updater = new JobsListIndex.IndexUpdater(controller.index);
+		controller.index.find(entry -> true);
+
+		controller.delete("mb/develop");
+		updater.onDeleted(item("mb/develop"));
+		assertEquals(Arrays.asList("mb", "z"), listedNames(controller.index.find(entry -> true)));
+
+		controller.delete("mb/master");
+		updater.onDeleted(item("mb/master"));
+		assertEquals(Collections.singletonList("z"), listedNames(controller.index.find(entry -> true)));
+	}
+
+	@Test
+	public void testCreatedAndUpdatedItemsAreDescribedAgain() {
+		Controller controller = new Controller(job("a"));
+		JobsListIndex.IndexUpdater updater = new JobsListIndex.IndexUpdater(controller.index);
+		controller.index.find(entry -> true);
+
+		controller.add(job("folder/b"), branch("folder/mb", "develop"));
+		updater.onCreated(item("folder"));
+		assertEquals(Arrays.asList("a", "folder/b", "folder/mb/develop"), names(controller.index.find(entry -> true)));
+
+		controller.add(new JobsListIndex.Entry("a", "a", false, "a-changed", Collections.emptyList()));
+		updater.onUpdated(item("a"));
+		assertEquals("a-changed", controller.index.find(entry -> true).get(0).getJobCiId());
+
+		// a branch removed from the folder while it was changed is dropped with it
+		controller.delete("folder/mb");
+		updater.onUpdated(item("folder"));
+		assertEquals(Arrays.asList("a", "folder/b"), names(controller.index.find(entry -> true)));
+	}
+
+	@Test
+	public void testSavedJobsAreDescribedAgain() {
+		Controller controller = new Controller(job("a"));
+		JobsListIndex.JobSaveListener listener = new JobsListIndex.JobSaveListener(controller.index);
+		controller.index.find(entry -> true);
+
+		controller.add(new JobsListIndex.Entry("a", "a", false, "a-changed", Collections.emptyList()));
+		listener.onChange(mock(Saveable.class), null);
+		assertEquals("a", controller.index.find(entry -> true).get(0).getJobCiId());
+		assertEquals(0, controller.described.get());
+
+		Job job = mock(Job.class);
+		when(job.getFullName()).thenReturn("a");
+		listener.onChange(job, null);
+		assertEquals("a-changed", controller.index.find(entry -> true).get(0).getJobCiId());
+	}
+
+	@Test
+	public void testEventsWaitForTheIndexAndReloadRebuildsIt() {
+		Controller controller = new Controller(job("a"));
+		JobsListIndex.IndexUpdater updater = new JobsListIndex.IndexUpdater(controller.index);
+
+		controller.add(job("b"));
+		updater.onCreated(item("b"));
+		assertEquals(0, controller.described.get());
+		assertEquals(Arrays.asList("a", "b"), names(controller.index.find(entry -> true)));
+
+		controller.add(job("c"));
+		updater.onLoaded();
+		assertEquals(Arrays.asList("a", "b", "c"), names(controller.index.find(entry -> true)));
+		assertEquals(2, controller.builds.get());
+	}
+
+	@Test
+	public void testItemCreatedWhileTheIndexIsBuiltIsListed() throws InterruptedException {
+		Controller controller = new Controller(job("a"));
+		JobsListIndex.IndexUpdater updater = new JobsListIndex.IndexUpdater(controller.index);
+		Thread creator = new Thread(() -> {
+			controller.add(job("b"));
+			updater.onCreated(item("b"));
+		});
+		// the build has already read the jobs when b is created
+		controller.duringBuild = () -> {
+			creator.start();
+			while (creator.getState() != Thread.State.BLOCKED && creator.getState() != Thread.State.TERMINATED) {
+				Thread.yield();
+			}
+		};
+
+		controller.index.find(entry -> true);
+		creator.join();
+
+		assertEquals(Arrays.asList("a", "b"), names(controller.index.find(entry -> true)));
+		assertEquals(1, controller.builds.get());
+	}
+
+	private static Item item(String fullName) {
+		Item item = mock(Item.class);
+		when(item.getFullName()).thenReturn(fullName);
+		return item;
+	}
+
+	private static JobsListIndex.Entry branch(String multiBranchName, String branchName) {
+		return new JobsListIndex.Entry(multiBranchName + "/" + branchName, multiBranchName, true, multiBranchName.replace("/", "/job/"), Collections.emptyList());
+	}
+
+	private static JobsListIndex.Entry job(String fullName) {
+		return new JobsListIndex.Entry(fullName, fullName, false, fullName.replace("/", "/job/"), Collections.emptyList());
+	}
+
+	private static List<String> names(List<JobsListIndex.Entry> entries) {
+		return entries.stream().map(JobsListIndex.Entry::getFullName).collect(Collectors.toList());
+	}
+
+	private static List<String> listedNames(List<JobsListIndex.Entry> entries) {
+		return entries.stream().map(JobsListIndex.Entry::getListedName).collect(Collectors.toList());
+	}
+
+	/**
+	 * Jobs of a controller by full name, the index describes them as they are when an event comes
+	 */
+	private static final class Controller {
+		private final SortedMap<String, JobsListIndex.Entry> jobs = new TreeMap<>();
+		private final AtomicInteger builds = new AtomicInteger();
+		private final AtomicInteger described = new AtomicInteger();
+		private final JobsListIndex index = new JobsListIndex(this::all, this::describe);
+		private Runnable duringBuild = () -> {
+		};
+
+		private Controller(JobsListIndex.Entry... entries) {
+			add(entries);
+		}
+
+		private void add(JobsListIndex.Entry... entries) {
+			for (JobsListIndex.Entry entry : entries) {
+				jobs.put(entry.getFullName(), entry);
+			}
+		}
+
+		private void delete(String fullName) {
+			jobs.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(fullName + "/"));
+		}
+
+		private void rename(String oldName, String newName) {
+			List<JobsListIndex.Entry> moved = jobs.values().stream()
+					.filter(entry -> entry.getFullName().startsWith(oldName + "/"))
+					.collect(Collectors.toList());
+			delete(oldName);
+			for (JobsListIndex.Entry entry : moved) {
+				String fullName = newName + entry.getFullName().substring(oldName.length());
+				if (entry.isMultiBranchChild()) {
+					String parentName = newName + entry.getListedName().substring(oldName.length());
+					add(branch(parentName, fullName.substring(parentName.length() + 1)));
+				} else {
+					add(job(fullName));
+				}
+			}
+		}
+
+		private Iterable<JobsListIndex.Entry> all() {
+			builds.incrementAndGet();
+			List<JobsListIndex.Entry> all = new ArrayList<>(jobs.values());
+			duringBuild.run();
+			return all;
+		}
+
+		private List<JobsListIndex.Entry> describe(Item item) {
+			described.incrementAndGet();
+			String name = item.getFullName();
+			return jobs.values().stream()
+					.filter(entry -> entry.getFullName().equals(name) || entry.getFullName().startsWith(name + "/"))
+					.collect(Collectors.toList());
+		}
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import hudson.console.HyperlinkNote;
+import hudson.console.PlainTextConsoleOutputStream;
+import hudson.model.Run;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109","squid:S1607","squid:S2701","squid:S2698"})
+public class OctaneBuildLogTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testNotesAreStrippedAsByPlainTextConsoleOutputStream() throws Exception {
+		StringBuilder log = new StringBuilder();
+		log.append("Started by ").append(HyperlinkNote.encodeTo("/user/admin", "admin")).append("\n");
+		log.append("\r\n\n");
+		// a note spanning the chunks the log is read in
+		char[] longLine = new char[8190];
+		Arrays.fill(longLine, 'x');
+		log.append(longLine).append(HyperlinkNote.encodeTo("/job/other/", "other")).append(" done\n");
+		log.append("Finished: ").append(HyperlinkNote.encodeTo("/job/x/1/", "SUCCESS"));
+		byte[] raw = log.toString().getBytes(StandardCharsets.UTF_8);
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		try (PlainTextConsoleOutputStream out = new PlainTextConsoleOutputStream(expected)) {
+			out.write(raw);
+		}
+
+		Run run = mockRun(new ByteArrayInputStream(raw));
+		try (InputStream in = OctaneBuildLog.open(run, 0, false)) {
+			assertArrayEquals(expected.toByteArray(), IOUtils.toByteArray(in));
+		}
+
+		run = mockRun(new ByteArrayInputStream(raw));
+		ByteArrayOutputStream byteByByte = new ByteArrayOutputStream();
+		try (InputStream in = OctaneBuildLog.open(run, 0, false)) {
+			int b;
+			while ((b = in.read()) != -1) {
+				byteByByte.write(b);
+			}
+		}
+		assertArrayEquals(expected.toByteArray(), byteByByte.toByteArray());
+	}
+
+	@Test
+	public void testOffsetAndGzip() throws Exception {
+		String log = "first " + HyperlinkNote.encodeTo("/job/x/", "x") + " line\nsecond line\n";
+		String plain = "first x line\nsecond line\n";
+
+		Run run = mockRun(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+		try (InputStream in = OctaneBuildLog.open(run, 6, false)) {
+			assertEquals(plain.substring(6), new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8));
+		}
+
+		run = mockRun(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+		try (InputStream in = new GZIPInputStream(OctaneBuildLog.open(run, 13, true))) {
+			assertEquals(plain.substring(13), new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testOffsetAtOrPastTheEndGivesEmptyLog() throws Exception {
+		String log = "first " + HyperlinkNote.encodeTo("/job/x/", "x") + " line\n";
+		int plainLength = "first x line\n".length();
+
+		for (long offset : new long[]{plainLength, plainLength + 1, log.length() + 100}) {
+			Run run = mockRun(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+			try (InputStream in = OctaneBuildLog.open(run, offset, false)) {
+				assertEquals("offset " + offset, 0, IOUtils.toByteArray(in).length);
+			}
+
+			run = mockRun(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+			try (InputStream in = new GZIPInputStream(OctaneBuildLog.open(run, offset, true))) {
+				assertEquals("gzipped, offset " + offset, 0, IOUtils.toByteArray(in).length);
+			}
+		}
+	}
+
+	@Test
+	public void testLargeLogIsStreamedWithoutCopy() throws Exception {
+		byte[] line = ("[INFO] building module " + HyperlinkNote.encodeTo("/job/x/", "x") + " of the reactor\n").getBytes(StandardCharsets.UTF_8);
+		long plainLineLength = "[INFO] building module x of the reactor\n".length();
+		int lines = 4_000_000;
+		File buildDir = tmp.newFolder();
+		// a copy left by former versions is removed
+		assertTrue(new File(buildDir, "octane_log").createNewFile());
+
+		Run run = mockRun(new RepeatingInputStream(line, lines));
+		Mockito.when(run.getRootDir()).thenReturn(buildDir);
+
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long baseline = runtime.totalMemory() - runtime.freeMemory();
+		long maxUsed = 0;
+		long total = 0;
+		byte[] buffer = new byte[8192];
+		try (InputStream in = OctaneBuildLog.open(run, 0, false)) {
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				total += count;
+				if (total % (64 * 1024 * 1024) < count) {
+					System.gc();
+					maxUsed = Math.max(maxUsed, runtime.totalMemory() - runtime.freeMemory() - baseline);
+				}
+			}
+		}
+
+		assertEquals(plainLineLength * lines, total);
+		assertEquals(0, buildDir.list().length);
+		assertTrue("heap grew by " + maxUsed + " bytes", maxUsed < 16 * 1024 * 1024);
+	}
+
+	private Run mockRun(InputStream log) throws IOException {
+		Run run = Mockito.mock(Run.class);
+		Mockito.when(run.getLogInputStream()).thenReturn(log);
+		Mockito.when(run.getRootDir()).thenReturn(tmp.getRoot());
+		return run;
+	}
+
+	/**
+	 * The same line over and over, generated while read
+	 */
+	private static final class RepeatingInputStream extends InputStream {
+		private final byte[] line;
+		private long remaining;
+		private int position;
+
+		private RepeatingInputStream(byte[] line, int times) {
+			this.line = line;
+			this.remaining = (long) line.length * times;
+		}
+
+		@Override
+		public int read() {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (remaining == 0) {
+				return -1;
+			}
+			int count = (int) Math.min(Math.min(len, line.length - position), remaining);
+			System.arraycopy(line, position, b, off, count);
+			position = (position + count) % line.length;
+			remaining -= count;
+			return count;
+		}
+	}
+}
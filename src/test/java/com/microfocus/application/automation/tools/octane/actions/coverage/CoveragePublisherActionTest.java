@@ -0,0 +1,121 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.actions.coverage;
+
+import hudson.FilePath;
+import hudson.model.Executor;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CoveragePublisherActionTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCopiesReportsInParallelAndSkipsEmptyOnes() throws Exception {
+        File workspace = folder.newFolder("workspace");
+        Set<String> reports = new HashSet<>();
+        for (String module : new String[]{"a", "b", "c", "d", "e"}) {
+            String content = "<report name=\"" + module + "\"/>";
+            write(new File(workspace, module + "/target/site/jacoco/jacoco.xml"), content);
+            reports.add(content);
+        }
+        write(new File(workspace, "f/coverage/lcov.info"), "");
+        write(new File(workspace, "g/coverage/notes.txt"), "not a coverage report");
+        File buildFolder = folder.newFolder("build");
+
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        CoveragePublisherAction action = new CoveragePublisherAction(build(workspace, buildFolder), listener(log));
+        List<String> copied = action.copyCoverageReportsToBuildFolder("**/*.xml,**/*.info", "jacoco.xml");
+
+        // five reports, more than the copies run at once; the empty one is left out
+        assertEquals(5, copied.size());
+        Set<String> copiedContent = new HashSet<>();
+        int previousIndex = -1;
+        for (String name : copied) {
+            assertTrue(name, name.startsWith("coverage_report") && name.endsWith("-jacoco.xml"));
+            int index = Integer.parseInt(name.substring("coverage_report".length(), name.indexOf('-')));
+            assertTrue("results keep the order of the files", index > previousIndex);
+            previousIndex = index;
+            copiedContent.add(new String(Files.readAllBytes(new File(buildFolder, name).toPath()), StandardCharsets.UTF_8));
+        }
+        assertEquals(reports, copiedContent);
+
+        // the empty report got an index but no file
+        String[] inBuildFolder = buildFolder.list();
+        assertEquals(5, inBuildFolder == null ? 0 : inBuildFolder.length);
+        String output = new String(log.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(output.contains("coverage file content corrupted"));
+        assertFalse(output.contains("notes.txt"));
+    }
+
+    @Test
+    public void testOnlyEmptyReport() throws Exception {
+        File workspace = folder.newFolder("workspace");
+        write(new File(workspace, "coverage/lcov.info"), "");
+        File buildFolder = folder.newFolder("build");
+
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        CoveragePublisherAction action = new CoveragePublisherAction(build(workspace, buildFolder), listener(log));
+
+        assertTrue(action.copyCoverageReportsToBuildFolder("**/*.info", "lcov.info").isEmpty());
+        String output = new String(log.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(output.contains("No coverage file that matched the specified pattern was found in workspace"));
+    }
+
+    private static Run build(File workspace, File buildFolder) {
+        Executor executor = mock(Executor.class);
+        when(executor.getCurrentWorkspace()).thenReturn(new FilePath(workspace));
+        Run build = mock(Run.class);
+        when(build.getExecutor()).thenReturn(executor);
+        when(build.getRootDir()).thenReturn(buildFolder);
+        return build;
+    }
+
+    private static void write(File file, String content) throws Exception {
+        assertTrue(file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TaskListener listener(ByteArrayOutputStream out) {
+        PrintStream stream = new PrintStream(out, true);
+        return () -> stream;
+    }
+}
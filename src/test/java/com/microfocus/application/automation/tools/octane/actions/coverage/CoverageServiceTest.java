@@ -0,0 +1,150 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.actions.coverage;
+
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoverageServiceTest {
+
+    // the heap check copies a large report and forces collections, so it only runs when asked for
+    private static final boolean HEAP_CHECK = Boolean.getBoolean("CoverageServiceTest.HeapCheck");
+    private static final int REPORT_MB = Integer.getInteger("CoverageServiceTest.ReportMB", 64);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCopyKeepsContentAndLogsToOwnListener() throws Exception {
+        File workspace = folder.newFolder("workspace");
+        File report = new File(workspace, "jacoco.xml");
+        Files.write(report.toPath(), "<report name=\"äöü\"/>".getBytes(StandardCharsets.UTF_8));
+        File empty = new File(workspace, "lcov.info");
+        assertTrue(empty.createNewFile());
+
+        ByteArrayOutputStream firstLog = new ByteArrayOutputStream();
+        ByteArrayOutputStream secondLog = new ByteArrayOutputStream();
+        CoverageService first = new CoverageService(listener(firstLog));
+        CoverageService second = new CoverageService(listener(secondLog));
+
+        File target = new File(folder.getRoot(), "coverage_report0-jacoco.xml");
+        assertTrue(first.copyCoverageFile(new FilePath(workspace).child("jacoco.xml"), target));
+        assertArrayEquals(Files.readAllBytes(report.toPath()), Files.readAllBytes(target.toPath()));
+
+        File emptyTarget = new File(folder.getRoot(), "coverage_report0-lcov.info");
+        assertFalse(second.copyCoverageFile(new FilePath(workspace).child("lcov.info"), emptyTarget));
+        assertFalse(emptyTarget.exists());
+
+        String firstOutput = new String(firstLog.toByteArray(), StandardCharsets.UTF_8);
+        String secondOutput = new String(secondLog.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(firstOutput.contains("jacoco.xml"));
+        assertFalse(firstOutput.contains("lcov.info"));
+        assertTrue(secondOutput.contains("lcov.info"));
+        assertFalse(secondOutput.contains("jacoco.xml"));
+    }
+
+    @Test
+    public void testHeapStaysFlatWithLargeReport() throws Exception {
+        Assume.assumeTrue(HEAP_CHECK);
+        File workspace = folder.newFolder("workspace");
+        File report = new File(workspace, "jacoco.xml");
+        writeReport(report, REPORT_MB * 1024L * 1024L);
+        File target = new File(folder.getRoot(), "coverage_report0-jacoco.xml");
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+
+        // sample the live heap after a collection while the copy runs, a report held as a whole shows up here
+        AtomicBoolean copying = new AtomicBoolean(true);
+        AtomicLong peak = new AtomicLong(baseline);
+        Thread sampler = new Thread(() -> {
+            while (copying.get()) {
+                System.gc();
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+        try {
+            assertTrue(new CoverageService(null).copyCoverageFile(new FilePath(workspace).child("jacoco.xml"), target));
+        } finally {
+            copying.set(false);
+            sampler.join();
+        }
+
+        assertEquals(report.length(), target.length());
+        assertTrue("heap grew by " + (peak.get() - baseline), peak.get() - baseline < report.length() / 4);
+        assertTrue(Arrays.equals(head(report), head(target)));
+    }
+
+    private static void writeReport(File file, long size) throws Exception {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            writer.write("<report name=\"large\">\n");
+            long written = 0;
+            for (int i = 0; written < size; i++) {
+                String line = "<counter type=\"LINE\" missed=\"" + i % 7 + "\" covered=\"" + i + "\"/>\n";
+                writer.write(line);
+                written += line.length();
+            }
+            writer.write("</report>\n");
+        }
+    }
+
+    private static byte[] head(File file) throws Exception {
+        byte[] head = new byte[4096];
+        try (java.io.InputStream in = Files.newInputStream(file.toPath())) {
+            int read = in.read(head);
+            return Arrays.copyOf(head, read);
+        }
+    }
+
+    private static TaskListener listener(ByteArrayOutputStream out) {
+        PrintStream stream = new PrintStream(out, true);
+        return () -> stream;
+    }
+}
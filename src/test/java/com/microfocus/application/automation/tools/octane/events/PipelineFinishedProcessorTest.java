@@ -0,0 +1,168 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109"})
+public class PipelineFinishedProcessorTest {
+
+	@Test
+	public void testFullQueueProcessesOnTheEventThread() throws Exception {
+		PipelineFinishedProcessor processor = new PipelineFinishedProcessor(1, 1, 100);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		processor.process("job#1", () -> {
+			started.countDown();
+			await(release);
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		processor.process("job#2", () -> {
+		});
+
+		// the worker is busy and the queue is full
+		List<Thread> ranOn = Collections.synchronizedList(new ArrayList<>());
+		processor.process("job#3", () -> ranOn.add(Thread.currentThread()));
+		assertEquals(1, ranOn.size());
+		assertSame(Thread.currentThread(), ranOn.get(0));
+		assertEquals(1L, processor.metrics().get("processedOnEventThread"));
+
+		release.countDown();
+		assertTrue(processor.drain(5));
+		assertEquals(3L, processor.metrics().get("processed"));
+	}
+
+	@Test
+	public void testDuplicateFinishIsProcessedOnce() throws Exception {
+		PipelineFinishedProcessor processor = new PipelineFinishedProcessor(1, 10, 100);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+		assertTrue(processor.process("job#1", () -> {
+			runs.incrementAndGet();
+			await(release);
+		}));
+		assertFalse(processor.process("job#1", runs::incrementAndGet));
+		assertTrue(processor.process("job#2", runs::incrementAndGet));
+
+		release.countDown();
+		assertTrue(processor.drain(5));
+		assertEquals(2, runs.get());
+		assertEquals(1L, processor.metrics().get("duplicatesIgnored"));
+	}
+
+	@Test
+	public void testLateDuplicateOfProcessedBuildIsIgnored() throws Exception {
+		PipelineFinishedProcessor processor = new PipelineFinishedProcessor(1, 10, 100);
+		AtomicInteger runs = new AtomicInteger();
+		assertTrue(processor.process("job#1", runs::incrementAndGet));
+		assertTrue(processor.drain(5));
+
+		assertFalse(processor.process("job#1", runs::incrementAndGet));
+		assertEquals(1, runs.get());
+		assertEquals(1L, processor.metrics().get("duplicatesIgnored"));
+	}
+
+	@Test
+	public void testOnlyRecentBuildsAreRemembered() throws Exception {
+		PipelineFinishedProcessor processor = new PipelineFinishedProcessor(1, 10, 2);
+		AtomicInteger runs = new AtomicInteger();
+		for (int i = 1; i <= 3; i++) {
+			processor.process("job#" + i, runs::incrementAndGet);
+		}
+		assertTrue(processor.drain(5));
+
+		assertFalse(processor.process("job#3", runs::incrementAndGet));
+		assertTrue(processor.process("job#1", runs::incrementAndGet));
+		assertEquals(4, runs.get());
+	}
+
+	@Test
+	public void testFailedBuildIsAcceptedAgain() throws Exception {
+		PipelineFinishedProcessor processor = new PipelineFinishedProcessor(1, 10, 100);
+		processor.process("job#1", () -> {
+			throw new IllegalStateException("broken");
+		});
+		assertTrue(processor.drain(5));
+
+		AtomicInteger runs = new AtomicInteger();
+		assertTrue(processor.process("job#1", runs::incrementAndGet));
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	public void testDrainProcessesTheQueuedBuilds() throws Exception {
+		PipelineFinishedProcessor processor = new PipelineFinishedProcessor(2, 50, 100);
+		AtomicInteger runs = new AtomicInteger();
+		for (int i = 0; i < 40; i++) {
+			processor.process("job#" + i, () -> {
+				sleep(5);
+				runs.incrementAndGet();
+			});
+		}
+		assertTrue(processor.drain(10));
+		assertEquals(40, runs.get());
+
+		// after the drain a late build is processed by the caller instead of being dropped
+		processor.process("job#late", runs::incrementAndGet);
+		assertEquals(41, runs.get());
+	}
+
+	@Test
+	public void testFailingBuildDoesNotStopTheOthers() throws Exception {
+		PipelineFinishedProcessor processor = new PipelineFinishedProcessor(1, 10, 100);
+		AtomicInteger runs = new AtomicInteger();
+		processor.process("job#1", () -> {
+			throw new IllegalStateException("broken");
+		});
+		processor.process("job#2", runs::incrementAndGet);
+		assertTrue(processor.drain(5));
+		assertEquals(1, runs.get());
+		assertEquals(2L, processor.metrics().get("processed"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.hp.octane.integrations.dto.DTOFactory;
+import com.hp.octane.integrations.dto.entities.Entity;
+import com.hp.octane.integrations.services.entities.EntitiesService;
+import com.hp.octane.integrations.uft.items.AutomatedTest;
+import com.hp.octane.integrations.uft.items.OctaneStatus;
+import com.hp.octane.integrations.uft.items.UftTestDiscoveryResult;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UftTestDiscoveryDispatcherTest {
+
+    private static final int QUEUED_BUILDS = 20;
+
+    @Test
+    public void testQueuedBuildsOfSameRepositoryShareLookups() {
+        List<String> queries = new ArrayList<>();
+        EntitiesService entitiesService = stubEntitiesService(queries, octaneTest("1001", "alpha"));
+        UftTestDiscoveryDispatcher.DispatchCaches caches = new UftTestDiscoveryDispatcher.DispatchCaches();
+        List<UftTestDiscoveryResult> dispatched = new ArrayList<>();
+
+        for (int i = 0; i < QUEUED_BUILDS; i++) {
+            // deleted in the workspace but never created in Octane, so nothing is dispatched for it
+            UftTestDiscoveryResult result = discoveryResult(discoveredTest("beta", OctaneStatus.DELETED));
+            UftTestDiscoveryDispatcher.prepareDispatching(entitiesService, result, caches);
+            UftTestDiscoveryDispatcher.dispatch(result, caches, () -> dispatched.add(result));
+        }
+
+        assertEquals(1, queries.size());
+        assertEquals(QUEUED_BUILDS, dispatched.size());
+        for (UftTestDiscoveryResult result : dispatched) {
+            assertTrue(result.getAllTests().isEmpty());
+        }
+    }
+
+    @Test
+    public void testDispatchedItemsAreLookedUpAgain() {
+        List<String> queries = new ArrayList<>();
+        EntitiesService entitiesService = stubEntitiesService(queries, octaneTest("1001", "alpha"));
+        UftTestDiscoveryDispatcher.DispatchCaches caches = new UftTestDiscoveryDispatcher.DispatchCaches();
+
+        for (int i = 0; i < QUEUED_BUILDS; i++) {
+            AutomatedTest alpha = discoveredTest("alpha", OctaneStatus.NEW);
+            UftTestDiscoveryResult result = discoveryResult(alpha, discoveredTest("beta", OctaneStatus.DELETED));
+            UftTestDiscoveryDispatcher.prepareDispatching(entitiesService, result, caches);
+
+            // found in Octane, so the new test becomes an update of the existing one, beta is not in Octane and is dropped
+            assertEquals(1, result.getAllTests().size());
+            assertEquals("1001", alpha.getId());
+            assertEquals(OctaneStatus.MODIFIED, alpha.getOctaneStatus());
+
+            List<UftTestDiscoveryResult> dispatched = new ArrayList<>();
+            UftTestDiscoveryDispatcher.dispatch(result, caches, () -> dispatched.add(result));
+            assertEquals(1, dispatched.size());
+        }
+
+        // alpha is updated by every dispatch and looked up again, beta is looked up once
+        assertEquals(QUEUED_BUILDS, queries.size());
+        assertTrue(queries.get(0).contains("alpha"));
+        assertTrue(queries.get(0).contains("beta"));
+        for (String query : queries.subList(1, queries.size())) {
+            assertTrue(query.contains("alpha"));
+            assertFalse(query.contains("beta"));
+        }
+    }
+
+    @Test
+    public void testFailedDispatchIsLookedUpAgain() {
+        List<String> queries = new ArrayList<>();
+        EntitiesService entitiesService = stubEntitiesService(queries, octaneTest("1001", "alpha"));
+        UftTestDiscoveryDispatcher.DispatchCaches caches = new UftTestDiscoveryDispatcher.DispatchCaches();
+
+        UftTestDiscoveryResult result = discoveryResult(discoveredTest("alpha", OctaneStatus.NEW));
+        UftTestDiscoveryDispatcher.prepareDispatching(entitiesService, result, caches);
+        try {
+            UftTestDiscoveryDispatcher.dispatch(result, caches, () -> {
+                throw new IllegalStateException("dispatch failed");
+            });
+            fail("dispatch failure must be propagated");
+        } catch (IllegalStateException e) {
+            assertEquals("dispatch failed", e.getMessage());
+        }
+
+        // the queue item is retried and must see whatever part of the dispatch reached Octane
+        UftTestDiscoveryDispatcher.prepareDispatching(entitiesService, discoveryResult(discoveredTest("alpha", OctaneStatus.NEW)), caches);
+        assertEquals(2, queries.size());
+    }
+
+    private static EntitiesService stubEntitiesService(List<String> queries, Entity... octaneTests) {
+        return Mockito.mock(EntitiesService.class, invocation -> {
+            if ("getEntities".equals(invocation.getMethod().getName()) && "server_version".equals(invocation.getArguments()[1])) {
+                Entity version = DTOFactory.getInstance().newDTO(Entity.class);
+                version.setField("version", "15.0.0");
+                return new ArrayList<>(Collections.singletonList(version));
+            }
+            if ("getEntities".equals(invocation.getMethod().getName())) {
+                queries.add(String.valueOf(invocation.getArguments()[2]));
+                return new ArrayList<>(Arrays.asList(octaneTests));
+            }
+            return null;
+        });
+    }
+
+    private static Entity octaneTest(String id, String name) {
+        Entity entity = DTOFactory.getInstance().newDTO(Entity.class);
+        entity.setId(id);
+        entity.setName(name);
+        return entity;
+    }
+
+    private static AutomatedTest discoveredTest(String name, OctaneStatus status) {
+        AutomatedTest test = new AutomatedTest();
+        test.setName(name);
+        test.setIsMoved(false);
+        test.setOctaneStatus(status);
+        return test;
+    }
+
+    private static UftTestDiscoveryResult discoveryResult(AutomatedTest... tests) {
+        UftTestDiscoveryResult result = new UftTestDiscoveryResult();
+        result.setConfigurationId("configuration");
+        result.setWorkspaceId("1002");
+        result.setScmRepositoryId("1003");
+        result.getAllTests().addAll(Arrays.asList(tests));
+        return result;
+    }
+}
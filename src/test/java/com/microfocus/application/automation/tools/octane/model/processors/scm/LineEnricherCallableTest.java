@@ -0,0 +1,191 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import com.hp.octane.integrations.dto.DTOFactory;
+import com.hp.octane.integrations.dto.scm.SCMChange;
+import com.hp.octane.integrations.dto.scm.SCMCommit;
+import com.hp.octane.integrations.dto.scm.SCMData;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Runs the line enricher over a generated repository, sequentially, in parallel and from the cache.
+ * Scale it up with -DLineEnricherCallableTest.Files=5000 -DLineEnricherCallableTest.Commits=50.
+ */
+@SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109","squid:S1607","squid:S2701","squid:S2698"})
+public class LineEnricherCallableTest {
+	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
+	private static final int FILES = Integer.getInteger("LineEnricherCallableTest.Files", 200);
+	private static final int COMMITS = Integer.getInteger("LineEnricherCallableTest.Commits", 10);
+	private static final int LINES = 40;
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@After
+	public void clearCaches() {
+		LineEnricherCallable.clearCaches();
+	}
+
+	@Test
+	public void testParallelAndCachedEnrichmentMatchSequential() throws Exception {
+		File root = tmp.newFolder();
+		List<RevCommit> commits = createRepository(root);
+
+		LineEnricherCallable.clearCaches();
+		SCMData sequential = new LineEnricherCallable("", createSCMData(commits), 1).invoke(root, null);
+
+		LineEnricherCallable.clearCaches();
+		SCMData parallel = new LineEnricherCallable("", createSCMData(commits), 4).invoke(root, null);
+		// every changed file is blamed and every commit is diffed once
+		assertEquals(0, LineEnricherCallable.blameCache.getHits());
+		assertEquals(FILES + COMMITS, LineEnricherCallable.blameCache.getMisses());
+		assertEquals(0, LineEnricherCallable.diffCache.getHits());
+		assertEquals(COMMITS, LineEnricherCallable.diffCache.getMisses());
+		long blameWeight = LineEnricherCallable.blameCache.getWeight();
+		long diffWeight = LineEnricherCallable.diffCache.getWeight();
+
+		SCMData cached = new LineEnricherCallable("", createSCMData(commits), 4).invoke(root, null);
+		// a rebuild of the same revisions is served from the caches only
+		assertEquals(FILES + COMMITS, LineEnricherCallable.blameCache.getHits());
+		assertEquals(FILES + COMMITS, LineEnricherCallable.blameCache.getMisses());
+		assertEquals(COMMITS, LineEnricherCallable.diffCache.getHits());
+		assertEquals(COMMITS, LineEnricherCallable.diffCache.getMisses());
+		assertEquals(blameWeight, LineEnricherCallable.blameCache.getWeight());
+		assertEquals(diffWeight, LineEnricherCallable.diffCache.getWeight());
+
+		assertEquals(FILES + COMMITS, sequential.getFileBlameList().size());
+		assertEquals(dtoFactory.dtoToJson(sequential), dtoFactory.dtoToJson(parallel));
+		assertEquals(dtoFactory.dtoToJson(sequential), dtoFactory.dtoToJson(cached));
+	}
+
+	@Test
+	public void testCachesAreBoundedByWeight() {
+		LineEnricherCallable.WeightedCache<String> cache = new LineEnricherCallable.WeightedCache<>(10);
+		cache.put("a", "a", 4);
+		cache.put("b", "b", 4);
+		cache.get("a");
+		cache.put("c", "c", 4);
+
+		// b was used least recently
+		assertNull(cache.get("b"));
+		assertEquals("a", cache.get("a"));
+		assertEquals("c", cache.get("c"));
+		assertEquals(8, cache.getWeight());
+		assertEquals(3, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		cache.put("a", "a2", 1);
+		assertEquals("a2", cache.get("a"));
+		assertEquals(5, cache.getWeight());
+
+		// heavier than the whole cache, neither cached nor evicting the others
+		cache.put("huge", "huge", 11);
+		assertNull(cache.get("huge"));
+		assertEquals(5, cache.getWeight());
+
+		cache.put("d", "d", 10);
+		assertNull(cache.get("a"));
+		assertNull(cache.get("c"));
+		assertEquals("d", cache.get("d"));
+		assertEquals(10, cache.getWeight());
+
+		cache.clear();
+		assertNull(cache.get("d"));
+		assertEquals(0, cache.getWeight());
+	}
+
+	/**
+	 * An initial commit of all the files, then commits each editing half of the files and adding one
+	 */
+	private static List<RevCommit> createRepository(File root) throws Exception {
+		List<RevCommit> commits = new ArrayList<>();
+		try (Git git = Git.init().setDirectory(root).call()) {
+			for (int file = 0; file < FILES; file++) {
+				List<String> lines = new ArrayList<>();
+				for (int line = 0; line < LINES; line++) {
+					lines.add("file " + file + " line " + line);
+				}
+				write(root, fileName(file), lines);
+			}
+			commit(git, "initial");
+
+			for (int commit = 0; commit < COMMITS; commit++) {
+				for (int file = commit % 2; file < FILES; file += 2) {
+					List<String> lines = Files.readAllLines(new File(root, fileName(file)).toPath(), StandardCharsets.UTF_8);
+					lines.set((commit * 7 + file) % LINES, "commit " + commit + " edited file " + file);
+					lines.add("commit " + commit + " appended to file " + file);
+					write(root, fileName(file), lines);
+				}
+				List<String> added = new ArrayList<>();
+				added.add("added by commit " + commit);
+				write(root, "added/file-" + commit + ".txt", added);
+				commits.add(commit(git, "commit " + commit));
+			}
+		}
+		return commits;
+	}
+
+	private static SCMData createSCMData(List<RevCommit> revCommits) {
+		List<SCMCommit> commits = new ArrayList<>();
+		for (int commit = 0; commit < revCommits.size(); commit++) {
+			List<SCMChange> changes = new ArrayList<>();
+			for (int file = commit % 2; file < FILES; file += 2) {
+				changes.add(dtoFactory.newDTO(SCMChange.class).setType("edit").setFile(fileName(file)));
+			}
+			changes.add(dtoFactory.newDTO(SCMChange.class).setType("add").setFile("added/file-" + commit + ".txt"));
+			commits.add(dtoFactory.newDTO(SCMCommit.class)
+					.setRevId(revCommits.get(commit).getName())
+					.setChanges(changes));
+		}
+		return dtoFactory.newDTO(SCMData.class).setCommits(commits);
+	}
+
+	private static String fileName(int file) {
+		return "src/dir-" + (file % 10) + "/file-" + file + ".txt";
+	}
+
+	private static void write(File root, String fileName, List<String> lines) throws IOException {
+		File file = new File(root, fileName);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+	}
+
+	private static RevCommit commit(Git git, String message) throws Exception {
+		git.add().addFilepattern(".").call();
+		return git.commit().setMessage(message).setAuthor("tester", "tester@example.com").setCommitter("tester", "tester@example.com").call();
+	}
+}
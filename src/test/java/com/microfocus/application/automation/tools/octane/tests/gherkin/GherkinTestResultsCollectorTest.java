@@ -22,19 +22,38 @@ package com.microfocus.application.automation.tools.octane.tests.gherkin;
 
 import com.microfocus.application.automation.tools.octane.tests.junit.TestResultStatus;
 import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
+import com.microfocus.application.automation.tools.octane.tests.TestProcessingException;
+import hudson.model.Run;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.TransformerException;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
 public class GherkinTestResultsCollectorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     String defaultResourceRelativePath = "f1";
     String defaultResourceName = "OctaneGherkinResults0.xml";
 
@@ -68,6 +87,75 @@ public class GherkinTestResultsCollectorTest {
         validateGherkinTestResult((GherkinTestResult)gherkinTestsResults.get(2),"test Feature2",21,TestResultStatus.PASSED);
     }
 
+    @Test
+    public void testIterateResults() throws Exception {
+        File folder = new File(getDefaultRootResourceFolder());
+        List<TestResult> collected = GherkinTestResultsCollector.collectGherkinTestsResults(folder);
+        Iterator<TestResult> iterator = GherkinTestResultsCollector.iterateGherkinTestsResults(folder);
+        List<TestResult> iterated = new ArrayList<>();
+        while (iterator.hasNext()) {
+            iterated.add(iterator.next());
+        }
+
+        Assert.assertEquals(collected.size(), iterated.size());
+        for (int i = 0; i < collected.size(); i++) {
+            Assert.assertEquals(((GherkinTestResult) collected.get(i)).getAttributes(), ((GherkinTestResult) iterated.get(i)).getAttributes());
+            Assert.assertEquals(write(collected.get(i)), write(iterated.get(i)));
+        }
+
+        String feature = write(iterated.get(0));
+        Assert.assertTrue(feature.contains("<file>#Auto generated NGA revision tag"));
+        Assert.assertTrue(feature.contains("<scenario name=\"test scenario2\" status=\"Passed\">"));
+        Assert.assertTrue(feature.contains("<scenario name=\"test scenario3\" status=\"Failed\">"));
+    }
+
+    @Test
+    public void testIterateReportsBrokenFile() throws Exception {
+        File buildDir = brokenResults();
+        GherkinTestResultsIterator iterator = GherkinTestResultsCollector.iterateGherkinTestsResults(buildDir);
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertEquals("test Feature1", ((GherkinTestResult) iterator.next()).getAttributes().get("name"));
+        try {
+            iterator.hasNext();
+            Assert.fail("the broken feature must not end the iteration quietly");
+        } catch (UncheckedIOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(defaultResourceName));
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testExtensionReportsBrokenFirstFeature() throws Exception {
+        File buildDir = folder.newFolder("build");
+        String content = new String(Files.readAllBytes(new File(getDefaultRootResourceFolder(), defaultResourceName).toPath()), StandardCharsets.UTF_8);
+        int firstFeature = content.indexOf("<feature ");
+        Files.write(new File(buildDir, defaultResourceName).toPath(),
+                (content.substring(0, firstFeature) + "<feature name=\"broken\"><scenario").getBytes(StandardCharsets.UTF_8));
+        Run<?, ?> build = mock(Run.class);
+        when(build.getRootDir()).thenReturn(buildDir);
+
+        try {
+            new GherkinTestExtension().getTestResults(build, "http://localhost:8080/");
+            Assert.fail("a broken results file must fail the processing");
+        } catch (TestProcessingException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testCloseStopsEarly() throws Exception {
+        GherkinTestResultsIterator iterator = GherkinTestResultsCollector.iterateGherkinTestsResults(new File(getDefaultRootResourceFolder()));
+        Assert.assertTrue(iterator.hasNext());
+        iterator.next();
+        iterator.close();
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test (expected=IllegalArgumentException.class)
+    public void testIterateValidatesVersion() throws IOException {
+        GherkinTestResultsCollector.iterateGherkinTestsResults(new File(getRootResourceFolder("f2",defaultResourceName)));
+    }
+
     @Test (expected=IllegalArgumentException.class)
     public void testXmlHasNoVersion() throws InterruptedException, ParserConfigurationException, IOException, SAXException, TransformerException {
         GherkinTestResultsCollector.collectGherkinTestsResults(new File(getRootResourceFolder("f2",defaultResourceName)));
@@ -78,6 +166,24 @@ public class GherkinTestResultsCollectorTest {
         GherkinTestResultsCollector.collectGherkinTestsResults(new File(getRootResourceFolder("f3",defaultResourceName)));
     }
 
+    // the first feature of the default results, followed by a feature cut off in the middle
+    private File brokenResults() throws IOException {
+        File buildDir = folder.newFolder("build");
+        String content = new String(Files.readAllBytes(new File(getDefaultRootResourceFolder(), defaultResourceName).toPath()), StandardCharsets.UTF_8);
+        int firstFeatureEnd = content.indexOf("</feature>") + "</feature>".length();
+        Files.write(new File(buildDir, defaultResourceName).toPath(),
+                (content.substring(0, firstFeatureEnd) + "<feature name=\"broken\"><scenario").getBytes(StandardCharsets.UTF_8));
+        return buildDir;
+    }
+
+    private String write(TestResult testResult) throws XMLStreamException {
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+        testResult.writeXmlElement(writer);
+        writer.close();
+        return out.toString();
+    }
+
     private void validateGherkinTestResult(GherkinTestResult gherkinTestResult, String name, long duration, TestResultStatus status){
         validateAttributes(gherkinTestResult, name, duration, status);
         Assert.assertNotNull(gherkinTestResult.getXmlElement());
@@ -0,0 +1,83 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestResultSpillTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TestResultSpillWriter writer = new TestResultSpillWriter(out)) {
+            writer.write(new JUnitTestResult("module", "com.example", "AppTest", "testOne", TestResultStatus.PASSED,
+                    12, 1000, null, null, null));
+            writer.write(new JUnitTestResult("module", "com.example", "AppTest", "testTwo", TestResultStatus.FAILED,
+                    34, 1000, new TestError("java.lang.AssertionError: äöü\n\tat AppTest", "java.lang.AssertionError", "äöü"),
+                    "http://report", "description"));
+            writer.write(new JUnitTestResult(null, "", "", "GUITest1", TestResultStatus.SKIPPED, 0, 1000, null, "", ""));
+        }
+
+        TestResultSpillIterator iterator = new TestResultSpillIterator(new ByteArrayInputStream(out.toByteArray()));
+
+        JUnitTestResult first = next(iterator);
+        assertEquals("module", first.getModuleName());
+        assertEquals("com.example", first.getPackageName());
+        assertEquals("AppTest", first.getClassName());
+        assertEquals("testOne", first.getTestName());
+        assertEquals(TestResultStatus.PASSED, first.getResult());
+        assertEquals(12, first.getDuration());
+        assertEquals(1000, first.getStarted());
+        assertNull(first.getTestError());
+        assertNull(first.getExternalReportUrl());
+
+        JUnitTestResult second = next(iterator);
+        assertEquals("testTwo", second.getTestName());
+        assertEquals(TestResultStatus.FAILED, second.getResult());
+        assertEquals("java.lang.AssertionError", second.getTestError().getErrorType());
+        assertEquals("äöü", second.getTestError().getErrorMsg());
+        assertEquals("java.lang.AssertionError: äöü\n\tat AppTest", second.getTestError().getStackTraceStr());
+        assertEquals("http://report", second.getExternalReportUrl());
+        assertEquals("description", second.getDescription());
+
+        JUnitTestResult third = next(iterator);
+        assertNull(third.getModuleName());
+        assertEquals("", third.getPackageName());
+        assertEquals(TestResultStatus.SKIPPED, third.getResult());
+
+        assertFalse(iterator.hasNext());
+    }
+
+    private static JUnitTestResult next(TestResultSpillIterator iterator) {
+        assertTrue(iterator.hasNext());
+        TestResult result = iterator.next();
+        return (JUnitTestResult) result;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class UftTestFolderIndexTest {
+
+    @Test
+    public void testFoldersAreTakenInOrderPerTest() {
+        UftTestFolderIndex index = new UftTestFolderIndex(
+                Arrays.asList("GUITest1[1]", "GUITest10[1]", "GUITest1[2]", "ApiTest[1]", "index.html"));
+
+        assertEquals("GUITest1[1]", index.take("GUITest1"));
+        assertEquals("GUITest10[1]", index.take("GUITest10"));
+        assertEquals("GUITest1[2]", index.take("GUITest1"));
+        assertNull(index.take("GUITest1"));
+        assertEquals("ApiTest[1]", index.take("ApiTest"));
+        assertNull(index.take("index.html"));
+        assertNull(index.take("Unknown"));
+    }
+}
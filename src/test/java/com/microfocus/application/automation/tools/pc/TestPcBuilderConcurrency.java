@@ -0,0 +1,201 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcException;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.RunState;
+import com.microfocus.application.automation.tools.run.PcBuilder;
+import hudson.FilePath;
+import hudson.model.Cause;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Result;
+import hudson.model.StringParameterDefinition;
+import hudson.model.StringParameterValue;
+import hudson.model.queue.QueueTaskFuture;
+import jenkins.model.Jenkins;
+import org.apache.commons.io.filefilter.WildcardFileFilter;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs several builds of one job, and so of one PcBuilder instance, at the same time against a
+ * single stub PC server and checks that each build writes its own results file into its own workspace.
+ */
+public class TestPcBuilderConcurrency {
+
+    private static final int BUILDS = 4;
+    private static final String CREDENTIALS_ID = "pc-credentials";
+
+    @ClassRule
+    public static final JenkinsRule jenkins = new JenkinsRule();
+
+    /**
+     * The PC server shared by every build; each client talks to it through its own proxy.
+     */
+    private static class StubPcServer {
+
+        private final AtomicInteger logins = new AtomicInteger();
+        private final AtomicInteger startedRuns = new AtomicInteger();
+
+        HttpResponse handle(StubPcRestProxy proxy, HttpRequestBase request) throws PcException, IOException {
+            String requestUrl = request.getURI().toString();
+            if ("POST".equals(request.getMethod()) && requestUrl.equals(proxy.runsUrl())) {
+                startedRuns.incrementAndGet();
+            } else if ("GET".equals(request.getMethod()) && requestUrl.equals(proxy.runUrl())) {
+                // the run has finished by the time it is polled
+                HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+                response.setEntity(new StringEntity(PcTestBase.runResponseEntity.replace("*", RunState.FINISHED.value())));
+                return response;
+            }
+            return proxy.handleByMock(request);
+        }
+    }
+
+    private static class StubPcRestProxy extends MockPcRestProxy {
+
+        private final StubPcServer server;
+
+        StubPcRestProxy(StubPcServer server) throws PcException {
+            super(PcTestBase.WEB_PROTOCOL, PcTestBase.PC_SERVER_NAME, PcTestBase.ALM_DOMAIN, PcTestBase.ALM_PROJECT, PcTestBase.LOGGER);
+            this.server = server;
+        }
+
+        @Override
+        public boolean authenticate(String userName, String password) {
+            server.logins.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        protected HttpResponse executeRequest(HttpRequestBase request) throws PcException, ClientProtocolException, IOException {
+            return server.handle(this, request);
+        }
+
+        HttpResponse handleByMock(HttpRequestBase request) throws PcException, IOException {
+            return super.executeRequest(request);
+        }
+
+        String runsUrl() {
+            return String.format(getBaseURL() + "/%s", RUNS_RESOURCE_NAME);
+        }
+
+        String runUrl() {
+            return String.format(getBaseURL() + "/%s/%s", RUNS_RESOURCE_NAME, PcTestBase.RUN_ID);
+        }
+    }
+
+    /**
+     * The PC build step with its client pointed at the stub server.
+     */
+    private static class StubPcBuilder extends PcBuilder {
+
+        private final transient StubPcServer server;
+
+        StubPcBuilder(StubPcServer server) {
+            super(PcTestBase.SERVER_AND_PORT, PcTestBase.PC_SERVER_NAME, CREDENTIALS_ID, PcTestBase.ALM_DOMAIN,
+                    PcTestBase.ALM_PROJECT, PcTestBase.TEST_ID, PcTestBase.TEST_INSTANCE_ID, PcTestBase.TESTINSTANCEID,
+                    PcTestBase.TIMESLOT_DURATION_HOURS, PcTestBase.TIMESLOT_DURATION_MINUTES, PcTestBase.POST_RUN_ACTION,
+                    PcTestBase.VUDS_MODE, false, PcTestBase.DESCRIPTION, "NO_TREND", "", PcTestBase.IS_HTTPS, "", "",
+                    PcTestBase.RETRY, "", "");
+            this.server = server;
+        }
+
+        @Override
+        public DescriptorImpl getDescriptor() {
+            return Jenkins.get().getDescriptorByType(DescriptorImpl.class);
+        }
+
+        @Override
+        protected PcClient createPcClient(PcModel model, PcRunContext context) {
+            try {
+                return new PcClient(model, context, new StubPcRestProxy(server));
+            } catch (PcException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentBuildsKeepTheirOwnResults() throws Exception {
+        SystemCredentialsProvider.getInstance().getCredentials().add(new UsernamePasswordCredentialsImpl(
+                CredentialsScope.GLOBAL, CREDENTIALS_ID, "", "user", "password"));
+        StubPcServer server = new StubPcServer();
+        FreeStyleProject project = jenkins.createFreeStyleProject();
+        project.setConcurrentBuild(true);
+        // distinct parameters keep the queue from folding the builds into one
+        project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("BUILD_INDEX", "0")));
+        project.getBuildersList().add(new StubPcBuilder(server));
+
+        List<QueueTaskFuture<FreeStyleBuild>> scheduled = new ArrayList<QueueTaskFuture<FreeStyleBuild>>();
+        for (int i = 0; i < BUILDS; i++) {
+            scheduled.add(project.scheduleBuild2(0, new Cause.UserIdCause(),
+                    new ParametersAction(new StringParameterValue("BUILD_INDEX", String.valueOf(i)))));
+        }
+        List<FreeStyleBuild> builds = new ArrayList<FreeStyleBuild>();
+        for (QueueTaskFuture<FreeStyleBuild> build : scheduled) {
+            builds.add(build.get(2, TimeUnit.MINUTES));
+        }
+
+        Assert.assertEquals(BUILDS, server.logins.get());
+        Assert.assertEquals(BUILDS, server.startedRuns.get());
+        Set<String> workspaces = new HashSet<String>();
+        for (FreeStyleBuild build : builds) {
+            Assert.assertEquals(jenkins.getLog(build), Result.SUCCESS, build.getResult());
+            FilePath workspace = build.getWorkspace();
+            Assert.assertNotNull(workspace);
+            Assert.assertTrue(workspaces.add(workspace.getRemote()));
+
+            // the recorded results file is the only one in the workspace of the build
+            List<String> resultsFiles = PcBuilder.getRunResultsFileNames(build);
+            Assert.assertEquals(1, resultsFiles.size());
+            List<FilePath> written = workspace.list(new WildcardFileFilter("Results*.xml"));
+            Assert.assertEquals(1, written.size());
+            Assert.assertEquals(resultsFiles.get(0), written.get(0).getName());
+            Assert.assertTrue(written.get(0).readToString().contains("Run ID: " + PcTestBase.RUN_ID));
+
+            Assert.assertTrue(new File(build.getRootDir(), "archive/performanceTestsReports/pcRun/" + PcBuilder.pcReportFileName).exists());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes.DataType;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes.Measurement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TestTrendReportPlotData {
+
+    private static final int RUN_ID = 7;
+
+    private static List<TrendReportRow> rows() {
+        return Arrays.asList(
+                new TrendReportRow(DataType.Transaction, "TRT", "Action_Transaction")
+                        .put(Measurement.PCT_MINIMUM, "0.001")
+                        .put(Measurement.PCT_AVERAGE, "0.004")
+                        .put(Measurement.PCT_PERCENTILE_90, "0.009"),
+                new TrendReportRow(DataType.Transaction, "TRT", "Login")
+                        .put(Measurement.PCT_AVERAGE, "1.25")
+                        .put(Measurement.PCT_PERCENTILE_90, null),
+                new TrendReportRow(DataType.Transaction, "TPS", "Login")
+                        .put(Measurement.PCT_AVERAGE, "3.5"),
+                new TrendReportRow(DataType.Monitors, "UDP", "Virtual transaction 2")
+                        .put(Measurement.PCT_AVERAGE, "0.51"),
+                new TrendReportRow(DataType.Regular, "VU", "Running Vusers")
+                        .put(Measurement.PCT_MAXIMUM, "20"),
+                // PCT type reported under another data type is not plotted
+                new TrendReportRow(DataType.Regular, "TRT", "Misplaced")
+                        .put(Measurement.PCT_AVERAGE, "99"));
+    }
+
+    private static String write(TrendReportPlotData data, String fileName) throws Exception {
+        StringWriter writer = new StringWriter();
+        data.write(fileName, writer);
+        return writer.toString();
+    }
+
+    @Test
+    public void testAllPlotFilesFromOnePass() {
+        TrendReportPlotData data = TrendReportPlotData.project(RUN_ID, rows());
+        List<String> fileNames = data.getFileNames();
+        Assert.assertEquals(28, fileNames.size());
+        Assert.assertEquals("pct_minimum_trt.csv", fileNames.get(0));
+        Assert.assertEquals("pct_sum1_web.csv", fileNames.get(27));
+    }
+
+    @Test
+    public void testTransactionFile() throws Exception {
+        TrendReportPlotData data = TrendReportPlotData.project(RUN_ID, rows());
+        Assert.assertEquals("RunId,Trend Measurement Type,Action_Transaction,Login,\r\n"
+                        + "_7_,PCT_AVERAGE_TRT,0.004,1.25,",
+                write(data, "pct_average_trt.csv"));
+        Assert.assertEquals("RunId,Trend Measurement Type,Action_Transaction,Login,\r\n"
+                        + "_7_,PCT_PERCENTILE_90_TRT,0.009,,",
+                write(data, "pct_percentile_90_trt.csv"));
+        Assert.assertEquals("RunId,Trend Measurement Type,Login,\r\n"
+                        + "_7_,PCT_AVERAGE_TPS,3.5,",
+                write(data, "pct_average_tps.csv"));
+    }
+
+    @Test
+    public void testMonitorsAndRegularFiles() throws Exception {
+        TrendReportPlotData data = TrendReportPlotData.project(RUN_ID, rows());
+        Assert.assertEquals("RunId,Trend Measurement Type,Virtual transaction 2,\r\n"
+                        + "_7_,PCT_AVERAGE_UDP,0.51,",
+                write(data, "pct_average_udp.csv"));
+        Assert.assertEquals("RunId,Trend Measurement Type,Running Vusers,\r\n"
+                        + "_7_,PCT_MAXIMUM_VU,20,",
+                write(data, "pct_maximum_vu.csv"));
+    }
+
+    @Test
+    public void testEmptyReport() throws Exception {
+        TrendReportPlotData data = TrendReportPlotData.project(RUN_ID, Collections.<TrendReportRow>emptyList());
+        Assert.assertEquals("RunId,Trend Measurement Type,\r\n_7_,PCT_SUM1_WEB,",
+                write(data, "pct_sum1_web.csv"));
+    }
+
+    @Test
+    public void testDuplicateNameKeepsFirstPositionAndLastValue() throws Exception {
+        TrendReportPlotData data = TrendReportPlotData.project(RUN_ID, Arrays.asList(
+                new TrendReportRow(DataType.Transaction, "TRT", "A").put(Measurement.PCT_MAXIMUM, "1"),
+                new TrendReportRow(DataType.Transaction, "TRT", "B").put(Measurement.PCT_MAXIMUM, "2"),
+                new TrendReportRow(DataType.Transaction, "TRT", "A").put(Measurement.PCT_MAXIMUM, "3")));
+        Assert.assertEquals("RunId,Trend Measurement Type,A,B,\r\n_7_,PCT_MAXIMUM_TRT,3,2,",
+                write(data, "pct_maximum_trt.csv"));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.util.RunList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109"})
+public class PerformanceTrendIndexTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * The build history of the job, latest build first, as returned by Job.getBuilds
+     */
+    private final List<Run> history = new ArrayList<>();
+    private File jobDir;
+    private String jobName;
+    private int historyWalks;
+
+    @Before
+    public void createHistory() throws Exception {
+        jobDir = tmp.newFolder();
+        jobName = "trend-" + jobDir.getName();
+        // scenario "all" is in every build, "even" in the even builds only
+        for (int number = 30; number >= 1; number--) {
+            history.add(number % 2 == 0 ? mockRun(number, "all", "even") : mockRun(number, "all"));
+        }
+    }
+
+    @Test
+    public void testRebuildKeepsTheLatestBuildsOfEachScenario() {
+        PerformanceTrendIndex index = PerformanceTrendIndex.of(mockJob());
+
+        SortedMap<String, SortedMap<Integer, JobLrScenarioResult>> scenarios = index.getScenarioResults();
+        assertEquals(Arrays.asList("all", "even"), new ArrayList<>(scenarios.keySet()));
+        assertWindow(scenarios.get("all"), 30, 10);
+        assertEquals(15, scenarios.get("even").size());
+        assertEquals(Integer.valueOf(30), scenarios.get("even").firstKey());
+        assertEquals(1, historyWalks);
+    }
+
+    @Test
+    public void testAddSlidesTheWindow() {
+        PerformanceTrendIndex index = PerformanceTrendIndex.of(mockJob());
+        long revision = index.getRevision();
+
+        Run build = mockRun(31, "all", "new");
+        history.add(0, build);
+        index.add(31, resultsOf(build));
+
+        SortedMap<String, SortedMap<Integer, JobLrScenarioResult>> scenarios = index.getScenarioResults();
+        assertWindow(scenarios.get("all"), 31, 11);
+        assertEquals(1, scenarios.get("new").size());
+        assertEquals(15, scenarios.get("even").size());
+        assertTrue(index.getRevision() > revision);
+        assertEquals(1, historyWalks);
+    }
+
+    @Test
+    public void testRemoveRefillsTheWindowFromOlderBuilds() {
+        PerformanceTrendIndex index = PerformanceTrendIndex.of(mockJob());
+        assertWindow(index.getScenarioResults().get("all"), 30, 10);
+
+        history.remove(10); // build 20
+        index.remove(20);
+
+        SortedMap<Integer, JobLrScenarioResult> all = index.getScenarioResults().get("all");
+        assertEquals(PerformanceTrendIndex.MAX_BUILDS_PER_SCENARIO, all.size());
+        assertEquals(Integer.valueOf(30), all.firstKey());
+        assertEquals(Integer.valueOf(9), all.lastKey());
+        assertTrue(!all.containsKey(20));
+        // "even" was not full, there is nothing older to bring back
+        assertEquals(14, index.getScenarioResults().get("even").size());
+        assertEquals(2, historyWalks);
+
+        index.remove(42);
+        assertEquals(2, historyWalks);
+    }
+
+    @Test
+    public void testRemoveDropsEmptyScenarios() {
+        PerformanceTrendIndex index = PerformanceTrendIndex.of(mockJob());
+        Run build = mockRun(31, "once");
+        index.add(31, resultsOf(build));
+
+        index.remove(31);
+
+        assertTrue(!index.getScenarioResults().containsKey("once"));
+    }
+
+    @Test
+    public void testIndexIsReadBackFromTheJobFolder() {
+        Job job = mockJob();
+        PerformanceTrendIndex index = PerformanceTrendIndex.of(job);
+        index.remove(30);
+        assertSame(index, PerformanceTrendIndex.of(job));
+        assertTrue(new File(jobDir, "lrTrendIndex.xml").isFile());
+
+        // a reloaded job gets a fresh index, read from its folder without walking the history
+        int walks = historyWalks;
+        PerformanceTrendIndex reloaded = PerformanceTrendIndex.of(mockJob());
+        assertNotSame(index, reloaded);
+        assertEquals(index.getScenarioResults().keySet(), reloaded.getScenarioResults().keySet());
+        assertWindow(reloaded.getScenarioResults().get("all"), 29, 9);
+        assertEquals(walks, historyWalks);
+    }
+
+    @Test
+    public void testDeletedJobIsForgotten() {
+        Job job = mockJob();
+        PerformanceTrendIndex index = PerformanceTrendIndex.of(job);
+        Job nested = Mockito.mock(Job.class);
+        Mockito.when(nested.getFullName()).thenReturn(jobName + "/nested");
+        Mockito.when(nested.getRootDir()).thenReturn(jobDir);
+        PerformanceTrendIndex nestedIndex = PerformanceTrendIndex.of(nested);
+
+        new PerformanceTrendIndex.JobListener().onDeleted(job);
+
+        assertNotSame(index, PerformanceTrendIndex.of(job));
+        assertNotSame(nestedIndex, PerformanceTrendIndex.of(nested));
+    }
+
+    private static void assertWindow(SortedMap<Integer, JobLrScenarioResult> builds, int latest, int oldest) {
+        assertEquals(PerformanceTrendIndex.MAX_BUILDS_PER_SCENARIO, builds.size());
+        assertEquals(Integer.valueOf(latest), builds.firstKey());
+        assertEquals(Integer.valueOf(oldest), builds.lastKey());
+    }
+
+    private static LrJobResults resultsOf(Run run) {
+        return ((PerformanceJobReportAction) run.getAction(PerformanceJobReportAction.class)).getLrResultBuildDataset();
+    }
+
+    private Job mockJob() {
+        Job job = Mockito.mock(Job.class);
+        Mockito.when(job.getFullName()).thenReturn(jobName);
+        Mockito.when(job.getRootDir()).thenReturn(jobDir);
+        Mockito.when(job.getBuilds()).thenAnswer(invocation -> {
+            historyWalks++;
+            return RunList.fromRuns(new ArrayList<>(history));
+        });
+        return job;
+    }
+
+    private static Run mockRun(int number, String... scenarios) {
+        Run run = Mockito.mock(Run.class);
+        LrJobResults results = new LrJobResults();
+        for (String scenario : scenarios) {
+            results.addScenario(new JobLrScenarioResult(scenario));
+        }
+        PerformanceJobReportAction action = new PerformanceJobReportAction(run, results);
+        Mockito.when(run.getNumber()).thenReturn(number);
+        Mockito.when(run.isBuilding()).thenReturn(false);
+        Mockito.when(run.getAction(PerformanceJobReportAction.class)).thenReturn(action);
+        return run;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+@SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109"})
+public class ReportArchiveSummaryActionTest {
+
+    @Test
+    public void testAddsUpTheResultsFiles() {
+        ReportArchiveSummaryAction summary = new ReportArchiveSummaryAction(4, 2);
+        summary.add(30, 12000);
+        summary.add(10, 4000);
+
+        assertEquals(40, summary.getReports());
+        assertEquals(String.format("%.1f sec", 16.0), summary.getDuration());
+        assertEquals(String.format("%.2f", 2.5), summary.getThroughput());
+        assertEquals(4, summary.getThreads());
+        assertEquals(2, summary.getThreadsPerNode());
+    }
+
+    @Test
+    public void testThroughputOfNoTime() {
+        ReportArchiveSummaryAction summary = new ReportArchiveSummaryAction(4, 4);
+        summary.add(3, 0);
+
+        assertEquals("-", summary.getThroughput());
+    }
+}
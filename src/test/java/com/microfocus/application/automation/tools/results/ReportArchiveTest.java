@@ -0,0 +1,180 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import hudson.FilePath;
+import hudson.model.Run;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109"})
+public class ReportArchiveTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testUnzipRejectsEntriesOutsideTheTarget() throws Exception {
+        File root = tmp.newFolder();
+        File target = new File(root, "target");
+        target.mkdirs();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            addEntry(zip, "IE/HTML.html", "report");
+            addEntry(zip, "../evil.txt", "outside");
+        }
+
+        try {
+            ReportArchive.unzip(new ByteArrayInputStream(bytes.toByteArray()), target);
+            fail("an entry outside of the target directory must be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("../evil.txt"));
+        }
+        assertFalse(new File(root, "evil.txt").exists());
+    }
+
+    @Test
+    public void testExtractCopiesTheFolder() throws Exception {
+        File source = createReport(tmp.newFolder(), "IE");
+        File target = tmp.newFolder();
+
+        ReportArchive.extract(new FilePath(source), target);
+
+        assertSameFiles(source, new File(target, "IE"));
+    }
+
+    @Test
+    public void testServeFromArchive() throws Exception {
+        File source = createReport(tmp.newFolder(), "IE");
+        File archive = new File(tmp.newFolder(), "test1.zip");
+        ReportArchive.archive(new FilePath(source), new FilePath(archive));
+
+        StaplerRequest req = Mockito.mock(StaplerRequest.class);
+        StaplerResponse rsp = Mockito.mock(StaplerResponse.class);
+        AtomicReference<byte[]> served = captureServedFile(rsp);
+        assertTrue(ReportArchive.serve(archive, "HTML/data.bin", req, rsp));
+        assertArrayEquals(FileUtils.readFileToByteArray(new File(source, "HTML/data.bin")), served.get());
+
+        assertTrue(ReportArchive.serve(archive, "missing.html", req, rsp));
+        Mockito.verify(rsp).sendError(HttpServletResponse.SC_NOT_FOUND);
+
+        assertFalse(ReportArchive.serve(new File(archive.getParent(), "none.zip"), "HTML.html", req, rsp));
+    }
+
+    @Test
+    public void testDetailReportServesArchivedReports() throws Exception {
+        File buildDir = tmp.newFolder();
+        File reports = new File(buildDir, "PerformanceReport");
+        for (String name : new String[] { "test1", "test2" }) {
+            ReportArchive.archive(new FilePath(createReport(tmp.newFolder(), "IE")),
+                    new FilePath(new File(reports, name + ".zip")));
+        }
+        Run build = Mockito.mock(Run.class);
+        Mockito.when(build.getRootDir()).thenReturn(buildDir);
+        DetailReport report = new DetailReport(build, "test1", null, "PerformanceReport");
+
+        // the iframe of the report page, ./test1/HTML.html below the report
+        assertEquals("<html>main</html>", serve(report, "/test1/HTML.html"));
+        // the links of index.html point at any report of the build
+        assertEquals("<html>main</html>", serve(report, "/test2/HTML.html"));
+        assertNull(serve(report, "/../test1.zip/HTML.html"));
+        assertNull(serve(report, "/test1"));
+
+        // rich reports are never archived
+        assertNull(serve(new DetailReport(build, "test1", null), "/test1/HTML.html"));
+    }
+
+    private static String serve(DetailReport report, String path) throws Exception {
+        StaplerRequest req = Mockito.mock(StaplerRequest.class);
+        Mockito.when(req.getRestOfPath()).thenReturn(path);
+        StaplerResponse rsp = Mockito.mock(StaplerResponse.class);
+        AtomicReference<byte[]> served = captureServedFile(rsp);
+        report.doDynamic(req, rsp);
+        return served.get() == null ? null : new String(served.get(), StandardCharsets.UTF_8);
+    }
+
+    private static AtomicReference<byte[]> captureServedFile(StaplerResponse rsp) throws Exception {
+        final AtomicReference<byte[]> served = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            served.set(IOUtils.toByteArray((InputStream) invocation.getArguments()[1]));
+            return null;
+        }).when(rsp).serveFile(Matchers.any(StaplerRequest.class), Matchers.any(InputStream.class),
+                Matchers.anyLong(), Matchers.anyLong(), Matchers.anyString());
+        return served;
+    }
+
+    private static File createReport(File parent, String name) throws IOException {
+        File report = new File(parent, name);
+        FileUtils.writeStringToFile(new File(report, "HTML.html"), "<html>main</html>", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(report, "HTML/style.css"), "body {}", StandardCharsets.UTF_8);
+        byte[] data = new byte[3 * 1024 * 1024];
+        new Random(42).nextBytes(data);
+        FileUtils.writeByteArrayToFile(new File(report, "HTML/data.bin"), data);
+        return report;
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private static void assertSameFiles(File expected, File actual) throws IOException {
+        assertTrue(actual.getPath(), actual.isDirectory());
+        String[] names = expected.list();
+        assertEquals(names.length, actual.list().length);
+        for (String name : names) {
+            File expectedFile = new File(expected, name);
+            if (expectedFile.isDirectory()) {
+                assertSameFiles(expectedFile, new File(actual, name));
+            } else {
+                assertArrayEquals(FileUtils.readFileToByteArray(expectedFile),
+                        FileUtils.readFileToByteArray(new File(actual, name)));
+            }
+        }
+    }
+}
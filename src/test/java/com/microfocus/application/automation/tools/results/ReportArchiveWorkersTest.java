@@ -0,0 +1,222 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109"})
+public class ReportArchiveWorkersTest {
+
+    @Test
+    public void testRunsAllTasksWithinTheLimits() throws Exception {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        ReportArchiveWorkers workers = new ReportArchiveWorkers("limits", new PrintStream(log, true, "UTF-8"));
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger done = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            workers.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    done.incrementAndGet();
+                    return null;
+                }
+            });
+        }
+        workers.await("Archiving test reports");
+
+        assertEquals(20, done.get());
+        assertEquals(20, workers.getCompleted());
+        assertTrue(maxRunning.get() <= Math.min(ReportArchiveWorkers.THREADS, ReportArchiveWorkers.THREADS_PER_NODE));
+        String progress = new String(log.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(progress, progress.contains("Archiving test reports: 2/20 done"));
+        assertTrue(progress, progress.contains("Archiving test reports: 20/20 done"));
+    }
+
+    @Test
+    public void testSubmitWaitsForAFreeTransferOfTheNode() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ReportArchiveWorkers first = new ReportArchiveWorkers("busy", System.out);
+        for (int i = 0; i < ReportArchiveWorkers.THREADS_PER_NODE; i++) {
+            first.submit(blockUntil(release));
+        }
+
+        // another build against the same node has to wait, without taking a pool thread
+        final ReportArchiveWorkers second = new ReportArchiveWorkers("busy", System.out);
+        final AtomicBoolean submitted = new AtomicBoolean();
+        Thread build = new Thread(() -> {
+            try {
+                second.submit(() -> null);
+                submitted.set(true);
+                second.await("second");
+            } catch (IOException | InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        build.start();
+        build.join(200);
+        assertFalse(submitted.get());
+
+        release.countDown();
+        first.await("first");
+        build.join(5000);
+        assertTrue(submitted.get());
+        assertEquals(1, second.getCompleted());
+    }
+
+    @Test
+    public void testOtherNodesAreNotHeldUp() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ReportArchiveWorkers busy = new ReportArchiveWorkers("slow-node", System.out);
+        busy.submit(blockUntil(release));
+
+        ReportArchiveWorkers other = new ReportArchiveWorkers("fast-node", System.out);
+        final CountDownLatch ran = new CountDownLatch(1);
+        other.submit(() -> {
+            ran.countDown();
+            return null;
+        });
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        other.await("fast");
+
+        release.countDown();
+        busy.await("slow");
+    }
+
+    @Test
+    public void testFirstFailureIsThrownAfterAllTasks() throws Exception {
+        ReportArchiveWorkers workers = new ReportArchiveWorkers("failures", System.out);
+        final AtomicInteger done = new AtomicInteger();
+        for (int i = 0; i < 6; i++) {
+            final int task = i;
+            workers.submit(() -> {
+                done.incrementAndGet();
+                if (task % 2 == 1) {
+                    throw new IOException("failed " + task);
+                }
+                return null;
+            });
+        }
+        try {
+            workers.await("Archiving test reports");
+            fail("the failure of a task must be thrown");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("failed "));
+        }
+        assertEquals(6, done.get());
+    }
+
+    @Test
+    public void testShutdownGivesBackThePermitsOfCancelledTasks() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ReportArchiveWorkers workers = new ReportArchiveWorkers("cancelled", System.out);
+        for (int i = 0; i < ReportArchiveWorkers.THREADS_PER_NODE; i++) {
+            workers.submit(blockUntil(release));
+        }
+        workers.shutdown();
+
+        ReportArchiveWorkers next = new ReportArchiveWorkers("cancelled", System.out);
+        for (int i = 0; i < ReportArchiveWorkers.THREADS_PER_NODE; i++) {
+            next.submit(() -> null);
+        }
+        next.await("next");
+        assertEquals(ReportArchiveWorkers.THREADS_PER_NODE, next.getCompleted());
+    }
+
+    @Test
+    public void testShutdownKeepsThePermitsOfRunningTasks() throws Exception {
+        final CountDownLatch started = new CountDownLatch(ReportArchiveWorkers.THREADS_PER_NODE);
+        final CountDownLatch finish = new CountDownLatch(1);
+        ReportArchiveWorkers workers = new ReportArchiveWorkers("stubborn", System.out);
+        for (int i = 0; i < ReportArchiveWorkers.THREADS_PER_NODE; i++) {
+            workers.submit(() -> {
+                started.countDown();
+                // a transfer that does not stop on interrupt
+                while (finish.getCount() > 0) {
+                    try {
+                        finish.await();
+                    } catch (InterruptedException e) {
+                        // keep going
+                    }
+                }
+                return null;
+            });
+        }
+        final ReportArchiveWorkers next = new ReportArchiveWorkers("stubborn", System.out);
+        final AtomicBoolean submitted = new AtomicBoolean();
+        Thread build = new Thread(() -> {
+            try {
+                next.submit(() -> null);
+                submitted.set(true);
+                next.await("next");
+            } catch (IOException | InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            workers.shutdown();
+
+            // the interrupted tasks still run, so the node has no free transfer
+            build.start();
+            build.join(200);
+            assertFalse(submitted.get());
+        } finally {
+            finish.countDown();
+        }
+        build.join(5000);
+        assertTrue(submitted.get());
+        assertEquals(1, next.getCompleted());
+    }
+
+    @Test
+    public void testFolderLocks() {
+        File folder = new File("UFTReport", "StRes1");
+        assertSame(ReportArchiveWorkers.lockFor(folder), ReportArchiveWorkers.lockFor(new File("UFTReport", "StRes1")));
+    }
+
+    private static Callable<Void> blockUntil(final CountDownLatch release) {
+        return () -> {
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        };
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestReportFormat {
+
+	private static ReportFormat sniffResource(String name) throws Exception {
+		try (InputStream in = TestReportFormat.class.getResourceAsStream(name)) {
+			return ReportFormat.sniff(in);
+		}
+	}
+
+	private static ReportFormat sniff(String content) {
+		return ReportFormat.sniff(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void testSniffReportFiles() throws Exception {
+		Assert.assertEquals(ReportFormat.JENKINS_JUNIT, sniffResource("junitResult.xml"));
+		Assert.assertEquals(ReportFormat.MAVEN_SUREFIRE, sniffResource("MAVENTEST-com.demoapp.demo.AppTest.xml"));
+		Assert.assertEquals(ReportFormat.TESTNG, sniffResource("testng-results.xml"));
+		Assert.assertEquals(ReportFormat.NUNIT, sniffResource("NUnitReport.xml"));
+		Assert.assertEquals(ReportFormat.ANT_JUNIT, sniffResource("AntTESTS-TestSuites.xml"));
+	}
+
+	@Test
+	public void testSniffNUnit3() {
+		Assert.assertEquals(ReportFormat.NUNIT3,
+				sniff("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<!-- nunit -->\n<test-run id=\"2\" testcasecount=\"1\"><test-suite/></test-run>"));
+	}
+
+	@Test
+	public void testSniffUnknown() {
+		Assert.assertEquals(ReportFormat.UNKNOWN, sniff("<coverage line-rate=\"1\"/>"));
+		Assert.assertEquals(ReportFormat.UNKNOWN, sniff("not a report"));
+		Assert.assertEquals(ReportFormat.UNKNOWN, sniff(""));
+	}
+
+	@Test
+	public void testSniffIgnoresDoctype() {
+		Assert.assertEquals(ReportFormat.ANT_JUNIT,
+				sniff("<?xml version=\"1.0\"?><!DOCTYPE testsuites SYSTEM \"http://example.invalid/junit.dtd\"><testsuites/>"));
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.parser.util;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.results.parser.antjunit.Failure;
+import com.microfocus.application.automation.tools.results.parser.antjunit.Testcase;
+
+public class TestParserUtil {
+
+	private static Testcase testcase(int i) {
+		Testcase tc = new Testcase();
+		tc.setName("test" + i);
+		tc.setClassname("com.demo.AppTest");
+		tc.setTime("0.01");
+		if (i % 2 == 1) {
+			Failure failure = new Failure();
+			failure.setType("java.lang.AssertionError");
+			failure.setMessage("expected <" + i + ">");
+			failure.setContent("at com.demo.AppTest.test" + i + "(AppTest.java:" + i + ")");
+			tc.getFailure().add(failure);
+		}
+		return tc;
+	}
+
+	private static String marshalWithNewContext(Testcase tc) throws Exception {
+		Marshaller marshaller = JAXBContext.newInstance(Testcase.class).createMarshaller();
+		marshaller.setProperty(Marshaller.JAXB_ENCODING, "utf-8");
+		marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+		marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+		StringWriter writer = new StringWriter();
+		marshaller.marshal(tc, writer);
+		return "<?xml version=\"1.0\" ?>" + writer;
+	}
+
+	@Test
+	public void testReusedMarshallerMatchesNewContext() throws Exception {
+		for (int i = 0; i < 4; i++) {
+			Testcase tc = testcase(i);
+			Assert.assertEquals(marshalWithNewContext(tc), ParserUtil.marshallerObject(Testcase.class, tc));
+		}
+	}
+
+	@Test
+	public void testFailedMarshalReturnsHeaderOnly() {
+		Assert.assertEquals("<?xml version=\"1.0\" ?>", ParserUtil.marshallerObject(Testcase.class, "not a testcase"));
+		Assert.assertTrue(ParserUtil.marshallerObject(Testcase.class, testcase(0)).contains("name=\"test0\""));
+	}
+
+	@Test
+	public void testMarshalFromSeveralThreads() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 4; t++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						for (int i = 0; i < 200; i++) {
+							Testcase tc = testcase(i);
+							String detail = ParserUtil.marshallerObject(Testcase.class, tc);
+							if (!detail.contains("name=\"test" + i + "\"")) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				Assert.assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestTransactionSeries {
+
+    @Test
+    public void testBuildsAreSortedAndMissingValuesAreNaN() {
+        TransactionSeries series = new TransactionSeries();
+        series.put(12, "login", 1.5);
+        series.put(3, "logout", 0.25);
+        series.put(7, "login", 2.0);
+
+        Assert.assertArrayEquals(new int[]{3, 7, 12}, series.getBuilds());
+        Assert.assertEquals(2, series.getTransactionCount());
+        Assert.assertEquals("login", series.getTransactionName(0));
+        Assert.assertTrue(Double.isNaN(series.getValue(0, 0)));
+        Assert.assertEquals(2.0, series.getValue(0, 1), 0);
+        Assert.assertEquals(1.5, series.getValue(0, 2), 0);
+        Assert.assertEquals(0.25, series.getValue(1, 0), 0);
+        Assert.assertTrue(Double.isNaN(series.getValue(1, 1)));
+        Assert.assertTrue(Double.isNaN(series.getValue(1, 2)));
+    }
+
+    @Test
+    public void testGrowsBeyondInitialCapacity() {
+        TransactionSeries series = new TransactionSeries();
+        for (int build = 100; build > 0; build--) {
+            series.put(build, "tx" + (build % 5), build);
+        }
+
+        Assert.assertEquals(100, series.getBuildCount());
+        Assert.assertEquals(5, series.getTransactionCount());
+        for (int buildIndex = 0; buildIndex < series.getBuildCount(); buildIndex++) {
+            int build = series.getBuildNumber(buildIndex);
+            Assert.assertEquals(buildIndex + 1, build);
+            for (int id = 0; id < series.getTransactionCount(); id++) {
+                double value = series.getValue(id, buildIndex);
+                if (series.getTransactionName(id).equals("tx" + (build % 5))) {
+                    Assert.assertEquals(build, value, 0);
+                } else {
+                    Assert.assertTrue(Double.isNaN(value));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.results.parser.ReportParser;
+import com.microfocus.application.automation.tools.results.parser.util.ParserUtil;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstance;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstanceImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
+import com.microfocus.application.automation.tools.sse.common.EntityReader;
+import com.microfocus.application.automation.tools.sse.common.RestClient4Test;
+import com.microfocus.application.automation.tools.sse.sdk.Logger;
+import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+
+/**
+ * Uploads the same test sets to a stub ALM project with the serial and the bulk import, and checks
+ * both end with the same entities while the bulk import makes a fixed number of lookups.
+ */
+public class TestExternalEntityBulkImport {
+
+    private static final int TEST_FOLDER_ID = 1001;
+    private static final int TESTSET_FOLDER_ID = 2001;
+    private static final String TESTER = "sa";
+
+    private final Logger logger = new Logger() {
+        @Override
+        public void log(String message) {
+        }
+
+        @Override
+        public void error(String message) {
+        }
+    };
+
+    private StubAlm serialAlm;
+    private StubAlm bulkAlm;
+
+    @Before
+    public void setUp() {
+        serialAlm = new StubAlm();
+        bulkAlm = new StubAlm();
+    }
+
+    @Test
+    public void testBulkImportCreatesSameEntitiesAsSerialImport() throws Exception {
+        serialAlm.seed(10);
+        bulkAlm.seed(10);
+
+        service(serialAlm).importExternalTestSet(createTestSets(40), TESTER, TESTSET_FOLDER_ID, TEST_FOLDER_ID, "JUnit", "r1", "job", "http://jenkins/job/1");
+        service(bulkAlm).importExternalTestSetInBulk(createTestSets(40), TESTER, TESTSET_FOLDER_ID, TEST_FOLDER_ID, "JUnit", "r1", "job", "http://jenkins/job/1");
+
+        Assert.assertEquals(serialAlm.snapshot(), bulkAlm.snapshot());
+        Assert.assertTrue(bulkAlm.requests.get() < serialAlm.requests.get());
+    }
+
+    @Test
+    public void testBulkImportLookupsDoNotGrowWithTests() throws Exception {
+        StubAlm smallAlm = new StubAlm();
+        service(smallAlm).importExternalTestSetInBulk(createTestSets(10), TESTER, TESTSET_FOLDER_ID, TEST_FOLDER_ID, "JUnit", "r1", "job", "url");
+        service(bulkAlm).importExternalTestSetInBulk(createTestSets(100), TESTER, TESTSET_FOLDER_ID, TEST_FOLDER_ID, "JUnit", "r1", "job", "url");
+
+        Assert.assertEquals(smallAlm.lookups.get(), bulkAlm.lookups.get());
+    }
+
+    @Test
+    public void testBulkImportOnlyCreatesMissingEntities() throws Exception {
+        service(bulkAlm).importExternalTestSetInBulk(createTestSets(30), TESTER, TESTSET_FOLDER_ID, TEST_FOLDER_ID, "JUnit", "r1", "job", "url");
+        int tests = bulkAlm.count("tests");
+        int instances = bulkAlm.count("test-instances");
+        int runs = bulkAlm.count("runs");
+
+        bulkAlm.creations.set(0);
+        service(bulkAlm).importExternalTestSetInBulk(createTestSets(30), TESTER, TESTSET_FOLDER_ID, TEST_FOLDER_ID, "JUnit", "r2", "job", "url");
+
+        Assert.assertEquals(tests, bulkAlm.count("tests"));
+        Assert.assertEquals(instances, bulkAlm.count("test-instances"));
+        Assert.assertEquals(2 * runs, bulkAlm.count("runs"));
+        Assert.assertEquals(runs, bulkAlm.creations.get());
+    }
+
+    private DefaultExternalEntityUploadServiceImpl service(StubAlm alm) {
+        return new DefaultExternalEntityUploadServiceImpl(new AlmRestTool(alm, logger), null, logger);
+    }
+
+    /**
+     * Two test sets sharing their tests, the first of them running one test twice.
+     */
+    private List<AlmTestSet> createTestSets(int tests) {
+        List<AlmTestSet> testsets = new ArrayList<AlmTestSet>();
+        for (String name : Arrays.asList("suite-a", "suite-b")) {
+            AlmTestSet testset = new AlmTestSetImpl();
+            testset.setFieldValue(AlmTestSet.TESTSET_NAME, name);
+            testset.setFieldValue(AlmTestSet.TESTSET_SUB_TYPE_ID, ReportParser.EXTERNAL_TEST_SET_TYPE_ID);
+            for (int i = 0; i < tests; i++) {
+                addTestInstance(testset, i, i % 3 == 0 ? "Failed" : "Passed");
+            }
+            testsets.add(testset);
+        }
+        addTestInstance(testsets.get(0), 0, "Passed");
+        return testsets;
+    }
+
+    private void addTestInstance(AlmTestSet testset, int test, String status) {
+        AlmTestInstance testInstance = new AlmTestInstanceImpl();
+        testInstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_SUBTYPE_ID, ReportParser.EXTERNAL_TEST_INSTANCE_TYPE_ID);
+        testset.addRelatedEntity(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION, testInstance);
+        testInstance.addRelatedEntity(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION,
+                ParserUtil.createExternalTest("com.demo.Test" + (test % 7), "method" + test, ReportParser.TESTING_FRAMEWORK_JUNIT, "JUnit"));
+        testInstance.addRelatedEntity(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION,
+                ParserUtil.createRun(status, "2019-05-01T10:00:00", "2", "detail"));
+    }
+
+    /**
+     * In-memory ALM project answering entity queries and creations in place of the server.
+     */
+    private static class StubAlm extends RestClient4Test {
+
+        private final Map<String, List<Map<String, String>>> collections = new HashMap<String, List<Map<String, String>>>();
+        private int nextId = 10000;
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger lookups = new AtomicInteger();
+        final AtomicInteger creations = new AtomicInteger();
+
+        StubAlm() {
+            super("http://localhost:8080/qcbin", "DEFAULT", "demo", TESTER);
+        }
+
+        /**
+         * Tests already in the folder before the upload: a test of the report, and a test of
+         * another framework taking the default name of a test of the report.
+         */
+        synchronized void seed(int tests) {
+            for (int i = 0; i < tests; i += 2) {
+                Map<String, String> test = new HashMap<String, String>();
+                test.put("name", "Test" + (i % 7) + "_method" + i);
+                test.put("parent-id", String.valueOf(TEST_FOLDER_ID));
+                test.put("subtype-id", ReportParser.EXTERNAL_TEST_TYPE);
+                test.put("ut-package-name", "com.demo");
+                test.put("ut-class-name", "Test" + (i % 7));
+                test.put("ut-method-name", "method" + i);
+                test.put("testing-framework", i % 4 == 0 ? ReportParser.TESTING_FRAMEWORK_JUNIT : "TestNG");
+                create("tests", test);
+            }
+        }
+
+        synchronized int count(String collection) {
+            List<Map<String, String>> entities = collections.get(collection);
+            return entities == null ? 0 : entities.size();
+        }
+
+        /**
+         * Every entity with its references replaced by the names of the referenced entities.
+         */
+        synchronized Map<String, List<String>> snapshot() {
+            Map<String, List<String>> snapshot = new LinkedHashMap<String, List<String>>();
+            snapshot.put("tests", describe("tests", "name", "ut-package-name", "ut-class-name", "ut-method-name", "testing-framework", "testing-tool", "owner"));
+            snapshot.put("test-configs", describe("test-configs", "name", "parent-id"));
+            snapshot.put("test-sets", describe("test-sets", "name", "parent-id"));
+            snapshot.put("test-instances", describe("test-instances", "cycle-id", "test-id", "test-config-id", "owner"));
+            snapshot.put("runs", describe("runs", "cycle-id", "test-id", "test-config-id", "testcycl-id", "status", "owner", "duration", "build-revision", "jenkins-job-name", "jenkins-url"));
+            return snapshot;
+        }
+
+        private List<String> describe(String collection, String... fields) {
+            List<String> descriptions = new ArrayList<String>();
+            for (Map<String, String> entity : collections.get(collection)) {
+                StringBuilder description = new StringBuilder();
+                for (String field : fields) {
+                    description.append(field).append('=').append(label(entity.get(field))).append(';');
+                }
+                descriptions.add(description.toString());
+            }
+            Collections.sort(descriptions);
+            return descriptions;
+        }
+
+        /**
+         * Identifies an entity by its name and parent, or a test instance by its test and test set.
+         * Values which are not ids of stored entities are kept as they are.
+         */
+        private String label(String value) {
+            Map<String, String> entity = value == null ? null : find(value);
+            if (entity == null) {
+                return value;
+            }
+            if (entity.get("name") == null) {
+                return "[" + label(entity.get("test-id")) + " in " + label(entity.get("cycle-id")) + "]";
+            }
+            return entity.get("name") + "@" + label(entity.get("parent-id"));
+        }
+
+        private Map<String, String> find(String id) {
+            for (List<Map<String, String>> entities : collections.values()) {
+                for (Map<String, String> entity : entities) {
+                    if (entity.get("id").equals(id)) {
+                        return entity;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Response httpGet(String url, String queryString, Map<String, String> headers, ResourceAccessLevel resourceAccessLevel) {
+            requests.incrementAndGet();
+            lookups.incrementAndGet();
+            String collection = url.substring(url.lastIndexOf('/') + 1);
+            StringBuilder body = new StringBuilder("<Entities>");
+            for (Map<String, String> entity : query(collection, queryString)) {
+                appendEntity(body, collection, entity);
+            }
+            body.append("</Entities>");
+            return new Response(null, body.toString().getBytes(), null, HttpURLConnection.HTTP_OK);
+        }
+
+        @Override
+        public Response httpPost(String url, byte[] data, Map<String, String> headers, ResourceAccessLevel resourceAccessLevel) {
+            requests.incrementAndGet();
+            creations.incrementAndGet();
+            String collection = url.substring(url.lastIndexOf('/') + 1);
+            StringBuilder body = new StringBuilder();
+            appendEntity(body, collection, create(collection, EntityReader.readFields(data)));
+            return new Response(null, body.toString().getBytes(), null, HttpURLConnection.HTTP_CREATED);
+        }
+
+        private synchronized Map<String, String> create(String collection, Map<String, String> fields) {
+            Map<String, String> entity = new HashMap<String, String>(fields);
+            entity.put("id", String.valueOf(nextId++));
+            List<Map<String, String>> entities = collections.get(collection);
+            if (entities == null) {
+                entities = new ArrayList<Map<String, String>>();
+                collections.put(collection, entities);
+            }
+            entities.add(entity);
+            if ("tests".equals(collection)) {
+                Map<String, String> testConfig = new HashMap<String, String>();
+                testConfig.put("name", entity.get("name"));
+                testConfig.put("parent-id", entity.get("id"));
+                create("test-configs", testConfig);
+            }
+            return entity;
+        }
+
+        private synchronized List<Map<String, String>> query(String collection, String queryString) {
+            Map<String, String> parameters = new HashMap<String, String>();
+            for (String parameter : queryString.split("&")) {
+                int separator = parameter.indexOf('=');
+                try {
+                    parameters.put(parameter.substring(0, separator), URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+                } catch (UnsupportedEncodingException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            Map<String, List<String>> conditions = new HashMap<String, List<String>>();
+            String query = parameters.get("query");
+            for (String condition : query.substring(1, query.length() - 1).split(";")) {
+                int bracket = condition.indexOf('[');
+                List<String> values = new ArrayList<String>();
+                for (String value : condition.substring(bracket + 1, condition.length() - 1).split(" OR ")) {
+                    values.add(value.replace("\"", ""));
+                }
+                conditions.put(condition.substring(0, bracket), values);
+            }
+
+            List<Map<String, String>> matches = new ArrayList<Map<String, String>>();
+            List<Map<String, String>> entities = collections.get(collection);
+            if (entities != null) {
+                for (Map<String, String> entity : entities) {
+                    boolean match = true;
+                    for (Map.Entry<String, List<String>> condition : conditions.entrySet()) {
+                        match &= condition.getValue().contains(entity.get(condition.getKey()));
+                    }
+                    if (match) {
+                        matches.add(entity);
+                    }
+                }
+            }
+
+            int startIndex = parameters.containsKey("start-index") ? Integer.parseInt(parameters.get("start-index")) : 1;
+            int pageSize = parameters.containsKey("page-size") ? Integer.parseInt(parameters.get("page-size")) : 100;
+            int from = Math.min(startIndex - 1, matches.size());
+            return new ArrayList<Map<String, String>>(matches.subList(from, Math.min(from + pageSize, matches.size())));
+        }
+
+        private static void appendEntity(StringBuilder body, String collection, Map<String, String> entity) {
+            body.append("<Entity Type=\"").append(collection).append("\"><Fields>");
+            for (Map.Entry<String, String> field : entity.entrySet()) {
+                body.append("<Field Name=\"").append(field.getKey()).append("\"><Value>")
+                        .append(field.getValue() == null ? "" : field.getValue().replace("&", "&amp;").replace("<", "&lt;"))
+                        .append("</Value></Field>");
+            }
+            body.append("</Fields></Entity>");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.run;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcException;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes.DataType;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes.Measurement;
+import com.microfocus.application.automation.tools.pc.MockPcRestProxy;
+import com.microfocus.application.automation.tools.pc.PcClient;
+import com.microfocus.application.automation.tools.pc.PcTestBase;
+import com.microfocus.application.automation.tools.pc.TrendReportRow;
+import hudson.FilePath;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the plot files of builds with PcBuilder.updateCSVFilesForPlot and counts the trend report requests.
+ */
+public class TestTrendReportRequests {
+
+    private static final String TREND_REPORT_ID = "3";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * Client counting the trend report requests, each one answered with the rows of a recorded trend report.
+     */
+    private static class CountingPcClient extends PcClient {
+
+        private final AtomicInteger trendReportRequests = new AtomicInteger();
+
+        CountingPcClient() throws PcException {
+            super(PcTestBase.pcModel, System.out, new MockPcRestProxy(PcTestBase.WEB_PROTOCOL, PcTestBase.PC_SERVER_NAME,
+                    PcTestBase.ALM_DOMAIN, PcTestBase.ALM_PROJECT, PcTestBase.LOGGER));
+        }
+
+        @Override
+        public List<TrendReportRow> getTrendReportRows(String trendReportId, int runId) {
+            Assert.assertEquals(TREND_REPORT_ID, trendReportId);
+            trendReportRequests.incrementAndGet();
+            return Arrays.asList(
+                    new TrendReportRow(DataType.Transaction, "TRT", "Action_Transaction")
+                            .put(Measurement.PCT_MINIMUM, "0.001")
+                            .put(Measurement.PCT_AVERAGE, "0.004"),
+                    new TrendReportRow(DataType.Transaction, "TPS", "Login")
+                            .put(Measurement.PCT_SUM1, "3.5"),
+                    new TrendReportRow(DataType.Monitors, "UDP", "Virtual transaction 2")
+                            .put(Measurement.PCT_AVERAGE, "0.51"));
+        }
+    }
+
+    @Test
+    public void testOneRequestPerBuildForAllPlotFiles() throws Exception {
+        CountingPcClient pcClient = new CountingPcClient();
+
+        for (int build = 1; build <= 3; build++) {
+            int runId = 100 + build;
+            File workspace = tmp.newFolder("workspace" + build);
+
+            Assert.assertTrue(PcBuilder.updateCSVFilesForPlot(pcClient, TREND_REPORT_ID, runId, new FilePath(workspace), System.out));
+
+            Assert.assertEquals(build, pcClient.trendReportRequests.get());
+            Assert.assertEquals(28, workspace.list().length);
+            Assert.assertEquals("RunId,Trend Measurement Type,Action_Transaction,\r\n_" + runId + "_,PCT_AVERAGE_TRT,0.004,",
+                    read(workspace, "pct_average_trt.csv"));
+            Assert.assertEquals("RunId,Trend Measurement Type,Login,\r\n_" + runId + "_,PCT_SUM1_TPS,3.5,",
+                    read(workspace, "pct_sum1_tps.csv"));
+            Assert.assertEquals("RunId,Trend Measurement Type,Virtual transaction 2,\r\n_" + runId + "_,PCT_AVERAGE_UDP,0.51,",
+                    read(workspace, "pct_average_udp.csv"));
+            Assert.assertEquals("RunId,Trend Measurement Type,\r\n_" + runId + "_,PCT_SUM1_WEB,",
+                    read(workspace, "pct_sum1_web.csv"));
+        }
+    }
+
+    private static String read(File workspace, String fileName) throws Exception {
+        return new String(Files.readAllBytes(new File(workspace, fileName).toPath()), Charset.defaultCharset());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+public class TestEntityReader extends TestCase {
+
+    @Test
+    public void testReadFields() {
+
+        Map<String, String> fields = EntityReader.readFields(RUNNING_DATA);
+
+        Assert.assertEquals("Running", EntityReader.getField(fields, "current-run-state"));
+        Assert.assertEquals("3450", EntityReader.getField(fields, "id"));
+        Assert.assertNull(EntityReader.getField(fields, "linked-lt-name"));
+        Assert.assertNull(EntityReader.getField(fields, "fail-reason"));
+        Assert.assertEquals(StringUtils.EMPTY_STRING, EntityReader.getField(fields, "no-such-field"));
+    }
+
+    @Test
+    public void testReadFieldsMatchesDomLookup() throws Exception {
+
+        String xml = new String(PC_RUN_ENTITY_DATA_FORMAT);
+        Map<String, String> fields = EntityReader.readFields(PC_RUN_ENTITY_DATA_FORMAT);
+        for (String name : new String[] { "pc-end-time", "status", "state", "pc-run-url", "missing" }) {
+            Assert.assertEquals(name, domFieldValue(xml, name), EntityReader.getField(fields, name));
+        }
+        Map<String, String> runningFields = EntityReader.readFields(RUNNING_DATA);
+        for (String name : new String[] { "current-run-state", "id", "linked-lt-name", "fail-reason" }) {
+            Assert.assertEquals(
+                    name,
+                    domFieldValue(new String(RUNNING_DATA), name),
+                    EntityReader.getField(runningFields, name));
+        }
+        Assert.assertEquals("RuntimeOperations/RunStart.aspx?pcRunID=363&qcRunID=42", fields.get("pc-run-url"));
+    }
+
+    @Test
+    public void testReadFieldsOfNonEntityDocument() {
+
+        Assert.assertTrue(EntityReader.readFields(EVENT_LOG_DATA).isEmpty());
+    }
+
+    @Test
+    public void testReadEntities() {
+
+        List<Map<String, String>> entities = EntityReader.readEntities(EVENT_LOG_DATA);
+
+        Assert.assertEquals(7, entities.size());
+        Assert.assertEquals("1798", entities.get(0).get("id"));
+        Assert.assertEquals("Timeslot ID '1005' was closed", entities.get(6).get("description"));
+        Assert.assertEquals("Error", entities.get(3).get("event-type"));
+    }
+
+    @Test
+    public void testReadEntitiesMatchesDomLookup() throws Exception {
+
+        Assert.assertEquals(domEntities(new String(EVENT_LOG_DATA)), EntityReader.readEntities(EVENT_LOG_DATA));
+    }
+
+    @Test
+    public void testReadEntitiesStreamsEachEntity() {
+
+        List<Map<String, String>> streamed = new ArrayList<Map<String, String>>();
+        int count = EntityReader.readEntities(EVENT_LOG_DATA, streamed::add);
+
+        Assert.assertEquals(7, count);
+        Assert.assertEquals(EntityReader.readEntities(EVENT_LOG_DATA), streamed);
+    }
+
+    @Test
+    public void testReadEntitiesOfNestedEntities() throws Exception {
+
+        String xml = "<Entities><Entity><Fields><Field Name=\"id\"><Value>1</Value></Field></Fields>"
+                + "<Entity><Fields><Field Name=\"child\"><Value>2</Value></Field></Fields></Entity>"
+                + "</Entity></Entities>";
+        Map<String, String> outer = new HashMap<String, String>();
+        outer.put("id", "1");
+        outer.put("child", "2");
+        Map<String, String> inner = new HashMap<String, String>();
+        inner.put("child", "2");
+
+        List<Map<String, String>> entities = EntityReader.readEntities(xml);
+        Assert.assertEquals(domEntities(xml), entities);
+        Assert.assertEquals(Arrays.asList(outer, inner), entities);
+
+        // streamed once closed, so the nested entity comes first
+        List<Map<String, String>> streamed = new ArrayList<Map<String, String>>();
+        Assert.assertEquals(2, EntityReader.readEntities(xml.getBytes(StandardCharsets.UTF_8), streamed::add));
+        Assert.assertEquals(Arrays.asList(inner, outer), streamed);
+    }
+
+    private static Document parse(String xml) throws Exception {
+
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+
+    /**
+     * DOM/XPath reference lookup of an entity field, as XPathUtils read fields before EntityReader
+     */
+    private static String domFieldValue(String xml, String name) throws Exception {
+
+        NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath().compile("Entity/Fields/Field").evaluate(
+                parse(xml),
+                XPathConstants.NODESET);
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element field = (Element) nodes.item(i);
+            if (name.equals(field.getAttribute("Name"))) {
+                return domValue(field);
+            }
+        }
+
+        return StringUtils.EMPTY_STRING;
+    }
+
+    private static List<Map<String, String>> domEntities(String xml) throws Exception {
+
+        List<Map<String, String>> ret = new ArrayList<Map<String, String>>();
+        NodeList entities = parse(xml).getElementsByTagName("Entity");
+        for (int i = 0; i < entities.getLength(); i++) {
+            Map<String, String> entity = new HashMap<String, String>();
+            NodeList fields = ((Element) entities.item(i)).getElementsByTagName("Field");
+            for (int j = 0; j < fields.getLength(); j++) {
+                Node field = fields.item(j);
+                entity.put(field.getAttributes().item(0).getNodeValue(), domValue(field));
+            }
+            ret.add(entity);
+        }
+
+        return ret;
+    }
+
+    private static String domValue(Node field) {
+
+        Node value = field.getFirstChild();
+        Node text = value == null ? null : value.getFirstChild();
+
+        return text == null ? null : text.getNodeValue();
+    }
+}
@@ -21,7 +21,11 @@
 package com.microfocus.application.automation.tools.sse.sdk;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.microfocus.application.automation.tools.sse.common.TestCase;
 import com.microfocus.application.automation.tools.sse.sdk.handler.EventLogHandler;
@@ -41,7 +45,7 @@ public class TestEventLogHandler extends TestCase {
                     + PROJECT
                     + "/event-log-reads?query={context[\"*Timeslot:%20"
                     + TIMESLOT_ID
-                    + "%3B*\"]}&fields=id,event-type,creation-time,action,description";
+                    + "%3B*\"];id[%3E-1]}&fields=id,event-type,creation-time,action,description&order-by={id[ASC]}&page-size=500";
     
     @Test
     public void testLog() {
@@ -70,6 +74,107 @@ public class TestEventLogHandler extends TestCase {
         Assert.assertFalse(isOk);
     }
     
+    @Test
+    public void testLogAsksOnlyForNewEvents() {
+        
+        GrowingEventLogClient client = new GrowingEventLogClient(URL, DOMAIN, PROJECT, USER);
+        EventLogHandler eventLogHandler = new EventLogHandler(client, TIMESLOT_ID);
+        CollectingLogger logger = new CollectingLogger();
+        for (int poll = 0; poll < 20; poll++) {
+            client.append(50);
+            Assert.assertTrue(eventLogHandler.log(logger));
+        }
+        
+        Assert.assertEquals(1000, logger._messages.size());
+        Assert.assertEquals(client._lastId, eventLogHandler.getLastRead());
+        Assert.assertEquals(20, client._responseSizes.size());
+        // each poll transfers the 50 new events only, however long the log already is
+        for (int size : client._responseSizes) {
+            Assert.assertEquals(client._responseSizes.get(0).intValue(), size);
+        }
+    }
+    
+    @Test
+    public void testLogReadsBacklogPageByPage() {
+        
+        GrowingEventLogClient client = new GrowingEventLogClient(URL, DOMAIN, PROJECT, USER);
+        EventLogHandler eventLogHandler = new EventLogHandler(client, TIMESLOT_ID);
+        CollectingLogger logger = new CollectingLogger();
+        client.append(1200);
+        Assert.assertTrue(eventLogHandler.log(logger));
+        
+        Assert.assertEquals(3, client._responseSizes.size());
+        Assert.assertEquals(1200, logger._messages.size());
+        Assert.assertTrue(logger._messages.get(0).endsWith(":Event 10001"));
+        Assert.assertTrue(logger._messages.get(1199).endsWith(":Event 11200"));
+        
+        Assert.assertTrue(eventLogHandler.log(logger));
+        Assert.assertEquals(4, client._responseSizes.size());
+        Assert.assertEquals(1200, logger._messages.size());
+    }
+    
+    private static class CollectingLogger implements Logger {
+        
+        private final List<String> _messages = new ArrayList<String>();
+        
+        @Override
+        public void log(String message) {
+            
+            _messages.add(message);
+        }
+        
+        @Override
+        public void error(String message) {
+            
+            log(message);
+        }
+    }
+    
+    /**
+     * Serves an event log that grows between polls, honoring the id filter and page size of the query
+     */
+    private class GrowingEventLogClient extends RestClient4Test {
+        
+        private final Pattern _query = Pattern.compile("id\\[%3E(-?\\d+)\\].*page-size=(\\d+)");
+        private final List<Integer> _responseSizes = new ArrayList<Integer>();
+        private int _lastId = 10000;
+        
+        public GrowingEventLogClient(String url, String domain, String project, String username) {
+            
+            super(url, domain, project, username);
+        }
+        
+        public void append(int events) {
+            
+            _lastId += events;
+        }
+        
+        @Override
+        public Response httpGet(
+                String url,
+                String queryString,
+                Map<String, String> headers,
+                ResourceAccessLevel resourceAccessLevel) {
+            
+            Matcher matcher = _query.matcher(url);
+            Assert.assertTrue(url, matcher.find());
+            int after = Math.max(Integer.parseInt(matcher.group(1)), 10000);
+            int last = Math.min(_lastId, after + Integer.parseInt(matcher.group(2)));
+            StringBuilder xml = new StringBuilder(
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><Entities>");
+            for (int id = after + 1; id <= last; id++) {
+                xml.append(String.format(
+                        "<Entity Type=\"event-log-read\"><Fields><Field Name=\"id\"><Value>%d</Value></Field><Field Name=\"description\"><Value>Event %d</Value></Field><Field Name=\"creation-time\"><Value>2013-02-19 12:03:42</Value></Field></Fields><RelatedEntities/></Entity>",
+                        id,
+                        id));
+            }
+            byte[] data = xml.append("</Entities>").toString().getBytes();
+            _responseSizes.add(data.length);
+            
+            return new Response(null, data, null, HttpURLConnection.HTTP_OK);
+        }
+    }
+    
     private class MockRestClient extends RestClient4Test {
         
         public MockRestClient(String url, String domain, String project, String username) {
@@ -22,6 +22,7 @@ package com.microfocus.application.automation.tools.sse.sdk;
 
 import java.net.HttpURLConnection;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.microfocus.application.automation.tools.sse.common.TestCase;
 import org.junit.Assert;
@@ -31,6 +32,7 @@ import com.microfocus.application.automation.tools.sse.common.ConsoleLogger;
 import com.microfocus.application.automation.tools.sse.common.RestClient4Test;
 import com.microfocus.application.automation.tools.sse.sdk.handler.PollHandler;
 import com.microfocus.application.automation.tools.sse.sdk.handler.PollHandlerFactory;
+import com.microfocus.application.automation.tools.sse.sdk.handler.PollMetrics;
 
 @SuppressWarnings("squid:S2698")
 public class TestPollHandler extends TestCase {
@@ -239,4 +241,41 @@ public class TestPollHandler extends TestCase {
         }
     }
     
+    @Test
+    public void testCancelPoll() throws Exception {
+        
+        Client client = new MockRestClientPCRunning(URL, DOMAIN, PROJECT, USER);
+        final PollHandler pollHandler = new PollHandlerFactory().create(client, "PC", "12", 10);
+        final AtomicBoolean isOk = new AtomicBoolean(true);
+        Thread poller = new Thread(() -> {
+            try {
+                isOk.set(pollHandler.poll(new ConsoleLogger()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        poller.start();
+        Thread.sleep(100);
+        Assert.assertTrue(PollMetrics.getInstance().getActivePolls() > 0);
+        Assert.assertTrue(PollMetrics.getInstance().getRequests() > 0);
+        
+        pollHandler.cancel();
+        poller.join(5000);
+        Assert.assertFalse(poller.isAlive());
+        Assert.assertFalse(isOk.get());
+    }
+    
+    private class MockRestClientPCRunning extends RestClient4Test {
+        
+        public MockRestClientPCRunning(String url, String domain, String project, String username) {
+            
+            super(url, domain, project, username);
+        }
+        
+        @Override
+        public Response httpGet(String url, String queryString, Map<String, String> headers, ResourceAccessLevel resourceAccessLevel) {
+            
+            return new Response(null, PC_RUNNING_DATA, null, HttpURLConnection.HTTP_OK);
+        }
+    }
 }
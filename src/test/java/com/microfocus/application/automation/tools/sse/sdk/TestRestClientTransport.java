@@ -0,0 +1,119 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.sdk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.rest.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs the rest client against a local stub server to check connection reuse, cookie handling and
+ * concurrent callers sharing a single client.
+ */
+public class TestRestClientTransport {
+
+    private static final int REQUESTS = 50;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String url;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final Set<String> receivedCookies = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/qcbin", this::handle);
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.start();
+        url = String.format("http://127.0.0.1:%d/qcbin", server.getAddress().getPort());
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+        if (cookie != null) {
+            receivedCookies.add(cookie);
+        }
+        byte[] body = "<Entity Type=\"run\"/>".getBytes();
+        exchange.getResponseHeaders().add("Set-Cookie", "QCSession=abc; Path=/");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Test
+    public void testSequentialRequestsReuseConnection() {
+        RestClient client = new RestClient(url, "DEFAULT", "demo", "sa");
+        for (int i = 0; i < REQUESTS; i++) {
+            Response response = client.httpGet(client.buildRestRequest("runs/1"), null, null, ResourceAccessLevel.PUBLIC);
+            Assert.assertTrue(response.isOk());
+        }
+
+        Assert.assertEquals(REQUESTS, requests.get());
+        Assert.assertTrue("connections were not kept alive: " + clientPorts.size(), clientPorts.size() < REQUESTS);
+        Assert.assertEquals("abc", client.getCookies().get("QCSession"));
+        Assert.assertTrue(receivedCookies.contains("QCSession=abc;"));
+    }
+
+    @Test
+    public void testConcurrentAsyncRequests() throws Exception {
+        RestClient client = new RestClient(url, "DEFAULT", "demo", "sa");
+        List<CompletableFuture<Response>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(client.httpGetAsync(client.buildRestRequest("runs/" + i), null, null, ResourceAccessLevel.PUBLIC));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        for (CompletableFuture<Response> response : responses) {
+            Assert.assertTrue(response.get().isOk());
+        }
+        Assert.assertEquals(REQUESTS, requests.get());
+    }
+}